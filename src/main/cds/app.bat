@@ -0,0 +1,4 @@
+@echo off
+rem HRMS launcher; maps the class data sharing archive and falls back to normal class loading without it
+set DIR=%~dp0
+"%DIR%\java" -XX:SharedArchiveFile="%DIR%\..\lib\hrsm.jsa" -Xshare:auto -m com.example.hrsm2/com.example.hrsm2.HRMSApplication %*
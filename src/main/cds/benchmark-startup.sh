@@ -0,0 +1,44 @@
+#!/bin/sh
+# Compares launch-to-login-visible times of a jlink image with and without its class data sharing archive.
+# Needs a display, since the login window is really shown.
+#
+#   benchmark-startup.sh [image dir] [runs]     (defaults: target/app, 10)
+set -e
+
+IMAGE="${1:-target/app}"
+RUNS="${2:-10}"
+MODULE=com.example.hrsm2
+ARCHIVE="$IMAGE/lib/hrsm.jsa"
+
+if [ ! -f "$ARCHIVE" ]; then
+    echo "No archive at $ARCHIVE; build the image with: mvn -Pcds package" >&2
+    exit 1
+fi
+
+# Prints the launch-to-login time, in milliseconds, of one run with the given sharing options
+run_once() {
+    "$IMAGE/bin/java" "$@" -Dhrsm.startup.exitAfterLogin=true -Dhrsm.db.mode=memory \
+        -m "$MODULE/$MODULE.HRMSApplication" 2>/dev/null \
+        | sed -n 's/^Startup Info: login visible \([0-9-]*\) ms after launch$/\1/p'
+}
+
+# Runs a configuration RUNS times (after one warm-up for the file cache) and prints min, median and mean
+measure() {
+    label="$1"
+    shift
+    run_once "$@" > /dev/null
+    times=""
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        times="$times $(run_once "$@")"
+        i=$((i + 1))
+    done
+    echo "$times" | tr ' ' '\n' | grep -v '^$' | sort -n | awk -v label="$label" '
+        { t[NR] = $1; sum += $1 }
+        END { printf "%-12s min %5d ms   median %5d ms   mean %7.1f ms   (%d runs)\n",
+                     label, t[1], t[int((NR + 1) / 2)], sum / NR, NR }'
+}
+
+measure "no CDS" -Xshare:off
+measure "JDK CDS" -Xshare:auto
+measure "AppCDS" -Xshare:auto -XX:SharedArchiveFile="$ARCHIVE"
@@ -0,0 +1,41 @@
+#!/bin/sh
+# Trains and installs the class data sharing archive of a jlink image; run by `mvn -Pcds package`.
+#
+#   build-cds-archive.sh <image dir> <launcher dir>
+#
+# 1. Runs StartupTraining (all views and the database layer, in-memory) and records the classes it loads.
+# 2. Dumps those classes into <image>/lib/hrsm.jsa.
+# 3. Replaces the image's launchers with ones that map the archive, and re-zips the image.
+set -e
+
+IMAGE="$1"
+LAUNCHERS="$2"
+MODULE=com.example.hrsm2
+CLASS_LIST="$IMAGE/lib/hrsm.classlist"
+ARCHIVE="$IMAGE/lib/hrsm.jsa"
+
+if [ ! -x "$IMAGE/bin/java" ]; then
+    echo "No jlink image at $IMAGE" >&2
+    exit 1
+fi
+
+echo "Training class list..."
+"$IMAGE/bin/java" -Xshare:off -XX:DumpLoadedClassList="$CLASS_LIST" \
+    -Dhrsm.db.mode=memory -m "$MODULE/$MODULE.StartupTraining"
+
+echo "Dumping archive..."
+"$IMAGE/bin/java" -Xshare:dump -XX:SharedClassListFile="$CLASS_LIST" -XX:SharedArchiveFile="$ARCHIVE" \
+    -m "$MODULE/$MODULE.HRMSApplication"
+rm -f "$CLASS_LIST"
+
+cp "$LAUNCHERS/app" "$IMAGE/bin/app"
+cp "$LAUNCHERS/app.bat" "$IMAGE/bin/app.bat"
+chmod +x "$IMAGE/bin/app"
+
+# The plugin zipped the image before the archive existed
+ZIP="$(dirname "$IMAGE")/app.zip"
+if [ -f "$ZIP" ] && command -v zip > /dev/null; then
+    rm -f "$ZIP"
+    (cd "$(dirname "$IMAGE")" && zip -qr app.zip "$(basename "$IMAGE")")
+fi
+echo "Archive: $ARCHIVE ($(wc -c < "$ARCHIVE") bytes)"
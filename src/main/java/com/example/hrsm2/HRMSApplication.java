@@ -1,30 +1,79 @@
 package com.example.hrsm2;
 
-import com.example.hrsm2.util.DatabaseDriver;
+import com.example.hrsm2.controller.MainController;
+import com.example.hrsm2.repository.StorageEngines;
+import com.example.hrsm2.service.EmployeeService;
+import com.example.hrsm2.service.LeaveRequestService;
+import com.example.hrsm2.service.PayrollService;
+import com.example.hrsm2.service.PerformanceEvaluationService;
+import com.example.hrsm2.service.UserService;
+import com.example.hrsm2.gui.ViewFactory;
 import com.example.hrsm2.util.SampleDataLoader;
+import com.example.hrsm2.util.StartupSequence;
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
 
 public class HRMSApplication extends Application {
+    /** When true, the application reports its launch-to-login time and exits once the login window is shown. */
+    public static final String EXIT_AFTER_LOGIN_PROPERTY = "hrsm.startup.exitAfterLogin";
+
     @Override
     public void start(Stage stage) throws IOException {
-        // Load sample data
-        SampleDataLoader.loadSampleData();
-        
+        // Open storage and load sample data in the background; the login button waits for it
+        StartupSequence startup = configureStartup();
+        startup.start();
+        long loginStart = System.nanoTime();
+
         // Load login view instead of main view
-        FXMLLoader fxmlLoader = new FXMLLoader(HRMSApplication.class.getResource("login-view.fxml"));
-        Scene scene = new Scene(fxmlLoader.load(), 600, 400);
+        Scene scene = ViewFactory.getInstance().getScene("login-view.fxml", 600, 400);
         stage.setTitle("HRMS Login");
         stage.setScene(scene);
         stage.setResizable(true);
         stage.show();
+        startup.record("login window", loginStart);
+
+        if (Boolean.getBoolean(EXIT_AFTER_LOGIN_PROPERTY)) {
+            // Startup benchmark: quit once the window has been shown
+            Platform.runLater(() -> {
+                System.out.println("Startup Info: login visible " + StartupSequence.millisSinceLaunch() + " ms after launch");
+                Platform.exit();
+            });
+        }
+    }
+
+    @Override
+    public void stop() {
+        // Stop the main window's tab prefetching, if the main window was ever shown
+        MainController main = ViewFactory.getInstance().getController("main-view.fxml");
+        if (main != null) {
+            main.shutdown();
+        }
+    }
+
+    /**
+     * Adds the background startup phases to the application's startup sequence.
+     * Also used by {@link StartupTraining}, so the training run does the same work as a real launch.
+     *
+     * @return The configured, not yet started sequence.
+     */
+    static StartupSequence configureStartup() {
+        return StartupSequence.getInstance()
+                .addPhase("storage", StorageEngines::getDefault)
+                .addPhase("services", () -> {
+                    UserService.getInstance();
+                    EmployeeService.getInstance();
+                    LeaveRequestService.getInstance();
+                    PayrollService.getInstance();
+                    PerformanceEvaluationService.getInstance();
+                })
+                .addPhase("sample data", SampleDataLoader::loadSampleData);
     }
 
     public static void main(String[] args) {
         launch();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
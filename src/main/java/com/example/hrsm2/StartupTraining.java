@@ -0,0 +1,64 @@
+package com.example.hrsm2;
+
+import com.example.hrsm2.gui.ViewFactory;
+import com.example.hrsm2.util.DatabaseConfig;
+import com.example.hrsm2.util.StartupSequence;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Training run for the class data sharing archive built by the {@code cds} Maven profile.
+ * <p>
+ * Runs the same startup phases as {@link HRMSApplication}, then loads, styles and lays out every
+ * view once, without showing a window, so that every class a user session needs is recorded.
+ * Uses a private in-memory database unless a database is configured explicitly.
+ */
+public final class StartupTraining {
+    private static final String[] VIEWS = {
+            "login-view.fxml", "main-view.fxml", "employee-view.fxml", "leave-view.fxml",
+            "payroll-view.fxml", "performance-view.fxml", "user-view.fxml"
+    };
+
+    private StartupTraining() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Never train against the real database
+        if (System.getProperty(DatabaseConfig.URL_PROPERTY) == null && System.getProperty(DatabaseConfig.MODE_PROPERTY) == null) {
+            System.setProperty(DatabaseConfig.MODE_PROPERTY, "memory");
+        }
+
+        StartupSequence startup = HRMSApplication.configureStartup();
+        startup.start();
+        startup.whenReady().get();
+
+        CompletableFuture<Void> loaded = new CompletableFuture<>();
+        Platform.startup(() -> {
+            try {
+                for (String view : VIEWS) {
+                    long viewStart = System.nanoTime();
+                    Parent root = ViewFactory.getInstance().getView(view);
+                    // Applying CSS creates the control skins, which are loaded on first display
+                    new Scene(root);
+                    root.applyCss();
+                    root.layout();
+                    startup.record(view, viewStart);
+                }
+                loaded.complete(null);
+            } catch (IOException | RuntimeException e) {
+                loaded.completeExceptionally(e);
+            }
+        });
+        try {
+            loaded.get();
+            System.out.println("Startup Info: trained on " + VIEWS.length + " views: " + startup.report());
+        } finally {
+            Platform.exit();
+        }
+        System.exit(0);
+    }
+}
@@ -4,6 +4,7 @@ import com.example.hrsm2.model.Employee;
 import com.example.hrsm2.service.EmployeeService;
 import com.example.hrsm2.event.EmployeeEvent;
 import com.example.hrsm2.event.EventManager;
+import com.example.hrsm2.util.UpdateResult;
 import java.util.List;
 
 /**
@@ -59,6 +60,21 @@ public class EmployeeController {
         return success;
     }
 
+    /**
+     * Update an existing employee and report why the update did not happen
+     * @param employee The employee with updated information, as loaded plus the edits
+     * @return UPDATED, or CONFLICT if another user changed the employee since it was loaded,
+     *         NOT_FOUND if it was deleted, ERROR otherwise
+     */
+    public UpdateResult tryUpdateEmployee(Employee employee) {
+        UpdateResult result = employeeService.tryUpdateEmployee(employee);
+        if (result == UpdateResult.UPDATED) {
+            // Fire event to notify other controllers
+            EventManager.getInstance().fireEvent(new EmployeeEvent(EmployeeEvent.EMPLOYEE_UPDATED, employee));
+        }
+        return result;
+    }
+
     /**
      * Delete an employee by ID
      * @param employeeId The ID of the employee to delete
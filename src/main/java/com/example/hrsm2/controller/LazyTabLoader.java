@@ -0,0 +1,219 @@
+package com.example.hrsm2.controller;
+
+import com.example.hrsm2.gui.ViewFactory;
+import javafx.application.Platform;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Fills a set of tabs on demand instead of loading every view up front.
+ * <p>
+ * Each tab starts with a progress indicator. A tab's view (its FXML and the data its controller
+ * queries) is built the first time the tab is selected. The other tabs are prefetched: a background
+ * thread reads their FXML and loads their controller classes through the {@link ViewFactory}, in
+ * priority order, and then hands each one to the FX thread to be built on its own, so user input is
+ * handled between two builds. Views are always built on the FX thread, because the shared stores
+ * they bind to are FX-confined.
+ * <p>
+ * The tabs and their views are kept: {@link #show()} puts the same tabs back for the next session.
+ * {@link #cancelPrefetch()} stops the prefetching of a session that ends (e.g. at logout), and
+ * {@link #shutdown()} stops the prefetch thread for good when the application exits.
+ */
+final class LazyTabLoader {
+    private final TabPane tabPane;
+    private final BiConsumer<Tab, IOException> onError;
+    private final ViewFactory viewFactory = ViewFactory.getInstance();
+    private final List<LazyTab> tabs = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor prefetcher;
+    private boolean prefetchQueued;
+    // Bumped on the FX thread by cancelPrefetch(); jobs queued for an earlier session see it and stop
+    private volatile int session;
+
+    /**
+     * @param tabPane The pane the tabs are shown in.
+     * @param onError Called on the FX thread when a view cannot be loaded.
+     */
+    LazyTabLoader(TabPane tabPane, BiConsumer<Tab, IOException> onError) {
+        this.tabPane = tabPane;
+        this.onError = onError;
+        // One daemon thread working through a priority queue; idle threads do not keep the app alive
+        prefetcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "tab-prefetch");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
+            LazyTab lazyTab = find(newTab);
+            if (lazyTab != null) {
+                lazyTab.build();
+            }
+        });
+    }
+
+    /**
+     * Adds a tab whose view is loaded later. Must be called on the FX thread before {@link #show()}.
+     *
+     * @param title The tab title.
+     * @param fxml The view's FXML file, e.g. "employee-view.fxml".
+     * @param priority Prefetch order of the tab; lower values are prefetched first.
+     * @return The new tab.
+     */
+    Tab addTab(String title, String fxml, int priority) {
+        Tab tab = new Tab(title);
+        tab.setContent(new ProgressIndicator());
+        tabs.add(new LazyTab(tab, fxml, priority));
+        return tab;
+    }
+
+    /**
+     * Shows these tabs with the first one selected, for a new session.
+     * Views built in an earlier session are reset and shown again; the selected tab is built now
+     * and the others that are not built yet are queued for prefetching.
+     */
+    void show() {
+        for (LazyTab lazyTab : tabs) {
+            lazyTab.reset();
+        }
+        tabPane.getTabs().setAll(tabs.stream().map(lazyTab -> lazyTab.tab).toList());
+        tabPane.getSelectionModel().selectFirst();
+        LazyTab selected = find(tabPane.getSelectionModel().getSelectedItem());
+        if (selected != null) {
+            selected.build();
+        }
+
+        if (!prefetchQueued) {
+            prefetchQueued = true;
+            // Queued by priority, since the first job submitted starts the worker directly
+            List<LazyTab> byPriority = new ArrayList<>(tabs);
+            byPriority.sort(Comparator.comparingInt(lazyTab -> lazyTab.priority));
+            for (LazyTab lazyTab : byPriority) {
+                if (!lazyTab.built) {
+                    prefetcher.execute(new PrefetchJob(lazyTab, sequence.getAndIncrement(), session));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the prefetching still queued for this session; a job already running finishes its
+     * prefetch but does not build its view. Must be called on the FX thread. The next
+     * {@link #show()} queues the tabs that were not built again.
+     */
+    void cancelPrefetch() {
+        session++;
+        prefetcher.getQueue().clear();
+        prefetchQueued = false;
+    }
+
+    /**
+     * Cancels the prefetching and stops the prefetch thread. The loader cannot be shown again.
+     */
+    void shutdown() {
+        cancelPrefetch();
+        prefetcher.shutdownNow();
+    }
+
+    private LazyTab find(Tab tab) {
+        for (LazyTab lazyTab : tabs) {
+            if (lazyTab.tab == tab) {
+                return lazyTab;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A tab and the view it shows.
+     */
+    private final class LazyTab {
+        private final Tab tab;
+        private final String fxml;
+        private final int priority;
+        // FX thread only
+        private boolean built;
+
+        LazyTab(Tab tab, String fxml, int priority) {
+            this.tab = tab;
+            this.fxml = fxml;
+            this.priority = priority;
+        }
+
+        // FX thread: load the view, which runs its controller's initialize and first queries
+        void build() {
+            if (built) {
+                return;
+            }
+            built = true;
+            try {
+                tab.setContent(viewFactory.getView(fxml));
+            } catch (IOException e) {
+                e.printStackTrace();
+                onError.accept(tab, e);
+            }
+        }
+
+        // FX thread: hand the built view out again, which clears the previous session's input
+        void reset() {
+            if (built) {
+                try {
+                    viewFactory.getView(fxml);
+                } catch (IOException e) {
+                    // Error handled by caller or application logic: a built view is already loaded
+                }
+            }
+        }
+    }
+
+    /**
+     * Prefetches one tab, then queues its build on the FX thread. Ordered by priority, then submission order.
+     */
+    private final class PrefetchJob implements Runnable, Comparable<PrefetchJob> {
+        private final LazyTab lazyTab;
+        private final long order;
+        private final int jobSession;
+
+        PrefetchJob(LazyTab lazyTab, long order, int jobSession) {
+            this.lazyTab = lazyTab;
+            this.order = order;
+            this.jobSession = jobSession;
+        }
+
+        @Override
+        public void run() {
+            if (session != jobSession) {
+                return;
+            }
+            try {
+                viewFactory.prefetch(lazyTab.fxml);
+            } catch (IOException | ClassNotFoundException e) {
+                // Error handled by caller or application logic: build() reports it when it loads the view
+            }
+            Platform.runLater(() -> {
+                // The session may have ended while the FXML was being read
+                if (session == jobSession) {
+                    lazyTab.build();
+                }
+            });
+        }
+
+        @Override
+        public int compareTo(PrefetchJob other) {
+            int byPriority = Integer.compare(lazyTab.priority, other.lazyTab.priority);
+            return byPriority != 0 ? byPriority : Long.compare(order, other.order);
+        }
+    }
+}
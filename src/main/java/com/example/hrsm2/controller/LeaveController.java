@@ -4,10 +4,13 @@ import com.example.hrsm2.model.Employee;
 import com.example.hrsm2.model.LeaveRequest;
 import com.example.hrsm2.service.EmployeeService;
 import com.example.hrsm2.service.LeaveRequestService;
+import com.example.hrsm2.store.PageLoader;
+import com.example.hrsm2.util.QuerySpec;
 
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Controller class for Leave Request operations.
@@ -45,6 +48,16 @@ public class LeaveController {
         return leaveRequestService.getAllLeaveRequests();
     }
     
+    /**
+     * Get a loader that reads leave requests page by page, for large histories
+     * @param query Supplies the current sort and filters; read on every count and page load
+     * @return Page loader over the matching leave requests
+     */
+    public PageLoader<LeaveRequest> getLeaveRequestPageLoader(Supplier<QuerySpec> query) {
+        return PageLoader.of(() -> leaveRequestService.countLeaveRequests(query.get()),
+                (offset, limit) -> leaveRequestService.getLeaveRequestPage(query.get(), offset, limit));
+    }
+    
     /**
      * Get employee by ID
      * @param employeeId The employee ID
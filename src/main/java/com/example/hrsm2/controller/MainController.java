@@ -1,25 +1,18 @@
 package com.example.hrsm2.controller;
 
-import com.example.hrsm2.HRMSApplication;
 import com.example.hrsm2.model.User;
 import com.example.hrsm2.service.EmployeeService;
 import com.example.hrsm2.service.LeaveRequestService;
 import com.example.hrsm2.service.PayrollService;
 import com.example.hrsm2.service.PerformanceEvaluationService;
 import com.example.hrsm2.service.UserService;
-import com.example.hrsm2.gui.EmployeeGUI;
-import com.example.hrsm2.gui.PayrollGUI;
-import com.example.hrsm2.gui.LeaveGUI;
-import com.example.hrsm2.gui.PerformanceGUI;
-import com.example.hrsm2.gui.UserGUI;
+import com.example.hrsm2.gui.ReusableView;
+import com.example.hrsm2.gui.ViewFactory;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
-import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
@@ -28,7 +21,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
 
-public class MainController implements Initializable {
+public class MainController implements Initializable, ReusableView {
     @FXML
     private TabPane tabPane;
     
@@ -42,30 +35,65 @@ public class MainController implements Initializable {
     private final PerformanceEvaluationService performanceEvaluationService = PerformanceEvaluationService.getInstance();
     private final UserService userService = UserService.getInstance();
     
+    private final ViewFactory viewFactory = ViewFactory.getInstance();
+
+    // Tab sets for super admins and for everyone else; filled when first selected or prefetched in the background
+    private LazyTabLoader adminTabs;
+    private LazyTabLoader standardTabs;
+
     @Override
     public void initialize(URL url, ResourceBundle rb) {
-        try {
+        showTabsForCurrentUser();
+    }
 
-            
-            // Check if current user is a super admin and add user management tab if so
-            User currentUser = userService.getCurrentUser();
-            if (currentUser != null && currentUser.isSuperAdmin()) {
-                loadUserManagementTab();
+    /**
+     * The main view is kept between logins; a new login shows the tabs of the new user.
+     */
+    @Override
+    public void resetView() {
+        showTabsForCurrentUser();
+    }
+
+    private void showTabsForCurrentUser() {
+        // Check if current user is a super admin and show the user management tab if so
+        User currentUser = userService.getCurrentUser();
+        if (currentUser != null && currentUser.isSuperAdmin()) {
+            if (adminTabs == null) {
+                adminTabs = newTabLoader();
+                adminTabs.addTab("User Management", "user-view.fxml", 0);
             }
-            else {
-                // Load standard tabs
-                loadEmployeeTab();
-                loadLeaveManagementTab();
-                loadPayrollTab();
-                loadPerformanceTab();
+            adminTabs.show();
+        }
+        else {
+            if (standardTabs == null) {
+                // Standard tabs; only the selected one is loaded now, the others are prefetched in this order
+                standardTabs = newTabLoader();
+                standardTabs.addTab("Employee Management", "employee-view.fxml", 0);
+                standardTabs.addTab("Leave Management", "leave-view.fxml", 1);
+                standardTabs.addTab("Payroll Processing", "payroll-view.fxml", 2);
+                standardTabs.addTab("Performance Evaluations", "performance-view.fxml", 3);
             }
-            
-        } catch (IOException e) {
-            e.printStackTrace();
-            showAlert(Alert.AlertType.ERROR, "Error", "Failed to initialize application: " + e.getMessage());
+            standardTabs.show();
         }
     }
+
+    private LazyTabLoader newTabLoader() {
+        return new LazyTabLoader(tabPane, (tab, e) ->
+                showAlert(Alert.AlertType.ERROR, "Error", "Failed to load " + tab.getText() + ": " + e.getMessage()));
+    }
     
+    /**
+     * Stops the background prefetching of both tab sets. Called when the application exits.
+     */
+    public void shutdown() {
+        if (adminTabs != null) {
+            adminTabs.shutdown();
+        }
+        if (standardTabs != null) {
+            standardTabs.shutdown();
+        }
+    }
+
     @FXML
     private void handleExit() {
         Platform.exit();
@@ -74,12 +102,19 @@ public class MainController implements Initializable {
     @FXML
     private void handleLogout() {
         try {
+            // Stop prefetching tabs for the session that ends; the next login queues what is left
+            if (adminTabs != null) {
+                adminTabs.cancelPrefetch();
+            }
+            if (standardTabs != null) {
+                standardTabs.cancelPrefetch();
+            }
+
             // Log out the current user
             userService.logout();
             
-            // Load login view
-            FXMLLoader loader = new FXMLLoader(HRMSApplication.class.getResource("login-view.fxml"));
-            Scene loginScene = new Scene(loader.load(), 600, 400);
+            // Show the login view again; it is loaded once and reused
+            Scene loginScene = viewFactory.getScene("login-view.fxml", 600, 400);
             
             // Get current stage
             Stage stage = (Stage) mainBorderPane.getScene().getWindow();
@@ -105,51 +140,6 @@ public class MainController implements Initializable {
         alert.showAndWait();
     }
     
-    private void loadEmployeeTab() throws IOException {
-        Tab employeeTab = new Tab("Employee Management");
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/hrsm2/employee-view.fxml"));
-        Parent employeeView = loader.load();
-        EmployeeGUI controller = loader.getController();
-        employeeTab.setContent(employeeView);
-        tabPane.getTabs().add(employeeTab);
-    }
-    
-    private void loadLeaveManagementTab() throws IOException {
-        Tab leaveTab = new Tab("Leave Management");
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/hrsm2/leave-view.fxml"));
-        Parent leaveView = loader.load();
-        LeaveGUI controller = loader.getController();
-        leaveTab.setContent(leaveView);
-        tabPane.getTabs().add(leaveTab);
-    }
-    
-    private void loadPayrollTab() throws IOException {
-        Tab payrollTab = new Tab("Payroll Processing");
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/hrsm2/payroll-view.fxml"));
-        Parent payrollView = loader.load();
-        PayrollGUI controller = loader.getController();
-        payrollTab.setContent(payrollView);
-        tabPane.getTabs().add(payrollTab);
-    }
-    
-    private void loadPerformanceTab() throws IOException {
-        Tab performanceTab = new Tab("Performance Evaluations");
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/hrsm2/performance-view.fxml"));
-        Parent performanceView = loader.load();
-        PerformanceGUI controller = loader.getController();
-        performanceTab.setContent(performanceView);
-        tabPane.getTabs().add(performanceTab);
-    }
-    
-    private void loadUserManagementTab() throws IOException {
-        Tab userTab = new Tab("User Management");
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/example/hrsm2/user-view.fxml"));
-        Parent userView = loader.load();
-        UserGUI controller = loader.getController();
-        userTab.setContent(userView);
-        tabPane.getTabs().add(userTab);
-    }
-    
     private void showAlert(Alert.AlertType alertType, String title, String content) {
         Alert alert = new Alert(alertType);
         alert.setTitle(title);
@@ -3,9 +3,14 @@ package com.example.hrsm2.controller;
 import com.example.hrsm2.model.Employee;
 import com.example.hrsm2.model.Payroll;
 import com.example.hrsm2.service.EmployeeService;
+import com.example.hrsm2.service.PayrollJob;
+import com.example.hrsm2.service.PayrollRunListener;
 import com.example.hrsm2.service.PayrollService;
+import com.example.hrsm2.store.PageLoader;
+import com.example.hrsm2.util.QuerySpec;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Controller class for Payroll management.
@@ -44,6 +49,16 @@ public class PayrollController {
         return payrollService.getAllPayrolls();
     }
 
+    /**
+     * Get a loader that reads payrolls page by page, for large payroll histories
+     * @param query Supplies the current sort and filters; read on every count and page load
+     * @return Page loader over the matching payrolls
+     */
+    public PageLoader<Payroll> getPayrollPageLoader(Supplier<QuerySpec> query) {
+        return PageLoader.of(() -> payrollService.countPayrolls(query.get()),
+                (offset, limit) -> payrollService.getPayrollPage(query.get(), offset, limit));
+    }
+
     /**
      * Get all employees from the system
      * @return List of all employees
@@ -81,6 +96,17 @@ public class PayrollController {
         payrollService.generatePayrollsForAllEmployees(startDate, endDate);
     }
 
+    /**
+     * Start a background payroll run for all employees
+     * @param startDate The start date of the pay period
+     * @param endDate The end date of the pay period
+     * @param listener Optional progress callback, invoked off the FX thread
+     * @return A handle to cancel the run or obtain its summary
+     */
+    public PayrollJob startPayrollRun(LocalDate startDate, LocalDate endDate, PayrollRunListener listener) {
+        return payrollService.startPayrollRun(startDate, endDate, listener);
+    }
+
     /**
      * Update an existing payroll
      * @param payroll The payroll object with updated values
@@ -108,6 +134,26 @@ public class PayrollController {
         return payrollService.markPayrollAsPaid(payrollId);
     }
 
+    /**
+     * Process all pending payrolls (PENDING to PROCESSED) in one bulk update
+     * @param startDate The start date of the pay period, or null for all periods
+     * @param endDate The end date of the pay period, or null for all periods
+     * @return The IDs of the payrolls that were processed
+     */
+    public List<String> processAllPendingPayrolls(LocalDate startDate, LocalDate endDate) {
+        return payrollService.processAllPendingPayrolls(startDate, endDate);
+    }
+
+    /**
+     * Mark all processed payrolls as paid (PROCESSED to PAID) in one bulk update
+     * @param startDate The start date of the pay period, or null for all periods
+     * @param endDate The end date of the pay period, or null for all periods
+     * @return The IDs of the payrolls that were marked as paid
+     */
+    public List<String> markAllProcessedPayrollsAsPaid(LocalDate startDate, LocalDate endDate) {
+        return payrollService.markAllProcessedPayrollsAsPaid(startDate, endDate);
+    }
+
     /**
      * Calculate the monthly salary for an employee
      * @param employee The employee object
@@ -6,9 +6,13 @@ import com.example.hrsm2.model.User;
 import com.example.hrsm2.service.EmployeeService;
 import com.example.hrsm2.service.PerformanceEvaluationService;
 import com.example.hrsm2.service.UserService;
+import com.example.hrsm2.store.PageLoader;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Contains business logic for managing performance evaluations.
@@ -48,6 +52,17 @@ public class PerformanceController {
         return evaluationService.getAllEvaluations();
     }
     
+    /**
+     * Gets a loader that reads performance evaluations page by page.
+     * 
+     * @param query supplies the current sort and filters; read on every count and page load
+     * @return a page loader over the matching evaluations
+     */
+    public PageLoader<PerformanceEvaluation> getEvaluationPageLoader(Supplier<QuerySpec> query) {
+        return PageLoader.of(() -> evaluationService.countEvaluations(query.get()),
+                (offset, limit) -> evaluationService.getEvaluationPage(query.get(), offset, limit));
+    }
+    
     /**
      * Get employee by ID
      * @param id Employee ID
@@ -133,6 +148,49 @@ public class PerformanceController {
         }
     }
     
+    /**
+     * Updates the evaluation the user was looking at, unless another user changed it since.
+     * 
+     * @param shown the evaluation as it was shown to the user; its version is checked
+     * @param employeeId the ID of the employee being evaluated
+     * @param evaluationDate the date of the evaluation
+     * @param rating the performance rating (1-5)
+     * @param strengths the employee's strengths
+     * @param improvement areas for improvement
+     * @param comments additional comments
+     * @return UPDATED, CONFLICT if the evaluation changed since it was shown, NOT_FOUND if it
+     *         was deleted, or ERROR for invalid data and database errors
+     */
+    public UpdateResult tryUpdateEvaluation(PerformanceEvaluation shown, String employeeId,
+                                            LocalDate evaluationDate, int rating,
+                                            String strengths, String improvement,
+                                            String comments) {
+        try {
+            validateEvaluationData(employeeId, evaluationDate, strengths, improvement);
+        } catch (IllegalArgumentException e) {
+            return UpdateResult.ERROR;
+        }
+        
+        // Edit a freshly loaded copy, never the instance the table shows
+        PerformanceEvaluation evaluation = evaluationService.getEvaluationById(shown.getId());
+        if (evaluation == null) {
+            return UpdateResult.NOT_FOUND;
+        }
+        if (evaluation.getVersion() != shown.getVersion()) {
+            return UpdateResult.CONFLICT;
+        }
+        
+        evaluation.setEmployeeId(employeeId);
+        evaluation.setEvaluationDate(evaluationDate);
+        evaluation.setPerformanceRating(rating);
+        evaluation.setStrengths(strengths);
+        evaluation.setAreasForImprovement(improvement);
+        evaluation.setComments(comments);
+        evaluation.setReviewedBy(currentUser.getFullName());
+        // The save itself is checked against the version as well
+        return evaluationService.tryUpdateEvaluation(evaluation);
+    }
+    
     /**
      * Deletes a performance evaluation by ID.
      * 
@@ -229,4 +287,15 @@ public class PerformanceController {
     public void setCurrentUser(User user) {
         this.currentUser = user;
     }
+    
+    /**
+     * Takes the reviewer from the user now logged in. The view, and so this controller, is kept
+     * across logins, so this must run after every login before evaluations are saved.
+     * 
+     * @return the current user
+     */
+    public User refreshCurrentUser() {
+        this.currentUser = userService.getCurrentUser();
+        return currentUser;
+    }
 }
\ No newline at end of file
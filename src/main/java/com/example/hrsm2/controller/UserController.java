@@ -4,7 +4,6 @@ import com.example.hrsm2.model.User;
 import com.example.hrsm2.service.UserService;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Contains business logic for managing users.
@@ -22,14 +21,12 @@ public class UserController {
     
     /**
      * Gets all HR_ADMIN users from the user service.
+     * The service queries them by role, so other users are never loaded.
      * 
      * @return a list of all HR_ADMIN users
      */
     public List<User> getAllHrAdminUsers() {
-        List<User> allUsers = userService.getAllUsers();
-        return allUsers.stream()
-                .filter(user -> user.getRole() == User.UserRole.HR_ADMIN)
-                .collect(Collectors.toList());
+        return userService.getUsersByRole(User.UserRole.HR_ADMIN);
     }
     
     /**
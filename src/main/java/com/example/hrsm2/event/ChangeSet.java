@@ -0,0 +1,276 @@
+package com.example.hrsm2.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A batch of changes to one kind of entity: the entities that were added or updated,
+ * keyed by id, and the ids that were deleted.
+ * <p>
+ * Subscribers apply a change set to the lists they display with {@link #applyTo(List)}
+ * instead of reloading everything from the database. Change sets can be merged, so a
+ * burst of changes collapses into one delta with the net effect of all of them.
+ * An update may name the fields it changed, so subscribers that only depend on a few fields
+ * can skip it. A change set should be treated as read-only once it has been fired.
+ *
+ * @param <K> The type of the entity id
+ * @param <T> The type of the entity
+ */
+public class ChangeSet<K, T> {
+    private final Function<T, K> idOf;
+    private final Map<K, T> added = new LinkedHashMap<>();
+    private final Map<K, T> updated = new LinkedHashMap<>();
+    private final Set<K> deletedIds = new LinkedHashSet<>();
+    // Fields changed by an update, for updates that said so; no entry means any field may have changed
+    private final Map<K, Set<String>> changedFields = new HashMap<>();
+
+    /**
+     * @param idOf Extracts the id of an entity.
+     */
+    public ChangeSet(Function<T, K> idOf) {
+        this.idOf = idOf;
+    }
+
+    /**
+     * Records a newly created entity.
+     *
+     * @param entity The entity that was added.
+     * @return This change set, for chaining.
+     */
+    public ChangeSet<K, T> add(T entity) {
+        K id = idOf.apply(entity);
+        if (deletedIds.remove(id)) {
+            // Deleted and re-created within the batch: the subscriber still holds the old row
+            updated.put(id, entity);
+            changedFields.remove(id);
+        } else {
+            added.put(id, entity);
+        }
+        return this;
+    }
+
+    /**
+     * Records a modified entity.
+     *
+     * @param entity The entity in its new state.
+     * @return This change set, for chaining.
+     */
+    public ChangeSet<K, T> update(T entity) {
+        K id = idOf.apply(entity);
+        deletedIds.remove(id);
+        if (added.containsKey(id)) {
+            // Still new to subscribers, so it stays an addition with the latest state
+            added.put(id, entity);
+        } else {
+            updated.put(id, entity);
+            changedFields.remove(id);
+        }
+        return this;
+    }
+
+    /**
+     * Records a modified entity together with the fields that changed.
+     *
+     * @param entity The entity in its new state.
+     * @param fields The Java property names of the changed fields (see {@code TrackedEntity}).
+     * @return This change set, for chaining.
+     */
+    public ChangeSet<K, T> update(T entity, Collection<String> fields) {
+        K id = idOf.apply(entity);
+        // An earlier update in the batch that did not name its fields keeps the whole row in question
+        boolean known = !updated.containsKey(id) || changedFields.containsKey(id);
+        Set<String> merged = known ? new LinkedHashSet<>(changedFields.getOrDefault(id, Set.of())) : null;
+        update(entity);
+        if (merged != null && updated.containsKey(id)) {
+            merged.addAll(fields);
+            changedFields.put(id, merged);
+        }
+        return this;
+    }
+
+    /**
+     * Records a deleted entity.
+     *
+     * @param id The id of the entity that was deleted.
+     * @return This change set, for chaining.
+     */
+    public ChangeSet<K, T> delete(K id) {
+        updated.remove(id);
+        changedFields.remove(id);
+        if (added.remove(id) == null) {
+            // Only report deletions of rows subscribers could have seen
+            deletedIds.add(id);
+        }
+        return this;
+    }
+
+    /**
+     * Folds a later change set into this one, keeping the net effect of both.
+     *
+     * @param later Changes that happened after the ones already recorded here.
+     * @return This change set, for chaining.
+     */
+    public ChangeSet<K, T> merge(ChangeSet<K, T> later) {
+        later.deletedIds.forEach(this::delete);
+        later.added.values().forEach(this::add);
+        later.updated.forEach((id, entity) -> {
+            Set<String> fields = later.changedFields.get(id);
+            if (fields != null) {
+                update(entity, fields);
+            } else {
+                update(entity);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Narrows the changes to a filtered view: additions the view does not show are dropped,
+     * and an update that moves an entity out of the view becomes a deletion.
+     *
+     * @param visible Whether an entity belongs in the view.
+     * @return A new change set; this one is not modified.
+     */
+    public ChangeSet<K, T> restrictTo(Predicate<? super T> visible) {
+        ChangeSet<K, T> restricted = new ChangeSet<>(idOf);
+        restricted.deletedIds.addAll(deletedIds);
+        added.forEach((id, entity) -> {
+            if (visible.test(entity)) {
+                restricted.added.put(id, entity);
+            }
+        });
+        updated.forEach((id, entity) -> {
+            if (visible.test(entity)) {
+                restricted.updated.put(id, entity);
+                if (changedFields.containsKey(id)) {
+                    restricted.changedFields.put(id, changedFields.get(id));
+                }
+            } else {
+                restricted.deletedIds.add(id);
+            }
+        });
+        return restricted;
+    }
+
+    public Map<K, T> getAdded() {
+        return Collections.unmodifiableMap(added);
+    }
+
+    public Map<K, T> getUpdated() {
+        return Collections.unmodifiableMap(updated);
+    }
+
+    public Set<K> getDeletedIds() {
+        return Collections.unmodifiableSet(deletedIds);
+    }
+
+    /**
+     * @param id The id of an updated entity.
+     * @return The fields the update changed, or null if it did not say (any field may have changed).
+     */
+    public Set<String> getChangedFields(K id) {
+        Set<String> fields = changedFields.get(id);
+        return fields == null ? null : Collections.unmodifiableSet(fields);
+    }
+
+    public K idOf(T entity) {
+        return idOf.apply(entity);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && deletedIds.isEmpty();
+    }
+
+    /**
+     * @return The total number of added, updated and deleted entities.
+     */
+    public int size() {
+        return added.size() + updated.size() + deletedIds.size();
+    }
+
+    /**
+     * Applies the changes to a list: deleted rows are removed, updated rows are replaced
+     * in place and added rows are appended. An update for a row the list does not hold
+     * is treated as an addition, so the list always ends up consistent.
+     *
+     * @param target The list to patch, typically the backing list of a table or combo box.
+     */
+    public void applyTo(List<T> target) {
+        applyTo(target, null);
+    }
+
+    /**
+     * Applies the changes to a list that is kept sorted by {@code order}.
+     * Added rows are inserted at their sorted position rather than appended, and an
+     * updated row whose sort key changed is moved to its new position.
+     *
+     * @param target The list to patch.
+     * @param order The order the list is sorted by, or null to append added rows.
+     */
+    public void applyTo(List<T> target, Comparator<? super T> order) {
+        if (isEmpty()) {
+            return;
+        }
+
+        if (!deletedIds.isEmpty()) {
+            target.removeIf(entity -> deletedIds.contains(idOf.apply(entity)));
+        }
+
+        Map<K, Integer> positions = new HashMap<>();
+        for (int i = 0; i < target.size(); i++) {
+            positions.put(idOf.apply(target.get(i)), i);
+        }
+
+        List<T> toInsert = new ArrayList<>();
+        Set<K> toMove = new LinkedHashSet<>();
+        // An addition the list already holds (e.g. picked up by a reload) is patched like an update
+        Map<K, T> replacements = new LinkedHashMap<>(updated);
+        replacements.putAll(added);
+        for (Map.Entry<K, T> entry : replacements.entrySet()) {
+            Integer position = positions.get(entry.getKey());
+            if (position == null) {
+                toInsert.add(entry.getValue());
+                continue;
+            }
+            target.set(position, entry.getValue());
+            if (order != null && !isInOrder(target, position, order)) {
+                toMove.add(entry.getKey());
+            }
+        }
+
+        if (!toMove.isEmpty()) {
+            target.removeIf(entity -> {
+                if (toMove.contains(idOf.apply(entity))) {
+                    toInsert.add(entity);
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        if (order == null) {
+            target.addAll(toInsert);
+        } else {
+            for (T entity : toInsert) {
+                int position = Collections.binarySearch(target, entity, order);
+                target.add(position < 0 ? -position - 1 : position, entity);
+            }
+        }
+    }
+
+    private static <T> boolean isInOrder(List<T> list, int position, Comparator<? super T> order) {
+        T entity = list.get(position);
+        return (position == 0 || order.compare(list.get(position - 1), entity) <= 0)
+                && (position == list.size() - 1 || order.compare(entity, list.get(position + 1)) <= 0);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.hrsm2.event;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.model.LeaveRequest;
+import com.example.hrsm2.model.Payroll;
+import com.example.hrsm2.model.PerformanceEvaluation;
+import com.example.hrsm2.model.User;
+import javafx.event.Event;
+import javafx.event.EventType;
+
+/**
+ * Event carrying a batch of entity changes.
+ * Services fire one after each committed operation, however many rows it touched, so a
+ * bulk import or a bulk status transition produces a single event instead of one per row.
+ * Subscribers patch the rows they display instead of re-querying whole tables.
+ *
+ * @param <K> The type of the entity id
+ * @param <T> The type of the entity
+ */
+public class ChangeSetEvent<K, T> extends Event {
+
+    public static final EventType<ChangeSetEvent<String, Employee>> EMPLOYEES_CHANGED = new EventType<>(Event.ANY, "EMPLOYEES_CHANGED");
+    public static final EventType<ChangeSetEvent<Integer, LeaveRequest>> LEAVE_REQUESTS_CHANGED = new EventType<>(Event.ANY, "LEAVE_REQUESTS_CHANGED");
+    public static final EventType<ChangeSetEvent<String, Payroll>> PAYROLLS_CHANGED = new EventType<>(Event.ANY, "PAYROLLS_CHANGED");
+    public static final EventType<ChangeSetEvent<String, PerformanceEvaluation>> EVALUATIONS_CHANGED = new EventType<>(Event.ANY, "EVALUATIONS_CHANGED");
+    // Users are keyed by username, their primary key
+    public static final EventType<ChangeSetEvent<String, User>> USERS_CHANGED = new EventType<>(Event.ANY, "USERS_CHANGED");
+
+    private static final long serialVersionUID = 1L;
+
+    // Events are delivered within the process and never serialized, like the event's source and target
+    private final transient ChangeSet<K, T> changeSet;
+
+    public ChangeSetEvent(EventType<ChangeSetEvent<K, T>> eventType, ChangeSet<K, T> changeSet) {
+        super(eventType);
+        this.changeSet = changeSet;
+    }
+
+    public ChangeSet<K, T> getChangeSet() {
+        return changeSet;
+    }
+
+    /**
+     * Fires a change set through the {@link EventManager}, unless it is empty.
+     * Call only after the changes are committed.
+     *
+     * @param eventType The change event type for the entity
+     * @param changes The committed changes
+     */
+    public static <K, T> void publish(EventType<ChangeSetEvent<K, T>> eventType, ChangeSet<K, T> changes) {
+        if (changes != null && !changes.isEmpty()) {
+            EventManager.getInstance().fireEvent(new ChangeSetEvent<>(eventType, changes));
+        }
+    }
+
+    /**
+     * Combines two events of the same type into one carrying the net changes of both.
+     * Suitable as the merge function of {@link EventManager#addCoalescingEventHandler}.
+     *
+     * @param earlier The event fired first
+     * @param later The event fired second
+     * @return A new event; the inputs are not modified.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, T> ChangeSetEvent<K, T> merge(ChangeSetEvent<K, T> earlier, ChangeSetEvent<K, T> later) {
+        ChangeSet<K, T> merged = new ChangeSet<K, T>(earlier.changeSet::idOf)
+                .merge(earlier.changeSet)
+                .merge(later.changeSet);
+        return new ChangeSetEvent<>((EventType<ChangeSetEvent<K, T>>) earlier.getEventType(), merged);
+    }
+}
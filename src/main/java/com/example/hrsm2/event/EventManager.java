@@ -1,73 +1,287 @@
 package com.example.hrsm2.event;
 
+import javafx.application.Platform;
 import javafx.event.Event;
 import javafx.event.EventHandler;
 import javafx.event.EventType;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
 
 /**
  * Singleton event manager for handling application-wide events.
  * This allows controllers to register for events and receive notifications.
+ * <p>
+ * Safe to use from any thread: subscriptions live in a concurrent map of copy-on-write
+ * lists, so firing never locks. Each subscriber chooses how it is called:
+ * <ul>
+ *     <li>{@link DeliveryMode#SYNC} - on the firing thread (the default).</li>
+ *     <li>{@link DeliveryMode#ASYNC} - on the subscriber's own executor, in firing order.</li>
+ *     <li>{@link DeliveryMode#FX} - on the JavaFX Application Thread; a burst of events is
+ *         delivered in a single {@code Platform.runLater} flush instead of one per event.</li>
+ * </ul>
+ * Coalescing subscribers ({@link #addCoalescingEventHandler}) go one step further and have
+ * each burst merged into a single event, so the handler repaints once per flush.
  */
 public class EventManager {
-    
+
+    /**
+     * How a subscriber's handler is invoked.
+     */
+    public enum DeliveryMode {
+        SYNC,
+        ASYNC,
+        FX
+    }
+
+    // Maximum number of events queued for one ASYNC subscriber before the firing thread waits for it
+    private static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+
+    // The ASYNC subscription whose handler is running on this thread, if any
+    private static final ThreadLocal<Subscription<?>> DISPATCHING = new ThreadLocal<>();
+
     private static EventManager instance;
-    
-    private final Map<EventType<? extends Event>, Set<EventHandler<? extends Event>>> handlers = new HashMap<>();
-    
+
+    private final Map<EventType<? extends Event>, List<Subscription<? extends Event>>> handlers = new ConcurrentHashMap<>();
+
     private EventManager() {
         // Private constructor for singleton
     }
-    
+
     public static synchronized EventManager getInstance() {
         if (instance == null) {
             instance = new EventManager();
         }
         return instance;
     }
-    
+
     /**
      * Register a handler for a specific event type.
-     * 
+     * The handler is called synchronously on the thread that fires the event.
+     *
      * @param eventType The type of event to listen for
      * @param handler The handler to call when the event occurs
      * @param <T> The type of event
      */
     public <T extends Event> void addEventHandler(EventType<T> eventType, EventHandler<T> handler) {
-        handlers.computeIfAbsent(eventType, k -> new CopyOnWriteArraySet<>()).add(handler);
+        addEventHandler(eventType, handler, DeliveryMode.SYNC);
+    }
+
+    /**
+     * Register a handler for a specific event type with the given delivery mode.
+     * ASYNC subscribers get a dedicated single-thread executor, so they see events in firing order.
+     *
+     * @param eventType The type of event to listen for
+     * @param handler The handler to call when the event occurs
+     * @param mode How the handler is invoked
+     * @param <T> The type of event
+     */
+    public <T extends Event> void addEventHandler(EventType<T> eventType, EventHandler<T> handler, DeliveryMode mode) {
+        Executor executor = null;
+        if (mode == DeliveryMode.ASYNC) {
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "event-dispatch-" + eventType.getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        subscribe(eventType, new Subscription<>(handler, mode, executor, mode == DeliveryMode.ASYNC, DEFAULT_MAX_IN_FLIGHT, null));
+    }
+
+    /**
+     * Register a handler that runs on the JavaFX Application Thread and receives each burst
+     * of events as one merged event. Events fired before the pending flush runs are folded
+     * together with {@code merger}, oldest first.
+     *
+     * @param eventType The type of event to listen for
+     * @param handler The handler to call with the merged event
+     * @param merger Combines an earlier and a later event into one
+     * @param <T> The type of event
+     */
+    public <T extends Event> void addCoalescingEventHandler(EventType<T> eventType, EventHandler<T> handler,
+                                                            BinaryOperator<T> merger) {
+        subscribe(eventType, new Subscription<>(handler, DeliveryMode.FX, null, false, DEFAULT_MAX_IN_FLIGHT, merger));
     }
-    
+
+    /**
+     * Register a handler that is invoked asynchronously on the given executor.
+     * When {@code maxInFlight} events are already waiting for this subscriber, the firing
+     * thread waits until one has been handled, which slows producers down instead of queueing
+     * without bound. Events the handler itself fires to its own subscription never wait.
+     *
+     * @param eventType The type of event to listen for
+     * @param handler The handler to call when the event occurs
+     * @param executor The executor that runs the handler
+     * @param maxInFlight Maximum number of queued or running deliveries for this subscriber
+     * @param <T> The type of event
+     */
+    public <T extends Event> void addEventHandler(EventType<T> eventType, EventHandler<T> handler,
+                                                  Executor executor, int maxInFlight) {
+        subscribe(eventType, new Subscription<>(handler, DeliveryMode.ASYNC, executor, false, Math.max(1, maxInFlight), null));
+    }
+
+    private void subscribe(EventType<? extends Event> eventType, Subscription<? extends Event> subscription) {
+        handlers.computeIfAbsent(eventType, k -> new CopyOnWriteArrayList<>()).add(subscription);
+    }
+
     /**
      * Remove a handler for a specific event type.
-     * 
+     *
      * @param eventType The type of event to stop listening for
      * @param handler The handler to remove
      * @param <T> The type of event
      */
     public <T extends Event> void removeEventHandler(EventType<T> eventType, EventHandler<T> handler) {
-        Set<EventHandler<? extends Event>> eventHandlers = handlers.get(eventType);
-        if (eventHandlers != null) {
-            eventHandlers.remove(handler);
+        List<Subscription<? extends Event>> subscriptions = handlers.get(eventType);
+        if (subscriptions != null) {
+            for (Subscription<? extends Event> subscription : subscriptions) {
+                if (subscription.handler == handler && subscriptions.remove(subscription)) {
+                    subscription.close();
+                }
+            }
         }
     }
-    
+
     /**
      * Fire an event to all registered handlers.
-     * 
+     * SYNC handlers run before this method returns; ASYNC and FX handlers run later.
+     *
      * @param event The event to fire
      * @param <T> The type of event
      */
     @SuppressWarnings("unchecked")
     public <T extends Event> void fireEvent(T event) {
-        Set<EventHandler<? extends Event>> eventHandlers = handlers.get(event.getEventType());
-        if (eventHandlers != null) {
-            for (EventHandler<? extends Event> handler : eventHandlers) {
-                ((EventHandler<T>) handler).handle(event);
+        List<Subscription<? extends Event>> subscriptions = handlers.get(event.getEventType());
+        if (subscriptions != null) {
+            for (Subscription<? extends Event> subscription : subscriptions) {
+                ((Subscription<T>) subscription).deliver(event);
+            }
+        }
+    }
+
+    /**
+     * A registered handler together with its delivery strategy.
+     */
+    private static final class Subscription<T extends Event> {
+        private final EventHandler<T> handler;
+        private final DeliveryMode mode;
+        private final Executor executor;
+        private final boolean ownsExecutor;
+        private final Semaphore inFlight;
+        // FX mode: merges a burst into one event, or null to deliver events one by one
+        private final BinaryOperator<T> coalescer;
+        // FX mode: events waiting for the next flush on the FX thread
+        private final Queue<T> fxPending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean fxFlushScheduled = new AtomicBoolean(false);
+
+        Subscription(EventHandler<T> handler, DeliveryMode mode, Executor executor, boolean ownsExecutor, int maxInFlight,
+                     BinaryOperator<T> coalescer) {
+            this.handler = handler;
+            this.mode = mode;
+            this.executor = executor;
+            this.ownsExecutor = ownsExecutor;
+            this.inFlight = new Semaphore(maxInFlight);
+            this.coalescer = coalescer;
+        }
+
+        void deliver(T event) {
+            switch (mode) {
+                case SYNC -> handleSafely(event);
+                case ASYNC -> deliverAsync(event);
+                case FX -> deliverOnFxThread(event);
+            }
+        }
+
+        private void deliverAsync(T event) {
+            // A handler firing to its own subscription would wait for itself, so it skips the limit
+            boolean bounded = DISPATCHING.get() != this;
+            if (bounded) {
+                try {
+                    // Back-pressure: the producer waits for the saturated subscriber. Running the
+                    // handler here instead would let the event overtake the queued ones.
+                    inFlight.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    System.err.println("Event dropped for " + event.getEventType() + ": interrupted while waiting for the subscriber");
+                    return;
+                }
+            }
+            try {
+                executor.execute(() -> {
+                    Subscription<?> outer = DISPATCHING.get();
+                    DISPATCHING.set(this);
+                    try {
+                        handleSafely(event);
+                    } finally {
+                        DISPATCHING.set(outer);
+                        if (bounded) {
+                            inFlight.release();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                if (bounded) {
+                    inFlight.release();
+                }
+                System.err.println("Event dropped for " + event.getEventType() + ": the subscriber's executor is shut down");
+            }
+        }
+
+        private void deliverOnFxThread(T event) {
+            fxPending.add(event);
+            // Only the first event of a burst schedules a flush; later ones ride along
+            if (fxFlushScheduled.compareAndSet(false, true)) {
+                try {
+                    Platform.runLater(this::flushFx);
+                } catch (IllegalStateException toolkitNotRunning) {
+                    // No JavaFX toolkit (e.g. headless tests): deliver on the caller's thread
+                    flushFx();
+                }
+            }
+        }
+
+        private void flushFx() {
+            fxFlushScheduled.set(false);
+            T event;
+            if (coalescer != null) {
+                T merged = null;
+                while ((event = fxPending.poll()) != null) {
+                    merged = merged == null ? event : coalescer.apply(merged, event);
+                }
+                if (merged != null) {
+                    handleSafely(merged);
+                }
+                return;
+            }
+            while ((event = fxPending.poll()) != null) {
+                handleSafely(event);
+            }
+        }
+
+        private void handleSafely(T event) {
+            try {
+                handler.handle(event);
+            } catch (RuntimeException e) {
+                // One failing subscriber must not stop delivery to the others
+                System.err.println("Event handler failed for " + event.getEventType() + ": " + e.getMessage());
+            }
+        }
+
+        void close() {
+            if (ownsExecutor && executor instanceof ExecutorService service) {
+                service.shutdown();
             }
         }
     }
-} 
\ No newline at end of file
+}
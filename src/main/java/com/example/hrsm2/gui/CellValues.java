@@ -0,0 +1,57 @@
+package com.example.hrsm2.gui;
+
+import javafx.beans.value.ObservableValue;
+import javafx.beans.value.ObservableValueBase;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formatting helpers for the precomputed table rows ({@link PayrollRow}, {@link LeaveRequestRow},
+ * {@link EvaluationRow}). Each cell value is formatted once, when its row is built, and wrapped
+ * in a constant observable so rendering a cell is a plain field read.
+ */
+final class CellValues {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private CellValues() {
+        // Utility class
+    }
+
+    /**
+     * @param text The cell text (null shows an empty cell)
+     * @return An observable that always holds {@code text}.
+     */
+    static ObservableValue<String> of(String text) {
+        return new Constant(text);
+    }
+
+    static ObservableValue<String> of(LocalDate date) {
+        return of(date != null ? DATE_FORMAT.format(date) : "");
+    }
+
+    static ObservableValue<String> of(Object value) {
+        return of(value != null ? value.toString() : "");
+    }
+
+    static ObservableValue<String> money(double amount) {
+        return of(String.format("%.2f", amount));
+    }
+
+    /**
+     * Observable that never changes, so it never needs listeners or invalidation.
+     */
+    private static final class Constant extends ObservableValueBase<String> {
+        private final String value;
+
+        Constant(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+    }
+}
@@ -2,9 +2,10 @@ package com.example.hrsm2.gui;
 
 import com.example.hrsm2.controller.EmployeeController;
 import com.example.hrsm2.model.Employee;
-import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.example.hrsm2.store.EmployeeStore;
+import com.example.hrsm2.util.UpdateResult;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -17,12 +18,14 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * GUI class for Employee management.
  * This class handles all UI interactions and delegates business logic to EmployeeController.
  */
-public class EmployeeGUI implements Initializable {
+public class EmployeeGUI implements Initializable, ReusableView {
 
     // --- FXML Table and Columns ---
     @FXML private TableView<Employee> employeeTable;
@@ -56,8 +59,9 @@ public class EmployeeGUI implements Initializable {
     // Controller for business logic
     private final EmployeeController employeeController = new EmployeeController();
 
-    // Observable list to back the TableView
-    private final ObservableList<Employee> employeeList = FXCollections.observableArrayList();
+    // Shared roster; the table shows a filtered (search) and sorted (column headers) view of it
+    private final EmployeeStore employeeStore = EmployeeStore.getInstance();
+    private FilteredList<Employee> filteredEmployees;
 
     // Reference to the currently selected employee in the table
     private Employee selectedEmployee;
@@ -72,8 +76,11 @@ public class EmployeeGUI implements Initializable {
         setupTableSelectionListener();
         setupSearchFieldListener();
 
-        // Set the items for the table view
-        employeeTable.setItems(employeeList);
+        // Set the items for the table view; the store keeps them current after each change
+        filteredEmployees = employeeStore.filtered(null);
+        SortedList<Employee> sortedEmployees = new SortedList<>(filteredEmployees);
+        sortedEmployees.comparatorProperty().bind(employeeTable.comparatorProperty());
+        employeeTable.setItems(sortedEmployees);
 
         // Initial button states
         updateButton.setDisable(true);
@@ -82,8 +89,6 @@ public class EmployeeGUI implements Initializable {
         // Set default date
         hireDatePicker.setValue(LocalDate.now());
 
-        // Load initial data
-        refreshEmployeeList();
     }
 
     private void setupTableColumns() {
@@ -184,7 +189,6 @@ public class EmployeeGUI implements Initializable {
             if (success) {
                 showNotification(NotificationSystem.Type.SUCCESS, "Employee added successfully.");
                 clearForm();
-                refreshEmployeeList();
             } else {
                 showNotification(NotificationSystem.Type.ERROR, "Failed to add employee. Possible duplicate ID/Email or database issue.");
             }
@@ -206,14 +210,28 @@ public class EmployeeGUI implements Initializable {
         }
 
         try {
-            updateEmployeeFromFields(selectedEmployee);
-            boolean success = employeeController.updateEmployee(selectedEmployee);
-            
-            if (success) {
-                showNotification(NotificationSystem.Type.SUCCESS, "Employee updated successfully.");
-                refreshEmployeeList();
-            } else {
-                showNotification(NotificationSystem.Type.ERROR, "Failed to update employee. Database error occurred.");
+            // Edit a copy: the selected row is the shared roster's instance and must keep the
+            // stored values if the save fails
+            Employee edited = selectedEmployee.copy();
+            updateEmployeeFromFields(edited);
+            UpdateResult result = employeeController.tryUpdateEmployee(edited);
+
+            switch (result) {
+                case UPDATED -> {
+                    // The roster now holds the saved copy
+                    selectedEmployee = edited;
+                    showNotification(NotificationSystem.Type.SUCCESS, "Employee updated successfully.");
+                }
+                case CONFLICT -> {
+                    showNotification(NotificationSystem.Type.WARNING,
+                            "Another user changed this employee. Their changes are shown now; apply yours again and save.");
+                    reloadEmployee(edited.getId());
+                }
+                case NOT_FOUND -> {
+                    showNotification(NotificationSystem.Type.WARNING, "This employee was deleted by another user.");
+                    reloadEmployee(edited.getId());
+                }
+                default -> showNotification(NotificationSystem.Type.ERROR, "Failed to update employee. Database error occurred.");
             }
         } catch (Exception e) {
             showNotification(NotificationSystem.Type.ERROR, "An unexpected error occurred: " + e.getMessage());
@@ -246,7 +264,6 @@ public class EmployeeGUI implements Initializable {
                 if (success) {
                     showNotification(NotificationSystem.Type.SUCCESS, "Employee deleted successfully.");
                     clearForm();
-                    refreshEmployeeList();
                 } else {
                     showNotification(NotificationSystem.Type.ERROR, "Failed to delete employee. Database error occurred.");
                 }
@@ -259,36 +276,56 @@ public class EmployeeGUI implements Initializable {
         clearForm();
         employeeTable.getSelectionModel().clearSelection();
         searchField.clear();
-        refreshEmployeeList();
+        filteredEmployees.setPredicate(null);
     }
 
     @FXML
     public void searchEmployees() {
         String searchTerm = searchField.getText();
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            filteredEmployees.setPredicate(null);
+            return;
+        }
         try {
+            // The database decides what matches; the shared list is only filtered, not replaced
             List<Employee> results = employeeController.searchEmployees(searchTerm);
-            employeeList.setAll(results);
+            Set<String> matchingIds = results.stream().map(Employee::getId).collect(Collectors.toSet());
+            filteredEmployees.setPredicate(employee -> matchingIds.contains(employee.getId()));
         } catch (Exception e) {
             showNotification(NotificationSystem.Type.ERROR, "An error occurred during search: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Reloads the shared roster from the database. Only needed to pick up changes made
+     * outside this application; changes made through the services arrive as events.
+     */
     public void refreshEmployeeList() {
         try {
-            List<Employee> employees = employeeController.getAllEmployees();
-            Platform.runLater(() -> {
-                employeeList.setAll(employees);
-            });
+            employeeStore.reload();
         } catch (Exception e) {
-            Platform.runLater(() -> {
-                showNotification(NotificationSystem.Type.ERROR, "Failed to load employee data: " + e.getMessage());
-                employeeList.clear();
-            });
+            showNotification(NotificationSystem.Type.ERROR, "Failed to load employee data: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Replaces one row with its stored state after a rejected save and shows it in the form,
+     * so the next save starts from the current version.
+     */
+    private void reloadEmployee(String id) {
+        Employee current = employeeController.getEmployeeById(id);
+        employeeStore.refresh(id, current);
+        if (current == null) {
+            employeeTable.getSelectionModel().clearSelection();
+        } else {
+            employeeTable.getSelectionModel().select(current);
+            selectedEmployee = employeeStore.getById(id);
+            showEmployeeDetails(current);
+        }
+    }
+
     private void showEmployeeDetails(Employee employee) {
         if (employee == null) {
             clearForm();
@@ -305,6 +342,14 @@ public class EmployeeGUI implements Initializable {
         salaryField.setText(String.format("%.2f", employee.getSalary()));
     }
 
+    /**
+     * Clears the form, selection and search the previous user left behind.
+     */
+    @Override
+    public void resetView() {
+        handleClearForm();
+    }
+
     private void clearForm() {
         firstNameField.clear();
         lastNameField.clear();
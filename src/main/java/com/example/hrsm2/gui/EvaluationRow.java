@@ -0,0 +1,52 @@
+package com.example.hrsm2.gui;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.model.PerformanceEvaluation;
+import javafx.beans.value.ObservableValue;
+
+/**
+ * Immutable, pre-formatted row of the performance evaluation table.
+ */
+public final class EvaluationRow {
+    private final PerformanceEvaluation evaluation;
+    private final ObservableValue<String> id;
+    private final ObservableValue<String> employeeName;
+    private final ObservableValue<String> evaluationDate;
+    private final ObservableValue<String> rating;
+    private final ObservableValue<String> strengths;
+    private final ObservableValue<String> areasForImprovement;
+    private final ObservableValue<String> comments;
+    private final ObservableValue<String> reviewedBy;
+
+    /**
+     * @param evaluation The evaluation to show
+     * @param employee The evaluated employee, or null if unknown (the ID is shown instead)
+     */
+    public EvaluationRow(PerformanceEvaluation evaluation, Employee employee) {
+        this.evaluation = evaluation;
+        this.id = CellValues.of(evaluation.getId());
+        this.employeeName = CellValues.of(employee != null ? employee.getFullName() : evaluation.getEmployeeId());
+        this.evaluationDate = CellValues.of(evaluation.getEvaluationDate());
+        this.rating = CellValues.of(String.valueOf(evaluation.getPerformanceRating()));
+        this.strengths = CellValues.of(evaluation.getStrengths());
+        this.areasForImprovement = CellValues.of(evaluation.getAreasForImprovement());
+        this.comments = CellValues.of(evaluation.getComments());
+        this.reviewedBy = CellValues.of(evaluation.getReviewedBy());
+    }
+
+    /**
+     * @return The evaluation this row shows.
+     */
+    public PerformanceEvaluation getEvaluation() {
+        return evaluation;
+    }
+
+    public ObservableValue<String> idValue() { return id; }
+    public ObservableValue<String> employeeNameValue() { return employeeName; }
+    public ObservableValue<String> evaluationDateValue() { return evaluationDate; }
+    public ObservableValue<String> ratingValue() { return rating; }
+    public ObservableValue<String> strengthsValue() { return strengths; }
+    public ObservableValue<String> areasForImprovementValue() { return areasForImprovement; }
+    public ObservableValue<String> commentsValue() { return comments; }
+    public ObservableValue<String> reviewedByValue() { return reviewedBy; }
+}
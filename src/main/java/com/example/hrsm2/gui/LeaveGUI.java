@@ -4,18 +4,18 @@ import com.example.hrsm2.controller.LeaveController;
 import com.example.hrsm2.model.Employee;
 import com.example.hrsm2.model.LeaveRequest;
 import com.example.hrsm2.model.User;
-import com.example.hrsm2.event.EmployeeEvent;
+import com.example.hrsm2.event.ChangeSetEvent;
 import com.example.hrsm2.event.EventManager;
+import com.example.hrsm2.store.EmployeeStore;
+import com.example.hrsm2.store.PagedList;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.StackPane;
 import javafx.util.StringConverter;
 
-import javafx.application.Platform;
 
 import java.net.URL;
 import java.time.LocalDate;
@@ -27,16 +27,16 @@ import java.util.ResourceBundle;
 
 
 
-public class LeaveGUI extends LeaveController implements Initializable {
-    @FXML private TableView<LeaveRequest> leaveRequestTable;
-    @FXML private TableColumn<LeaveRequest, Integer> idColumn;
-    @FXML private TableColumn<LeaveRequest, String> employeeIdColumn;
-    @FXML private TableColumn<LeaveRequest, LocalDate> startDateColumn;
-    @FXML private TableColumn<LeaveRequest, LocalDate> endDateColumn;
-    @FXML private TableColumn<LeaveRequest, Long> daysColumn;
-    @FXML private TableColumn<LeaveRequest, String> reasonColumn;
-    @FXML private TableColumn<LeaveRequest, LeaveRequest.LeaveStatus> statusColumn;
-    @FXML private TableColumn<LeaveRequest, String> commentsColumn;
+public class LeaveGUI extends LeaveController implements Initializable, ReusableView {
+    @FXML private TableView<LeaveRequestRow> leaveRequestTable;
+    @FXML private TableColumn<LeaveRequestRow, String> idColumn;
+    @FXML private TableColumn<LeaveRequestRow, String> employeeIdColumn;
+    @FXML private TableColumn<LeaveRequestRow, String> startDateColumn;
+    @FXML private TableColumn<LeaveRequestRow, String> endDateColumn;
+    @FXML private TableColumn<LeaveRequestRow, String> daysColumn;
+    @FXML private TableColumn<LeaveRequestRow, String> reasonColumn;
+    @FXML private TableColumn<LeaveRequestRow, String> statusColumn;
+    @FXML private TableColumn<LeaveRequestRow, String> commentsColumn;
 
     @FXML private ComboBox<Employee> employeeComboBox;
     @FXML private Label availableDaysLabel;
@@ -51,11 +51,20 @@ public class LeaveGUI extends LeaveController implements Initializable {
     @FXML private Button clearButton;
 
     @FXML private StackPane notificationPane;
+    @FXML private ComboBox<String> statusFilter;
+    @FXML private DatePicker fromDateFilter;
+    @FXML private DatePicker toDateFilter;
+    @FXML private ComboBox<String> departmentFilter;
 
     // Controller for business logic
     private final LeaveController leaveController = new LeaveController();
 
-    private ObservableList<LeaveRequest> leaveRequestList = FXCollections.observableArrayList();
+    // Rows are read page by page as the table scrolls, so long histories open instantly
+    private PagedList<LeaveRequestRow> leaveRequestList;
+    // Sort order and filters of the table, executed by the database
+    private TableQuery<LeaveRequestRow> tableQuery;
+    // Shared roster; every tab views the same list
+    private final EmployeeStore employeeStore = EmployeeStore.getInstance();
     private ObservableList<Employee> employeeList = FXCollections.observableArrayList();
 
     private LeaveRequest selectedLeaveRequest;
@@ -63,25 +72,28 @@ public class LeaveGUI extends LeaveController implements Initializable {
     @Override
     public void initialize(URL url, ResourceBundle rb) {
         // Configure table columns to bind to LeaveRequest properties.
-        idColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
-        employeeIdColumn.setCellValueFactory(cellData -> {
-            LeaveRequest request = cellData.getValue();
-            Employee employee = leaveController.getEmployeeById(request.getEmployeeId());
-            // Display employee's full name; use binding for potential reactivity.
-            return employee != null ?
-                    javafx.beans.binding.Bindings.createStringBinding(employee::getFullName) :
-                    javafx.beans.binding.Bindings.createStringBinding(() -> "Unknown [" + request.getEmployeeId() + "]");
-        });
-        startDateColumn.setCellValueFactory(new PropertyValueFactory<>("startDate"));
-        endDateColumn.setCellValueFactory(new PropertyValueFactory<>("endDate"));
-        daysColumn.setCellValueFactory(cellData -> {
-            // Display the calculated duration from the model.
-            long days = cellData.getValue().getDurationInDays();
-            return new javafx.beans.property.SimpleLongProperty(days).asObject();
-        });
-        reasonColumn.setCellValueFactory(new PropertyValueFactory<>("reason"));
-        statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
-        commentsColumn.setCellValueFactory(new PropertyValueFactory<>("managerComments"));
+        // Configure table columns to read the pre-formatted row values (name and duration included).
+        idColumn.setCellValueFactory(cellData -> cellData.getValue().idValue());
+        employeeIdColumn.setCellValueFactory(cellData -> cellData.getValue().employeeNameValue());
+        startDateColumn.setCellValueFactory(cellData -> cellData.getValue().startDateValue());
+        endDateColumn.setCellValueFactory(cellData -> cellData.getValue().endDateValue());
+        daysColumn.setCellValueFactory(cellData -> cellData.getValue().daysValue());
+        reasonColumn.setCellValueFactory(cellData -> cellData.getValue().reasonValue());
+        statusColumn.setCellValueFactory(cellData -> cellData.getValue().statusValue());
+        commentsColumn.setCellValueFactory(cellData -> cellData.getValue().managerCommentsValue());
+
+        // Header clicks and the filter bar re-query the database instead of sorting loaded rows.
+        setupDatePicker(fromDateFilter);
+        setupDatePicker(toDateFilter);
+        tableQuery = new TableQuery<>(leaveRequestTable, "startDate", this::refreshLeaveRequestList)
+                .sortable(idColumn, "id")
+                .sortable(startDateColumn, "startDate")
+                .sortable(endDateColumn, "endDate")
+                .sortable(statusColumn, "status")
+                .install()
+                .equalsFilter(statusFilter, "status", List.of(LeaveRequest.LeaveStatus.values()))
+                .dateRangeFilter(fromDateFilter, toDateFilter)
+                .departmentFilter(departmentFilter, employeeStore::getDepartments);
 
         setupDatePicker(startDatePicker);
         setupDatePicker(endDatePicker);
@@ -105,10 +117,10 @@ public class LeaveGUI extends LeaveController implements Initializable {
 
         // Update form and button states when a table row selection changes.
         leaveRequestTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
-            selectedLeaveRequest = newSelection;
-            if (newSelection != null) {
-                showLeaveRequestDetails(newSelection);
-                boolean isPending = newSelection.getStatus() == LeaveRequest.LeaveStatus.PENDING;
+            selectedLeaveRequest = newSelection != null ? newSelection.getLeaveRequest() : null;
+            if (selectedLeaveRequest != null) {
+                showLeaveRequestDetails(selectedLeaveRequest);
+                boolean isPending = selectedLeaveRequest.getStatus() == LeaveRequest.LeaveStatus.PENDING;
                 approveButton.setDisable(!isPending);
                 rejectButton.setDisable(!isPending);
                 submitButton.setDisable(true); // Cannot submit when viewing an existing request.
@@ -124,8 +136,9 @@ public class LeaveGUI extends LeaveController implements Initializable {
         refreshLeaveRequestList();
         updateRequestedDays();
         
-        // Register for employee events
+        // Register for employee and leave request events
         registerForEmployeeEvents();
+        registerForLeaveRequestEvents();
     }
 
     // Configures DatePicker formatting and restricts selectable dates.
@@ -203,11 +216,10 @@ public class LeaveGUI extends LeaveController implements Initializable {
         });
     }
 
-    // Loads employee data from the service into the ComboBox.
+    // Shows the shared employee roster in the ComboBox.
     private void loadEmployees() {
         try {
-            List<Employee> employeesFromDb = leaveController.getAllEmployees();
-            employeeList.setAll(employeesFromDb);
+            employeeList = employeeStore.getItems();
             employeeComboBox.setItems(employeeList);
 
             if (employeeList.isEmpty()) {
@@ -280,8 +292,7 @@ public class LeaveGUI extends LeaveController implements Initializable {
 
             if (success) {
                 NotificationSystem.showSuccess(notificationPane, "Leave request submitted successfully.");
-                clearForm(); // Reset form for new entry.
-                refreshLeaveRequestList(); // Update table to show new request.
+                clearForm(); // Reset form for new entry; the change event adds the new row.
             } else {
                 NotificationSystem.showError(notificationPane, "Failed to submit leave request.");
             }
@@ -336,7 +347,6 @@ public class LeaveGUI extends LeaveController implements Initializable {
 
             if (success) {
                 NotificationSystem.showSuccess(notificationPane, "Leave request approved successfully.");
-                refreshLeaveRequestList();
                 clearForm();
                 leaveRequestTable.getSelectionModel().clearSelection();
             } else {
@@ -387,7 +397,6 @@ public class LeaveGUI extends LeaveController implements Initializable {
 
             if (success) {
                 NotificationSystem.showSuccess(notificationPane, "Leave request rejected successfully.");
-                refreshLeaveRequestList();
                 clearForm();
                 leaveRequestTable.getSelectionModel().clearSelection();
             } else {
@@ -407,18 +416,26 @@ public class LeaveGUI extends LeaveController implements Initializable {
 
     public void refreshLeaveRequestList() {
         try {
-            List<LeaveRequest> leaveRequests = leaveController.getAllLeaveRequests();
-            leaveRequestList.setAll(leaveRequests);
-            leaveRequestTable.setItems(leaveRequestList);
+            if (leaveRequestList == null) {
+                leaveRequestList = new PagedList<>(leaveController.getLeaveRequestPageLoader(tableQuery::getSpec)
+                        .map(this::toRow));
+                leaveRequestTable.setItems(leaveRequestList);
+            } else {
+                leaveRequestList.refresh();
+            }
         } catch (Exception e) {
             NotificationSystem.showError(notificationPane, "Failed to load leave requests: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    private LeaveRequestRow toRow(LeaveRequest leaveRequest) {
+        return new LeaveRequestRow(leaveRequest, employeeStore.getById(leaveRequest.getEmployeeId()));
+    }
+
     private void showLeaveRequestDetails(LeaveRequest leaveRequest) {
         // Populate the form with details from the selected request
-        Employee employee = leaveController.getEmployeeById(leaveRequest.getEmployeeId());
+        Employee employee = employeeStore.getById(leaveRequest.getEmployeeId());
         if (employee != null) {
             employeeComboBox.setValue(employee);
             updateAvailableDaysDisplay(employee);
@@ -436,6 +453,15 @@ public class LeaveGUI extends LeaveController implements Initializable {
         updateRequestedDays();
     }
 
+    /**
+     * Drops the selected request and any half-filled request from the previous session.
+     */
+    @Override
+    public void resetView() {
+        leaveRequestTable.getSelectionModel().clearSelection();
+        clearForm();
+    }
+
     private void clearForm() {
         employeeComboBox.getSelectionModel().clearSelection();
         startDatePicker.setValue(LocalDate.now().plusDays(1));
@@ -556,44 +582,46 @@ public class LeaveGUI extends LeaveController implements Initializable {
     }
     
     /**
-     * Register for employee events so the employee list refreshes when there are changes
+     * Keep the selected employee in step with roster changes. The shared store patches
+     * the list itself; this runs just before each change is applied.
      */
     private void registerForEmployeeEvents() {
-        EventManager eventManager = EventManager.getInstance();
-        
-        // Listen for employee added events
-        eventManager.addEventHandler(EmployeeEvent.EMPLOYEE_ADDED, event -> {
-            Platform.runLater(() -> {
-                loadEmployees(); // Loads from controller
-            });
-        });
-        
-        // Listen for employee updated events
-        eventManager.addEventHandler(EmployeeEvent.EMPLOYEE_UPDATED, event -> {
-            Platform.runLater(() -> {
-                loadEmployees(); // Loads from controller
-                if (employeeComboBox.getValue() != null && 
-                    employeeComboBox.getValue().getId().equals(event.getEmployee().getId())) {
-                    // Update the selection to reflect changes
-                    updateAvailableDaysDisplay(event.getEmployee());
-                }
-            });
-        });
-        
-        // Listen for employee deleted events
-        eventManager.addEventHandler(EmployeeEvent.EMPLOYEE_DELETED, event -> {
-            Platform.runLater(() -> {
-                loadEmployees(); // Loads from controller
-                // If the deleted employee was selected, clear the selection
-                if (employeeComboBox.getValue() != null && 
-                    employeeComboBox.getValue().getId().equals(event.getEmployee().getId())) {
-                    employeeComboBox.getSelectionModel().clearSelection();
-                    availableDaysLabel.setText("-");
-                }
-            });
+        employeeStore.addChangeListener(changes -> {
+            // Loaded rows carry the employee name; rebuild those of renamed employees
+            if (leaveRequestList != null && !changes.getUpdated().isEmpty()) {
+                leaveRequestList.replaceCached(row -> {
+                    Employee updated = changes.getUpdated().get(row.getLeaveRequest().getEmployeeId());
+                    return updated != null ? new LeaveRequestRow(row.getLeaveRequest(), updated) : row;
+                });
+            }
+            Employee selected = employeeComboBox.getValue();
+            if (selected == null) {
+                return;
+            }
+            if (changes.getDeletedIds().contains(selected.getId())) {
+                // The deleted employee was selected, clear the selection
+                employeeComboBox.getSelectionModel().clearSelection();
+                availableDaysLabel.setText("-");
+            } else if (changes.getUpdated().containsKey(selected.getId())) {
+                // Update the selection to reflect changes
+                Employee updated = changes.getUpdated().get(selected.getId());
+                employeeComboBox.setValue(updated);
+                updateAvailableDaysDisplay(updated);
+            }
         });
     }
     
+    /**
+     * Patch the leave request table in place when requests are submitted, decided or deleted,
+     * instead of re-querying the whole table after every action.
+     */
+    private void registerForLeaveRequestEvents() {
+        EventManager.getInstance().addCoalescingEventHandler(ChangeSetEvent.LEAVE_REQUESTS_CHANGED,
+                event -> tableQuery.applyChanges(leaveRequestList, event.getChangeSet(),
+                        row -> row.getLeaveRequest().getId(), this::toRow),
+                ChangeSetEvent::merge);
+    }
+
     public void shutdown() {
         // Cleanup when the application shuts down
     }
@@ -0,0 +1,55 @@
+package com.example.hrsm2.gui;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.model.LeaveRequest;
+import javafx.beans.value.ObservableValue;
+
+/**
+ * Immutable, pre-formatted row of the leave request table.
+ * The duration and employee name are computed once when the row is built instead of on
+ * every cell render.
+ */
+public final class LeaveRequestRow {
+    private final LeaveRequest leaveRequest;
+    private final ObservableValue<String> id;
+    private final ObservableValue<String> employeeName;
+    private final ObservableValue<String> startDate;
+    private final ObservableValue<String> endDate;
+    private final ObservableValue<String> days;
+    private final ObservableValue<String> reason;
+    private final ObservableValue<String> status;
+    private final ObservableValue<String> managerComments;
+
+    /**
+     * @param leaveRequest The leave request to show
+     * @param employee The requesting employee, or null if unknown
+     */
+    public LeaveRequestRow(LeaveRequest leaveRequest, Employee employee) {
+        this.leaveRequest = leaveRequest;
+        this.id = CellValues.of(leaveRequest.getId());
+        this.employeeName = CellValues.of(employee != null ?
+                employee.getFullName() : "Unknown [" + leaveRequest.getEmployeeId() + "]");
+        this.startDate = CellValues.of(leaveRequest.getStartDate());
+        this.endDate = CellValues.of(leaveRequest.getEndDate());
+        this.days = CellValues.of(String.valueOf(leaveRequest.getDurationInDays()));
+        this.reason = CellValues.of(leaveRequest.getReason());
+        this.status = CellValues.of(leaveRequest.getStatus());
+        this.managerComments = CellValues.of(leaveRequest.getManagerComments());
+    }
+
+    /**
+     * @return The leave request this row shows.
+     */
+    public LeaveRequest getLeaveRequest() {
+        return leaveRequest;
+    }
+
+    public ObservableValue<String> idValue() { return id; }
+    public ObservableValue<String> employeeNameValue() { return employeeName; }
+    public ObservableValue<String> startDateValue() { return startDate; }
+    public ObservableValue<String> endDateValue() { return endDate; }
+    public ObservableValue<String> daysValue() { return days; }
+    public ObservableValue<String> reasonValue() { return reason; }
+    public ObservableValue<String> statusValue() { return status; }
+    public ObservableValue<String> managerCommentsValue() { return managerComments; }
+}
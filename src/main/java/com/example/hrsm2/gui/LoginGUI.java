@@ -1,11 +1,11 @@
 package com.example.hrsm2.gui;
 
-import com.example.hrsm2.HRMSApplication;
 import com.example.hrsm2.controller.LoginController;
 import com.example.hrsm2.model.User;
+import com.example.hrsm2.util.StartupSequence;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
@@ -14,12 +14,13 @@ import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.util.concurrent.CompletionException;
 
 /**
  * GUI class for login screen.
  * Handles UI elements and user interactions for login.
  */
-public class LoginGUI {
+public class LoginGUI implements ReusableView {
     @FXML
     private TextField usernameField;
     
@@ -29,8 +30,33 @@ public class LoginGUI {
     @FXML
     private Button loginButton;
     
-    // Controller for business logic
-    private final LoginController loginController = new LoginController();
+    // Controller for business logic; created once storage is open, so loading this view never waits on the database
+    private LoginController loginController;
+
+    @FXML
+    public void initialize() {
+        // The login window is shown while startup continues in the background
+        loginButton.setDisable(true);
+        StartupSequence.getInstance().whenReady().whenComplete((ignored, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                showAlert(Alert.AlertType.ERROR, "Error", "Failed to initialize application: " + cause.getMessage());
+                return;
+            }
+            loginController = new LoginController();
+            loginButton.setDisable(false);
+        }));
+    }
+
+    /**
+     * The login view is kept between logins; clear the previous user's credentials.
+     */
+    @Override
+    public void resetView() {
+        usernameField.clear();
+        passwordField.clear();
+        usernameField.requestFocus();
+    }
     
     @FXML
     private void handleLogin(ActionEvent event) {
@@ -42,9 +68,8 @@ public class LoginGUI {
         
         if (user != null) {
             try {
-                // Load main view
-                FXMLLoader loader = new FXMLLoader(HRMSApplication.class.getResource("main-view.fxml"));
-                Scene mainScene = new Scene(loader.load(), 1000, 700);
+                // Show the main view; it is loaded once and reused for later logins
+                Scene mainScene = ViewFactory.getInstance().getScene("main-view.fxml", 1000, 700);
                 
                 // Get current stage
                 Stage stage = (Stage) loginButton.getScene().getWindow();
@@ -1,56 +1,58 @@
 package com.example.hrsm2.gui;
 
 import com.example.hrsm2.controller.PayrollController;
-import com.example.hrsm2.event.EmployeeEvent;
+import com.example.hrsm2.event.ChangeSetEvent;
 import com.example.hrsm2.event.EventManager;
 import com.example.hrsm2.model.Employee;
 import com.example.hrsm2.model.Payroll;
+import com.example.hrsm2.service.PayrollJob;
+import com.example.hrsm2.store.EmployeeStore;
+import com.example.hrsm2.store.PagedList;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.util.StringConverter;
-import javafx.beans.property.SimpleStringProperty;
 import javafx.scene.layout.StackPane;
 import com.example.hrsm2.gui.NotificationSystem;
 
 import java.net.URL;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.ResourceBundle;
 
 /**
  * GUI class for Payroll management.
  * This class handles all UI interactions and delegates business logic to PayrollController.
  */
-public class PayrollGUI implements Initializable {
+public class PayrollGUI implements Initializable, ReusableView {
     @FXML
-    private TableView<Payroll> payrollTable;
+    private TableView<PayrollRow> payrollTable;
     @FXML
-    private TableColumn<Payroll, String> idColumn;
+    private TableColumn<PayrollRow, String> idColumn;
     @FXML
-    private TableColumn<Payroll, String> employeeIdColumn;
+    private TableColumn<PayrollRow, String> employeeIdColumn;
     @FXML
-    private TableColumn<Payroll, LocalDate> startDateColumn;
+    private TableColumn<PayrollRow, String> startDateColumn;
     @FXML
-    private TableColumn<Payroll, LocalDate> endDateColumn;
+    private TableColumn<PayrollRow, String> endDateColumn;
     @FXML
-    private TableColumn<Payroll, Double> baseSalaryColumn;
+    private TableColumn<PayrollRow, String> baseSalaryColumn;
     @FXML
-    private TableColumn<Payroll, Double> overtimeColumn;
+    private TableColumn<PayrollRow, String> overtimeColumn;
     @FXML
-    private TableColumn<Payroll, Double> bonusColumn;
+    private TableColumn<PayrollRow, String> bonusColumn;
     @FXML
-    private TableColumn<Payroll, Double> taxDeductionsColumn;
+    private TableColumn<PayrollRow, String> taxDeductionsColumn;
     @FXML
-    private TableColumn<Payroll, Double> otherDeductionsColumn;
+    private TableColumn<PayrollRow, String> otherDeductionsColumn;
     @FXML
-    private TableColumn<Payroll, Double> netSalaryColumn;
+    private TableColumn<PayrollRow, String> netSalaryColumn;
     @FXML
-    private TableColumn<Payroll, Payroll.PayrollStatus> statusColumn;
+    private TableColumn<PayrollRow, String> statusColumn;
     
     @FXML
     private ComboBox<Employee> employeeComboBox;
@@ -75,6 +77,9 @@ public class PayrollGUI implements Initializable {
     private Button generateButton;
     @FXML
     private Button generateAllButton;
+
+    // Background payroll run in progress (null when idle)
+    private PayrollJob activePayrollRun;
     @FXML
     private Button processButton;
     @FXML
@@ -84,36 +89,62 @@ public class PayrollGUI implements Initializable {
     
     @FXML
     private StackPane notificationPane;
+
+    @FXML
+    private ComboBox<String> statusFilter;
+    @FXML
+    private DatePicker fromDateFilter;
+    @FXML
+    private DatePicker toDateFilter;
+    @FXML
+    private ComboBox<String> departmentFilter;
     
     // Controller for business logic
     private final PayrollController payrollController = new PayrollController();
     
-    private ObservableList<Payroll> payrollList = FXCollections.observableArrayList();
+    // Rows are read page by page as the table scrolls, so long histories open instantly
+    private PagedList<PayrollRow> payrollList;
+    // Sort order and filters of the table, executed by the database
+    private TableQuery<PayrollRow> tableQuery;
+    // Shared roster; every tab views the same list
+    private final EmployeeStore employeeStore = EmployeeStore.getInstance();
     private ObservableList<Employee> employeeList = FXCollections.observableArrayList();
     private Payroll selectedPayroll;
     
     @Override
     public void initialize(URL url, ResourceBundle rb) {
         // Initialize table columns
-        idColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
-        employeeIdColumn.setCellValueFactory(cellData -> {
-            Payroll payroll = cellData.getValue();
-            // Find the employee by ID
-            Employee employee = payrollController.getEmployeeById(payroll.getEmployeeId());
-            // Return the full name if found, otherwise return the ID
-            return new SimpleStringProperty(employee != null ? 
-                employee.getFirstName() + " " + employee.getLastName() : 
-                payroll.getEmployeeId());
-        });
-        startDateColumn.setCellValueFactory(new PropertyValueFactory<>("payPeriodStart"));
-        endDateColumn.setCellValueFactory(new PropertyValueFactory<>("payPeriodEnd"));
-        baseSalaryColumn.setCellValueFactory(new PropertyValueFactory<>("baseSalary"));
-        overtimeColumn.setCellValueFactory(new PropertyValueFactory<>("overtimePay"));
-        bonusColumn.setCellValueFactory(new PropertyValueFactory<>("bonus"));
-        taxDeductionsColumn.setCellValueFactory(new PropertyValueFactory<>("taxDeductions"));
-        otherDeductionsColumn.setCellValueFactory(new PropertyValueFactory<>("otherDeductions"));
-        netSalaryColumn.setCellValueFactory(new PropertyValueFactory<>("netSalary"));
-        statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
+        // Rows are pre-formatted when their page is loaded, so cells only read fields
+        idColumn.setCellValueFactory(cellData -> cellData.getValue().idValue());
+        employeeIdColumn.setCellValueFactory(cellData -> cellData.getValue().employeeNameValue());
+        startDateColumn.setCellValueFactory(cellData -> cellData.getValue().payPeriodStartValue());
+        endDateColumn.setCellValueFactory(cellData -> cellData.getValue().payPeriodEndValue());
+        baseSalaryColumn.setCellValueFactory(cellData -> cellData.getValue().baseSalaryValue());
+        overtimeColumn.setCellValueFactory(cellData -> cellData.getValue().overtimePayValue());
+        bonusColumn.setCellValueFactory(cellData -> cellData.getValue().bonusValue());
+        taxDeductionsColumn.setCellValueFactory(cellData -> cellData.getValue().taxDeductionsValue());
+        otherDeductionsColumn.setCellValueFactory(cellData -> cellData.getValue().otherDeductionsValue());
+        netSalaryColumn.setCellValueFactory(cellData -> cellData.getValue().netSalaryValue());
+        statusColumn.setCellValueFactory(cellData -> cellData.getValue().statusValue());
+
+        // Header clicks and the filter bar re-query the database instead of sorting loaded rows
+        setupDatePicker(fromDateFilter);
+        setupDatePicker(toDateFilter);
+        tableQuery = new TableQuery<>(payrollTable, "payPeriodStart", this::refreshPayrollList)
+                .sortable(idColumn, "id")
+                .sortable(startDateColumn, "payPeriodStart")
+                .sortable(endDateColumn, "payPeriodEnd")
+                .sortable(baseSalaryColumn, "baseSalary")
+                .sortable(overtimeColumn, "overtimePay")
+                .sortable(bonusColumn, "bonus")
+                .sortable(taxDeductionsColumn, "taxDeductions")
+                .sortable(otherDeductionsColumn, "otherDeductions")
+                .sortable(netSalaryColumn, "netSalary")
+                .sortable(statusColumn, "status")
+                .install()
+                .equalsFilter(statusFilter, "status", List.of(Payroll.PayrollStatus.values()))
+                .dateRangeFilter(fromDateFilter, toDateFilter)
+                .departmentFilter(departmentFilter, employeeStore::getDepartments);
         
         // Setup date pickers
         setupDatePicker(startDatePicker);
@@ -151,7 +182,7 @@ public class PayrollGUI implements Initializable {
         // Setup table selection listener
         payrollTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             if (newSelection != null) {
-                selectedPayroll = newSelection;
+                selectedPayroll = newSelection.getPayroll();
                 showPayrollDetails(selectedPayroll);
                 
                 // Enable/disable buttons based on status
@@ -183,8 +214,9 @@ public class PayrollGUI implements Initializable {
         // Load payroll data
         refreshPayrollList();
         
-        // Register for employee events
+        // Register for employee and payroll events
         registerForEmployeeEvents();
+        registerForPayrollEvents();
         
         // Initialize fields with zeros
         clearForm();
@@ -215,8 +247,7 @@ public class PayrollGUI implements Initializable {
     }
     
     private void loadEmployees() {
-        employeeList.clear();
-        employeeList.addAll(payrollController.getAllEmployees());
+        employeeList = employeeStore.getItems();
         employeeComboBox.setItems(employeeList);
     }
     
@@ -287,12 +318,9 @@ public class PayrollGUI implements Initializable {
             // Update in service
             payrollController.updatePayroll(payroll);
             
-            // Show success message
+            // Show success message; the change events add the row to the table
             showAlert("Payroll generated successfully.", NotificationSystem.Type.SUCCESS, 3);
             
-            // Refresh list
-            refreshPayrollList();
-            
             // Clear form
             clearForm();
             
@@ -318,19 +346,45 @@ public class PayrollGUI implements Initializable {
                 return;
             }
             
-            // Generate payrolls for all employees
-            payrollController.generatePayrollsForAllEmployees(startDate, endDate);
-            
-            // Show success message
-            showAlert("Payrolls generated for all employees.", NotificationSystem.Type.SUCCESS, 3);
-            
-            // Refresh list
-            refreshPayrollList();
-            
+            // Generate payrolls for all employees in the background
+            generateAllButton.setText("Cancel Run");
+            generateAllButton.setOnAction(event -> cancelPayrollRun());
+            activePayrollRun = payrollController.startPayrollRun(startDate, endDate, (completed, total) ->
+                    Platform.runLater(() -> generateAllButton.setText("Cancel Run (" + completed + "/" + total + ")")));
+
+            activePayrollRun.getResult().whenComplete((summary, error) -> Platform.runLater(() -> {
+                activePayrollRun = null;
+                generateAllButton.setText("Generate All Payrolls");
+                generateAllButton.setOnAction(event -> handleGenerateAllPayrolls());
+
+                if (error != null) {
+                    showAlert("Failed to generate payrolls: " + error.getMessage(), NotificationSystem.Type.ERROR, 3);
+                } else if (summary.isCancelled()) {
+                    showAlert("Payroll run cancelled. Generated " + summary.getGeneratedCount() + " of "
+                            + summary.getTotalEmployees() + " payrolls.", NotificationSystem.Type.WARNING, 4);
+                } else if (summary.getFailedCount() > 0) {
+                    showAlert("Generated " + summary.getGeneratedCount() + " payrolls, "
+                            + summary.getFailedCount() + " failed.", NotificationSystem.Type.WARNING, 4);
+                } else {
+                    showAlert("Payrolls generated for all employees.", NotificationSystem.Type.SUCCESS, 3);
+                }
+                // Rows were added by the change events published as each batch committed
+            }));
+
         } catch (Exception e) {
             showAlert("Failed to generate payrolls: " + e.getMessage(), NotificationSystem.Type.ERROR, 3);
         }
     }
+
+    /**
+     * Requests cancellation of the payroll run in progress, if any.
+     */
+    private void cancelPayrollRun() {
+        if (activePayrollRun != null) {
+            activePayrollRun.cancel();
+            generateAllButton.setText("Cancelling...");
+        }
+    }
     
     @FXML
     public void handleProcessPayroll() {
@@ -345,10 +399,7 @@ public class PayrollGUI implements Initializable {
                 // Show success message
                 showAlert("Payroll processed successfully.", NotificationSystem.Type.SUCCESS, 3);
                 
-                // Refresh list
-                refreshPayrollList();
-                
-                // Clear selection
+                // Clear selection; the change event updates the row's status
                 payrollTable.getSelectionModel().clearSelection();
                 clearForm();
             } else {
@@ -372,10 +423,7 @@ public class PayrollGUI implements Initializable {
                 // Show success message
                 showAlert("Payroll marked as paid successfully.", NotificationSystem.Type.SUCCESS, 3);
                 
-                // Refresh list
-                refreshPayrollList();
-                
-                // Clear selection
+                // Clear selection; the change event updates the row's status
                 payrollTable.getSelectionModel().clearSelection();
                 clearForm();
             } else {
@@ -386,6 +434,64 @@ public class PayrollGUI implements Initializable {
         }
     }
     
+    @FXML
+    public void handleProcessAllPayrolls() {
+        if (!validateDateInputs()) {
+            return;
+        }
+        LocalDate startDate = startDatePicker.getValue();
+        LocalDate endDate = endDatePicker.getValue();
+        if (!confirmBulkAction("Process All Payrolls",
+                "Process every PENDING payroll for " + startDate + " to " + endDate + "?")) {
+            return;
+        }
+
+        try {
+            int processed = payrollController.processAllPendingPayrolls(startDate, endDate).size();
+            if (processed > 0) {
+                showAlert(processed + " payroll(s) processed successfully.", NotificationSystem.Type.SUCCESS, 3);
+            } else {
+                showAlert("No pending payrolls for this period.", NotificationSystem.Type.INFO, 3);
+            }
+            handleClearForm();
+        } catch (Exception e) {
+            showAlert("Failed to process payrolls: " + e.getMessage(), NotificationSystem.Type.ERROR, 3);
+        }
+    }
+
+    @FXML
+    public void handlePayAllPayrolls() {
+        if (!validateDateInputs()) {
+            return;
+        }
+        LocalDate startDate = startDatePicker.getValue();
+        LocalDate endDate = endDatePicker.getValue();
+        if (!confirmBulkAction("Pay All Payrolls",
+                "Mark every PROCESSED payroll for " + startDate + " to " + endDate + " as paid?")) {
+            return;
+        }
+
+        try {
+            int paid = payrollController.markAllProcessedPayrollsAsPaid(startDate, endDate).size();
+            if (paid > 0) {
+                showAlert(paid + " payroll(s) marked as paid.", NotificationSystem.Type.SUCCESS, 3);
+            } else {
+                showAlert("No processed payrolls for this period.", NotificationSystem.Type.INFO, 3);
+            }
+            handleClearForm();
+        } catch (Exception e) {
+            showAlert("Failed to mark payrolls as paid: " + e.getMessage(), NotificationSystem.Type.ERROR, 3);
+        }
+    }
+
+    private boolean confirmBulkAction(String title, String message) {
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmAlert.setTitle(title);
+        confirmAlert.setHeaderText(title);
+        confirmAlert.setContentText(message);
+        return confirmAlert.showAndWait().filter(response -> response == ButtonType.OK).isPresent();
+    }
+    
     @FXML
     public void handleClearForm() {
         clearForm();
@@ -396,18 +502,23 @@ public class PayrollGUI implements Initializable {
     }
     
     public void refreshPayrollList() {
-        payrollList.clear();
-        payrollList.addAll(payrollController.getAllPayrolls());
-        payrollTable.setItems(payrollList);
+        if (payrollList == null) {
+            payrollList = new PagedList<>(payrollController.getPayrollPageLoader(tableQuery::getSpec).map(this::toRow));
+            payrollTable.setItems(payrollList);
+        } else {
+            payrollList.refresh();
+        }
     }
     
+    private PayrollRow toRow(Payroll payroll) {
+        return new PayrollRow(payroll, employeeStore.getById(payroll.getEmployeeId()));
+    }
+
     private void showPayrollDetails(Payroll payroll) {
         // Find employee by ID
-        for (Employee employee : employeeList) {
-            if (employee.getId().equals(payroll.getEmployeeId())) {
-                employeeComboBox.setValue(employee);
-                break;
-            }
+        Employee employee = employeeStore.getById(payroll.getEmployeeId());
+        if (employee != null) {
+            employeeComboBox.setValue(employee);
         }
         
         startDatePicker.setValue(payroll.getPayPeriodStart());
@@ -420,6 +531,15 @@ public class PayrollGUI implements Initializable {
         netSalaryField.setText(String.format("%.2f", payroll.getNetSalary()));
     }
     
+    /**
+     * Clears the selected payroll and the amounts entered in the previous session.
+     */
+    @Override
+    public void resetView() {
+        payrollTable.getSelectionModel().clearSelection();
+        clearForm();
+    }
+
     private void clearForm() {
         employeeComboBox.getSelectionModel().clearSelection();
         // Keep the date fields as they are
@@ -533,47 +653,48 @@ public class PayrollGUI implements Initializable {
     }
     
     /**
-     * Register this controller to listen for employee events.
-     * This allows the controller to refresh its employee list when employees are added, updated, or deleted.
+     * Keep the selected employee and base salary in step with roster changes.
+     * The shared store patches the list itself; this runs just before each change is applied.
      */
     private void registerForEmployeeEvents() {
-        EventManager eventManager = EventManager.getInstance();
-        
-        // Listen for employee added events
-        eventManager.addEventHandler(EmployeeEvent.EMPLOYEE_ADDED, event -> {
-            Platform.runLater(() -> {
-                loadEmployees();
-            });
-        });
-        
-        // Listen for employee updated events
-        eventManager.addEventHandler(EmployeeEvent.EMPLOYEE_UPDATED, event -> {
-            Platform.runLater(() -> {
-                loadEmployees();
-                // If the updated employee is currently selected, update the base salary
-                if (employeeComboBox.getValue() != null && 
-                    employeeComboBox.getValue().getId().equals(event.getEmployee().getId())) {
-                    updateBaseSalary(event.getEmployee());
-                    calculateNetSalary();
-                }
-            });
-        });
-        
-        // Listen for employee deleted events
-        eventManager.addEventHandler(EmployeeEvent.EMPLOYEE_DELETED, event -> {
-            Platform.runLater(() -> {
-                loadEmployees();
-                // If the deleted employee was selected, clear the selection
-                if (employeeComboBox.getValue() != null && 
-                    employeeComboBox.getValue().getId().equals(event.getEmployee().getId())) {
-                    employeeComboBox.getSelectionModel().clearSelection();
-                    baseSalaryField.setText("0.00");
-                    calculateNetSalary();
-                }
-            });
+        employeeStore.addChangeListener(changes -> {
+            // Loaded rows carry the employee name; rebuild those of renamed employees
+            if (payrollList != null && !changes.getUpdated().isEmpty()) {
+                payrollList.replaceCached(row -> {
+                    Employee updated = changes.getUpdated().get(row.getPayroll().getEmployeeId());
+                    return updated != null ? new PayrollRow(row.getPayroll(), updated) : row;
+                });
+            }
+            Employee selected = employeeComboBox.getValue();
+            if (selected == null) {
+                return;
+            }
+            if (changes.getDeletedIds().contains(selected.getId())) {
+                // The deleted employee was selected, clear the selection
+                employeeComboBox.getSelectionModel().clearSelection();
+                baseSalaryField.setText("0.00");
+                calculateNetSalary();
+            } else if (changes.getUpdated().containsKey(selected.getId())) {
+                // The selected employee changed, update the base salary
+                Employee updated = changes.getUpdated().get(selected.getId());
+                employeeComboBox.setValue(updated);
+                updateBaseSalary(updated);
+                calculateNetSalary();
+            }
         });
     }
     
+    /**
+     * Patch the payroll table in place from payroll change events. Bulk runs and bulk status
+     * transitions arrive as merged change sets, so the cost follows the number of changed rows.
+     */
+    private void registerForPayrollEvents() {
+        EventManager.getInstance().addCoalescingEventHandler(ChangeSetEvent.PAYROLLS_CHANGED,
+                event -> tableQuery.applyChanges(payrollList, event.getChangeSet(),
+                        row -> row.getPayroll().getId(), this::toRow),
+                ChangeSetEvent::merge);
+    }
+
     // Called when the app shuts down
     public void shutdown() {
         payrollController.shutdown();
@@ -0,0 +1,61 @@
+package com.example.hrsm2.gui;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.model.Payroll;
+import javafx.beans.value.ObservableValue;
+
+/**
+ * Immutable, pre-formatted row of the payroll table.
+ * Built when a page of payrolls is loaded (on the prefetch thread while scrolling), so the
+ * cell value factories only read fields.
+ */
+public final class PayrollRow {
+    private final Payroll payroll;
+    private final ObservableValue<String> id;
+    private final ObservableValue<String> employeeName;
+    private final ObservableValue<String> payPeriodStart;
+    private final ObservableValue<String> payPeriodEnd;
+    private final ObservableValue<String> baseSalary;
+    private final ObservableValue<String> overtimePay;
+    private final ObservableValue<String> bonus;
+    private final ObservableValue<String> taxDeductions;
+    private final ObservableValue<String> otherDeductions;
+    private final ObservableValue<String> netSalary;
+    private final ObservableValue<String> status;
+
+    /**
+     * @param payroll The payroll to show
+     * @param employee The payroll's employee, or null if unknown (the ID is shown instead)
+     */
+    public PayrollRow(Payroll payroll, Employee employee) {
+        this.payroll = payroll;
+        this.id = CellValues.of(payroll.getId());
+        this.employeeName = CellValues.of(employee != null ? employee.getFullName() : payroll.getEmployeeId());
+        this.payPeriodStart = CellValues.of(payroll.getPayPeriodStart());
+        this.payPeriodEnd = CellValues.of(payroll.getPayPeriodEnd());
+        this.baseSalary = CellValues.money(payroll.getBaseSalary());
+        this.overtimePay = CellValues.money(payroll.getOvertimePay());
+        this.bonus = CellValues.money(payroll.getBonus());
+        this.taxDeductions = CellValues.money(payroll.getTaxDeductions());
+        this.otherDeductions = CellValues.money(payroll.getOtherDeductions());
+        this.netSalary = CellValues.money(payroll.getNetSalary());
+        this.status = CellValues.of(payroll.getStatus());
+    }
+
+    /**
+     * @return The payroll this row shows.
+     */
+    public Payroll getPayroll() { return payroll; }
+
+    public ObservableValue<String> idValue() { return id; }
+    public ObservableValue<String> employeeNameValue() { return employeeName; }
+    public ObservableValue<String> payPeriodStartValue() { return payPeriodStart; }
+    public ObservableValue<String> payPeriodEndValue() { return payPeriodEnd; }
+    public ObservableValue<String> baseSalaryValue() { return baseSalary; }
+    public ObservableValue<String> overtimePayValue() { return overtimePay; }
+    public ObservableValue<String> bonusValue() { return bonus; }
+    public ObservableValue<String> taxDeductionsValue() { return taxDeductions; }
+    public ObservableValue<String> otherDeductionsValue() { return otherDeductions; }
+    public ObservableValue<String> netSalaryValue() { return netSalary; }
+    public ObservableValue<String> statusValue() { return status; }
+}
@@ -7,42 +7,43 @@ import com.example.hrsm2.model.User;
 import com.example.hrsm2.service.EmployeeService;
 import com.example.hrsm2.service.PerformanceEvaluationService;
 import com.example.hrsm2.service.UserService;
-import com.example.hrsm2.event.EmployeeEvent;
+import com.example.hrsm2.store.EmployeeStore;
+import com.example.hrsm2.store.PagedList;
+import com.example.hrsm2.util.UpdateResult;
+import com.example.hrsm2.event.ChangeSetEvent;
 import com.example.hrsm2.event.EventManager;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.util.StringConverter;
-import javafx.application.Platform;
 import javafx.scene.layout.StackPane;
 import java.net.URL;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.ResourceBundle;
-import javafx.beans.property.SimpleStringProperty;
 
-public class PerformanceGUI implements Initializable {
+public class PerformanceGUI implements Initializable, ReusableView {
     @FXML
-    private TableView<PerformanceEvaluation> evaluationTable;
+    private TableView<EvaluationRow> evaluationTable;
     @FXML
-    private TableColumn<PerformanceEvaluation, String> idColumn;
+    private TableColumn<EvaluationRow, String> idColumn;
     @FXML
-    private TableColumn<PerformanceEvaluation, String> employeeIdColumn;
+    private TableColumn<EvaluationRow, String> employeeIdColumn;
     @FXML
-    private TableColumn<PerformanceEvaluation, LocalDate> evaluationDateColumn;
+    private TableColumn<EvaluationRow, String> evaluationDateColumn;
     @FXML
-    private TableColumn<PerformanceEvaluation, Integer> ratingColumn;
+    private TableColumn<EvaluationRow, String> ratingColumn;
     @FXML
-    private TableColumn<PerformanceEvaluation, String> strengthsColumn;
+    private TableColumn<EvaluationRow, String> strengthsColumn;
     @FXML
-    private TableColumn<PerformanceEvaluation, String> improvementColumn;
+    private TableColumn<EvaluationRow, String> improvementColumn;
     @FXML
-    private TableColumn<PerformanceEvaluation, String> commentsColumn;
+    private TableColumn<EvaluationRow, String> commentsColumn;
     @FXML
-    private TableColumn<PerformanceEvaluation, String> reviewedByColumn;
+    private TableColumn<EvaluationRow, String> reviewedByColumn;
     
     @FXML
     private ComboBox<Employee> employeeComboBox;
@@ -71,13 +72,22 @@ public class PerformanceGUI implements Initializable {
     // Controller for business logic
     private final PerformanceController performanceController = new PerformanceController();
     
-    private ObservableList<PerformanceEvaluation> evaluationList = FXCollections.observableArrayList();
+    // Rows are read page by page as the table scrolls, so long histories open instantly
+    private PagedList<EvaluationRow> evaluationList;
+    // Sort order and filters of the table, executed by the database
+    private TableQuery<EvaluationRow> tableQuery;
+    // Shared roster; every tab views the same list
+    private final EmployeeStore employeeStore = EmployeeStore.getInstance();
     private ObservableList<Employee> employeeList = FXCollections.observableArrayList();
     private PerformanceEvaluation selectedEvaluation;
     private User currentUser;
     
     // Add StackPane for notifications
     @FXML private StackPane notificationPane;
+    @FXML private ComboBox<String> ratingFilter;
+    @FXML private DatePicker fromDateFilter;
+    @FXML private DatePicker toDateFilter;
+    @FXML private ComboBox<String> departmentFilter;
     
     @Override
     public void initialize(URL url, ResourceBundle rb) {
@@ -85,22 +95,28 @@ public class PerformanceGUI implements Initializable {
         currentUser = performanceController.getCurrentUser();
         
         // Initialize table columns
-        idColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
-        employeeIdColumn.setCellValueFactory(cellData -> {
-            PerformanceEvaluation evaluation = cellData.getValue();
-            // Find the employee by ID
-            Employee employee = performanceController.getEmployeeById(evaluation.getEmployeeId());
-            // Return the full name if found, otherwise return the ID
-            return new SimpleStringProperty(employee != null ? 
-                employee.getFirstName() + " " + employee.getLastName() : 
-                evaluation.getEmployeeId());
-        });
-        evaluationDateColumn.setCellValueFactory(new PropertyValueFactory<>("evaluationDate"));
-        ratingColumn.setCellValueFactory(new PropertyValueFactory<>("performanceRating"));
-        strengthsColumn.setCellValueFactory(new PropertyValueFactory<>("strengths"));
-        improvementColumn.setCellValueFactory(new PropertyValueFactory<>("areasForImprovement"));
-        commentsColumn.setCellValueFactory(new PropertyValueFactory<>("comments"));
-        reviewedByColumn.setCellValueFactory(new PropertyValueFactory<>("reviewedBy"));
+        // Rows are pre-formatted when their page is loaded, so cells only read fields
+        idColumn.setCellValueFactory(cellData -> cellData.getValue().idValue());
+        employeeIdColumn.setCellValueFactory(cellData -> cellData.getValue().employeeNameValue());
+        evaluationDateColumn.setCellValueFactory(cellData -> cellData.getValue().evaluationDateValue());
+        ratingColumn.setCellValueFactory(cellData -> cellData.getValue().ratingValue());
+        strengthsColumn.setCellValueFactory(cellData -> cellData.getValue().strengthsValue());
+        improvementColumn.setCellValueFactory(cellData -> cellData.getValue().areasForImprovementValue());
+        commentsColumn.setCellValueFactory(cellData -> cellData.getValue().commentsValue());
+        reviewedByColumn.setCellValueFactory(cellData -> cellData.getValue().reviewedByValue());
+
+        // Header clicks and the filter bar re-query the database instead of sorting loaded rows
+        setupDatePicker(fromDateFilter);
+        setupDatePicker(toDateFilter);
+        tableQuery = new TableQuery<>(evaluationTable, "evaluationDate", this::refreshEvaluationList)
+                .sortable(idColumn, "id")
+                .sortable(evaluationDateColumn, "evaluationDate")
+                .sortable(ratingColumn, "performanceRating")
+                .sortable(reviewedByColumn, "reviewedBy")
+                .install()
+                .equalsFilter(ratingFilter, "performanceRating", List.of(1, 2, 3, 4, 5))
+                .dateRangeFilter(fromDateFilter, toDateFilter)
+                .departmentFilter(departmentFilter, employeeStore::getDepartments);
         
         // Setup date picker
         setupDatePicker(evaluationDatePicker);
@@ -143,7 +159,7 @@ public class PerformanceGUI implements Initializable {
         // Setup table selection listener
         evaluationTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             if (newSelection != null) {
-                selectedEvaluation = newSelection;
+                selectedEvaluation = newSelection.getEvaluation();
                 showEvaluationDetails(selectedEvaluation);
                 updateButton.setDisable(false);
                 deleteButton.setDisable(false);
@@ -163,8 +179,9 @@ public class PerformanceGUI implements Initializable {
         // Load performance evaluations
         refreshEvaluationList();
         
-        // Register for employee events
+        // Register for employee and evaluation events
         registerForEmployeeEvents();
+        registerForEvaluationEvents();
     }
     
     private void setupDatePicker(DatePicker datePicker) {
@@ -192,8 +209,7 @@ public class PerformanceGUI implements Initializable {
     }
     
     private void loadEmployees() {
-        employeeList.clear();
-        employeeList.addAll(performanceController.getAllEmployees());
+        employeeList = employeeStore.getItems();
         employeeComboBox.setItems(employeeList);
     }
     
@@ -241,7 +257,6 @@ public class PerformanceGUI implements Initializable {
             if (success) {
                 showNotification(NotificationSystem.Type.SUCCESS, "Performance evaluation added successfully.");
                 clearForm();
-                refreshEvaluationList();
             } else {
                 showNotification(NotificationSystem.Type.ERROR, "Failed to add performance evaluation.");
             }
@@ -275,9 +290,9 @@ public class PerformanceGUI implements Initializable {
             String areasForImprovement = improvementArea.getText().trim();
             String comments = commentsArea.getText().trim();
             
-            // Use controller to update evaluation
-            boolean success = performanceController.updateEvaluation(
-                selectedEvaluation.getId(),
+            // Use controller to update evaluation; it is only saved if unchanged since it was selected
+            UpdateResult result = performanceController.tryUpdateEvaluation(
+                selectedEvaluation,
                 selectedEmployee.getId(),
                 evaluationDate,
                 rating,
@@ -286,13 +301,21 @@ public class PerformanceGUI implements Initializable {
                 comments
             );
             
-            if (success) {
-                showNotification(NotificationSystem.Type.SUCCESS, "Performance evaluation updated successfully.");
-                clearForm();
-                refreshEvaluationList();
-                evaluationTable.getSelectionModel().clearSelection();
-            } else {
-                showNotification(NotificationSystem.Type.ERROR, "Failed to update performance evaluation.");
+            switch (result) {
+                case UPDATED -> {
+                    showNotification(NotificationSystem.Type.SUCCESS, "Performance evaluation updated successfully.");
+                    clearForm();
+                    evaluationTable.getSelectionModel().clearSelection();
+                }
+                case CONFLICT, NOT_FOUND -> {
+                    showNotification(NotificationSystem.Type.WARNING, result == UpdateResult.CONFLICT
+                            ? "Another user changed this evaluation. Select it again to see their changes, then reapply yours."
+                            : "This evaluation was deleted by another user.");
+                    clearForm();
+                    evaluationTable.getSelectionModel().clearSelection();
+                    refreshEvaluationList();
+                }
+                default -> showNotification(NotificationSystem.Type.ERROR, "Failed to update performance evaluation.");
             }
         } catch (Exception e) {
             showNotification(NotificationSystem.Type.ERROR, "An error occurred while updating the evaluation: " + e.getMessage());
@@ -326,7 +349,6 @@ public class PerformanceGUI implements Initializable {
                     if (success) {
                         showNotification(NotificationSystem.Type.SUCCESS, "Performance evaluation deleted successfully.");
                         clearForm();
-                        refreshEvaluationList();
                         evaluationTable.getSelectionModel().clearSelection();
                     } else {
                         showNotification(NotificationSystem.Type.ERROR, "Failed to delete performance evaluation.");
@@ -346,14 +368,22 @@ public class PerformanceGUI implements Initializable {
     }
     
     public void refreshEvaluationList() {
-        evaluationList.clear();
-        evaluationList.addAll(performanceController.getAllEvaluations());
-        evaluationTable.setItems(evaluationList);
+        if (evaluationList == null) {
+            evaluationList = new PagedList<>(performanceController.getEvaluationPageLoader(tableQuery::getSpec)
+                    .map(this::toRow));
+            evaluationTable.setItems(evaluationList);
+        } else {
+            evaluationList.refresh();
+        }
     }
     
+    private EvaluationRow toRow(PerformanceEvaluation evaluation) {
+        return new EvaluationRow(evaluation, employeeStore.getById(evaluation.getEmployeeId()));
+    }
+
     private void showEvaluationDetails(PerformanceEvaluation evaluation) {
         // Find employee by ID
-        Employee employee = performanceController.getEmployeeById(evaluation.getEmployeeId());
+        Employee employee = employeeStore.getById(evaluation.getEmployeeId());
         employeeComboBox.setValue(employee);
         
         evaluationDatePicker.setValue(evaluation.getEvaluationDate());
@@ -364,6 +394,16 @@ public class PerformanceGUI implements Initializable {
         commentsArea.setText(evaluation.getComments());
     }
     
+    /**
+     * Discards the previous reviewer's draft and picks up the user now logged in.
+     */
+    @Override
+    public void resetView() {
+        evaluationTable.getSelectionModel().clearSelection();
+        clearForm();
+        currentUser = performanceController.refreshCurrentUser();
+    }
+
     private void clearForm() {
         employeeComboBox.getSelectionModel().clearSelection();
         evaluationDatePicker.setValue(LocalDate.now());
@@ -413,49 +453,42 @@ public class PerformanceGUI implements Initializable {
     }
     
     /**
-     * Register for employee events so the employee list refreshes when there are changes
+     * Keep the selected employee in step with roster changes. The shared store patches
+     * the list itself; this runs just before each change is applied.
      */
     private void registerForEmployeeEvents() {
-        EventManager eventManager = EventManager.getInstance();
-        
-        // Listen for employee added events
-        eventManager.addEventHandler(EmployeeEvent.EMPLOYEE_ADDED, event -> {
-            Platform.runLater(() -> {
-                loadEmployees();
-
-            });
-        });
-        
-        // Listen for employee updated events
-        eventManager.addEventHandler(EmployeeEvent.EMPLOYEE_UPDATED, event -> {
-            Platform.runLater(() -> {
-                loadEmployees();
-                // If the updated employee is currently selected, maintain the selection
-                if (employeeComboBox.getValue() != null && 
-                    employeeComboBox.getValue().getId().equals(event.getEmployee().getId())) {
-                    for (Employee emp : employeeList) {
-                        if (emp.getId().equals(event.getEmployee().getId())) {
-                            employeeComboBox.setValue(emp);
-                            break;
-                        }
-                    }
-                }
-            });
-        });
-        
-        // Listen for employee deleted events
-        eventManager.addEventHandler(EmployeeEvent.EMPLOYEE_DELETED, event -> {
-            Platform.runLater(() -> {
-                loadEmployees();
-                // If the deleted employee was selected, clear the selection
-                if (employeeComboBox.getValue() != null && 
-                    employeeComboBox.getValue().getId().equals(event.getEmployee().getId())) {
-                    employeeComboBox.getSelectionModel().clearSelection();
-                }
-            });
+        employeeStore.addChangeListener(changes -> {
+            // Loaded rows carry the employee name; rebuild those of renamed employees
+            if (evaluationList != null && !changes.getUpdated().isEmpty()) {
+                evaluationList.replaceCached(row -> {
+                    Employee updated = changes.getUpdated().get(row.getEvaluation().getEmployeeId());
+                    return updated != null ? new EvaluationRow(row.getEvaluation(), updated) : row;
+                });
+            }
+            Employee selected = employeeComboBox.getValue();
+            if (selected == null) {
+                return;
+            }
+            if (changes.getDeletedIds().contains(selected.getId())) {
+                // The deleted employee was selected, clear the selection
+                employeeComboBox.getSelectionModel().clearSelection();
+            } else if (changes.getUpdated().containsKey(selected.getId())) {
+                // Keep the selection pointing at the updated employee
+                employeeComboBox.setValue(changes.getUpdated().get(selected.getId()));
+            }
         });
     }
     
+    /**
+     * Patch the evaluation table in place when evaluations are added, updated or deleted.
+     */
+    private void registerForEvaluationEvents() {
+        EventManager.getInstance().addCoalescingEventHandler(ChangeSetEvent.EVALUATIONS_CHANGED,
+                event -> tableQuery.applyChanges(evaluationList, event.getChangeSet(),
+                        row -> row.getEvaluation().getId(), this::toRow),
+                ChangeSetEvent::merge);
+    }
+
     // Called when the app shuts down
     public void shutdown() {
         // Any cleanup needed
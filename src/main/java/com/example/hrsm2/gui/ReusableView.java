@@ -0,0 +1,13 @@
+package com.example.hrsm2.gui;
+
+/**
+ * A view controller whose view is kept by {@link ViewFactory} and shown again instead of being reloaded.
+ */
+public interface ReusableView {
+
+    /**
+     * Called on the FX thread each time the cached view is handed out again, e.g. at the next login.
+     * Clears whatever the previous user entered or selected, so the view looks freshly loaded.
+     */
+    void resetView();
+}
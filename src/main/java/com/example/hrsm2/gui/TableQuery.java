@@ -0,0 +1,189 @@
+package com.example.hrsm2.gui;
+
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.store.PagedList;
+import com.example.hrsm2.util.QuerySpec;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Turns a paged table's column headers and filter controls into a {@link QuerySpec}.
+ * <p>
+ * Clicking a header does not sort the loaded rows: the table's sort policy records the sort
+ * order and asks for the rows again, and the database returns them already sorted and
+ * filtered. Columns without a mapped field cannot be sorted.
+ *
+ * @param <S> The row type of the table
+ */
+final class TableQuery<S> {
+    private static final String ALL = "All";
+
+    private final TableView<S> table;
+    private final String dateField;
+    private final Runnable onChange;
+    private final Map<TableColumn<S, ?>, String> sortFields = new HashMap<>();
+
+    private List<QuerySpec.Sort> sorts = List.of();
+    private String equalsField;
+    private Object equalsValue;
+    private LocalDate from;
+    private LocalDate to;
+    private String department;
+    // Read by the page prefetch thread
+    private volatile QuerySpec spec = QuerySpec.all();
+
+    /**
+     * @param table The table whose headers drive the sort order
+     * @param dateField The field the date range filter applies to
+     * @param onChange Reloads the table's rows; called after each change of the query
+     */
+    TableQuery(TableView<S> table, String dateField, Runnable onChange) {
+        this.table = table;
+        this.dateField = dateField;
+        this.onChange = onChange;
+    }
+
+    /**
+     * Makes a column sortable by the given model field.
+     */
+    TableQuery<S> sortable(TableColumn<S, ?> column, String field) {
+        sortFields.put(column, field);
+        return this;
+    }
+
+    /**
+     * Installs the sort policy. Call after all sortable columns are registered.
+     */
+    TableQuery<S> install() {
+        table.getColumns().forEach(column -> column.setSortable(sortFields.containsKey(column)));
+        table.setSortPolicy(sortedTable -> {
+            List<QuerySpec.Sort> newSorts = new ArrayList<>();
+            for (TableColumn<S, ?> column : sortedTable.getSortOrder()) {
+                String field = sortFields.get(column);
+                if (field != null) {
+                    newSorts.add(new QuerySpec.Sort(field, column.getSortType() == TableColumn.SortType.DESCENDING ?
+                            QuerySpec.Direction.DESCENDING : QuerySpec.Direction.ASCENDING));
+                }
+            }
+            // The policy also runs when rows are reloaded; only a new order needs another query
+            if (!newSorts.equals(sorts)) {
+                sorts = newSorts;
+                update();
+            }
+            return true;
+        });
+        return this;
+    }
+
+    /**
+     * Binds a combo box that restricts a field to one value ("All" for no restriction).
+     *
+     * @param combo The filter control
+     * @param field The model field to compare
+     * @param values The selectable values, shown by their {@code toString()}
+     */
+    TableQuery<S> equalsFilter(ComboBox<String> combo, String field, Collection<?> values) {
+        Map<String, Object> byLabel = new LinkedHashMap<>();
+        byLabel.put(ALL, null);
+        values.forEach(value -> byLabel.put(String.valueOf(value), value));
+        combo.getItems().setAll(byLabel.keySet());
+        combo.setValue(ALL);
+        combo.valueProperty().addListener((obs, oldValue, newValue) -> {
+            equalsField = field;
+            equalsValue = newValue != null ? byLabel.get(newValue) : null;
+            update();
+        });
+        return this;
+    }
+
+    /**
+     * Binds two date pickers to an inclusive range on the date field; an empty picker leaves that end open.
+     */
+    TableQuery<S> dateRangeFilter(DatePicker fromPicker, DatePicker toPicker) {
+        fromPicker.valueProperty().addListener((obs, oldValue, newValue) -> {
+            from = newValue;
+            update();
+        });
+        toPicker.valueProperty().addListener((obs, oldValue, newValue) -> {
+            to = newValue;
+            update();
+        });
+        return this;
+    }
+
+    /**
+     * Binds a combo box that restricts rows to employees of one department.
+     *
+     * @param combo The filter control
+     * @param departments Supplies the current departments when the list is opened
+     */
+    TableQuery<S> departmentFilter(ComboBox<String> combo, Supplier<Collection<String>> departments) {
+        combo.getItems().setAll(ALL);
+        combo.setValue(ALL);
+        combo.setOnShowing(event -> {
+            List<String> items = new ArrayList<>();
+            items.add(ALL);
+            items.addAll(departments.get());
+            if (!combo.getItems().equals(items)) {
+                String selected = combo.getValue();
+                combo.getItems().setAll(items);
+                combo.setValue(items.contains(selected) ? selected : ALL);
+            }
+        });
+        combo.valueProperty().addListener((obs, oldValue, newValue) -> {
+            department = newValue == null || ALL.equals(newValue) ? null : newValue;
+            update();
+        });
+        return this;
+    }
+
+    /**
+     * Applies committed changes to the table's rows. Under the default query updated rows are
+     * patched in place; with a sort order or filter an update can move a row or drop it out of
+     * the result, so the visible rows are queried again instead.
+     *
+     * @param rows The table's rows
+     * @param changes The changes published by a service
+     * @param idOfRow Extracts the entity id from a row
+     * @param toRow Builds the row for an updated entity
+     */
+    <K, E> void applyChanges(PagedList<S> rows, ChangeSet<K, E> changes, Function<? super S, K> idOfRow,
+                             Function<? super E, ? extends S> toRow) {
+        if (spec.isDefault() || changes.isEmpty()) {
+            rows.applyChanges(changes, idOfRow, toRow);
+        } else {
+            rows.refresh();
+        }
+    }
+
+    /**
+     * @return The query for the current headers and filters.
+     */
+    QuerySpec getSpec() {
+        return spec;
+    }
+
+    private void update() {
+        QuerySpec newSpec = QuerySpec.all()
+                .withSorts(sorts)
+                .withRange(dateField, from, to)
+                .withDepartment(department);
+        if (equalsField != null) {
+            newSpec = newSpec.withEquals(equalsField, equalsValue);
+        }
+        spec = newSpec;
+        onChange.run();
+    }
+}
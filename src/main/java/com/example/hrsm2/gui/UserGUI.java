@@ -1,6 +1,8 @@
 package com.example.hrsm2.gui;
 
 import com.example.hrsm2.controller.UserController;
+import com.example.hrsm2.event.ChangeSetEvent;
+import com.example.hrsm2.event.EventManager;
 import com.example.hrsm2.model.User;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -13,7 +15,7 @@ import java.net.URL;
 import java.util.List;
 import java.util.ResourceBundle;
 
-public class UserGUI implements Initializable {
+public class UserGUI implements Initializable, ReusableView {
     @FXML
     private TableView<User> userTable;
 
@@ -77,6 +79,13 @@ public class UserGUI implements Initializable {
 
         // Load initial user data
         refreshUserList();
+
+        // Patch the table in place when users change; only HR admins are listed here
+        EventManager.getInstance().addCoalescingEventHandler(ChangeSetEvent.USERS_CHANGED,
+                event -> event.getChangeSet()
+                        .restrictTo(user -> user.getRole() == User.UserRole.HR_ADMIN)
+                        .applyTo(userList, User.BY_FULL_NAME),
+                ChangeSetEvent::merge);
     }
 
     // Refreshes the list from the database
@@ -108,7 +117,6 @@ public class UserGUI implements Initializable {
         if (success) {
             showAlert(Alert.AlertType.INFORMATION, "Success", "HR user created successfully.");
             clearForm();
-            refreshUserList();
         } else {
             // Check if the reason was username taken
             if (userController.isUsernameTaken(username)) {
@@ -143,7 +151,6 @@ public class UserGUI implements Initializable {
 
                 if (success) {
                     showAlert(Alert.AlertType.INFORMATION, "Success", "User deleted successfully.");
-                    refreshUserList();
                 } else {
                     showAlert(Alert.AlertType.ERROR, "Error", "Failed to delete user. The user might be the current user or an error occurred.");
                 }
@@ -156,6 +163,14 @@ public class UserGUI implements Initializable {
         clearForm();
     }
 
+    /**
+     * Clears the user form and selection of the previous session.
+     */
+    @Override
+    public void resetView() {
+        clearForm();
+    }
+
     private void clearForm() {
         usernameField.clear();
         passwordField.clear();
@@ -0,0 +1,145 @@
+package com.example.hrsm2.gui;
+
+import com.example.hrsm2.HRMSApplication;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loads each FXML view once and hands out the same view afterwards.
+ * <p>
+ * The application has a single window, so a view is never shown twice at the same time:
+ * logging out and in again, or reopening a tab, reuses the loaded nodes and controller instead of
+ * parsing the FXML again. A view handed out again is reset first if its controller is a
+ * {@link ReusableView}. A view is used either as a scene ({@link #getScene}) or embedded in
+ * another view ({@link #getView}), never both.
+ * <p>
+ * {@link #prefetch} may be called from any thread; every other method must be called on the FX thread.
+ */
+public final class ViewFactory {
+    private static final Pattern CONTROLLER_ATTRIBUTE = Pattern.compile("fx:controller\\s*=\\s*\"([^\"]+)\"");
+
+    private static ViewFactory instance;
+
+    /**
+     * A loaded view. The scene is created the first time the view is used as a scene.
+     */
+    private static final class LoadedView {
+        private final Parent root;
+        private final Object controller;
+        private Scene scene;
+
+        LoadedView(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+
+    // FX thread only
+    private final Map<String, LoadedView> views = new HashMap<>();
+    // FXML read ahead of time by prefetch(), consumed by the first load
+    private final Map<String, byte[]> prefetched = new ConcurrentHashMap<>();
+
+    private ViewFactory() {
+    }
+
+    public static synchronized ViewFactory getInstance() {
+        if (instance == null) {
+            instance = new ViewFactory();
+        }
+        return instance;
+    }
+
+    /**
+     * @param fxml The view's FXML file next to {@link HRMSApplication}, e.g. "login-view.fxml".
+     * @param width Width of the scene when it is first created.
+     * @param height Height of the scene when it is first created.
+     * @return The view's scene; the same scene on every call, reset after the first.
+     * @throws IOException if the view cannot be loaded.
+     */
+    public Scene getScene(String fxml, double width, double height) throws IOException {
+        LoadedView view = acquire(fxml);
+        if (view.scene == null) {
+            view.scene = new Scene(view.root, width, height);
+        }
+        return view.scene;
+    }
+
+    /**
+     * @param fxml The view's FXML file next to {@link HRMSApplication}, e.g. "employee-view.fxml".
+     * @return The view's root node, for embedding in another view; the same node on every call, reset after the first.
+     * @throws IOException if the view cannot be loaded.
+     */
+    public Parent getView(String fxml) throws IOException {
+        return acquire(fxml).root;
+    }
+
+    /**
+     * @param fxml The view's FXML file.
+     * @return The controller of the view, or null if the view has not been loaded.
+     */
+    @SuppressWarnings("unchecked")
+    public <C> C getController(String fxml) {
+        LoadedView view = views.get(fxml);
+        return view == null ? null : (C) view.controller;
+    }
+
+    /**
+     * Prepares a view so its first load is faster: reads the FXML and loads and initializes its
+     * controller class. Safe to call from a background thread; does nothing if the view is loaded already.
+     *
+     * @param fxml The view's FXML file.
+     * @throws IOException if the FXML cannot be read.
+     * @throws ClassNotFoundException if its controller class does not exist.
+     */
+    public void prefetch(String fxml) throws IOException, ClassNotFoundException {
+        if (prefetched.containsKey(fxml)) {
+            return;
+        }
+        byte[] bytes;
+        try (InputStream in = locate(fxml).openStream()) {
+            bytes = in.readAllBytes();
+        }
+        Matcher controller = CONTROLLER_ATTRIBUTE.matcher(new String(bytes, StandardCharsets.UTF_8));
+        if (controller.find()) {
+            Class.forName(controller.group(1), true, ViewFactory.class.getClassLoader());
+        }
+        prefetched.put(fxml, bytes);
+    }
+
+    private LoadedView acquire(String fxml) throws IOException {
+        LoadedView view = views.get(fxml);
+        if (view != null) {
+            if (view.controller instanceof ReusableView reusable) {
+                reusable.resetView();
+            }
+            return view;
+        }
+
+        FXMLLoader loader = new FXMLLoader(locate(fxml));
+        byte[] bytes = prefetched.remove(fxml);
+        Parent root = bytes != null ? loader.load(new ByteArrayInputStream(bytes)) : loader.load();
+        view = new LoadedView(root, loader.getController());
+        views.put(fxml, view);
+        return view;
+    }
+
+    private static URL locate(String fxml) throws IOException {
+        URL location = HRMSApplication.class.getResource(fxml);
+        if (location == null) {
+            throw new IOException("View not found: " + fxml);
+        }
+        return location;
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.hrsm2.model;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.UUID; // Import UUID
 
-public class Employee {
+public class Employee extends TrackedEntity {
+    /**
+     * Orders employees by last name, then first name - the order the database returns them in.
+     */
+    public static final Comparator<Employee> BY_NAME = Comparator
+            .comparing(Employee::getLastName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Employee::getFirstName, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
     private String id;
     private String firstName;
     private String lastName;
@@ -61,6 +69,19 @@ public class Employee {
         this.availableLeave = 20; // Default or load if available in DB later
     }
 
+    /**
+     * Creates an independent copy to edit, e.g. in a form, without touching the instance that
+     * the shared roster holds until the changes are saved.
+     *
+     * @return A copy with the same id, fields, version and dirty fields.
+     */
+    public Employee copy() {
+        Employee copy = new Employee(id, firstName, lastName, email, phone, hireDate, department, jobTitle, salary);
+        copy.availableLeave = availableLeave;
+        copy.copyTrackingFrom(this);
+        return copy;
+    }
+
     // --- Getters and Setters ---
 
     public String getId() {
@@ -77,6 +98,7 @@ public class Employee {
 
     public void setFirstName(String firstName) {
         this.firstName = firstName;
+        markDirty("firstName");
     }
 
     public String getLastName() {
@@ -85,6 +107,7 @@ public class Employee {
 
     public void setLastName(String lastName) {
         this.lastName = lastName;
+        markDirty("lastName");
     }
 
     public String getEmail() {
@@ -93,6 +116,7 @@ public class Employee {
 
     public void setEmail(String email) {
         this.email = email;
+        markDirty("email");
     }
 
     public String getPhone() {
@@ -101,6 +125,7 @@ public class Employee {
 
     public void setPhone(String phone) {
         this.phone = phone;
+        markDirty("phone");
     }
 
     public LocalDate getHireDate() {
@@ -109,6 +134,7 @@ public class Employee {
 
     public void setHireDate(LocalDate hireDate) {
         this.hireDate = hireDate;
+        markDirty("hireDate");
     }
 
     public String getDepartment() {
@@ -117,6 +143,7 @@ public class Employee {
 
     public void setDepartment(String department) {
         this.department = department;
+        markDirty("department");
     }
 
     public String getJobTitle() {
@@ -125,6 +152,7 @@ public class Employee {
 
     public void setJobTitle(String jobTitle) {
         this.jobTitle = jobTitle;
+        markDirty("jobTitle");
     }
 
     public double getSalary() {
@@ -133,6 +161,7 @@ public class Employee {
 
     public void setSalary(double salary) {
         this.salary = salary;
+        markDirty("salary");
     }
 
     public int getAvailableLeave() {
@@ -1,8 +1,15 @@
 package com.example.hrsm2.model;
 
 import java.time.LocalDate;
+import java.util.Comparator;
+
+public class LeaveRequest extends TrackedEntity {
+    /**
+     * Orders requests newest start date first - the order the database returns them in.
+     */
+    public static final Comparator<LeaveRequest> NEWEST_FIRST = Comparator
+            .comparing(LeaveRequest::getStartDate, Comparator.nullsLast(Comparator.<LocalDate>reverseOrder()));
 
-public class LeaveRequest {
     private Integer id; // Changed from String to Integer (nullable for new requests before DB insert)
     private String employeeId;
     private LocalDate startDate;
@@ -60,6 +67,7 @@ public class LeaveRequest {
 
     public void setEmployeeId(String employeeId) {
         this.employeeId = employeeId;
+        markDirty("employeeId");
     }
 
     public LocalDate getStartDate() {
@@ -68,6 +76,7 @@ public class LeaveRequest {
 
     public void setStartDate(LocalDate startDate) {
         this.startDate = startDate;
+        markDirty("startDate");
     }
 
     public LocalDate getEndDate() {
@@ -76,6 +85,7 @@ public class LeaveRequest {
 
     public void setEndDate(LocalDate endDate) {
         this.endDate = endDate;
+        markDirty("endDate");
     }
 
     public String getReason() {
@@ -84,6 +94,7 @@ public class LeaveRequest {
 
     public void setReason(String reason) {
         this.reason = reason;
+        markDirty("reason");
     }
 
     public LeaveStatus getStatus() {
@@ -92,6 +103,7 @@ public class LeaveRequest {
 
     public void setStatus(LeaveStatus status) {
         this.status = status;
+        markDirty("status");
     }
 
     public String getManagerComments() {
@@ -100,6 +112,7 @@ public class LeaveRequest {
 
     public void setManagerComments(String managerComments) {
         this.managerComments = managerComments;
+        markDirty("managerComments");
     }
 
     // Utility methods
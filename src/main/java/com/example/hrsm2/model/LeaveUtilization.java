@@ -0,0 +1,59 @@
+package com.example.hrsm2.model;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable leave utilization of one department over a date range:
+ * approved leave days taken in the range relative to the days its employees could have taken.
+ */
+public class LeaveUtilization {
+    private final String department;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final int headcount;
+    private final long leaveDays;
+
+    public LeaveUtilization(String department, LocalDate from, LocalDate to, int headcount, long leaveDays) {
+        this.department = department;
+        this.from = from;
+        this.to = to;
+        this.headcount = headcount;
+        this.leaveDays = leaveDays;
+    }
+
+    public String getDepartment() { return department; }
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    public int getHeadcount() { return headcount; }
+
+    /**
+     * @return Approved leave days falling inside the range; leave that straddles it counts only the overlap.
+     */
+    public long getLeaveDays() { return leaveDays; }
+
+    /**
+     * @return Headcount times the number of calendar days in the range.
+     */
+    public long getAvailableDays() {
+        return (long) headcount * (to.toEpochDay() - from.toEpochDay() + 1);
+    }
+
+    /**
+     * @return Leave days divided by available days, or 0.0 if the department has no employees.
+     */
+    public double getUtilizationRate() {
+        long available = getAvailableDays();
+        return available <= 0 ? 0.0 : (double) leaveDays / available;
+    }
+
+    @Override
+    public String toString() {
+        return "LeaveUtilization{" +
+                "department='" + department + '\'' +
+                ", range=" + from + ".." + to +
+                ", headcount=" + headcount +
+                ", leaveDays=" + leaveDays +
+                ", rate=" + String.format("%.4f", getUtilizationRate()) +
+                '}';
+    }
+}
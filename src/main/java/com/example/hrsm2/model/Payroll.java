@@ -1,9 +1,17 @@
 package com.example.hrsm2.model;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.UUID;
 
-public class Payroll {
+public class Payroll extends TrackedEntity {
+    /**
+     * Orders payrolls newest pay period first, then by employee - the order the database returns them in.
+     */
+    public static final Comparator<Payroll> NEWEST_FIRST = Comparator
+            .comparing(Payroll::getPayPeriodStart, Comparator.nullsLast(Comparator.<LocalDate>reverseOrder()))
+            .thenComparing(Payroll::getEmployeeId, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
     private String id;
     private String employeeId;
     private LocalDate payPeriodStart;
@@ -41,15 +49,16 @@ public class Payroll {
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
     public String getEmployeeId() { return employeeId; }
-    public void setEmployeeId(String employeeId) { this.employeeId = employeeId; }
+    public void setEmployeeId(String employeeId) { this.employeeId = employeeId; markDirty("employeeId"); }
     public LocalDate getPayPeriodStart() { return payPeriodStart; }
-    public void setPayPeriodStart(LocalDate payPeriodStart) { this.payPeriodStart = payPeriodStart; }
+    public void setPayPeriodStart(LocalDate payPeriodStart) { this.payPeriodStart = payPeriodStart; markDirty("payPeriodStart"); }
     public LocalDate getPayPeriodEnd() { return payPeriodEnd; }
-    public void setPayPeriodEnd(LocalDate payPeriodEnd) { this.payPeriodEnd = payPeriodEnd; }
+    public void setPayPeriodEnd(LocalDate payPeriodEnd) { this.payPeriodEnd = payPeriodEnd; markDirty("payPeriodEnd"); }
     public double getBaseSalary() { return baseSalary; }
     
     public void setBaseSalary(double baseSalary) {
         this.baseSalary = baseSalary;
+        markDirty("baseSalary");
         calculateNetSalary();
     }
     
@@ -57,6 +66,7 @@ public class Payroll {
     
     public void setOvertimePay(double overtimePay) {
         this.overtimePay = overtimePay;
+        markDirty("overtimePay");
         calculateNetSalary();
     }
     
@@ -64,6 +74,7 @@ public class Payroll {
     
     public void setBonus(double bonus) {
         this.bonus = bonus;
+        markDirty("bonus");
         calculateNetSalary();
     }
     
@@ -71,6 +82,7 @@ public class Payroll {
     
     public void setTaxDeductions(double taxDeductions) {
         this.taxDeductions = taxDeductions;
+        markDirty("taxDeductions");
         calculateNetSalary();
     }
     
@@ -78,17 +90,19 @@ public class Payroll {
     
     public void setOtherDeductions(double otherDeductions) {
         this.otherDeductions = otherDeductions;
+        markDirty("otherDeductions");
         calculateNetSalary();
     }
     
     public double getNetSalary() { return netSalary; }
     public PayrollStatus getStatus() { return status; }
-    public void setStatus(PayrollStatus status) { this.status = status; }
+    public void setStatus(PayrollStatus status) { this.status = status; markDirty("status"); }
 
     // Calculate net salary
     public void calculateNetSalary() {
         double grossSalary = baseSalary + overtimePay + bonus;
         this.netSalary = grossSalary - taxDeductions - otherDeductions;
+        markDirty("netSalary");
     }
 
     // Get total earnings (before deductions)
@@ -0,0 +1,55 @@
+package com.example.hrsm2.model;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable payroll cost of one department for one pay period.
+ * Gross cost is base salary plus overtime and bonus, i.e. what the company pays before deductions.
+ */
+public class PayrollCost {
+    private final String department;
+    private final LocalDate payPeriodStart;
+    private final LocalDate payPeriodEnd;
+    private final int payrollCount;
+    private final double totalGross;
+    private final double totalNet;
+
+    public PayrollCost(String department, LocalDate payPeriodStart, LocalDate payPeriodEnd,
+                       int payrollCount, double totalGross, double totalNet) {
+        this.department = department;
+        this.payPeriodStart = payPeriodStart;
+        this.payPeriodEnd = payPeriodEnd;
+        this.payrollCount = payrollCount;
+        this.totalGross = totalGross;
+        this.totalNet = totalNet;
+    }
+
+    /**
+     * @return The department, or null for company-wide totals and employees without a department.
+     */
+    public String getDepartment() { return department; }
+
+    public LocalDate getPayPeriodStart() { return payPeriodStart; }
+    public LocalDate getPayPeriodEnd() { return payPeriodEnd; }
+    public int getPayrollCount() { return payrollCount; }
+    public double getTotalGross() { return totalGross; }
+    public double getTotalNet() { return totalNet; }
+
+    /**
+     * @return The mean gross cost per payroll, or 0.0 if there are none.
+     */
+    public double getAverageGross() {
+        return payrollCount == 0 ? 0.0 : totalGross / payrollCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollCost{" +
+                "department='" + department + '\'' +
+                ", period=" + payPeriodStart + ".." + payPeriodEnd +
+                ", payrolls=" + payrollCount +
+                ", totalGross=" + String.format("%.2f", totalGross) +
+                ", totalNet=" + String.format("%.2f", totalNet) +
+                '}';
+    }
+}
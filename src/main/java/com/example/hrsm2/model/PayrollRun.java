@@ -0,0 +1,82 @@
+package com.example.hrsm2.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ledger entry for a bulk payroll run.
+ * Tracks how many payrolls have been committed so an interrupted run can be resumed.
+ */
+public class PayrollRun {
+    private String id;
+    private LocalDate payPeriodStart;
+    private LocalDate payPeriodEnd;
+    private RunStatus status;
+    private int totalEmployees;
+    private int committedCount;
+    private int committedChunks;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+
+    public enum RunStatus {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    public PayrollRun() {
+        this.id = UUID.randomUUID().toString();
+        this.status = RunStatus.RUNNING;
+    }
+
+    public PayrollRun(LocalDate payPeriodStart, LocalDate payPeriodEnd, int totalEmployees) {
+        this();
+        this.payPeriodStart = payPeriodStart;
+        this.payPeriodEnd = payPeriodEnd;
+        this.totalEmployees = totalEmployees;
+        this.startedAt = LocalDateTime.now();
+        this.updatedAt = startedAt;
+    }
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public LocalDate getPayPeriodStart() { return payPeriodStart; }
+    public void setPayPeriodStart(LocalDate payPeriodStart) { this.payPeriodStart = payPeriodStart; }
+    public LocalDate getPayPeriodEnd() { return payPeriodEnd; }
+    public void setPayPeriodEnd(LocalDate payPeriodEnd) { this.payPeriodEnd = payPeriodEnd; }
+    public RunStatus getStatus() { return status; }
+    public void setStatus(RunStatus status) { this.status = status; }
+    public int getTotalEmployees() { return totalEmployees; }
+    public void setTotalEmployees(int totalEmployees) { this.totalEmployees = totalEmployees; }
+    public int getCommittedCount() { return committedCount; }
+    public void setCommittedCount(int committedCount) { this.committedCount = committedCount; }
+    public int getCommittedChunks() { return committedChunks; }
+    public void setCommittedChunks(int committedChunks) { this.committedChunks = committedChunks; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    /**
+     * @return true if the run failed or was cancelled before every employee was paid and can be resumed.
+     *         A RUNNING run is still in progress and must not be joined by a second run; the payroll
+     *         service marks a RUNNING run left behind by a crashed process as FAILED first.
+     */
+    public boolean isResumable() {
+        return status == RunStatus.FAILED || status == RunStatus.CANCELLED;
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollRun{" +
+                "id='" + id + '\'' +
+                ", period=" + payPeriodStart + ".." + payPeriodEnd +
+                ", status=" + status +
+                ", committed=" + committedCount + "/" + totalEmployees +
+                ", chunks=" + committedChunks +
+                '}';
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.hrsm2.model;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.UUID;
 
-public class PerformanceEvaluation {
+public class PerformanceEvaluation extends TrackedEntity {
+    /**
+     * Orders evaluations newest first, then by employee - the order the database returns them in.
+     */
+    public static final Comparator<PerformanceEvaluation> NEWEST_FIRST = Comparator
+            .comparing(PerformanceEvaluation::getEvaluationDate, Comparator.nullsLast(Comparator.<LocalDate>reverseOrder()))
+            .thenComparing(PerformanceEvaluation::getEmployeeId, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
     private String id; // Keep as String (UUID)
     private String employeeId;
     private LocalDate evaluationDate;
@@ -61,6 +69,7 @@ public class PerformanceEvaluation {
 
     public void setEmployeeId(String employeeId) {
         this.employeeId = employeeId;
+        markDirty("employeeId");
     }
 
     public LocalDate getEvaluationDate() {
@@ -69,6 +78,7 @@ public class PerformanceEvaluation {
 
     public void setEvaluationDate(LocalDate evaluationDate) {
         this.evaluationDate = evaluationDate;
+        markDirty("evaluationDate");
     }
 
     public int getPerformanceRating() {
@@ -77,6 +87,7 @@ public class PerformanceEvaluation {
 
     public void setPerformanceRating(int performanceRating) {
         this.performanceRating = performanceRating;
+        markDirty("performanceRating");
     }
 
     public String getStrengths() {
@@ -85,6 +96,7 @@ public class PerformanceEvaluation {
 
     public void setStrengths(String strengths) {
         this.strengths = strengths;
+        markDirty("strengths");
     }
 
     public String getAreasForImprovement() {
@@ -93,6 +105,7 @@ public class PerformanceEvaluation {
 
     public void setAreasForImprovement(String areasForImprovement) {
         this.areasForImprovement = areasForImprovement;
+        markDirty("areasForImprovement");
     }
 
     public String getComments() {
@@ -101,6 +114,7 @@ public class PerformanceEvaluation {
 
     public void setComments(String comments) {
         this.comments = comments;
+        markDirty("comments");
     }
 
     public String getReviewedBy() {
@@ -109,6 +123,7 @@ public class PerformanceEvaluation {
 
     public void setReviewedBy(String reviewedBy) {
         this.reviewedBy = reviewedBy;
+        markDirty("reviewedBy");
     }
 
     // Method to get rating description (remains the same)
@@ -0,0 +1,68 @@
+package com.example.hrsm2.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable summary of performance ratings for one employee, one department or the whole company.
+ * Read from the rating aggregate tables, which the database keeps up to date as evaluations
+ * are inserted, updated and deleted.
+ */
+public class RatingStats {
+    private final String groupKey;
+    private final int evaluationCount;
+    private final long ratingSum;
+    private final int minRating;
+    private final int maxRating;
+    private final LocalDate lastEvaluationDate;
+    private final Map<Integer, Integer> distribution;
+
+    public RatingStats(String groupKey, int evaluationCount, long ratingSum, int minRating, int maxRating,
+                       LocalDate lastEvaluationDate, Map<Integer, Integer> distribution) {
+        this.groupKey = groupKey;
+        this.evaluationCount = evaluationCount;
+        this.ratingSum = ratingSum;
+        this.minRating = minRating;
+        this.maxRating = maxRating;
+        this.lastEvaluationDate = lastEvaluationDate;
+        this.distribution = Collections.unmodifiableMap(new TreeMap<>(distribution));
+    }
+
+    /**
+     * @return The employee ID or department name these ratings belong to, or null for company-wide stats.
+     */
+    public String getGroupKey() { return groupKey; }
+
+    public int getEvaluationCount() { return evaluationCount; }
+    public long getRatingSum() { return ratingSum; }
+    public int getMinRating() { return minRating; }
+    public int getMaxRating() { return maxRating; }
+    public LocalDate getLastEvaluationDate() { return lastEvaluationDate; }
+
+    /**
+     * @return The number of evaluations per rating value, in ascending rating order.
+     */
+    public Map<Integer, Integer> getDistribution() { return distribution; }
+
+    /**
+     * @return The mean rating, or 0.0 if there are no evaluations.
+     */
+    public double getAverageRating() {
+        return evaluationCount == 0 ? 0.0 : (double) ratingSum / evaluationCount;
+    }
+
+    @Override
+    public String toString() {
+        return "RatingStats{" +
+                "groupKey='" + groupKey + '\'' +
+                ", count=" + evaluationCount +
+                ", average=" + String.format("%.2f", getAverageRating()) +
+                ", min=" + minRating +
+                ", max=" + maxRating +
+                ", lastEvaluationDate=" + lastEvaluationDate +
+                ", distribution=" + distribution +
+                '}';
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.hrsm2.model;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Base class for models that remember which fields changed since they were last
+ * loaded from or saved to the database, so updates can write only those columns.
+ * Field names are the Java property names (e.g. "status", "taxDeductions").
+ * Also carries the row version used for optimistic concurrency control.
+ */
+public abstract class TrackedEntity {
+    private final Set<String> dirtyFields = new LinkedHashSet<>();
+    private boolean tracked;
+    private long version;
+    // Set once a version was given, by the persistence layer or by a caller that knows which version it edits
+    private boolean versioned;
+
+    /**
+     * Records that a field was modified. Called by the setters of subclasses.
+     *
+     * @param fieldName The Java property name of the modified field.
+     */
+    protected void markDirty(String fieldName) {
+        dirtyFields.add(fieldName);
+    }
+
+    /**
+     * @return The fields modified since the last {@link #markClean()}, in modification order.
+     */
+    public Set<String> getDirtyFields() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(dirtyFields));
+    }
+
+    /**
+     * @return true if the entity mirrors a database row, i.e. its dirty fields
+     *         are an accurate description of what differs from the stored row.
+     */
+    public boolean isTracked() {
+        return tracked;
+    }
+
+    /**
+     * @return true if the entity carries the version of the row it edits, so an update must
+     *         only succeed while the row still has that version.
+     */
+    public boolean hasVersion() {
+        return tracked || versioned;
+    }
+
+    /**
+     * @return true if the entity mirrors its row and nothing was modified since, so saving it has nothing to write.
+     */
+    public boolean isUnchanged() {
+        return tracked && dirtyFields.isEmpty();
+    }
+
+    /**
+     * @return The row version this entity was loaded with (or last saved as).
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the row version. Called by the persistence layer, or by a caller that edits a row it
+     * knows the version of (e.g. one sent by an API client); not a tracked field change.
+     * From then on updates of this entity are checked against the version.
+     *
+     * @param version The version stored in the database row.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+        this.versioned = true;
+    }
+
+    /**
+     * Copies the tracking state (dirty fields, loaded flag and version) of another entity,
+     * so a copy is saved exactly as the original would have been.
+     *
+     * @param source The entity this one is a copy of.
+     */
+    protected void copyTrackingFrom(TrackedEntity source) {
+        dirtyFields.clear();
+        dirtyFields.addAll(source.dirtyFields);
+        tracked = source.tracked;
+        version = source.version;
+        versioned = source.versioned;
+    }
+
+    /**
+     * Marks the entity as in sync with its database row.
+     * Called by the persistence layer after a load, insert or update.
+     */
+    public void markClean() {
+        dirtyFields.clear();
+        tracked = true;
+    }
+}
@@ -1,9 +1,17 @@
 package com.example.hrsm2.model;
 
+import java.util.Comparator;
+
 // No need for UUID import anymore
 // import java.util.UUID;
 
 public class User {
+    /**
+     * Orders users by full name - the order the database returns them in.
+     */
+    public static final Comparator<User> BY_FULL_NAME = Comparator
+            .comparing(User::getFullName, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
     // private String id; // REMOVED - username is the primary key in DB
     private String username;
     private String password; // This will store the HASHED password when retrieved from DB
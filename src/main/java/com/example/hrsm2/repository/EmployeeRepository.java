@@ -0,0 +1,75 @@
+package com.example.hrsm2.repository;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage operations for employees.
+ * Entities handed out are copies: changing one does not affect the stored row until it is saved.
+ */
+public interface EmployeeRepository {
+
+    /**
+     * @param employee The employee to insert; must already have an ID.
+     * @return true if inserted, false if the ID or email is taken or on error.
+     */
+    boolean insertEmployee(Employee employee);
+
+    /**
+     * Inserts several employees in one transaction, skipping rows that violate a constraint.
+     *
+     * @return The employees that were inserted, or null if the transaction failed.
+     */
+    List<Employee> insertEmployees(List<Employee> employees);
+
+    /**
+     * @return All employees ordered by last name, then first name.
+     */
+    List<Employee> getAllEmployees();
+
+    /**
+     * A department filter matches the employee's own department.
+     *
+     * @throws IllegalArgumentException if the query names an unknown field.
+     */
+    int countEmployees(QuerySpec spec);
+
+    /**
+     * @throws IllegalArgumentException if the query names an unknown field.
+     */
+    List<Employee> getEmployeePage(QuerySpec spec, int offset, int limit);
+
+    /**
+     * @return The employee, or null if not found.
+     */
+    Employee getEmployeeById(String id);
+
+    /**
+     * Saves an employee. An employee loaded from the repository is only saved if nobody
+     * changed it in the meantime.
+     *
+     * @return UPDATED, CONFLICT, NOT_FOUND or ERROR.
+     */
+    UpdateResult tryUpdateEmployee(Employee employee);
+
+    /**
+     * @return true if the employee existed and was deleted.
+     */
+    boolean deleteEmployee(String id);
+
+    /**
+     * Case-insensitive search over name, email, department and job title.
+     *
+     * @return Matching employees ordered by name; all employees for a blank keyword.
+     */
+    List<Employee> searchEmployees(String keyword);
+
+    /**
+     * @return Number of employees per department, in department order (null key for no department).
+     */
+    Map<String, Integer> getHeadcountByDepartment();
+}
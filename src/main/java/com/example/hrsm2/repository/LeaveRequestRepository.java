@@ -0,0 +1,68 @@
+package com.example.hrsm2.repository;
+
+import com.example.hrsm2.model.LeaveRequest;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage operations for leave requests. Leave request IDs are generated on insert.
+ */
+public interface LeaveRequestRepository {
+
+    /**
+     * @return The generated ID, or -1 if the insert failed.
+     */
+    int insertLeaveRequest(LeaveRequest leaveRequest);
+
+    /**
+     * @return All leave requests, newest start date first.
+     */
+    List<LeaveRequest> getAllLeaveRequests();
+
+    /**
+     * @return The number of leave requests matching the query's filters.
+     * @throws IllegalArgumentException if the query names an unknown field.
+     */
+    int countLeaveRequests(QuerySpec spec);
+
+    /**
+     * @return One page of matching leave requests in the query's order (newest first by default).
+     * @throws IllegalArgumentException if the query names an unknown field.
+     */
+    List<LeaveRequest> getLeaveRequestPage(QuerySpec spec, int offset, int limit);
+
+    /**
+     * @return Leave requests that overlap [from, to], newest first.
+     */
+    List<LeaveRequest> getLeaveRequestsOverlapping(LocalDate from, LocalDate to);
+
+    /**
+     * @return One employee's leave requests that overlap [from, to], newest first.
+     */
+    List<LeaveRequest> getLeaveRequestsOverlapping(String employeeId, LocalDate from, LocalDate to);
+
+    /**
+     * @return The leave request, or null if not found.
+     */
+    LeaveRequest getLeaveRequestById(int id);
+
+    List<LeaveRequest> getLeaveRequestsByEmployeeId(String employeeId);
+
+    List<LeaveRequest> getApprovedLeaveRequestsByEmployeeId(String employeeId);
+
+    /**
+     * @return UPDATED, CONFLICT, NOT_FOUND or ERROR.
+     */
+    UpdateResult tryUpdateLeaveRequest(LeaveRequest leaveRequest);
+
+    boolean deleteLeaveRequest(int id);
+
+    /**
+     * @return Approved leave days inside [from, to] per department of the requesting employee.
+     */
+    Map<String, Long> getApprovedLeaveDaysByDepartment(LocalDate from, LocalDate to);
+}
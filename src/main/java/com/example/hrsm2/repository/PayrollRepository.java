@@ -0,0 +1,104 @@
+package com.example.hrsm2.repository;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.model.Payroll;
+import com.example.hrsm2.model.PayrollCost;
+import com.example.hrsm2.model.PayrollRun;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Storage operations for payrolls and the ledger of bulk payroll runs.
+ * An employee has at most one payroll per pay period.
+ */
+public interface PayrollRepository {
+
+    /**
+     * @return true if inserted, false if the employee already has a payroll for the period or on error.
+     */
+    boolean insertPayroll(Payroll payroll);
+
+    /**
+     * Inserts a chunk of a payroll run and advances the run's checkpoint atomically.
+     * Payrolls for an employee that already has one for the period are skipped.
+     *
+     * @return The payrolls actually inserted, or null if the chunk was rolled back.
+     */
+    List<Payroll> commitPayrollChunk(String runId, List<Payroll> payrolls);
+
+    /**
+     * @return Employees without a payroll for the period, ordered by ID.
+     */
+    List<Employee> getEmployeesWithoutPayroll(LocalDate payPeriodStart, LocalDate payPeriodEnd);
+
+    /**
+     * @return All payrolls, newest pay period first.
+     */
+    List<Payroll> getAllPayrolls();
+
+    /**
+     * @throws IllegalArgumentException if the query names an unknown field.
+     */
+    int countPayrolls(QuerySpec spec);
+
+    /**
+     * @throws IllegalArgumentException if the query names an unknown field.
+     */
+    List<Payroll> getPayrollPage(QuerySpec spec, int offset, int limit);
+
+    /**
+     * @return Payrolls whose pay period overlaps [from, to], newest first.
+     */
+    List<Payroll> getPayrollsOverlapping(LocalDate from, LocalDate to);
+
+    Payroll getPayrollById(String id);
+
+    List<Payroll> getPayrollsByEmployeeId(String employeeId);
+
+    /**
+     * @return The employee's payroll for exactly that period, or null.
+     */
+    Payroll getPayrollForPeriod(String employeeId, LocalDate payPeriodStart, LocalDate payPeriodEnd);
+
+    /**
+     * @return UPDATED, CONFLICT, NOT_FOUND or ERROR.
+     */
+    UpdateResult tryUpdatePayroll(Payroll payroll);
+
+    /**
+     * Changes a payroll's status only if it is still in {@code fromStatus}.
+     *
+     * @return The payroll after the transition, or null if not found or in another status.
+     */
+    Payroll transitionPayrollStatus(String id, Payroll.PayrollStatus fromStatus, Payroll.PayrollStatus toStatus);
+
+    /**
+     * Moves every payroll in {@code fromStatus}, optionally of one pay period, to {@code toStatus}.
+     *
+     * @return The payrolls after the transition.
+     */
+    List<Payroll> transitionPayrollStatuses(Payroll.PayrollStatus fromStatus, Payroll.PayrollStatus toStatus,
+                                           LocalDate payPeriodStart, LocalDate payPeriodEnd);
+
+    boolean deletePayroll(String id);
+
+    boolean insertPayrollRun(PayrollRun run);
+
+    /**
+     * @return The most recently started run for the period, or null.
+     */
+    PayrollRun getLatestPayrollRun(LocalDate payPeriodStart, LocalDate payPeriodEnd);
+
+    /**
+     * Updates a run's status and employee total; progress only moves through {@link #commitPayrollChunk}.
+     */
+    boolean updatePayrollRunStatus(PayrollRun run);
+
+    /**
+     * @return Payroll cost per department and pay period, newest first; both dates null for every period.
+     */
+    List<PayrollCost> getPayrollCostByDepartment(LocalDate periodStart, LocalDate periodEnd);
+}
@@ -0,0 +1,60 @@
+package com.example.hrsm2.repository;
+
+import com.example.hrsm2.model.PerformanceEvaluation;
+import com.example.hrsm2.model.RatingStats;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage operations for performance evaluations and the rating aggregates kept alongside them.
+ */
+public interface PerformanceEvaluationRepository {
+
+    boolean insertEvaluation(PerformanceEvaluation evaluation);
+
+    /**
+     * @return All evaluations, newest first.
+     */
+    List<PerformanceEvaluation> getAllEvaluations();
+
+    /**
+     * @throws IllegalArgumentException if the query names an unknown field.
+     */
+    int countEvaluations(QuerySpec spec);
+
+    /**
+     * @throws IllegalArgumentException if the query names an unknown field.
+     */
+    List<PerformanceEvaluation> getEvaluationPage(QuerySpec spec, int offset, int limit);
+
+    /**
+     * @return Evaluations dated within [from, to], newest first.
+     */
+    List<PerformanceEvaluation> getEvaluationsBetween(LocalDate from, LocalDate to);
+
+    PerformanceEvaluation getEvaluationById(String id);
+
+    List<PerformanceEvaluation> getEvaluationsByEmployeeId(String employeeId);
+
+    /**
+     * @return UPDATED, CONFLICT, NOT_FOUND or ERROR.
+     */
+    UpdateResult tryUpdateEvaluation(PerformanceEvaluation evaluation);
+
+    boolean deleteEvaluation(String id);
+
+    /**
+     * @return The employee's rating statistics, or null if they have no evaluations.
+     */
+    RatingStats getRatingStatsForEmployee(String employeeId);
+
+    Map<String, Double> getAverageRatingsByEmployee();
+
+    Map<String, RatingStats> getRatingStatsByDepartment();
+
+    RatingStats getCompanyRatingStats();
+}
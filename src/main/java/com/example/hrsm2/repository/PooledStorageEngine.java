@@ -0,0 +1,166 @@
+package com.example.hrsm2.repository;
+
+import com.example.hrsm2.util.DatabaseConfig;
+import com.example.hrsm2.util.DatabaseDriver;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SQLite engine for concurrent callers, e.g. the HTTP server: a pool of {@link DatabaseDriver}s,
+ * each with its own connection to the same database.
+ * <p>
+ * Every repository call borrows a driver, runs on it and hands it back, so requests on different
+ * threads do not share a connection or see each other's transactions. File databases are opened
+ * in WAL mode with a busy timeout (unless configured otherwise), so readers do not block the
+ * writer and writers wait for each other instead of failing. A private in-memory database
+ * exists only for the connection that opened it, so such a pool has a single driver; a
+ * shared-cache in-memory database is pooled like a file.
+ */
+public class PooledStorageEngine implements StorageEngine {
+    public static final int DEFAULT_POOL_SIZE = 4;
+
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+
+    private final List<DatabaseDriver> drivers = new ArrayList<>();
+    private final BlockingQueue<DatabaseDriver> idle;
+    private final EmployeeRepository employees;
+    private final LeaveRequestRepository leaveRequests;
+    private final PayrollRepository payrolls;
+    private final PerformanceEvaluationRepository evaluations;
+    private final UserRepository users;
+    private volatile boolean closed;
+
+    /**
+     * Opens the pool's connections; the first one creates or migrates the schema.
+     *
+     * @param config The database to open.
+     * @param size The number of connections; at least one.
+     * @throws IllegalStateException if a connection cannot be opened.
+     */
+    public PooledStorageEngine(DatabaseConfig config, int size) {
+        int poolSize = Math.max(1, size);
+        if (config.isPrivateMemory() && poolSize > 1) {
+            System.out.println("Server Info: " + config.getUrl() + " is private to one connection; pooling 1 connection"
+                    + " instead of " + poolSize + ". Use a shared-memory database to pool connections.");
+            poolSize = 1;
+        }
+        DatabaseConfig pooled = config.isInMemory() ? config : withConcurrencyDefaults(config);
+        idle = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            DatabaseDriver driver = new DatabaseDriver(pooled);
+            drivers.add(driver);
+            if (!driver.isConnected()) {
+                close();
+                throw new IllegalStateException("Cannot open database " + pooled.getUrl());
+            }
+            idle.add(driver);
+        }
+        employees = pooled(EmployeeRepository.class);
+        leaveRequests = pooled(LeaveRequestRepository.class);
+        payrolls = pooled(PayrollRepository.class);
+        evaluations = pooled(PerformanceEvaluationRepository.class);
+        users = pooled(UserRepository.class);
+    }
+
+    // Concurrent connections to one file need WAL and a busy timeout; explicit settings win
+    private static DatabaseConfig withConcurrencyDefaults(DatabaseConfig config) {
+        DatabaseConfig result = config;
+        if (!config.getPragmas().containsKey("journal_mode")) {
+            result = result.withPragma("journal_mode", "WAL");
+        }
+        if (!config.getPragmas().containsKey("busy_timeout")) {
+            result = result.withPragma("busy_timeout", "5000");
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of pooled connections.
+     */
+    public int getPoolSize() {
+        return drivers.size();
+    }
+
+    /**
+     * @return The number of connections not in use right now.
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    // Every repository interface is implemented by DatabaseDriver, so one handler serves them all
+    private <R> R pooled(Class<R> repository) {
+        Object proxy = Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                (self, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "equals" -> self == args[0];
+                            case "hashCode" -> System.identityHashCode(self);
+                            default -> "Pooled" + repository.getSimpleName();
+                        };
+                    }
+                    // Default methods (password hashing) do not use the connection; do not hold one for them
+                    DatabaseDriver driver = method.isDefault() ? drivers.get(0) : borrow();
+                    try {
+                        return method.invoke(driver, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if (!method.isDefault()) {
+                            idle.offer(driver);
+                        }
+                    }
+                });
+        return repository.cast(proxy);
+    }
+
+    private DatabaseDriver borrow() throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Storage engine is closed");
+        }
+        DatabaseDriver driver = idle.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (driver == null) {
+            throw new IllegalStateException("No database connection free after " + BORROW_TIMEOUT_SECONDS + " s");
+        }
+        return driver;
+    }
+
+    @Override
+    public EmployeeRepository employees() {
+        return employees;
+    }
+
+    @Override
+    public LeaveRequestRepository leaveRequests() {
+        return leaveRequests;
+    }
+
+    @Override
+    public PayrollRepository payrolls() {
+        return payrolls;
+    }
+
+    @Override
+    public PerformanceEvaluationRepository evaluations() {
+        return evaluations;
+    }
+
+    @Override
+    public UserRepository users() {
+        return users;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (DatabaseDriver driver : drivers) {
+            driver.closeConnection();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.hrsm2.repository;
+
+import com.example.hrsm2.util.DatabaseDriver;
+
+/**
+ * The SQLite engine: every repository is the shared {@link DatabaseDriver}.
+ */
+public class SqliteStorageEngine implements StorageEngine {
+    private final DatabaseDriver driver;
+
+    public SqliteStorageEngine() {
+        this(DatabaseDriver.getInstance());
+    }
+
+    public SqliteStorageEngine(DatabaseDriver driver) {
+        this.driver = driver;
+    }
+
+    @Override
+    public EmployeeRepository employees() {
+        return driver;
+    }
+
+    @Override
+    public LeaveRequestRepository leaveRequests() {
+        return driver;
+    }
+
+    @Override
+    public PayrollRepository payrolls() {
+        return driver;
+    }
+
+    @Override
+    public PerformanceEvaluationRepository evaluations() {
+        return driver;
+    }
+
+    @Override
+    public UserRepository users() {
+        return driver;
+    }
+
+    @Override
+    public void close() {
+        driver.closeConnection();
+    }
+}
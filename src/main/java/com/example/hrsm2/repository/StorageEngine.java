@@ -0,0 +1,24 @@
+package com.example.hrsm2.repository;
+
+/**
+ * A complete storage backend: one repository per entity, all backed by the same data.
+ * Services receive the repositories they need, so the engine can be swapped without
+ * touching business logic.
+ */
+public interface StorageEngine {
+
+    EmployeeRepository employees();
+
+    LeaveRequestRepository leaveRequests();
+
+    PayrollRepository payrolls();
+
+    PerformanceEvaluationRepository evaluations();
+
+    UserRepository users();
+
+    /**
+     * Releases the engine's resources (connections, snapshot files). Safe to call more than once.
+     */
+    void close();
+}
@@ -0,0 +1,58 @@
+package com.example.hrsm2.repository;
+
+import com.example.hrsm2.repository.memory.InMemoryStorageEngine;
+
+import java.nio.file.Path;
+
+/**
+ * Holds the storage engine the service singletons are built on.
+ * <p>
+ * The engine is chosen by the {@code hrsm.storage} system property:
+ * {@code sqlite} (the default) or {@code memory}. With {@code memory}, the optional
+ * {@code hrsm.storage.snapshot} property names a file the in-memory data is loaded from
+ * at startup and saved to on close. Tests and benchmarks can also install an engine with
+ * {@link #setDefault} before the first service is created.
+ */
+public final class StorageEngines {
+    public static final String ENGINE_PROPERTY = "hrsm.storage";
+    public static final String SNAPSHOT_PROPERTY = "hrsm.storage.snapshot";
+
+    private static StorageEngine defaultEngine;
+
+    private StorageEngines() {
+        // Static holder
+    }
+
+    /**
+     * @return The engine services use when none is injected, created on first use.
+     */
+    public static synchronized StorageEngine getDefault() {
+        if (defaultEngine == null) {
+            defaultEngine = create(System.getProperty(ENGINE_PROPERTY, "sqlite"), System.getProperty(SNAPSHOT_PROPERTY));
+        }
+        return defaultEngine;
+    }
+
+    /**
+     * Installs the engine services use when none is injected.
+     * Only affects services created afterwards.
+     */
+    public static synchronized void setDefault(StorageEngine engine) {
+        defaultEngine = engine;
+    }
+
+    /**
+     * @param name "sqlite" or "memory" (case-insensitive).
+     * @param snapshotFile Snapshot file for the in-memory engine, or null for none.
+     * @throws IllegalArgumentException for an unknown engine name.
+     */
+    public static StorageEngine create(String name, String snapshotFile) {
+        return switch (name.trim().toLowerCase()) {
+            case "sqlite" -> new SqliteStorageEngine();
+            case "memory" -> snapshotFile == null || snapshotFile.isBlank()
+                    ? new InMemoryStorageEngine()
+                    : new InMemoryStorageEngine(Path.of(snapshotFile));
+            default -> throw new IllegalArgumentException("Unknown storage engine: " + name);
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.hrsm2.repository;
+
+import com.example.hrsm2.model.User;
+import com.example.hrsm2.util.PasswordHasher;
+
+import java.util.List;
+
+/**
+ * Storage operations for application users, keyed by username.
+ * Passwords are stored as salted hashes made by {@link #hashPassword}.
+ */
+public interface UserRepository {
+
+    /**
+     * Inserts a user, hashing the plain text password.
+     *
+     * @return true if inserted, false if the username is taken, an argument is blank or on error.
+     */
+    boolean insertUser(String username, String fullName, String plainPassword, String role);
+
+    /**
+     * @return The user (with the hashed password), or null if not found.
+     */
+    User getUserByUsername(String username);
+
+    /**
+     * @return All users ordered by full name.
+     */
+    List<User> getAllUsers();
+
+    /**
+     * @return The users with the given role, ordered by full name.
+     */
+    List<User> getUsersByRole(User.UserRole role);
+
+    /**
+     * Updates full name, password hash and role. The user's password must already be hashed.
+     */
+    boolean updateUser(User user);
+
+    /**
+     * Replaces a password hash, but only if the stored hash is still {@code expectedHash}.
+     * Used to upgrade hashes on login without touching the other columns, so a concurrent
+     * change of the role, name or password by an administrator is never overwritten.
+     *
+     * @return true if the hash was replaced, false if the user is gone, the hash changed or on error.
+     */
+    boolean updatePasswordHash(String username, String expectedHash, String newHash);
+
+    /**
+     * Deletes a user; the built-in 'super' account cannot be deleted.
+     */
+    boolean deleteUser(String username);
+
+    /**
+     * Hashes a password with a new random salt (see {@link PasswordHasher}).
+     * Public so UserService can rehash passwords stored in an older format.
+     * @param password The plain text password.
+     * @return The encoded hash, or null if the password is null.
+     */
+    default String hashPassword(String password) {
+        return PasswordHasher.getDefault().hash(password);
+    }
+
+    /**
+     * Checks an entered password against a stored hash, in constant time.
+     * Accepts the unsalted SHA-256 hashes of older databases as well.
+     * @param plainPassword The plain text password entered.
+     * @param storedHash The hash stored for the user.
+     * @return true if the password matches.
+     */
+    default boolean verifyPassword(String plainPassword, String storedHash) {
+        return PasswordHasher.getDefault().verify(plainPassword, storedHash);
+    }
+
+    /**
+     * @param storedHash A hash that just verified successfully.
+     * @return true if it is in an older format or cheaper than the current cost and should be rehashed.
+     */
+    default boolean passwordNeedsRehash(String storedHash) {
+        return PasswordHasher.getDefault().needsRehash(storedHash);
+    }
+}
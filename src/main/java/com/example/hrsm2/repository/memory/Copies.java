@@ -0,0 +1,82 @@
+package com.example.hrsm2.repository.memory;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.model.LeaveRequest;
+import com.example.hrsm2.model.Payroll;
+import com.example.hrsm2.model.PayrollRun;
+import com.example.hrsm2.model.PerformanceEvaluation;
+import com.example.hrsm2.model.User;
+
+/**
+ * Defensive copies of stored rows. The in-memory engine never hands out the objects it stores,
+ * so a caller editing a returned entity does not change the "database" until it saves it,
+ * exactly as with rows read from SQLite. Copies keep the stored version and start clean.
+ */
+final class Copies {
+
+    private Copies() {
+        // Static helpers
+    }
+
+    static Employee of(Employee employee) {
+        Employee copy = new Employee(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), employee.getPhone(), employee.getHireDate(), employee.getDepartment(),
+                employee.getJobTitle(), employee.getSalary());
+        copy.setVersion(employee.getVersion());
+        copy.markClean();
+        return copy;
+    }
+
+    static LeaveRequest of(LeaveRequest request) {
+        LeaveRequest copy = new LeaveRequest(request.getId(), request.getEmployeeId(), request.getStartDate(),
+                request.getEndDate(), request.getReason(), request.getStatus(), request.getManagerComments());
+        copy.setVersion(request.getVersion());
+        copy.markClean();
+        return copy;
+    }
+
+    static Payroll of(Payroll payroll) {
+        Payroll copy = new Payroll();
+        copy.setId(payroll.getId());
+        copy.setEmployeeId(payroll.getEmployeeId());
+        copy.setPayPeriodStart(payroll.getPayPeriodStart());
+        copy.setPayPeriodEnd(payroll.getPayPeriodEnd());
+        // The setters recompute the net salary from the copied components
+        copy.setBaseSalary(payroll.getBaseSalary());
+        copy.setOvertimePay(payroll.getOvertimePay());
+        copy.setBonus(payroll.getBonus());
+        copy.setTaxDeductions(payroll.getTaxDeductions());
+        copy.setOtherDeductions(payroll.getOtherDeductions());
+        copy.setStatus(payroll.getStatus());
+        copy.setVersion(payroll.getVersion());
+        copy.markClean();
+        return copy;
+    }
+
+    static PerformanceEvaluation of(PerformanceEvaluation evaluation) {
+        PerformanceEvaluation copy = new PerformanceEvaluation(evaluation.getId(), evaluation.getEmployeeId(),
+                evaluation.getEvaluationDate(), evaluation.getPerformanceRating(), evaluation.getStrengths(),
+                evaluation.getAreasForImprovement(), evaluation.getComments(), evaluation.getReviewedBy());
+        copy.setVersion(evaluation.getVersion());
+        copy.markClean();
+        return copy;
+    }
+
+    static User of(User user) {
+        return new User(user.getUsername(), user.getPassword(), user.getFullName(), user.getRole());
+    }
+
+    static PayrollRun of(PayrollRun run) {
+        PayrollRun copy = new PayrollRun();
+        copy.setId(run.getId());
+        copy.setPayPeriodStart(run.getPayPeriodStart());
+        copy.setPayPeriodEnd(run.getPayPeriodEnd());
+        copy.setStatus(run.getStatus());
+        copy.setTotalEmployees(run.getTotalEmployees());
+        copy.setCommittedCount(run.getCommittedCount());
+        copy.setCommittedChunks(run.getCommittedChunks());
+        copy.setStartedAt(run.getStartedAt());
+        copy.setUpdatedAt(run.getUpdatedAt());
+        return copy;
+    }
+}
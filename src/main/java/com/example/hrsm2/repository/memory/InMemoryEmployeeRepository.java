@@ -0,0 +1,273 @@
+package com.example.hrsm2.repository.memory;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.repository.EmployeeRepository;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Employee table of the in-memory engine.
+ * Rows are indexed by ID, by name (the listing order), by email (which must be unique, as in
+ * the SQL schema) and by department (for headcounts and department filters of other tables).
+ */
+class InMemoryEmployeeRepository extends InMemoryRepository implements EmployeeRepository {
+    // Listing order of the SQL engine: last name, first name; the ID keeps the order total
+    private static final Comparator<Employee> BY_NAME = Comparator
+            .comparing(Employee::getLastName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Employee::getFirstName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(Employee::getId);
+    // An employee's department filter applies to its own department
+    private static final InMemoryQuery<Employee> QUERY = new InMemoryQuery<>(fields(),
+            List.of(new QuerySpec.Sort("lastName", QuerySpec.Direction.ASCENDING),
+                    new QuerySpec.Sort("firstName", QuerySpec.Direction.ASCENDING),
+                    new QuerySpec.Sort("id", QuerySpec.Direction.ASCENDING)),
+            Employee::getId);
+
+    private final Map<String, Employee> byId = new HashMap<>();
+    private final TreeSet<Employee> byName = new TreeSet<>(BY_NAME);
+    private final Map<String, String> idByEmail = new HashMap<>();
+    private final Map<String, Set<String>> idsByDepartment = new HashMap<>();
+
+    InMemoryEmployeeRepository(ReadWriteLock lock) {
+        super(lock);
+    }
+
+    private static Map<String, Function<Employee, Object>> fields() {
+        Map<String, Function<Employee, Object>> fields = new HashMap<>();
+        fields.put("id", Employee::getId);
+        fields.put("firstName", Employee::getFirstName);
+        fields.put("lastName", Employee::getLastName);
+        fields.put("email", Employee::getEmail);
+        fields.put("phone", Employee::getPhone);
+        fields.put("hireDate", Employee::getHireDate);
+        fields.put("department", Employee::getDepartment);
+        fields.put("jobTitle", Employee::getJobTitle);
+        fields.put("salary", Employee::getSalary);
+        return fields;
+    }
+
+    @Override
+    public boolean insertEmployee(Employee employee) {
+        return write(() -> insert(employee));
+    }
+
+    @Override
+    public List<Employee> insertEmployees(List<Employee> employees) {
+        if (employees == null) {
+            return null;
+        }
+        return write(() -> {
+            // Rows that violate a constraint are skipped, the others are kept
+            List<Employee> inserted = new ArrayList<>();
+            for (Employee employee : employees) {
+                if (insert(employee)) {
+                    inserted.add(employee);
+                }
+            }
+            return inserted;
+        });
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        return read(() -> copies(byName));
+    }
+
+    @Override
+    public int countEmployees(QuerySpec spec) {
+        return read(() -> QUERY.count(byId.values(), spec, this::departmentOf));
+    }
+
+    @Override
+    public List<Employee> getEmployeePage(QuerySpec spec, int offset, int limit) {
+        return read(() -> copies(QUERY.page(byId.values(), spec, this::departmentOf, offset, limit)));
+    }
+
+    @Override
+    public Employee getEmployeeById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return null;
+        }
+        return read(() -> {
+            Employee stored = byId.get(id);
+            return stored != null ? Copies.of(stored) : null;
+        });
+    }
+
+    @Override
+    public UpdateResult tryUpdateEmployee(Employee employee) {
+        if (employee == null || employee.getId() == null || employee.getId().trim().isEmpty()) {
+            return UpdateResult.ERROR;
+        }
+        return write(() -> {
+            Employee stored = byId.get(employee.getId());
+            UpdateResult rejected = checkVersion(stored, employee);
+            if (rejected != null) {
+                return rejected;
+            }
+            if (employee.isUnchanged()) {
+                // Nothing to save, as in the SQL engine
+                return UpdateResult.UPDATED;
+            }
+            if (!isValid(employee) || !isEmailAvailable(employee.getEmail(), employee.getId())) {
+                return UpdateResult.ERROR;
+            }
+            long version = stored.getVersion() + 1;
+            unindex(stored);
+            Employee saved = Copies.of(employee);
+            saved.setVersion(version);
+            index(saved);
+            markSaved(employee, version);
+            return UpdateResult.UPDATED;
+        });
+    }
+
+    @Override
+    public boolean deleteEmployee(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+        return write(() -> {
+            Employee stored = byId.get(id);
+            if (stored == null) {
+                return false;
+            }
+            // Like the SQL engine (foreign keys are not enforced), dependent rows are left to the services
+            unindex(stored);
+            return true;
+        });
+    }
+
+    @Override
+    public List<Employee> searchEmployees(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return getAllEmployees();
+        }
+        String term = keyword.toLowerCase(Locale.ROOT);
+        return read(() -> {
+            List<Employee> matches = new ArrayList<>();
+            for (Employee employee : byName) {
+                if (contains(employee.getFirstName(), term) || contains(employee.getLastName(), term)
+                        || contains(employee.getEmail(), term) || contains(employee.getDepartment(), term)
+                        || contains(employee.getJobTitle(), term)) {
+                    matches.add(Copies.of(employee));
+                }
+            }
+            return matches;
+        });
+    }
+
+    @Override
+    public Map<String, Integer> getHeadcountByDepartment() {
+        return read(() -> {
+            // Department order with employees without a department first, as ORDER BY department
+            Map<String, Integer> sorted = new TreeMap<>(Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+            idsByDepartment.forEach((department, ids) -> sorted.put(department, ids.size()));
+            return new LinkedHashMap<>(sorted);
+        });
+    }
+
+    // --- Engine-internal access; callers hold the engine lock ---
+
+    /**
+     * @return The department of an employee, or null if the employee or its department is unknown.
+     */
+    String departmentOf(String employeeId) {
+        Employee employee = employeeId != null ? byId.get(employeeId) : null;
+        return employee != null ? employee.getDepartment() : null;
+    }
+
+    boolean exists(String employeeId) {
+        return employeeId != null && byId.containsKey(employeeId);
+    }
+
+    /**
+     * @return The stored employees ordered by ID.
+     */
+    List<Employee> storedById() {
+        List<Employee> employees = new ArrayList<>(byId.values());
+        employees.sort(Comparator.comparing(Employee::getId));
+        return employees;
+    }
+
+    Collection<Employee> stored() {
+        return byId.values();
+    }
+
+    /**
+     * Restores a row from a snapshot, keeping its stored version.
+     */
+    void restore(Employee employee) {
+        index(employee);
+    }
+
+    void clear() {
+        byId.clear();
+        byName.clear();
+        idByEmail.clear();
+        idsByDepartment.clear();
+    }
+
+    private boolean insert(Employee employee) {
+        if (employee == null || employee.getId() == null || employee.getId().trim().isEmpty()
+                || byId.containsKey(employee.getId()) || !isValid(employee)
+                || !isEmailAvailable(employee.getEmail(), employee.getId())) {
+            return false;
+        }
+        Employee saved = Copies.of(employee);
+        saved.setVersion(0);
+        index(saved);
+        markSaved(employee, 0); // Column default for new rows
+        return true;
+    }
+
+    // NOT NULL columns of the SQL schema
+    private static boolean isValid(Employee employee) {
+        return employee.getFirstName() != null && employee.getLastName() != null && employee.getEmail() != null;
+    }
+
+    private boolean isEmailAvailable(String email, String ownerId) {
+        String holder = idByEmail.get(email);
+        return holder == null || holder.equals(ownerId);
+    }
+
+    private void index(Employee employee) {
+        byId.put(employee.getId(), employee);
+        byName.add(employee);
+        idByEmail.put(employee.getEmail(), employee.getId());
+        addToIndex(idsByDepartment, employee.getDepartment(), employee.getId());
+    }
+
+    private void unindex(Employee employee) {
+        byId.remove(employee.getId());
+        byName.remove(employee);
+        idByEmail.remove(employee.getEmail());
+        removeFromIndex(idsByDepartment, employee.getDepartment(), employee.getId());
+    }
+
+    private static boolean contains(String value, String term) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(term);
+    }
+
+    private static List<Employee> copies(Collection<Employee> employees) {
+        List<Employee> copies = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            copies.add(Copies.of(employee));
+        }
+        return copies;
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.hrsm2.repository.memory;
+
+import com.example.hrsm2.model.PerformanceEvaluation;
+import com.example.hrsm2.model.RatingStats;
+import com.example.hrsm2.repository.PerformanceEvaluationRepository;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Performance evaluation table of the in-memory engine.
+ * Evaluations are indexed by employee and by date, and per-employee rating aggregates are
+ * updated on every insert, update and delete - the in-memory counterpart of the rating
+ * triggers of the SQL engine - so statistics never scan the evaluations.
+ */
+class InMemoryEvaluationRepository extends InMemoryRepository implements PerformanceEvaluationRepository {
+    private static final InMemoryQuery<PerformanceEvaluation> QUERY = new InMemoryQuery<>(fields(),
+            List.of(new QuerySpec.Sort("evaluationDate", QuerySpec.Direction.DESCENDING),
+                    new QuerySpec.Sort("employeeId", QuerySpec.Direction.ASCENDING),
+                    new QuerySpec.Sort("id", QuerySpec.Direction.ASCENDING)),
+            PerformanceEvaluation::getEmployeeId);
+
+    /**
+     * Running rating totals of one group (an employee, a department or the company).
+     */
+    private static final class RatingAccumulator {
+        private int count;
+        private long sum;
+        private final TreeMap<Integer, Integer> ratings = new TreeMap<>();
+        private final TreeMap<LocalDate, Integer> dates = new TreeMap<>();
+
+        void add(int rating, LocalDate date) {
+            count++;
+            sum += rating;
+            ratings.merge(rating, 1, Integer::sum);
+            dates.merge(date, 1, Integer::sum);
+        }
+
+        void remove(int rating, LocalDate date) {
+            count--;
+            sum -= rating;
+            ratings.computeIfPresent(rating, (k, n) -> n > 1 ? n - 1 : null);
+            dates.computeIfPresent(date, (k, n) -> n > 1 ? n - 1 : null);
+        }
+
+        void addAll(RatingAccumulator other) {
+            count += other.count;
+            sum += other.sum;
+            other.ratings.forEach((rating, n) -> ratings.merge(rating, n, Integer::sum));
+            other.dates.forEach((date, n) -> dates.merge(date, n, Integer::sum));
+        }
+
+        RatingStats toStats(String groupKey) {
+            return new RatingStats(groupKey, count, sum,
+                    ratings.isEmpty() ? 0 : ratings.firstKey(),
+                    ratings.isEmpty() ? 0 : ratings.lastKey(),
+                    dates.isEmpty() ? null : dates.lastKey(),
+                    ratings);
+        }
+    }
+
+    private final InMemoryEmployeeRepository employees;
+    private final Map<String, PerformanceEvaluation> byId = new HashMap<>();
+    private final Map<String, Set<String>> idsByEmployee = new HashMap<>();
+    private final TreeMap<LocalDate, Set<String>> idsByDate = new TreeMap<>();
+    private final Map<String, RatingAccumulator> ratingsByEmployee = new HashMap<>();
+
+    InMemoryEvaluationRepository(ReadWriteLock lock, InMemoryEmployeeRepository employees) {
+        super(lock);
+        this.employees = employees;
+    }
+
+    private static Map<String, Function<PerformanceEvaluation, Object>> fields() {
+        Map<String, Function<PerformanceEvaluation, Object>> fields = new HashMap<>();
+        fields.put("id", PerformanceEvaluation::getId);
+        fields.put("employeeId", PerformanceEvaluation::getEmployeeId);
+        fields.put("evaluationDate", PerformanceEvaluation::getEvaluationDate);
+        fields.put("performanceRating", PerformanceEvaluation::getPerformanceRating);
+        fields.put("strengths", PerformanceEvaluation::getStrengths);
+        fields.put("areasForImprovement", PerformanceEvaluation::getAreasForImprovement);
+        fields.put("comments", PerformanceEvaluation::getComments);
+        fields.put("reviewedBy", PerformanceEvaluation::getReviewedBy);
+        return fields;
+    }
+
+    @Override
+    public boolean insertEvaluation(PerformanceEvaluation evaluation) {
+        if (evaluation == null || evaluation.getId() == null || evaluation.getId().trim().isEmpty()) {
+            return false;
+        }
+        return write(() -> {
+            if (byId.containsKey(evaluation.getId()) || !isValid(evaluation)) {
+                return false;
+            }
+            PerformanceEvaluation saved = Copies.of(evaluation);
+            saved.setVersion(0);
+            index(saved);
+            markSaved(evaluation, 0); // Column default for new rows
+            return true;
+        });
+    }
+
+    @Override
+    public List<PerformanceEvaluation> getAllEvaluations() {
+        return read(() -> sortedCopies(byId.values()));
+    }
+
+    @Override
+    public int countEvaluations(QuerySpec spec) {
+        return read(() -> QUERY.count(byId.values(), spec, employees::departmentOf));
+    }
+
+    @Override
+    public List<PerformanceEvaluation> getEvaluationPage(QuerySpec spec, int offset, int limit) {
+        return read(() -> copies(QUERY.page(byId.values(), spec, employees::departmentOf, offset, limit)));
+    }
+
+    @Override
+    public List<PerformanceEvaluation> getEvaluationsBetween(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            return new ArrayList<>();
+        }
+        return read(() -> {
+            List<PerformanceEvaluation> matches = new ArrayList<>();
+            for (Set<String> ids : idsByDate.subMap(from, true, to, true).values()) {
+                matches.addAll(rowsFor(byId, ids));
+            }
+            return sortedCopies(matches);
+        });
+    }
+
+    @Override
+    public PerformanceEvaluation getEvaluationById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return null;
+        }
+        return read(() -> {
+            PerformanceEvaluation stored = byId.get(id);
+            return stored != null ? Copies.of(stored) : null;
+        });
+    }
+
+    @Override
+    public List<PerformanceEvaluation> getEvaluationsByEmployeeId(String employeeId) {
+        if (employeeId == null) {
+            return new ArrayList<>();
+        }
+        return read(() -> sortedCopies(rowsFor(byId, lookup(idsByEmployee, employeeId))));
+    }
+
+    @Override
+    public UpdateResult tryUpdateEvaluation(PerformanceEvaluation evaluation) {
+        if (evaluation == null || evaluation.getId() == null || evaluation.getId().trim().isEmpty()) {
+            return UpdateResult.ERROR;
+        }
+        return write(() -> {
+            PerformanceEvaluation stored = byId.get(evaluation.getId());
+            UpdateResult rejected = checkVersion(stored, evaluation);
+            if (rejected != null) {
+                return rejected;
+            }
+            if (evaluation.isUnchanged()) {
+                // Nothing to save, as in the SQL engine
+                return UpdateResult.UPDATED;
+            }
+            if (!isValid(evaluation)) {
+                return UpdateResult.ERROR;
+            }
+            long version = stored.getVersion() + 1;
+            unindex(stored);
+            PerformanceEvaluation saved = Copies.of(evaluation);
+            saved.setVersion(version);
+            index(saved);
+            markSaved(evaluation, version);
+            return UpdateResult.UPDATED;
+        });
+    }
+
+    @Override
+    public boolean deleteEvaluation(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+        return write(() -> {
+            PerformanceEvaluation stored = byId.get(id);
+            if (stored == null) {
+                return false;
+            }
+            unindex(stored);
+            return true;
+        });
+    }
+
+    @Override
+    public RatingStats getRatingStatsForEmployee(String employeeId) {
+        if (employeeId == null) {
+            return null;
+        }
+        return read(() -> {
+            RatingAccumulator ratings = ratingsByEmployee.get(employeeId);
+            return ratings != null ? ratings.toStats(employeeId) : null;
+        });
+    }
+
+    @Override
+    public Map<String, Double> getAverageRatingsByEmployee() {
+        return read(() -> {
+            Map<String, Double> averages = new LinkedHashMap<>();
+            ratingsByEmployee.forEach((employeeId, ratings) -> averages.put(employeeId, (double) ratings.sum / ratings.count));
+            return averages;
+        });
+    }
+
+    @Override
+    public Map<String, RatingStats> getRatingStatsByDepartment() {
+        return read(() -> {
+            // Inner join: ratings of employees that no longer exist are not counted
+            Map<String, RatingAccumulator> byDepartment = new LinkedHashMap<>();
+            ratingsByEmployee.forEach((employeeId, ratings) -> {
+                if (employees.exists(employeeId)) {
+                    byDepartment.computeIfAbsent(employees.departmentOf(employeeId), k -> new RatingAccumulator()).addAll(ratings);
+                }
+            });
+            Map<String, RatingStats> stats = new LinkedHashMap<>();
+            byDepartment.forEach((department, ratings) -> stats.put(department, ratings.toStats(department)));
+            return stats;
+        });
+    }
+
+    @Override
+    public RatingStats getCompanyRatingStats() {
+        return read(() -> {
+            RatingAccumulator company = new RatingAccumulator();
+            ratingsByEmployee.values().forEach(company::addAll);
+            return company.toStats(null);
+        });
+    }
+
+    // --- Engine-internal access; callers hold the engine lock ---
+
+    Collection<PerformanceEvaluation> stored() {
+        return byId.values();
+    }
+
+    /**
+     * Restores rows from a snapshot, keeping the stored versions; the aggregates are rebuilt as they are indexed.
+     */
+    void restore(List<PerformanceEvaluation> evaluations) {
+        evaluations.forEach(this::index);
+    }
+
+    void clear() {
+        byId.clear();
+        idsByEmployee.clear();
+        idsByDate.clear();
+        ratingsByEmployee.clear();
+    }
+
+    // NOT NULL columns of the SQL schema
+    private static boolean isValid(PerformanceEvaluation evaluation) {
+        return evaluation.getEmployeeId() != null && evaluation.getEvaluationDate() != null;
+    }
+
+    private void index(PerformanceEvaluation evaluation) {
+        byId.put(evaluation.getId(), evaluation);
+        addToIndex(idsByEmployee, evaluation.getEmployeeId(), evaluation.getId());
+        addToIndex(idsByDate, evaluation.getEvaluationDate(), evaluation.getId());
+        ratingsByEmployee.computeIfAbsent(evaluation.getEmployeeId(), k -> new RatingAccumulator())
+                .add(evaluation.getPerformanceRating(), evaluation.getEvaluationDate());
+    }
+
+    private void unindex(PerformanceEvaluation evaluation) {
+        byId.remove(evaluation.getId());
+        removeFromIndex(idsByEmployee, evaluation.getEmployeeId(), evaluation.getId());
+        removeFromIndex(idsByDate, evaluation.getEvaluationDate(), evaluation.getId());
+        RatingAccumulator ratings = ratingsByEmployee.get(evaluation.getEmployeeId());
+        ratings.remove(evaluation.getPerformanceRating(), evaluation.getEvaluationDate());
+        if (ratings.count == 0) {
+            ratingsByEmployee.remove(evaluation.getEmployeeId());
+        }
+    }
+
+    // Copies in the listing order: newest evaluation first, then employee
+    private static List<PerformanceEvaluation> sortedCopies(Collection<PerformanceEvaluation> evaluations) {
+        List<PerformanceEvaluation> sorted = new ArrayList<>(evaluations);
+        sorted.sort(QUERY.defaultComparator());
+        return copies(sorted);
+    }
+
+    private static List<PerformanceEvaluation> copies(List<PerformanceEvaluation> evaluations) {
+        List<PerformanceEvaluation> copies = new ArrayList<>(evaluations.size());
+        for (PerformanceEvaluation evaluation : evaluations) {
+            copies.add(Copies.of(evaluation));
+        }
+        return copies;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.hrsm2.repository.memory;
+
+import com.example.hrsm2.model.LeaveRequest;
+import com.example.hrsm2.repository.LeaveRequestRepository;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Leave request table of the in-memory engine.
+ * IDs are assigned from an auto-increment counter, like SQLite's AUTOINCREMENT (never reused).
+ * Requests are indexed by employee and by start date; overlap queries walk the start-date index
+ * up to the end of the range, as the SQL engine walks its listing index.
+ */
+class InMemoryLeaveRequestRepository extends InMemoryRepository implements LeaveRequestRepository {
+    private static final InMemoryQuery<LeaveRequest> QUERY = new InMemoryQuery<>(fields(),
+            List.of(new QuerySpec.Sort("startDate", QuerySpec.Direction.DESCENDING),
+                    new QuerySpec.Sort("id", QuerySpec.Direction.ASCENDING)),
+            LeaveRequest::getEmployeeId);
+
+    private final InMemoryEmployeeRepository employees;
+    private final Map<Integer, LeaveRequest> byId = new HashMap<>();
+    private final Map<String, Set<Integer>> idsByEmployee = new HashMap<>();
+    private final TreeMap<LocalDate, Set<Integer>> idsByStartDate = new TreeMap<>();
+    private int lastId;
+
+    InMemoryLeaveRequestRepository(ReadWriteLock lock, InMemoryEmployeeRepository employees) {
+        super(lock);
+        this.employees = employees;
+    }
+
+    private static Map<String, Function<LeaveRequest, Object>> fields() {
+        Map<String, Function<LeaveRequest, Object>> fields = new HashMap<>();
+        fields.put("id", LeaveRequest::getId);
+        fields.put("employeeId", LeaveRequest::getEmployeeId);
+        fields.put("startDate", LeaveRequest::getStartDate);
+        fields.put("endDate", LeaveRequest::getEndDate);
+        fields.put("reason", LeaveRequest::getReason);
+        fields.put("status", LeaveRequest::getStatus);
+        fields.put("managerComments", LeaveRequest::getManagerComments);
+        return fields;
+    }
+
+    @Override
+    public int insertLeaveRequest(LeaveRequest leaveRequest) {
+        if (leaveRequest == null || !isValid(leaveRequest)) {
+            return -1;
+        }
+        return write(() -> {
+            LeaveRequest saved = Copies.of(leaveRequest);
+            saved.setId(++lastId);
+            saved.setVersion(0);
+            index(saved);
+            return saved.getId();
+        });
+    }
+
+    @Override
+    public List<LeaveRequest> getAllLeaveRequests() {
+        return read(() -> sortedCopies(byId.values()));
+    }
+
+    @Override
+    public int countLeaveRequests(QuerySpec spec) {
+        return read(() -> QUERY.count(byId.values(), spec, employees::departmentOf));
+    }
+
+    @Override
+    public List<LeaveRequest> getLeaveRequestPage(QuerySpec spec, int offset, int limit) {
+        return read(() -> copies(QUERY.page(byId.values(), spec, employees::departmentOf, offset, limit)));
+    }
+
+    @Override
+    public List<LeaveRequest> getLeaveRequestsOverlapping(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            return new ArrayList<>();
+        }
+        return read(() -> sortedCopies(overlapping(null, from, to)));
+    }
+
+    @Override
+    public List<LeaveRequest> getLeaveRequestsOverlapping(String employeeId, LocalDate from, LocalDate to) {
+        if (employeeId == null || from == null || to == null) {
+            return new ArrayList<>();
+        }
+        return read(() -> sortedCopies(overlapping(employeeId, from, to)));
+    }
+
+    @Override
+    public LeaveRequest getLeaveRequestById(int id) {
+        if (id <= 0) {
+            return null;
+        }
+        return read(() -> {
+            LeaveRequest stored = byId.get(id);
+            return stored != null ? Copies.of(stored) : null;
+        });
+    }
+
+    @Override
+    public List<LeaveRequest> getLeaveRequestsByEmployeeId(String employeeId) {
+        if (employeeId == null) {
+            return new ArrayList<>();
+        }
+        return read(() -> sortedCopies(rowsFor(byId, lookup(idsByEmployee, employeeId))));
+    }
+
+    @Override
+    public List<LeaveRequest> getApprovedLeaveRequestsByEmployeeId(String employeeId) {
+        if (employeeId == null) {
+            return new ArrayList<>();
+        }
+        return read(() -> {
+            List<LeaveRequest> approved = new ArrayList<>();
+            for (LeaveRequest request : rowsFor(byId, lookup(idsByEmployee, employeeId))) {
+                if (request.getStatus() == LeaveRequest.LeaveStatus.APPROVED) {
+                    approved.add(request);
+                }
+            }
+            return sortedCopies(approved);
+        });
+    }
+
+    @Override
+    public UpdateResult tryUpdateLeaveRequest(LeaveRequest leaveRequest) {
+        if (leaveRequest == null || leaveRequest.getId() == null || leaveRequest.getId() <= 0) {
+            return UpdateResult.ERROR;
+        }
+        return write(() -> {
+            LeaveRequest stored = byId.get(leaveRequest.getId());
+            UpdateResult rejected = checkVersion(stored, leaveRequest);
+            if (rejected != null) {
+                return rejected;
+            }
+            if (leaveRequest.isUnchanged()) {
+                // Nothing to save, as in the SQL engine
+                return UpdateResult.UPDATED;
+            }
+            if (!isValid(leaveRequest)) {
+                return UpdateResult.ERROR;
+            }
+            long version = stored.getVersion() + 1;
+            unindex(stored);
+            LeaveRequest saved = Copies.of(leaveRequest);
+            saved.setVersion(version);
+            index(saved);
+            markSaved(leaveRequest, version);
+            return UpdateResult.UPDATED;
+        });
+    }
+
+    @Override
+    public boolean deleteLeaveRequest(int id) {
+        if (id <= 0) {
+            return false;
+        }
+        return write(() -> {
+            LeaveRequest stored = byId.get(id);
+            if (stored == null) {
+                return false;
+            }
+            unindex(stored);
+            return true;
+        });
+    }
+
+    @Override
+    public Map<String, Long> getApprovedLeaveDaysByDepartment(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            return new LinkedHashMap<>();
+        }
+        return read(() -> {
+            Map<String, Long> leaveDays = new LinkedHashMap<>();
+            for (LeaveRequest request : overlapping(null, from, to)) {
+                // Inner join: requests of unknown employees are not counted
+                if (request.getStatus() != LeaveRequest.LeaveStatus.APPROVED || !employees.exists(request.getEmployeeId())) {
+                    continue;
+                }
+                // Requests straddling the range count only their overlap
+                LocalDate start = request.getStartDate().isBefore(from) ? from : request.getStartDate();
+                LocalDate end = request.getEndDate().isAfter(to) ? to : request.getEndDate();
+                leaveDays.merge(employees.departmentOf(request.getEmployeeId()), ChronoUnit.DAYS.between(start, end) + 1, Long::sum);
+            }
+            return leaveDays;
+        });
+    }
+
+    // --- Engine-internal access; callers hold the engine lock ---
+
+    Collection<LeaveRequest> stored() {
+        return byId.values();
+    }
+
+    int lastId() {
+        return lastId;
+    }
+
+    /**
+     * Restores the rows and ID counter from a snapshot, keeping the stored versions.
+     */
+    void restore(List<LeaveRequest> requests, int restoredLastId) {
+        for (LeaveRequest request : requests) {
+            index(request);
+            lastId = Math.max(lastId, request.getId());
+        }
+        lastId = Math.max(lastId, restoredLastId);
+    }
+
+    void clear() {
+        byId.clear();
+        idsByEmployee.clear();
+        idsByStartDate.clear();
+        lastId = 0;
+    }
+
+    // A request overlaps [from, to] if it starts on or before 'to' and ends on or after 'from'
+    private List<LeaveRequest> overlapping(String employeeId, LocalDate from, LocalDate to) {
+        List<LeaveRequest> matches = new ArrayList<>();
+        for (Set<Integer> ids : idsByStartDate.headMap(to, true).values()) {
+            for (LeaveRequest request : rowsFor(byId, ids)) {
+                if (!request.getEndDate().isBefore(from)
+                        && (employeeId == null || employeeId.equals(request.getEmployeeId()))) {
+                    matches.add(request);
+                }
+            }
+        }
+        return matches;
+    }
+
+    // NOT NULL columns of the SQL schema
+    private static boolean isValid(LeaveRequest request) {
+        return request.getEmployeeId() != null && request.getStartDate() != null
+                && request.getEndDate() != null && request.getStatus() != null;
+    }
+
+    private void index(LeaveRequest request) {
+        byId.put(request.getId(), request);
+        addToIndex(idsByEmployee, request.getEmployeeId(), request.getId());
+        addToIndex(idsByStartDate, request.getStartDate(), request.getId());
+    }
+
+    private void unindex(LeaveRequest request) {
+        byId.remove(request.getId());
+        removeFromIndex(idsByEmployee, request.getEmployeeId(), request.getId());
+        removeFromIndex(idsByStartDate, request.getStartDate(), request.getId());
+    }
+
+    // Copies in the listing order: newest start date first
+    private static List<LeaveRequest> sortedCopies(Collection<LeaveRequest> requests) {
+        List<LeaveRequest> sorted = new ArrayList<>(requests);
+        sorted.sort(QUERY.defaultComparator());
+        return copies(sorted);
+    }
+
+    private static List<LeaveRequest> copies(List<LeaveRequest> requests) {
+        List<LeaveRequest> copies = new ArrayList<>(requests.size());
+        for (LeaveRequest request : requests) {
+            copies.add(Copies.of(request));
+        }
+        return copies;
+    }
+}
@@ -0,0 +1,422 @@
+package com.example.hrsm2.repository.memory;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.model.Payroll;
+import com.example.hrsm2.model.PayrollCost;
+import com.example.hrsm2.model.PayrollRun;
+import com.example.hrsm2.repository.PayrollRepository;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Payroll table and payroll run ledger of the in-memory engine.
+ * Like the SQL schema, an employee has at most one payroll per pay period; the
+ * (employee, period) index enforces it and makes re-running a payroll run idempotent.
+ */
+class InMemoryPayrollRepository extends InMemoryRepository implements PayrollRepository {
+    private static final InMemoryQuery<Payroll> QUERY = new InMemoryQuery<>(fields(),
+            List.of(new QuerySpec.Sort("payPeriodStart", QuerySpec.Direction.DESCENDING),
+                    new QuerySpec.Sort("employeeId", QuerySpec.Direction.ASCENDING),
+                    new QuerySpec.Sort("id", QuerySpec.Direction.ASCENDING)),
+            Payroll::getEmployeeId);
+
+    // Newest period first, then department, as the SQL aggregate orders its groups
+    private static final Comparator<PayrollCost> COST_ORDER = Comparator
+            .comparing(PayrollCost::getPayPeriodStart, Comparator.reverseOrder())
+            .thenComparing(PayrollCost::getPayPeriodEnd, Comparator.reverseOrder())
+            .thenComparing(PayrollCost::getDepartment, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+    /**
+     * Key of the unique (employee, pay period) index.
+     */
+    private record EmployeePeriod(String employeeId, LocalDate start, LocalDate end) {
+        static EmployeePeriod of(Payroll payroll) {
+            return new EmployeePeriod(payroll.getEmployeeId(), payroll.getPayPeriodStart(), payroll.getPayPeriodEnd());
+        }
+    }
+
+    private final InMemoryEmployeeRepository employees;
+    private final Map<String, Payroll> byId = new HashMap<>();
+    private final Map<String, Set<String>> idsByEmployee = new HashMap<>();
+    private final Map<EmployeePeriod, String> idByEmployeePeriod = new HashMap<>();
+    private final TreeMap<LocalDate, Set<String>> idsByPeriodStart = new TreeMap<>();
+    private final Map<String, PayrollRun> runs = new HashMap<>();
+
+    InMemoryPayrollRepository(ReadWriteLock lock, InMemoryEmployeeRepository employees) {
+        super(lock);
+        this.employees = employees;
+    }
+
+    private static Map<String, Function<Payroll, Object>> fields() {
+        Map<String, Function<Payroll, Object>> fields = new HashMap<>();
+        fields.put("id", Payroll::getId);
+        fields.put("employeeId", Payroll::getEmployeeId);
+        fields.put("payPeriodStart", Payroll::getPayPeriodStart);
+        fields.put("payPeriodEnd", Payroll::getPayPeriodEnd);
+        fields.put("baseSalary", Payroll::getBaseSalary);
+        fields.put("overtimePay", Payroll::getOvertimePay);
+        fields.put("bonus", Payroll::getBonus);
+        fields.put("taxDeductions", Payroll::getTaxDeductions);
+        fields.put("otherDeductions", Payroll::getOtherDeductions);
+        fields.put("netSalary", Payroll::getNetSalary);
+        fields.put("status", Payroll::getStatus);
+        return fields;
+    }
+
+    @Override
+    public boolean insertPayroll(Payroll payroll) {
+        if (payroll == null || payroll.getId() == null || payroll.getId().trim().isEmpty()) {
+            return false;
+        }
+        return write(() -> {
+            if (byId.containsKey(payroll.getId()) || !isValid(payroll)
+                    || idByEmployeePeriod.containsKey(EmployeePeriod.of(payroll))) {
+                return false;
+            }
+            insert(payroll);
+            return true;
+        });
+    }
+
+    @Override
+    public List<Payroll> commitPayrollChunk(String runId, List<Payroll> payrolls) {
+        if (runId == null || payrolls == null) {
+            return null;
+        }
+        return write(() -> {
+            // Validate the whole chunk first so a bad row leaves nothing behind, like a rolled back transaction
+            for (Payroll payroll : payrolls) {
+                if (payroll == null || payroll.getId() == null || byId.containsKey(payroll.getId()) || !isValid(payroll)) {
+                    return null;
+                }
+            }
+            List<Payroll> inserted = new ArrayList<>();
+            for (Payroll payroll : payrolls) {
+                // Payrolls for an employee that already has one for the period are skipped
+                if (!idByEmployeePeriod.containsKey(EmployeePeriod.of(payroll))) {
+                    insert(payroll);
+                    inserted.add(payroll);
+                }
+            }
+            PayrollRun run = runs.get(runId);
+            if (run != null) {
+                run.setCommittedCount(run.getCommittedCount() + inserted.size());
+                run.setCommittedChunks(run.getCommittedChunks() + 1);
+                run.setUpdatedAt(LocalDateTime.now());
+            }
+            return inserted;
+        });
+    }
+
+    @Override
+    public List<Employee> getEmployeesWithoutPayroll(LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        if (payPeriodStart == null || payPeriodEnd == null) {
+            return new ArrayList<>();
+        }
+        return read(() -> {
+            List<Employee> unpaid = new ArrayList<>();
+            for (Employee employee : employees.storedById()) {
+                if (!idByEmployeePeriod.containsKey(new EmployeePeriod(employee.getId(), payPeriodStart, payPeriodEnd))) {
+                    unpaid.add(Copies.of(employee));
+                }
+            }
+            return unpaid;
+        });
+    }
+
+    @Override
+    public List<Payroll> getAllPayrolls() {
+        return read(() -> sortedCopies(byId.values()));
+    }
+
+    @Override
+    public int countPayrolls(QuerySpec spec) {
+        return read(() -> QUERY.count(byId.values(), spec, employees::departmentOf));
+    }
+
+    @Override
+    public List<Payroll> getPayrollPage(QuerySpec spec, int offset, int limit) {
+        return read(() -> copies(QUERY.page(byId.values(), spec, employees::departmentOf, offset, limit)));
+    }
+
+    @Override
+    public List<Payroll> getPayrollsOverlapping(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            return new ArrayList<>();
+        }
+        return read(() -> {
+            // A pay period overlaps [from, to] if it starts on or before 'to' and ends on or after 'from'
+            List<Payroll> matches = new ArrayList<>();
+            for (Set<String> ids : idsByPeriodStart.headMap(to, true).values()) {
+                for (Payroll payroll : rowsFor(byId, ids)) {
+                    if (!payroll.getPayPeriodEnd().isBefore(from)) {
+                        matches.add(payroll);
+                    }
+                }
+            }
+            return sortedCopies(matches);
+        });
+    }
+
+    @Override
+    public Payroll getPayrollById(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return null;
+        }
+        return read(() -> {
+            Payroll stored = byId.get(id);
+            return stored != null ? Copies.of(stored) : null;
+        });
+    }
+
+    @Override
+    public List<Payroll> getPayrollsByEmployeeId(String employeeId) {
+        if (employeeId == null) {
+            return new ArrayList<>();
+        }
+        return read(() -> sortedCopies(rowsFor(byId, lookup(idsByEmployee, employeeId))));
+    }
+
+    @Override
+    public Payroll getPayrollForPeriod(String employeeId, LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        if (employeeId == null || payPeriodStart == null || payPeriodEnd == null) {
+            return null;
+        }
+        return read(() -> {
+            String id = idByEmployeePeriod.get(new EmployeePeriod(employeeId, payPeriodStart, payPeriodEnd));
+            return id != null ? Copies.of(byId.get(id)) : null;
+        });
+    }
+
+    @Override
+    public UpdateResult tryUpdatePayroll(Payroll payroll) {
+        if (payroll == null || payroll.getId() == null || payroll.getId().trim().isEmpty()) {
+            return UpdateResult.ERROR;
+        }
+        return write(() -> {
+            Payroll stored = byId.get(payroll.getId());
+            UpdateResult rejected = checkVersion(stored, payroll);
+            if (rejected != null) {
+                return rejected;
+            }
+            if (payroll.isUnchanged()) {
+                // Nothing to save, as in the SQL engine
+                return UpdateResult.UPDATED;
+            }
+            String holder = isValid(payroll) ? idByEmployeePeriod.get(EmployeePeriod.of(payroll)) : null;
+            if (!isValid(payroll) || (holder != null && !holder.equals(payroll.getId()))) {
+                return UpdateResult.ERROR;
+            }
+            long version = stored.getVersion() + 1;
+            unindex(stored);
+            Payroll saved = Copies.of(payroll);
+            saved.setVersion(version);
+            index(saved);
+            markSaved(payroll, version);
+            return UpdateResult.UPDATED;
+        });
+    }
+
+    @Override
+    public Payroll transitionPayrollStatus(String id, Payroll.PayrollStatus fromStatus, Payroll.PayrollStatus toStatus) {
+        if (id == null || id.trim().isEmpty() || fromStatus == null || toStatus == null) {
+            return null;
+        }
+        return write(() -> {
+            Payroll stored = byId.get(id);
+            return stored != null && stored.getStatus() == fromStatus ? transition(stored, toStatus) : null;
+        });
+    }
+
+    @Override
+    public List<Payroll> transitionPayrollStatuses(Payroll.PayrollStatus fromStatus, Payroll.PayrollStatus toStatus,
+                                                  LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        if (fromStatus == null || toStatus == null) {
+            return new ArrayList<>();
+        }
+        boolean forPeriod = payPeriodStart != null && payPeriodEnd != null;
+        return write(() -> {
+            List<Payroll> transitioned = new ArrayList<>();
+            for (Payroll stored : new ArrayList<>(byId.values())) {
+                if (stored.getStatus() == fromStatus && (!forPeriod
+                        || (payPeriodStart.equals(stored.getPayPeriodStart()) && payPeriodEnd.equals(stored.getPayPeriodEnd())))) {
+                    transitioned.add(transition(stored, toStatus));
+                }
+            }
+            return transitioned;
+        });
+    }
+
+    @Override
+    public boolean deletePayroll(String id) {
+        if (id == null || id.trim().isEmpty()) {
+            return false;
+        }
+        return write(() -> {
+            Payroll stored = byId.get(id);
+            if (stored == null) {
+                return false;
+            }
+            unindex(stored);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean insertPayrollRun(PayrollRun run) {
+        if (run == null || run.getId() == null || run.getPayPeriodStart() == null || run.getPayPeriodEnd() == null
+                || run.getStatus() == null) {
+            return false;
+        }
+        return write(() -> runs.putIfAbsent(run.getId(), Copies.of(run)) == null);
+    }
+
+    @Override
+    public PayrollRun getLatestPayrollRun(LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        if (payPeriodStart == null || payPeriodEnd == null) {
+            return null;
+        }
+        return read(() -> runs.values().stream()
+                .filter(run -> payPeriodStart.equals(run.getPayPeriodStart()) && payPeriodEnd.equals(run.getPayPeriodEnd()))
+                .max(Comparator.comparing(PayrollRun::getStartedAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())))
+                .map(Copies::of)
+                .orElse(null));
+    }
+
+    @Override
+    public boolean updatePayrollRunStatus(PayrollRun run) {
+        if (run == null || run.getId() == null) {
+            return false;
+        }
+        return write(() -> {
+            PayrollRun stored = runs.get(run.getId());
+            run.setUpdatedAt(LocalDateTime.now());
+            if (stored == null) {
+                return false;
+            }
+            // Progress counters are only advanced by commitPayrollChunk
+            stored.setStatus(run.getStatus());
+            stored.setTotalEmployees(run.getTotalEmployees());
+            stored.setUpdatedAt(run.getUpdatedAt());
+            return true;
+        });
+    }
+
+    @Override
+    public List<PayrollCost> getPayrollCostByDepartment(LocalDate periodStart, LocalDate periodEnd) {
+        boolean singlePeriod = periodStart != null && periodEnd != null;
+        return read(() -> {
+            // Group by department (left join: payrolls of unknown employees fall under null) and pay period
+            Map<List<Object>, double[]> sums = new LinkedHashMap<>();
+            Map<List<Object>, int[]> counts = new HashMap<>();
+            for (Payroll payroll : byId.values()) {
+                if (singlePeriod && (!periodStart.equals(payroll.getPayPeriodStart()) || !periodEnd.equals(payroll.getPayPeriodEnd()))) {
+                    continue;
+                }
+                List<Object> group = Arrays.asList(employees.departmentOf(payroll.getEmployeeId()),
+                        payroll.getPayPeriodStart(), payroll.getPayPeriodEnd());
+                double[] sum = sums.computeIfAbsent(group, k -> new double[2]);
+                sum[0] += payroll.getBaseSalary() + payroll.getOvertimePay() + payroll.getBonus();
+                sum[1] += payroll.getNetSalary();
+                counts.computeIfAbsent(group, k -> new int[1])[0]++;
+            }
+            List<PayrollCost> costs = new ArrayList<>(sums.size());
+            sums.forEach((group, sum) -> costs.add(new PayrollCost((String) group.get(0), (LocalDate) group.get(1),
+                    (LocalDate) group.get(2), counts.get(group)[0], sum[0], sum[1])));
+            costs.sort(COST_ORDER);
+            return costs;
+        });
+    }
+
+    // --- Engine-internal access; callers hold the engine lock ---
+
+    Collection<Payroll> stored() {
+        return byId.values();
+    }
+
+    Collection<PayrollRun> storedRuns() {
+        return runs.values();
+    }
+
+    /**
+     * Restores rows and runs from a snapshot, keeping the stored versions.
+     */
+    void restore(List<Payroll> payrolls, List<PayrollRun> payrollRuns) {
+        payrolls.forEach(this::index);
+        payrollRuns.forEach(run -> runs.put(run.getId(), run));
+    }
+
+    void clear() {
+        byId.clear();
+        idsByEmployee.clear();
+        idByEmployeePeriod.clear();
+        idsByPeriodStart.clear();
+        runs.clear();
+    }
+
+    private void insert(Payroll payroll) {
+        Payroll saved = Copies.of(payroll);
+        saved.setVersion(0);
+        index(saved);
+        markSaved(payroll, 0); // Column default for new rows
+    }
+
+    private Payroll transition(Payroll stored, Payroll.PayrollStatus toStatus) {
+        stored.setStatus(toStatus);
+        markSaved(stored, stored.getVersion() + 1);
+        return Copies.of(stored);
+    }
+
+    // NOT NULL columns of the SQL schema
+    private static boolean isValid(Payroll payroll) {
+        return payroll.getEmployeeId() != null && payroll.getPayPeriodStart() != null
+                && payroll.getPayPeriodEnd() != null && payroll.getStatus() != null;
+    }
+
+    private void index(Payroll payroll) {
+        byId.put(payroll.getId(), payroll);
+        addToIndex(idsByEmployee, payroll.getEmployeeId(), payroll.getId());
+        idByEmployeePeriod.put(EmployeePeriod.of(payroll), payroll.getId());
+        addToIndex(idsByPeriodStart, payroll.getPayPeriodStart(), payroll.getId());
+    }
+
+    private void unindex(Payroll payroll) {
+        byId.remove(payroll.getId());
+        removeFromIndex(idsByEmployee, payroll.getEmployeeId(), payroll.getId());
+        if (Objects.equals(idByEmployeePeriod.get(EmployeePeriod.of(payroll)), payroll.getId())) {
+            idByEmployeePeriod.remove(EmployeePeriod.of(payroll));
+        }
+        removeFromIndex(idsByPeriodStart, payroll.getPayPeriodStart(), payroll.getId());
+    }
+
+    // Copies in the listing order: newest pay period first, then employee
+    private static List<Payroll> sortedCopies(Collection<Payroll> payrolls) {
+        List<Payroll> sorted = new ArrayList<>(payrolls);
+        sorted.sort(QUERY.defaultComparator());
+        return copies(sorted);
+    }
+
+    private static List<Payroll> copies(List<Payroll> payrolls) {
+        List<Payroll> copies = new ArrayList<>(payrolls.size());
+        for (Payroll payroll : payrolls) {
+            copies.add(Copies.of(payroll));
+        }
+        return copies;
+    }
+}
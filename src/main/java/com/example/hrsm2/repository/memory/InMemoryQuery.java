@@ -0,0 +1,177 @@
+package com.example.hrsm2.repository.memory;
+
+import com.example.hrsm2.util.QuerySpec;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates a {@link QuerySpec} over in-memory rows with the same semantics as the SQL engine:
+ * the same field names, NULLs sorting first, the table's default listing order when no sort
+ * keys are given, and an id tie-breaker so page boundaries are stable.
+ *
+ * @param <T> The row type
+ */
+final class InMemoryQuery<T> {
+    private final Map<String, Function<T, Object>> fields;
+    private final List<QuerySpec.Sort> defaultOrder;
+    private final Function<T, String> employeeIdOf;
+
+    /**
+     * @param fields Queryable fields by model property name; must include "id".
+     * @param defaultOrder The listing order used when a query has no sort keys; must end with id.
+     * @param employeeIdOf Extracts the employee a row belongs to, for department filters.
+     */
+    InMemoryQuery(Map<String, Function<T, Object>> fields, List<QuerySpec.Sort> defaultOrder,
+                  Function<T, String> employeeIdOf) {
+        this.fields = fields;
+        this.defaultOrder = defaultOrder;
+        this.employeeIdOf = employeeIdOf;
+    }
+
+    /**
+     * @param departmentOf Resolves an employee id to its department (null if unknown).
+     * @return The matching rows in the query's order.
+     * @throws IllegalArgumentException if the spec names an unknown field.
+     */
+    List<T> select(Collection<T> rows, QuerySpec spec, Function<String, String> departmentOf) {
+        Predicate<T> matches = predicate(spec, departmentOf);
+        Comparator<T> order = comparator(spec);
+        List<T> selected = new ArrayList<>();
+        for (T row : rows) {
+            if (matches.test(row)) {
+                selected.add(row);
+            }
+        }
+        selected.sort(order);
+        return selected;
+    }
+
+    int count(Collection<T> rows, QuerySpec spec, Function<String, String> departmentOf) {
+        Predicate<T> matches = predicate(spec, departmentOf);
+        int count = 0;
+        for (T row : rows) {
+            if (matches.test(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return One page of the selected rows; empty for a negative offset or non-positive limit.
+     */
+    List<T> page(Collection<T> rows, QuerySpec spec, Function<String, String> departmentOf, int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<T> selected = select(rows, spec, departmentOf);
+        if (offset >= selected.size()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(selected.subList(offset, Math.min(selected.size(), offset + limit)));
+    }
+
+    /**
+     * @return The default listing order of the table.
+     */
+    Comparator<T> defaultComparator() {
+        return comparator(QuerySpec.all());
+    }
+
+    private Predicate<T> predicate(QuerySpec spec, Function<String, String> departmentOf) {
+        Predicate<T> predicate = row -> true;
+        for (QuerySpec.Filter filter : spec.getFilters()) {
+            Function<T, Object> field = field(filter.field());
+            Object expected = normalize(filter.value());
+            predicate = predicate.and(row -> {
+                Object actual = normalize(field.apply(row));
+                // As in SQL, a NULL never satisfies a comparison
+                if (actual == null || expected == null) {
+                    return false;
+                }
+                int comparison = compareValues(actual, expected);
+                return switch (filter.operator()) {
+                    case EQUALS -> comparison == 0;
+                    case AT_LEAST -> comparison >= 0;
+                    case AT_MOST -> comparison <= 0;
+                };
+            });
+        }
+        String department = spec.getDepartment();
+        if (department != null) {
+            predicate = predicate.and(row -> department.equals(departmentOf.apply(employeeIdOf.apply(row))));
+        }
+        return predicate;
+    }
+
+    private Comparator<T> comparator(QuerySpec spec) {
+        List<QuerySpec.Sort> sorts = spec.getSorts().isEmpty() ? defaultOrder : spec.getSorts();
+        Comparator<T> comparator = null;
+        boolean sortedById = false;
+        for (QuerySpec.Sort sort : sorts) {
+            Comparator<T> next = fieldComparator(field(sort.field()));
+            if (sort.direction() == QuerySpec.Direction.DESCENDING) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+            sortedById |= "id".equals(sort.field());
+        }
+        if (!sortedById) {
+            // Tie-breaker so rows with equal sort keys keep a stable position across pages
+            Comparator<T> byId = fieldComparator(field("id"));
+            comparator = comparator == null ? byId : comparator.thenComparing(byId);
+        }
+        return comparator;
+    }
+
+    private Function<T, Object> field(String name) {
+        Function<T, Object> field = fields.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown query field: " + name);
+        }
+        return field;
+    }
+
+    // NULLs sort first, as in SQLite
+    private static <T> Comparator<T> fieldComparator(Function<T, Object> field) {
+        return (a, b) -> {
+            Object left = normalize(field.apply(a));
+            Object right = normalize(field.apply(b));
+            if (left == null || right == null) {
+                return left == null ? (right == null ? 0 : -1) : 1;
+            }
+            return compareValues(left, right);
+        };
+    }
+
+    // Brings values to the representation the SQL engine stores: enums by name, numbers as doubles
+    private static Object normalize(Object value) {
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        return value;
+    }
+
+    private static int compareValues(Object left, Object right) {
+        if (left instanceof Double a && right instanceof Double b) {
+            return Double.compare(a, b);
+        }
+        if (left instanceof LocalDate a && right instanceof LocalDate b) {
+            return a.compareTo(b);
+        }
+        // Dates are stored as yyyy-MM-dd text, so text and dates compare consistently
+        return Objects.toString(left).compareTo(Objects.toString(right));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.hrsm2.repository.memory;
+
+import com.example.hrsm2.model.TrackedEntity;
+import com.example.hrsm2.util.UpdateResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Base of the in-memory repositories: access to the engine-wide lock and the helpers
+ * for secondary indexes and optimistic locking that every table shares.
+ * <p>
+ * All repositories of one engine share a single read/write lock, so queries that join
+ * across entities and multi-row writes (like a payroll chunk) see a consistent state.
+ */
+abstract class InMemoryRepository {
+    private final ReadWriteLock lock;
+
+    InMemoryRepository(ReadWriteLock lock) {
+        this.lock = lock;
+    }
+
+    <R> R read(Supplier<R> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    <R> R write(Supplier<R> change) {
+        lock.writeLock().lock();
+        try {
+            return change.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks an update against the stored row the way the SQL engine's versioned UPDATE does.
+     *
+     * @return NOT_FOUND or CONFLICT if the update must not happen, or null if it may proceed.
+     */
+    static UpdateResult checkVersion(TrackedEntity stored, TrackedEntity incoming) {
+        if (stored == null) {
+            return UpdateResult.NOT_FOUND;
+        }
+        if (incoming.hasVersion() && stored.getVersion() != incoming.getVersion()) {
+            return UpdateResult.CONFLICT;
+        }
+        return null;
+    }
+
+    /**
+     * Gives a saved entity its next version and marks it clean, as a successful UPDATE does.
+     */
+    static void markSaved(TrackedEntity entity, long version) {
+        entity.setVersion(version);
+        entity.markClean();
+    }
+
+    static <K, V> void addToIndex(Map<K, Set<V>> index, K key, V value) {
+        index.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(value);
+    }
+
+    static <K, V> void removeFromIndex(Map<K, Set<V>> index, K key, V value) {
+        Set<V> values = index.get(key);
+        if (values != null && values.remove(value) && values.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    static <K, V> Set<V> lookup(Map<K, Set<V>> index, K key) {
+        return index.getOrDefault(key, Set.of());
+    }
+
+    /**
+     * Collects the rows for a set of ids, skipping ids that are no longer stored.
+     */
+    static <K, V> List<V> rowsFor(Map<K, V> rows, Collection<K> ids) {
+        List<V> found = new ArrayList<>(ids.size());
+        for (K id : ids) {
+            V row = rows.get(id);
+            if (row != null) {
+                found.add(row);
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.hrsm2.repository.memory;
+
+import com.example.hrsm2.repository.EmployeeRepository;
+import com.example.hrsm2.repository.LeaveRequestRepository;
+import com.example.hrsm2.repository.PayrollRepository;
+import com.example.hrsm2.repository.PerformanceEvaluationRepository;
+import com.example.hrsm2.repository.StorageEngine;
+import com.example.hrsm2.repository.UserRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Storage engine that keeps every table in memory, indexed for the queries the services run.
+ * Used for tests and demos, where it starts instantly and needs no database file; with a
+ * snapshot file it loads its state on start and saves it again on {@link #close()}.
+ * <p>
+ * It behaves like the SQLite engine: the same constraints (unique emails, one payroll per
+ * employee and period), optimistic locking with row versions, listing orders and
+ * {@link com.example.hrsm2.util.QuerySpec} semantics. Returned entities are copies, so
+ * changes only reach the store through the repository methods.
+ */
+public class InMemoryStorageEngine implements StorageEngine {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final InMemoryEmployeeRepository employees = new InMemoryEmployeeRepository(lock);
+    private final InMemoryLeaveRequestRepository leaveRequests = new InMemoryLeaveRequestRepository(lock, employees);
+    private final InMemoryPayrollRepository payrolls = new InMemoryPayrollRepository(lock, employees);
+    private final InMemoryEvaluationRepository evaluations = new InMemoryEvaluationRepository(lock, employees);
+    private final InMemoryUserRepository users = new InMemoryUserRepository(lock);
+    private final Path snapshotFile;
+
+    /**
+     * Creates an empty engine that holds nothing but the default super administrator.
+     */
+    public InMemoryStorageEngine() {
+        this(null);
+    }
+
+    /**
+     * Creates an engine backed by a snapshot file: loaded now if it exists, written on {@link #close()}.
+     *
+     * @param snapshotFile The snapshot file, or null to keep the data in memory only.
+     */
+    public InMemoryStorageEngine(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+        if (snapshotFile != null && Files.exists(snapshotFile)) {
+            loadSnapshot(snapshotFile);
+        }
+        lock.writeLock().lock();
+        try {
+            users.ensureSuperAdmin();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public EmployeeRepository employees() {
+        return employees;
+    }
+
+    @Override
+    public LeaveRequestRepository leaveRequests() {
+        return leaveRequests;
+    }
+
+    @Override
+    public PayrollRepository payrolls() {
+        return payrolls;
+    }
+
+    @Override
+    public PerformanceEvaluationRepository evaluations() {
+        return evaluations;
+    }
+
+    @Override
+    public UserRepository users() {
+        return users;
+    }
+
+    /**
+     * Writes every table to a snapshot file. The file is written next to the target and
+     * then moved over it, so a crash while saving never leaves a truncated snapshot.
+     *
+     * @param file The snapshot file to write.
+     * @return true if the snapshot was saved, false otherwise.
+     */
+    public boolean saveSnapshot(Path file) {
+        if (file == null) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                Snapshot.write(out, employees, leaveRequests, payrolls, evaluations, users);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            // Error handled by caller or application logic
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces every table with the contents of a snapshot file.
+     * If the file cannot be read, the current contents are kept.
+     *
+     * @param file The snapshot file to read.
+     * @return true if the snapshot was loaded, false otherwise.
+     */
+    public boolean loadSnapshot(Path file) {
+        if (file == null) {
+            return false;
+        }
+        Snapshot snapshot;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            snapshot = Snapshot.read(in);
+        } catch (IOException | RuntimeException e) {
+            // Error handled by caller or application logic
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            employees.clear();
+            leaveRequests.clear();
+            payrolls.clear();
+            evaluations.clear();
+            users.clear();
+            snapshot.employees.forEach(employees::restore);
+            leaveRequests.restore(snapshot.leaveRequests, snapshot.lastLeaveRequestId);
+            payrolls.restore(snapshot.payrolls, snapshot.payrollRuns);
+            evaluations.restore(snapshot.evaluations);
+            snapshot.users.forEach(users::restore);
+            users.ensureSuperAdmin();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Saves the snapshot file, if the engine has one.
+     */
+    @Override
+    public void close() {
+        if (snapshotFile != null) {
+            saveSnapshot(snapshotFile);
+        }
+    }
+}
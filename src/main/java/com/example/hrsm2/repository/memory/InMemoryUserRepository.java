@@ -0,0 +1,154 @@
+package com.example.hrsm2.repository.memory;
+
+import com.example.hrsm2.model.User;
+import com.example.hrsm2.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * User table of the in-memory engine, keyed by username.
+ * Passwords are hashed with the repository's {@link #hashPassword}, like the SQL engine.
+ */
+class InMemoryUserRepository extends InMemoryRepository implements UserRepository {
+    private static final String SUPER_ADMIN_USERNAME = "super";
+
+    private final Map<String, User> byUsername = new HashMap<>();
+
+    InMemoryUserRepository(ReadWriteLock lock) {
+        super(lock);
+    }
+
+    @Override
+    public boolean insertUser(String username, String fullName, String plainPassword, String role) {
+        if (username == null || username.trim().isEmpty() || fullName == null || fullName.trim().isEmpty()
+                || plainPassword == null || role == null || role.trim().isEmpty()) {
+            return false;
+        }
+        String hashedPassword = hashPassword(plainPassword);
+        if (hashedPassword == null) {
+            return false; // Hashing failed
+        }
+        User user = new User(username.trim(), hashedPassword, fullName.trim(), parseRole(role));
+        return write(() -> byUsername.putIfAbsent(user.getUsername(), user) == null);
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return null;
+        }
+        return read(() -> {
+            User stored = byUsername.get(username.trim());
+            return stored != null ? Copies.of(stored) : null;
+        });
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return read(() -> {
+            List<User> users = new ArrayList<>(byUsername.size());
+            for (User user : byUsername.values()) {
+                users.add(Copies.of(user));
+            }
+            users.sort(User.BY_FULL_NAME.thenComparing(User::getUsername));
+            return users;
+        });
+    }
+
+    @Override
+    public List<User> getUsersByRole(User.UserRole role) {
+        if (role == null) {
+            return new ArrayList<>();
+        }
+        return read(() -> {
+            List<User> users = new ArrayList<>();
+            for (User user : byUsername.values()) {
+                if (user.getRole() == role) {
+                    users.add(Copies.of(user));
+                }
+            }
+            users.sort(User.BY_FULL_NAME.thenComparing(User::getUsername));
+            return users;
+        });
+    }
+
+    @Override
+    public boolean updateUser(User user) {
+        if (user == null || user.getUsername() == null || user.getUsername().trim().isEmpty()) {
+            return false;
+        }
+        // The password must already be hashed
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            return false;
+        }
+        return write(() -> byUsername.replace(user.getUsername(), Copies.of(user)) != null);
+    }
+
+    @Override
+    public boolean updatePasswordHash(String username, String expectedHash, String newHash) {
+        if (username == null || expectedHash == null || newHash == null || newHash.isEmpty()) {
+            return false;
+        }
+        return write(() -> {
+            User stored = byUsername.get(username);
+            if (stored == null || !expectedHash.equals(stored.getPassword())) {
+                return false;
+            }
+            byUsername.put(username, new User(username, newHash, stored.getFullName(), stored.getRole()));
+            return true;
+        });
+    }
+
+    @Override
+    public boolean deleteUser(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return false;
+        }
+        // Prevent deleting the primary super admin account
+        if (SUPER_ADMIN_USERNAME.equalsIgnoreCase(username.trim())) {
+            return false;
+        }
+        return write(() -> byUsername.remove(username.trim()) != null);
+    }
+
+    // --- Engine-internal access; callers hold the engine lock ---
+
+    /**
+     * Creates the default super administrator account if it does not exist yet.
+     */
+    void ensureSuperAdmin() {
+        if (!byUsername.containsKey(SUPER_ADMIN_USERNAME)) {
+            byUsername.put(SUPER_ADMIN_USERNAME, new User(SUPER_ADMIN_USERNAME, hashPassword("super123"),
+                    "Super Administrator", User.UserRole.SUPER_ADMIN));
+        }
+    }
+
+    Collection<User> stored() {
+        return byUsername.values();
+    }
+
+    /**
+     * Restores a user from a snapshot; the password is already hashed.
+     */
+    void restore(User user) {
+        byUsername.put(user.getUsername(), user);
+    }
+
+    void clear() {
+        byUsername.clear();
+    }
+
+    // Roles are stored uppercase; unknown roles read back as HR_ADMIN, as in the SQL engine
+    static User.UserRole parseRole(String role) {
+        try {
+            return User.UserRole.valueOf(role.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return User.UserRole.HR_ADMIN;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.hrsm2.repository.memory;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.model.LeaveRequest;
+import com.example.hrsm2.model.Payroll;
+import com.example.hrsm2.model.PayrollRun;
+import com.example.hrsm2.model.PerformanceEvaluation;
+import com.example.hrsm2.model.TrackedEntity;
+import com.example.hrsm2.model.User;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Binary snapshot of every table of the in-memory engine.
+ * The format is a magic number and format version followed by one section per table, each a
+ * row count and the rows' fields; nullable values carry a presence flag. Row versions are
+ * included so optimistic locking keeps working across a restart.
+ */
+final class Snapshot {
+    private static final int MAGIC = 0x48524D53; // "HRMS"
+    private static final int FORMAT_VERSION = 1;
+
+    final List<Employee> employees = new ArrayList<>();
+    final List<LeaveRequest> leaveRequests = new ArrayList<>();
+    int lastLeaveRequestId;
+    final List<Payroll> payrolls = new ArrayList<>();
+    final List<PayrollRun> payrollRuns = new ArrayList<>();
+    final List<PerformanceEvaluation> evaluations = new ArrayList<>();
+    final List<User> users = new ArrayList<>();
+
+    // --- Writing ---
+
+    static void write(DataOutputStream out, InMemoryEmployeeRepository employees, InMemoryLeaveRequestRepository leaveRequests,
+                      InMemoryPayrollRepository payrolls, InMemoryEvaluationRepository evaluations,
+                      InMemoryUserRepository users) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+
+        Collection<Employee> storedEmployees = employees.stored();
+        out.writeInt(storedEmployees.size());
+        for (Employee employee : storedEmployees) {
+            writeString(out, employee.getId());
+            writeString(out, employee.getFirstName());
+            writeString(out, employee.getLastName());
+            writeString(out, employee.getEmail());
+            writeString(out, employee.getPhone());
+            writeDate(out, employee.getHireDate());
+            writeString(out, employee.getDepartment());
+            writeString(out, employee.getJobTitle());
+            out.writeDouble(employee.getSalary());
+            out.writeLong(employee.getVersion());
+        }
+
+        out.writeInt(leaveRequests.lastId());
+        Collection<LeaveRequest> storedRequests = leaveRequests.stored();
+        out.writeInt(storedRequests.size());
+        for (LeaveRequest request : storedRequests) {
+            out.writeInt(request.getId());
+            writeString(out, request.getEmployeeId());
+            writeDate(out, request.getStartDate());
+            writeDate(out, request.getEndDate());
+            writeString(out, request.getReason());
+            writeString(out, request.getStatus().name());
+            writeString(out, request.getManagerComments());
+            out.writeLong(request.getVersion());
+        }
+
+        Collection<Payroll> storedPayrolls = payrolls.stored();
+        out.writeInt(storedPayrolls.size());
+        for (Payroll payroll : storedPayrolls) {
+            writeString(out, payroll.getId());
+            writeString(out, payroll.getEmployeeId());
+            writeDate(out, payroll.getPayPeriodStart());
+            writeDate(out, payroll.getPayPeriodEnd());
+            out.writeDouble(payroll.getBaseSalary());
+            out.writeDouble(payroll.getOvertimePay());
+            out.writeDouble(payroll.getBonus());
+            out.writeDouble(payroll.getTaxDeductions());
+            out.writeDouble(payroll.getOtherDeductions());
+            writeString(out, payroll.getStatus().name());
+            out.writeLong(payroll.getVersion());
+        }
+
+        Collection<PayrollRun> storedRuns = payrolls.storedRuns();
+        out.writeInt(storedRuns.size());
+        for (PayrollRun run : storedRuns) {
+            writeString(out, run.getId());
+            writeDate(out, run.getPayPeriodStart());
+            writeDate(out, run.getPayPeriodEnd());
+            writeString(out, run.getStatus().name());
+            out.writeInt(run.getTotalEmployees());
+            out.writeInt(run.getCommittedCount());
+            out.writeInt(run.getCommittedChunks());
+            writeDateTime(out, run.getStartedAt());
+            writeDateTime(out, run.getUpdatedAt());
+        }
+
+        Collection<PerformanceEvaluation> storedEvaluations = evaluations.stored();
+        out.writeInt(storedEvaluations.size());
+        for (PerformanceEvaluation evaluation : storedEvaluations) {
+            writeString(out, evaluation.getId());
+            writeString(out, evaluation.getEmployeeId());
+            writeDate(out, evaluation.getEvaluationDate());
+            out.writeInt(evaluation.getPerformanceRating());
+            writeString(out, evaluation.getStrengths());
+            writeString(out, evaluation.getAreasForImprovement());
+            writeString(out, evaluation.getComments());
+            writeString(out, evaluation.getReviewedBy());
+            out.writeLong(evaluation.getVersion());
+        }
+
+        Collection<User> storedUsers = users.stored();
+        out.writeInt(storedUsers.size());
+        for (User user : storedUsers) {
+            writeString(out, user.getUsername());
+            writeString(out, user.getPassword());
+            writeString(out, user.getFullName());
+            writeString(out, user.getRole().name());
+        }
+    }
+
+    // --- Reading ---
+
+    /**
+     * Reads a complete snapshot; nothing is applied to the engine until the whole file was read.
+     *
+     * @throws IOException if the data is truncated or not a snapshot of a supported format version.
+     */
+    static Snapshot read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an HRMS snapshot");
+        }
+        int formatVersion = in.readInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format version: " + formatVersion);
+        }
+        Snapshot snapshot = new Snapshot();
+
+        int employeeCount = in.readInt();
+        for (int i = 0; i < employeeCount; i++) {
+            Employee employee = new Employee(readString(in), readString(in), readString(in), readString(in),
+                    readString(in), readDate(in), readString(in), readString(in), in.readDouble());
+            snapshot.employees.add(loaded(employee, in.readLong()));
+        }
+
+        snapshot.lastLeaveRequestId = in.readInt();
+        int requestCount = in.readInt();
+        for (int i = 0; i < requestCount; i++) {
+            LeaveRequest request = new LeaveRequest(in.readInt(), readString(in), readDate(in), readDate(in),
+                    readString(in), LeaveRequest.LeaveStatus.valueOf(readString(in)), readString(in));
+            snapshot.leaveRequests.add(loaded(request, in.readLong()));
+        }
+
+        int payrollCount = in.readInt();
+        for (int i = 0; i < payrollCount; i++) {
+            Payroll payroll = new Payroll();
+            payroll.setId(readString(in));
+            payroll.setEmployeeId(readString(in));
+            payroll.setPayPeriodStart(readDate(in));
+            payroll.setPayPeriodEnd(readDate(in));
+            // The setters recompute the net salary
+            payroll.setBaseSalary(in.readDouble());
+            payroll.setOvertimePay(in.readDouble());
+            payroll.setBonus(in.readDouble());
+            payroll.setTaxDeductions(in.readDouble());
+            payroll.setOtherDeductions(in.readDouble());
+            payroll.setStatus(Payroll.PayrollStatus.valueOf(readString(in)));
+            snapshot.payrolls.add(loaded(payroll, in.readLong()));
+        }
+
+        int runCount = in.readInt();
+        for (int i = 0; i < runCount; i++) {
+            PayrollRun run = new PayrollRun();
+            run.setId(readString(in));
+            run.setPayPeriodStart(readDate(in));
+            run.setPayPeriodEnd(readDate(in));
+            run.setStatus(PayrollRun.RunStatus.valueOf(readString(in)));
+            run.setTotalEmployees(in.readInt());
+            run.setCommittedCount(in.readInt());
+            run.setCommittedChunks(in.readInt());
+            run.setStartedAt(readDateTime(in));
+            run.setUpdatedAt(readDateTime(in));
+            snapshot.payrollRuns.add(run);
+        }
+
+        int evaluationCount = in.readInt();
+        for (int i = 0; i < evaluationCount; i++) {
+            PerformanceEvaluation evaluation = new PerformanceEvaluation(readString(in), readString(in), readDate(in),
+                    in.readInt(), readString(in), readString(in), readString(in), readString(in));
+            snapshot.evaluations.add(loaded(evaluation, in.readLong()));
+        }
+
+        int userCount = in.readInt();
+        for (int i = 0; i < userCount; i++) {
+            snapshot.users.add(new User(readString(in), readString(in), readString(in),
+                    InMemoryUserRepository.parseRole(readString(in))));
+        }
+        return snapshot;
+    }
+
+    private static <T extends TrackedEntity> T loaded(T entity, long version) {
+        entity.setVersion(version);
+        entity.markClean(); // Mirrors the stored row
+        return entity;
+    }
+
+    // --- Field Encoding ---
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate value) throws IOException {
+        writeString(out, value != null ? value.toString() : null);
+    }
+
+    private static LocalDate readDate(DataInputStream in) throws IOException {
+        String value = readString(in);
+        return value != null ? LocalDate.parse(value) : null;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        writeString(out, value != null ? value.toString() : null);
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        String value = readString(in);
+        return value != null ? LocalDateTime.parse(value) : null;
+    }
+}
@@ -0,0 +1,513 @@
+package com.example.hrsm2.server;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.model.LeaveRequest;
+import com.example.hrsm2.model.Payroll;
+import com.example.hrsm2.model.User;
+import com.example.hrsm2.service.EmployeeService;
+import com.example.hrsm2.service.LeaveRequestService;
+import com.example.hrsm2.service.PayrollService;
+import com.example.hrsm2.service.PerformanceEvaluationService;
+import com.example.hrsm2.service.SessionManager;
+import com.example.hrsm2.service.UserService;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the JSON API under {@code /api}.
+ * <p>
+ * Requests are stateless: each one carries its session as {@code Authorization: Bearer <token>},
+ * where the token comes from {@code POST /api/sessions}. Access mirrors the desktop application:
+ * HR admins work with employees, leave, payroll and evaluations, and super admins manage HR admins.
+ * Each request runs on its own virtual thread, so a handler may block on the database.
+ */
+final class ApiHandler implements HttpHandler {
+    // Larger request bodies are refused; no endpoint needs more
+    private static final int MAX_BODY_BYTES = 1024 * 1024;
+    // List endpoints answer one page at a time; without a limit the client gets the first DEFAULT_LIMIT rows
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 500;
+
+    /**
+     * Who may call an endpoint.
+     */
+    enum Access {
+        /** Anyone, without a session. */
+        PUBLIC,
+        /** Any logged-in user. */
+        USER,
+        /** HR admins. */
+        HR,
+        /** Super admins. */
+        ADMIN
+    }
+
+    /**
+     * An error answered with the given status and message.
+     */
+    static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    static ApiException badRequest(String message) {
+        return new ApiException(400, message);
+    }
+
+    private static ApiException notFound(String what) {
+        return new ApiException(404, what + " not found");
+    }
+
+    /**
+     * A parsed request: the path parameters, the caller's session and the body.
+     */
+    private record Request(HttpExchange exchange, Matcher path, SessionManager.Session session, User user) {
+        String pathParameter(int group) {
+            return URLDecoder.decode(path.group(group), StandardCharsets.UTF_8);
+        }
+
+        String query(String name) {
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query == null) {
+                return null;
+            }
+            for (String pair : query.split("&")) {
+                int equals = pair.indexOf('=');
+                String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+                if (key.equals(name)) {
+                    return equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return The page asked for with {@code offset} and {@code limit}; the first page by default.
+         */
+        Page page() {
+            int offset = nonNegative("offset", 0);
+            int limit = nonNegative("limit", DEFAULT_LIMIT);
+            if (limit == 0 || limit > MAX_LIMIT) {
+                throw badRequest("'limit' must be between 1 and " + MAX_LIMIT);
+            }
+            return new Page(offset, limit);
+        }
+
+        private int nonNegative(String name, int defaultValue) {
+            String value = query(name);
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                int number = Integer.parseInt(value);
+                if (number >= 0) {
+                    return number;
+                }
+            } catch (NumberFormatException e) {
+                // Answered below
+            }
+            throw badRequest("'" + name + "' must be a non-negative integer");
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body() throws IOException {
+            byte[] bytes;
+            try (InputStream in = exchange.getRequestBody()) {
+                bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            }
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Request body too large");
+            }
+            if (bytes.length == 0) {
+                return new LinkedHashMap<>();
+            }
+            try {
+                if (Json.parse(new String(bytes, StandardCharsets.UTF_8)) instanceof Map<?, ?> object) {
+                    return (Map<String, Object>) object;
+                }
+            } catch (Json.ParseException e) {
+                throw badRequest("Invalid JSON: " + e.getMessage());
+            }
+            throw badRequest("The body must be a JSON object");
+        }
+    }
+
+    /**
+     * The rows a list request asked for.
+     */
+    private record Page(int offset, int limit) {
+    }
+
+    private record Response(int status, Object body) {
+        static Response ok(Object body) {
+            return new Response(200, body);
+        }
+
+        static Response created(Object body) {
+            return new Response(201, body);
+        }
+
+        static Response noContent() {
+            return new Response(204, null);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        Response handle(Request request) throws IOException;
+    }
+
+    private record Route(String method, Pattern path, Access access, Endpoint endpoint) {
+    }
+
+    private final UserService userService;
+    private final EmployeeService employeeService;
+    private final LeaveRequestService leaveRequestService;
+    private final PayrollService payrollService;
+    private final PerformanceEvaluationService evaluationService;
+    private final List<Route> routes = new ArrayList<>();
+
+    ApiHandler(UserService userService, EmployeeService employeeService, LeaveRequestService leaveRequestService,
+               PayrollService payrollService, PerformanceEvaluationService evaluationService) {
+        this.userService = userService;
+        this.employeeService = employeeService;
+        this.leaveRequestService = leaveRequestService;
+        this.payrollService = payrollService;
+        this.evaluationService = evaluationService;
+
+        route("GET", "/api/health", Access.PUBLIC, this::health);
+        route("POST", "/api/sessions", Access.PUBLIC, this::login);
+        route("DELETE", "/api/sessions/current", Access.USER, this::logout);
+        route("GET", "/api/me", Access.USER, request -> Response.ok(JsonModels.toJson(request.user())));
+
+        route("GET", "/api/employees", Access.HR, this::listEmployees);
+        route("POST", "/api/employees", Access.HR, this::createEmployee);
+        route("GET", "/api/employees/([^/]+)", Access.HR, this::getEmployee);
+        route("PUT", "/api/employees/([^/]+)", Access.HR, this::updateEmployee);
+        route("DELETE", "/api/employees/([^/]+)", Access.HR, this::deleteEmployee);
+
+        route("GET", "/api/leave-requests", Access.HR, this::listLeaveRequests);
+        route("POST", "/api/leave-requests", Access.HR, this::submitLeaveRequest);
+        route("POST", "/api/leave-requests/(\\d+)/(approve|reject)", Access.HR, this::decideLeaveRequest);
+
+        route("GET", "/api/payrolls", Access.HR, this::listPayrolls);
+        route("POST", "/api/payrolls", Access.HR, this::generatePayroll);
+
+        route("GET", "/api/evaluations", Access.HR, this::listEvaluations);
+
+        route("GET", "/api/users", Access.ADMIN, request ->
+                Response.ok(JsonModels.toJson(userService.getUsersByRole(User.UserRole.HR_ADMIN), JsonModels::toJson)));
+        route("POST", "/api/users", Access.ADMIN, this::createUser);
+        route("DELETE", "/api/users/([^/]+)", Access.ADMIN, this::deleteUser);
+    }
+
+    private void route(String method, String path, Access access, Endpoint endpoint) {
+        routes.add(new Route(method, Pattern.compile(path), access, endpoint));
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        Response response;
+        try {
+            response = dispatch(exchange);
+        } catch (ApiException e) {
+            response = new Response(e.status, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            System.err.println("Server Error: " + exchange.getRequestMethod() + " " + exchange.getRequestURI()
+                    + " failed. " + e.getMessage());
+            e.printStackTrace();
+            response = new Response(500, error("Internal server error"));
+        }
+        send(exchange, response);
+    }
+
+    private Response dispatch(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        boolean pathKnown = false;
+        for (Route route : routes) {
+            Matcher matcher = route.path().matcher(path);
+            if (!matcher.matches()) {
+                continue;
+            }
+            pathKnown = true;
+            if (!route.method().equals(exchange.getRequestMethod())) {
+                continue;
+            }
+            SessionManager.Session session = null;
+            User user = null;
+            if (route.access() != Access.PUBLIC) {
+                session = userService.getSessions().get(bearerToken(exchange));
+                user = session != null ? userService.getSessionUser(session.token()) : null;
+                if (user == null) {
+                    exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+                    throw new ApiException(401, "Log in first");
+                }
+                if ((route.access() == Access.HR && user.getRole() != User.UserRole.HR_ADMIN)
+                        || (route.access() == Access.ADMIN && !user.isSuperAdmin())) {
+                    throw new ApiException(403, "Not allowed for role " + user.getRole());
+                }
+            }
+            return route.endpoint().handle(new Request(exchange, matcher, session, user));
+        }
+        throw pathKnown ? new ApiException(405, "Method not allowed") : notFound("Endpoint");
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return header.substring(7).trim();
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        if (response.body() == null) {
+            exchange.sendResponseHeaders(response.status(), -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = Json.write(response.body()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status(), bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Answers one page of a listing; the number of matching rows goes in {@code X-Total-Count}.
+     */
+    private static <T> Response page(Request request, int total, List<T> rows,
+                                     Function<T, Map<String, Object>> toJson) {
+        request.exchange().getResponseHeaders().set("X-Total-Count", Integer.toString(total));
+        return Response.ok(JsonModels.toJson(rows, toJson));
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("error", message);
+        return json;
+    }
+
+    // --- Sessions ---
+
+    private Response health(Request request) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("status", "ok");
+        json.put("sessions", userService.getSessions().getActiveSessionCount());
+        return Response.ok(json);
+    }
+
+    private Response login(Request request) throws IOException {
+        Map<String, Object> body = request.body();
+        SessionManager.Session session = userService.login(JsonModels.requiredString(body, "username"),
+                JsonModels.requiredString(body, "password"));
+        if (session == null) {
+            throw new ApiException(401, "Invalid username or password");
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("token", session.token());
+        json.put("user", JsonModels.toJson(userService.getSessionUser(session.token())));
+        return Response.created(json);
+    }
+
+    private Response logout(Request request) {
+        userService.logout(request.session().token());
+        return Response.noContent();
+    }
+
+    // --- Employees ---
+
+    private Response listEmployees(Request request) {
+        Page page = request.page();
+        String keyword = request.query("q");
+        String department = request.query("department");
+        if (keyword == null || keyword.isBlank()) {
+            QuerySpec spec = QuerySpec.all().withDepartment(department);
+            return page(request, employeeService.countEmployees(spec),
+                    employeeService.getEmployeePage(spec, page.offset(), page.limit()), JsonModels::toJson);
+        }
+        // The keyword search has no query form, so its matches are paged here
+        List<Employee> matches = new ArrayList<>();
+        for (Employee employee : employeeService.searchEmployees(keyword)) {
+            if (department == null || department.equals(employee.getDepartment())) {
+                matches.add(employee);
+            }
+        }
+        int from = Math.min(page.offset(), matches.size());
+        int to = Math.min(matches.size(), from + page.limit());
+        return page(request, matches.size(), matches.subList(from, to), JsonModels::toJson);
+    }
+
+    private Response getEmployee(Request request) {
+        Employee employee = employeeService.getEmployeeById(request.pathParameter(1));
+        if (employee == null) {
+            throw notFound("Employee");
+        }
+        return Response.ok(JsonModels.toJson(employee));
+    }
+
+    private Response createEmployee(Request request) throws IOException {
+        Map<String, Object> body = request.body();
+        JsonModels.requiredString(body, "firstName");
+        JsonModels.requiredString(body, "lastName");
+        Employee employee = new Employee();
+        JsonModels.applyTo(employee, body);
+        if (!employeeService.addEmployee(employee)) {
+            throw badRequest("Employee could not be added; check the fields and that the email is unique");
+        }
+        return Response.created(JsonModels.toJson(employee));
+    }
+
+    private Response updateEmployee(Request request) throws IOException {
+        Map<String, Object> body = request.body();
+        Employee employee = employeeService.getEmployeeById(request.pathParameter(1));
+        if (employee == null) {
+            throw notFound("Employee");
+        }
+        // The update only succeeds if the row still has the version the client last saw;
+        // without one it would silently overwrite whatever changed since the client's read
+        if (!body.containsKey("version")) {
+            throw new ApiException(428, "Send the version of the employee you last read");
+        }
+        employee.setVersion(JsonModels.number(body, "version").longValue());
+        JsonModels.applyTo(employee, body);
+        UpdateResult result = employeeService.tryUpdateEmployee(employee);
+        return switch (result) {
+            case UPDATED -> Response.ok(JsonModels.toJson(employee));
+            case CONFLICT -> throw new ApiException(409, "Employee was changed by someone else; reload and retry");
+            case NOT_FOUND -> throw notFound("Employee");
+            case ERROR -> throw badRequest("Employee could not be updated; check the fields");
+        };
+    }
+
+    private Response deleteEmployee(Request request) {
+        if (!employeeService.deleteEmployee(request.pathParameter(1))) {
+            throw notFound("Employee");
+        }
+        return Response.noContent();
+    }
+
+    // --- Leave requests ---
+
+    private Response listLeaveRequests(Request request) {
+        Page page = request.page();
+        QuerySpec spec = QuerySpec.all()
+                .withEquals("employeeId", request.query("employeeId"))
+                .withEquals("status", request.query("status"))
+                .withDepartment(request.query("department"));
+        return page(request, leaveRequestService.countLeaveRequests(spec),
+                leaveRequestService.getLeaveRequestPage(spec, page.offset(), page.limit()), JsonModels::toJson);
+    }
+
+    private Response submitLeaveRequest(Request request) throws IOException {
+        Map<String, Object> body = request.body();
+        LeaveRequest leaveRequest = new LeaveRequest(JsonModels.requiredString(body, "employeeId"),
+                JsonModels.requiredDate(body, "startDate"), JsonModels.requiredDate(body, "endDate"),
+                JsonModels.string(body, "reason"));
+        if (!leaveRequestService.submitLeaveRequest(leaveRequest)) {
+            throw badRequest("Leave request rejected; it may overlap another request or exceed the available days");
+        }
+        return Response.created(JsonModels.toJson(leaveRequest));
+    }
+
+    private Response decideLeaveRequest(Request request) throws IOException {
+        int id;
+        try {
+            id = Integer.parseInt(request.pathParameter(1));
+        } catch (NumberFormatException e) {
+            throw notFound("Leave request");
+        }
+        String comments = JsonModels.string(request.body(), "comments");
+        boolean approve = "approve".equals(request.pathParameter(2));
+        boolean decided = approve
+                ? leaveRequestService.approveLeaveRequest(id, comments)
+                : leaveRequestService.rejectLeaveRequest(id, comments);
+        LeaveRequest leaveRequest = leaveRequestService.getLeaveRequestById(id);
+        if (leaveRequest == null) {
+            throw notFound("Leave request");
+        }
+        if (!decided) {
+            throw new ApiException(409, "Leave request is " + leaveRequest.getStatus() + " and cannot be changed");
+        }
+        return Response.ok(JsonModels.toJson(leaveRequest));
+    }
+
+    // --- Payroll and evaluations ---
+
+    private Response listPayrolls(Request request) {
+        Page page = request.page();
+        QuerySpec spec = QuerySpec.all()
+                .withEquals("employeeId", request.query("employeeId"))
+                .withEquals("status", request.query("status"))
+                .withDepartment(request.query("department"));
+        return page(request, payrollService.countPayrolls(spec),
+                payrollService.getPayrollPage(spec, page.offset(), page.limit()), JsonModels::toJson);
+    }
+
+    private Response generatePayroll(Request request) throws IOException {
+        Map<String, Object> body = request.body();
+        Payroll payroll = payrollService.generatePayroll(JsonModels.requiredString(body, "employeeId"),
+                JsonModels.requiredDate(body, "payPeriodStart"), JsonModels.requiredDate(body, "payPeriodEnd"));
+        if (payroll == null) {
+            throw badRequest("Payroll could not be generated; check the employee and the pay period");
+        }
+        return Response.created(JsonModels.toJson(payroll));
+    }
+
+    private Response listEvaluations(Request request) {
+        Page page = request.page();
+        QuerySpec spec = QuerySpec.all()
+                .withEquals("employeeId", request.query("employeeId"))
+                .withDepartment(request.query("department"));
+        return page(request, evaluationService.countEvaluations(spec),
+                evaluationService.getEvaluationPage(spec, page.offset(), page.limit()), JsonModels::toJson);
+    }
+
+    // --- Users ---
+
+    private Response createUser(Request request) throws IOException {
+        Map<String, Object> body = request.body();
+        String username = JsonModels.requiredString(body, "username");
+        String password = JsonModels.requiredString(body, "password");
+        if (password.length() < 6) {
+            throw badRequest("Password must be at least 6 characters long");
+        }
+        if (!userService.createUser(username, password, JsonModels.requiredString(body, "fullName"), User.UserRole.HR_ADMIN)) {
+            throw new ApiException(409, "Username is taken");
+        }
+        return Response.created(JsonModels.toJson(userService.getUserByUsername(username)));
+    }
+
+    private Response deleteUser(Request request) {
+        String username = request.pathParameter(1);
+        if (username.equals(request.user().getUsername()) || "super".equalsIgnoreCase(username)) {
+            throw badRequest("This account cannot be deleted");
+        }
+        if (!userService.deleteUser(username)) {
+            throw notFound("User");
+        }
+        return Response.noContent();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.hrsm2.server;
+
+import com.example.hrsm2.repository.PooledStorageEngine;
+import com.example.hrsm2.service.EmployeeService;
+import com.example.hrsm2.service.LeaveRequestService;
+import com.example.hrsm2.service.PayrollService;
+import com.example.hrsm2.service.PerformanceEvaluationService;
+import com.example.hrsm2.service.ServiceRegistry;
+import com.example.hrsm2.service.UserService;
+import com.example.hrsm2.util.DatabaseConfig;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless server mode: the services behind a local HTTP/JSON API instead of the JavaFX window.
+ * <p>
+ * One server process owns the database and any number of clients (scripts, other tools) share it
+ * through the API, each with its own session, instead of all opening the SQLite file themselves.
+ * Requests run on virtual threads and the services use a {@link PooledStorageEngine}, so slow
+ * requests do not hold up the others. See {@link ApiHandler} for the endpoints.
+ * <p>
+ * Started with {@code java ... com.example.hrsm2.server.HrmsServer}; settings are system properties:
+ * {@code hrsm.server.host} (default 127.0.0.1, i.e. this machine only), {@code hrsm.server.port}
+ * (default 8080; 0 picks a free port) and {@code hrsm.server.poolSize} (default 4), plus the usual
+ * {@code hrsm.db.*} database settings.
+ */
+public final class HrmsServer {
+    public static final String HOST_PROPERTY = "hrsm.server.host";
+    public static final String PORT_PROPERTY = "hrsm.server.port";
+    public static final String POOL_SIZE_PROPERTY = "hrsm.server.poolSize";
+    public static final int DEFAULT_PORT = 8080;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server for the service singletons; call {@link #start()} to accept requests.
+     *
+     * @param address The address to listen on; port 0 picks a free port.
+     * @throws IOException if the address cannot be bound.
+     */
+    public HrmsServer(InetSocketAddress address) throws IOException {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/api", new ApiHandler(UserService.getInstance(), EmployeeService.getInstance(),
+                LeaveRequestService.getInstance(), PayrollService.getInstance(), PerformanceEvaluationService.getInstance()));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to the given time for running ones, then shuts down.
+     *
+     * @param delaySeconds How long running requests may take to finish.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.close();
+    }
+
+    /**
+     * @return The bound address, with the actual port if port 0 was requested.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public static void main(String[] args) throws IOException {
+        DatabaseConfig config = DatabaseConfig.load();
+        PooledStorageEngine engine = new PooledStorageEngine(config,
+                Integer.getInteger(POOL_SIZE_PROPERTY, PooledStorageEngine.DEFAULT_POOL_SIZE));
+        ServiceRegistry.useStorageEngine(engine);
+
+        InetSocketAddress address = new InetSocketAddress(System.getProperty(HOST_PROPERTY, "127.0.0.1"),
+                Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT));
+        HrmsServer server = new HrmsServer(address);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(2);
+            engine.close();
+        }, "server-shutdown"));
+        server.start();
+        System.out.println("Server Info: Listening on http://" + server.getAddress().getHostString() + ":"
+                + server.getAddress().getPort() + "/api with " + engine.getPoolSize() + " database connections ("
+                + config.getUrl() + ")");
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.hrsm2.server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A small JSON reader and writer for the API, so the server needs no library beyond the JDK.
+ * <p>
+ * Objects map to {@link LinkedHashMap}s, arrays to {@link ArrayList}s, whole numbers to {@link Long}
+ * and other numbers to {@link Double}. When writing, enums and dates are written as strings.
+ */
+final class Json {
+
+    private Json() {
+        // Static helpers
+    }
+
+    /**
+     * Thrown for a request body that is not valid JSON.
+     */
+    static final class ParseException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ParseException(String message, int position) {
+            super(message + " at position " + position);
+        }
+    }
+
+    // --- Writing ---
+
+    static String write(Object value) {
+        StringBuilder out = new StringBuilder();
+        write(value, out);
+        return out.toString();
+    }
+
+    private static void write(Object value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String text) {
+            writeString(text, out);
+        } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long) {
+            out.append(value);
+        } else if (value instanceof Number number) {
+            double d = number.doubleValue();
+            // JSON has no NaN or infinity
+            out.append(Double.isFinite(d) ? number.toString() : "null");
+        } else if (value instanceof Map<?, ?> map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                writeString(String.valueOf(entry.getKey()), out);
+                out.append(':');
+                write(entry.getValue(), out);
+            }
+            out.append('}');
+        } else if (value instanceof Collection<?> items) {
+            out.append('[');
+            boolean first = true;
+            for (Object item : items) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                write(item, out);
+            }
+            out.append(']');
+        } else if (value instanceof Enum<?> constant) {
+            writeString(constant.name(), out);
+        } else {
+            // Dates and other value types use their ISO/string form
+            writeString(value.toString(), out);
+        }
+    }
+
+    private static void writeString(String text, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    // --- Reading ---
+
+    // Deepest object/array nesting a request may use; the reader recurses once per level, so
+    // this keeps a hostile body from exhausting the handler thread's stack
+    static final int MAX_DEPTH = 64;
+
+    /**
+     * @param text A JSON document.
+     * @return The value it holds.
+     * @throws ParseException if the text is not valid JSON or nests deeper than {@link #MAX_DEPTH}.
+     */
+    static Object parse(String text) {
+        Reader reader = new Reader(text);
+        reader.skipWhitespace();
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (!reader.atEnd()) {
+            throw new ParseException("Unexpected trailing content", reader.position);
+        }
+        return value;
+    }
+
+    private static final class Reader {
+        private final String text;
+        private int position;
+        private int depth;
+
+        Reader(String text) {
+            this.text = text;
+        }
+
+        boolean atEnd() {
+            return position >= text.length();
+        }
+
+        void skipWhitespace() {
+            while (!atEnd() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        Object readValue() {
+            if (atEnd()) {
+                throw new ParseException("Unexpected end of input", position);
+            }
+            char c = text.charAt(position);
+            return switch (c) {
+                case '{' -> readObject();
+                case '[' -> readArray();
+                case '"' -> readString();
+                case 't' -> readLiteral("true", Boolean.TRUE);
+                case 'f' -> readLiteral("false", Boolean.FALSE);
+                case 'n' -> readLiteral("null", null);
+                default -> {
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        yield readNumber();
+                    }
+                    throw new ParseException("Unexpected character '" + c + "'", position);
+                }
+            };
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            descend();
+            position++; // {
+            skipWhitespace();
+            if (consume('}')) {
+                depth--;
+                return object;
+            }
+            do {
+                skipWhitespace();
+                if (atEnd() || text.charAt(position) != '"') {
+                    throw new ParseException("Expected a member name", position);
+                }
+                String name = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                object.put(name, readValue());
+                skipWhitespace();
+            } while (consume(','));
+            expect('}');
+            depth--;
+            return object;
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            descend();
+            position++; // [
+            skipWhitespace();
+            if (consume(']')) {
+                depth--;
+                return array;
+            }
+            do {
+                skipWhitespace();
+                array.add(readValue());
+                skipWhitespace();
+            } while (consume(','));
+            expect(']');
+            depth--;
+            return array;
+        }
+
+        private void descend() {
+            if (++depth > MAX_DEPTH) {
+                throw new ParseException("Nesting deeper than " + MAX_DEPTH + " levels", position);
+            }
+        }
+
+        private String readString() {
+            position++; // opening quote
+            StringBuilder out = new StringBuilder();
+            while (true) {
+                if (atEnd()) {
+                    throw new ParseException("Unterminated string", position);
+                }
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return out.toString();
+                }
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                if (atEnd()) {
+                    throw new ParseException("Unterminated escape", position);
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> out.append(escaped);
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'n' -> out.append('\n');
+                    case 'r' -> out.append('\r');
+                    case 't' -> out.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw new ParseException("Incomplete unicode escape", position);
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new ParseException("Invalid unicode escape", position);
+                        }
+                        position += 4;
+                    }
+                    default -> throw new ParseException("Invalid escape '\\" + escaped + "'", position - 1);
+                }
+            }
+        }
+
+        private Object readNumber() {
+            int start = position;
+            boolean fraction = false;
+            while (!atEnd()) {
+                char c = text.charAt(position);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    fraction = true;
+                } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                    break;
+                }
+                position++;
+            }
+            String number = text.substring(start, position);
+            try {
+                if (!fraction) {
+                    try {
+                        return Long.parseLong(number);
+                    } catch (NumberFormatException tooLong) {
+                        // Falls through to a double
+                    }
+                }
+                return Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                throw new ParseException("Invalid number '" + number + "'", start);
+            }
+        }
+
+        private Object readLiteral(String literal, Object value) {
+            if (!text.startsWith(literal, position)) {
+                throw new ParseException("Unexpected token", position);
+            }
+            position += literal.length();
+            return value;
+        }
+
+        private boolean consume(char c) {
+            if (!atEnd() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw new ParseException("Expected '" + c + "'", position);
+            }
+        }
+    }
+}
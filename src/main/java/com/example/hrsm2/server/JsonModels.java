@@ -0,0 +1,175 @@
+package com.example.hrsm2.server;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.model.LeaveRequest;
+import com.example.hrsm2.model.Payroll;
+import com.example.hrsm2.model.PerformanceEvaluation;
+import com.example.hrsm2.model.User;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Converts the models to and from the JSON objects of the API.
+ * Dates are ISO strings ("2024-05-31"); the row version is exposed so clients can send it back
+ * with an update and get a conflict instead of overwriting someone else's change.
+ */
+final class JsonModels {
+
+    private JsonModels() {
+        // Static helpers
+    }
+
+    static <T> List<Map<String, Object>> toJson(List<T> items, Function<T, Map<String, Object>> mapper) {
+        return items.stream().map(mapper).toList();
+    }
+
+    static Map<String, Object> toJson(User user) {
+        // Never expose the password hash
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("username", user.getUsername());
+        json.put("fullName", user.getFullName());
+        json.put("role", user.getRole());
+        return json;
+    }
+
+    static Map<String, Object> toJson(Employee employee) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", employee.getId());
+        json.put("firstName", employee.getFirstName());
+        json.put("lastName", employee.getLastName());
+        json.put("email", employee.getEmail());
+        json.put("phone", employee.getPhone());
+        json.put("hireDate", employee.getHireDate());
+        json.put("department", employee.getDepartment());
+        json.put("jobTitle", employee.getJobTitle());
+        json.put("salary", employee.getSalary());
+        json.put("version", employee.getVersion());
+        return json;
+    }
+
+    static Map<String, Object> toJson(LeaveRequest request) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", request.getId());
+        json.put("employeeId", request.getEmployeeId());
+        json.put("startDate", request.getStartDate());
+        json.put("endDate", request.getEndDate());
+        json.put("reason", request.getReason());
+        json.put("status", request.getStatus());
+        json.put("managerComments", request.getManagerComments());
+        json.put("version", request.getVersion());
+        return json;
+    }
+
+    static Map<String, Object> toJson(Payroll payroll) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", payroll.getId());
+        json.put("employeeId", payroll.getEmployeeId());
+        json.put("payPeriodStart", payroll.getPayPeriodStart());
+        json.put("payPeriodEnd", payroll.getPayPeriodEnd());
+        json.put("baseSalary", payroll.getBaseSalary());
+        json.put("overtimePay", payroll.getOvertimePay());
+        json.put("bonus", payroll.getBonus());
+        json.put("taxDeductions", payroll.getTaxDeductions());
+        json.put("otherDeductions", payroll.getOtherDeductions());
+        json.put("netSalary", payroll.getNetSalary());
+        json.put("status", payroll.getStatus());
+        json.put("version", payroll.getVersion());
+        return json;
+    }
+
+    static Map<String, Object> toJson(PerformanceEvaluation evaluation) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", evaluation.getId());
+        json.put("employeeId", evaluation.getEmployeeId());
+        json.put("evaluationDate", evaluation.getEvaluationDate());
+        json.put("performanceRating", evaluation.getPerformanceRating());
+        json.put("strengths", evaluation.getStrengths());
+        json.put("areasForImprovement", evaluation.getAreasForImprovement());
+        json.put("comments", evaluation.getComments());
+        json.put("reviewedBy", evaluation.getReviewedBy());
+        json.put("version", evaluation.getVersion());
+        return json;
+    }
+
+    /**
+     * Copies the employee fields present in the JSON object onto the employee; absent fields keep their value.
+     *
+     * @throws ApiHandler.ApiException (400) for a field of the wrong type.
+     */
+    static void applyTo(Employee employee, Map<String, Object> json) {
+        if (json.containsKey("firstName")) {
+            employee.setFirstName(string(json, "firstName"));
+        }
+        if (json.containsKey("lastName")) {
+            employee.setLastName(string(json, "lastName"));
+        }
+        if (json.containsKey("email")) {
+            employee.setEmail(string(json, "email"));
+        }
+        if (json.containsKey("phone")) {
+            employee.setPhone(string(json, "phone"));
+        }
+        if (json.containsKey("hireDate")) {
+            employee.setHireDate(date(json, "hireDate"));
+        }
+        if (json.containsKey("department")) {
+            employee.setDepartment(string(json, "department"));
+        }
+        if (json.containsKey("jobTitle")) {
+            employee.setJobTitle(string(json, "jobTitle"));
+        }
+        if (json.containsKey("salary")) {
+            employee.setSalary(number(json, "salary").doubleValue());
+        }
+    }
+
+    // --- Typed member access; a wrong type is the client's error ---
+
+    static String string(Map<String, Object> json, String name) {
+        Object value = json.get(name);
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        throw ApiHandler.badRequest("'" + name + "' must be a string");
+    }
+
+    static String requiredString(Map<String, Object> json, String name) {
+        String value = string(json, name);
+        if (value == null || value.isBlank()) {
+            throw ApiHandler.badRequest("'" + name + "' is required");
+        }
+        return value;
+    }
+
+    static Number number(Map<String, Object> json, String name) {
+        if (json.get(name) instanceof Number number) {
+            return number;
+        }
+        throw ApiHandler.badRequest("'" + name + "' must be a number");
+    }
+
+    static LocalDate date(Map<String, Object> json, String name) {
+        String value = string(json, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw ApiHandler.badRequest("'" + name + "' must be a date like 2024-05-31");
+        }
+    }
+
+    static LocalDate requiredDate(Map<String, Object> json, String name) {
+        LocalDate value = date(json, name);
+        if (value == null) {
+            throw ApiHandler.badRequest("'" + name + "' is required");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.hrsm2.service;
+
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.event.ChangeSetEvent;
+import com.example.hrsm2.event.EventManager;
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.model.LeaveRequest;
+import com.example.hrsm2.model.LeaveUtilization;
+import com.example.hrsm2.model.Payroll;
+import com.example.hrsm2.model.PayrollCost;
+import com.example.hrsm2.model.PerformanceEvaluation;
+import com.example.hrsm2.model.RatingStats;
+import com.example.hrsm2.repository.EmployeeRepository;
+import com.example.hrsm2.repository.LeaveRequestRepository;
+import com.example.hrsm2.repository.PayrollRepository;
+import com.example.hrsm2.repository.PerformanceEvaluationRepository;
+import com.example.hrsm2.repository.StorageEngine;
+import com.example.hrsm2.repository.StorageEngines;
+import javafx.event.EventHandler;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Department-level reporting over employees, payroll, leave and performance evaluations.
+ * <p>
+ * Every figure is computed by an aggregate query in the database and cached here; payroll
+ * costs are held in a {@link PayrollCostColumns} column cache. The cache follows the change
+ * events the other services publish: a change only marks the affected section stale, and a
+ * payroll run (which adds whole pay periods) re-aggregates just those periods on the next read.
+ * Updates name the fields they changed, so a payroll status transition keeps the costs and a
+ * cost edit re-aggregates only the payroll's period.
+ */
+public class AnalyticsService {
+    // Leave utilization is cached per date range; reports ask for a handful of ranges
+    private static final int MAX_CACHED_LEAVE_RANGES = 32;
+    // Payroll fields the cost aggregates read; a change to any other field leaves them as they are
+    private static final Set<String> PAYROLL_COST_FIELDS = Set.of("employeeId", "baseSalary", "overtimePay",
+            "bonus", "taxDeductions", "otherDeductions", "netSalary");
+    // Moving a payroll to another period leaves its old period stale, and that period is not known here
+    private static final Set<String> PAYROLL_PERIOD_FIELDS = Set.of("payPeriodStart", "payPeriodEnd");
+
+    private final EmployeeRepository employeeRepository;
+    private final PayrollRepository payrollRepository;
+    private final LeaveRequestRepository leaveRequestRepository;
+    private final PerformanceEvaluationRepository evaluationRepository;
+    private static AnalyticsService instance;
+
+    // Cached sections; null means stale and reloaded on the next read
+    private Map<String, Integer> headcount;
+    private PayrollCostColumns payrollCosts;
+    private Map<String, RatingStats> departmentRatings;
+    // Pay periods that gained payrolls since payrollCosts was built
+    private final Set<PayPeriod> stalePayPeriods = new LinkedHashSet<>();
+    private final Map<PayPeriod, List<LeaveUtilization>> leaveUtilization = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PayPeriod, List<LeaveUtilization>> eldest) {
+            return size() > MAX_CACHED_LEAVE_RANGES;
+        }
+    };
+
+    /**
+     * A pay period or reporting range, inclusive at both ends.
+     */
+    private record PayPeriod(LocalDate start, LocalDate end) {
+    }
+
+    // Kept so the subscriptions can be removed again when the service is discarded
+    private final EventHandler<ChangeSetEvent<String, Employee>> employeesHandler =
+            event -> onEmployeesChanged(event.getChangeSet());
+    private final EventHandler<ChangeSetEvent<String, Payroll>> payrollsHandler =
+            event -> onPayrollsChanged(event.getChangeSet());
+    private final EventHandler<ChangeSetEvent<Integer, LeaveRequest>> leaveRequestsHandler =
+            event -> onLeaveRequestsChanged(event.getChangeSet());
+    private final EventHandler<ChangeSetEvent<String, PerformanceEvaluation>> evaluationsHandler =
+            event -> onEvaluationsChanged(event.getChangeSet());
+
+    private AnalyticsService() {
+        this(StorageEngines.getDefault());
+    }
+
+    /**
+     * Creates an analytics service over the repositories of the given engine, e.g. an in-memory one for tests.
+     * The application itself uses {@link #getInstance()}.
+     *
+     * @param engine The storage engine to aggregate.
+     */
+    public AnalyticsService(StorageEngine engine) {
+        employeeRepository = engine.employees();
+        payrollRepository = engine.payrolls();
+        leaveRequestRepository = engine.leaveRequests();
+        evaluationRepository = engine.evaluations();
+        EventManager eventManager = EventManager.getInstance();
+        eventManager.addEventHandler(ChangeSetEvent.EMPLOYEES_CHANGED, employeesHandler);
+        eventManager.addEventHandler(ChangeSetEvent.PAYROLLS_CHANGED, payrollsHandler);
+        eventManager.addEventHandler(ChangeSetEvent.LEAVE_REQUESTS_CHANGED, leaveRequestsHandler);
+        eventManager.addEventHandler(ChangeSetEvent.EVALUATIONS_CHANGED, evaluationsHandler);
+    }
+
+    public static synchronized AnalyticsService getInstance() {
+        if (instance == null) {
+            instance = new AnalyticsService();
+        }
+        return instance;
+    }
+
+    // Lets ServiceRegistry.reset() rebuild the service over another storage engine
+    static synchronized void resetInstance() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    /**
+     * Stops following the change events of the other services.
+     * A closed service still answers queries, but its cached figures are no longer refreshed.
+     */
+    public void close() {
+        EventManager eventManager = EventManager.getInstance();
+        eventManager.removeEventHandler(ChangeSetEvent.EMPLOYEES_CHANGED, employeesHandler);
+        eventManager.removeEventHandler(ChangeSetEvent.PAYROLLS_CHANGED, payrollsHandler);
+        eventManager.removeEventHandler(ChangeSetEvent.LEAVE_REQUESTS_CHANGED, leaveRequestsHandler);
+        eventManager.removeEventHandler(ChangeSetEvent.EVALUATIONS_CHANGED, evaluationsHandler);
+    }
+
+    // --- Reports ---
+
+    /**
+     * @return Number of employees per department, in department order.
+     */
+    public synchronized Map<String, Integer> getHeadcountByDepartment() {
+        if (headcount == null) {
+            headcount = Collections.unmodifiableMap(employeeRepository.getHeadcountByDepartment());
+        }
+        return headcount;
+    }
+
+    /**
+     * @return Company-wide payroll cost (total and average gross, total net) for every pay period, newest first.
+     */
+    public List<PayrollCost> getPayrollCostByPeriod() {
+        return currentPayrollCosts().totalsByPeriod();
+    }
+
+    /**
+     * @param department The department, or null for employees without one.
+     * @return The department's payroll cost for every pay period, newest first.
+     */
+    public List<PayrollCost> getPayrollCostForDepartment(String department) {
+        return currentPayrollCosts().forDepartment(department);
+    }
+
+    /**
+     * @return Each department's payroll cost for one pay period, in department order.
+     */
+    public List<PayrollCost> getPayrollCostForPeriod(LocalDate periodStart, LocalDate periodEnd) {
+        return currentPayrollCosts().forPeriod(periodStart, periodEnd);
+    }
+
+    /**
+     * Computes each department's leave utilization rate over a date range:
+     * approved leave days inside the range divided by headcount times the days in the range.
+     *
+     * @param from First day of the range (inclusive).
+     * @param to Last day of the range (inclusive).
+     * @return One entry per department, in department order, or an empty list if the range is invalid.
+     */
+    public synchronized List<LeaveUtilization> getLeaveUtilization(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            return Collections.emptyList();
+        }
+        PayPeriod range = new PayPeriod(from, to);
+        List<LeaveUtilization> cached = leaveUtilization.get(range);
+        if (cached != null) {
+            return cached;
+        }
+
+        Map<String, Long> leaveDays = leaveRequestRepository.getApprovedLeaveDaysByDepartment(from, to);
+        List<LeaveUtilization> utilization = new ArrayList<>();
+        getHeadcountByDepartment().forEach((department, count) ->
+                utilization.add(new LeaveUtilization(department, from, to, count, leaveDays.getOrDefault(department, 0L))));
+        cached = Collections.unmodifiableList(utilization);
+        leaveUtilization.put(range, cached);
+        return cached;
+    }
+
+    /**
+     * @return Rating statistics and distributions per department, read from the rating aggregates.
+     */
+    public synchronized Map<String, RatingStats> getRatingStatsByDepartment() {
+        if (departmentRatings == null) {
+            departmentRatings = Collections.unmodifiableMap(evaluationRepository.getRatingStatsByDepartment());
+        }
+        return departmentRatings;
+    }
+
+    /**
+     * Drops every cached figure, e.g. after the database was changed outside the services.
+     */
+    public synchronized void invalidate() {
+        headcount = null;
+        payrollCosts = null;
+        departmentRatings = null;
+        stalePayPeriods.clear();
+        leaveUtilization.clear();
+    }
+
+    // Builds the column cache on first use and folds in periods that gained payrolls since
+    private synchronized PayrollCostColumns currentPayrollCosts() {
+        if (payrollCosts == null) {
+            payrollCosts = PayrollCostColumns.of(payrollRepository.getPayrollCostByDepartment(null, null));
+            stalePayPeriods.clear();
+        }
+        for (PayPeriod period : stalePayPeriods) {
+            payrollCosts = payrollCosts.withPeriod(period.start(), period.end(),
+                    payrollRepository.getPayrollCostByDepartment(period.start(), period.end()));
+        }
+        stalePayPeriods.clear();
+        return payrollCosts;
+    }
+
+    // --- Change Tracking ---
+
+    private synchronized void onEmployeesChanged(ChangeSet<String, Employee> changes) {
+        headcount = null;
+        leaveUtilization.clear();
+        if (!changes.getDeletedIds().isEmpty() || changes.getUpdated().keySet().stream()
+                .anyMatch(id -> mayHaveChanged(changes.getChangedFields(id), Set.of("department")))) {
+            // A department change or removal regroups the employee's payrolls and ratings
+            payrollCosts = null;
+            departmentRatings = null;
+        }
+    }
+
+    private synchronized void onPayrollsChanged(ChangeSet<String, Payroll> changes) {
+        if (!changes.getDeletedIds().isEmpty()) {
+            // The period of a deleted payroll is unknown, so re-aggregate everything
+            payrollCosts = null;
+            return;
+        }
+        if (payrollCosts == null) {
+            return;
+        }
+        for (Map.Entry<String, Payroll> entry : changes.getUpdated().entrySet()) {
+            Set<String> fields = changes.getChangedFields(entry.getKey());
+            // Status transitions and other edits outside the cost columns leave the aggregates as they are
+            if (mayHaveChanged(fields, PAYROLL_PERIOD_FIELDS)
+                    || (mayHaveChanged(fields, PAYROLL_COST_FIELDS) && !markPeriodStale(entry.getValue()))) {
+                payrollCosts = null;
+                return;
+            }
+        }
+        for (Payroll payroll : changes.getAdded().values()) {
+            if (!markPeriodStale(payroll)) {
+                payrollCosts = null;
+                return;
+            }
+        }
+    }
+
+    // Queues the payroll's period for re-aggregation; false if the payroll has no complete period
+    private boolean markPeriodStale(Payroll payroll) {
+        if (payroll.getPayPeriodStart() == null || payroll.getPayPeriodEnd() == null) {
+            return false;
+        }
+        stalePayPeriods.add(new PayPeriod(payroll.getPayPeriodStart(), payroll.getPayPeriodEnd()));
+        return true;
+    }
+
+    // True unless the update named its changed fields and none of them is in the given set
+    private static boolean mayHaveChanged(Set<String> changedFields, Set<String> fields) {
+        return changedFields == null || changedFields.stream().anyMatch(fields::contains);
+    }
+
+    private synchronized void onLeaveRequestsChanged(ChangeSet<Integer, LeaveRequest> changes) {
+        if (!changes.getUpdated().isEmpty() || !changes.getDeletedIds().isEmpty()) {
+            leaveUtilization.clear();
+            return;
+        }
+        // New requests only matter once approved, and only to the ranges they overlap
+        for (LeaveRequest request : changes.getAdded().values()) {
+            if (request.getStatus() == LeaveRequest.LeaveStatus.APPROVED) {
+                leaveUtilization.keySet().removeIf(range -> !request.getStartDate().isAfter(range.end())
+                        && !request.getEndDate().isBefore(range.start()));
+            }
+        }
+    }
+
+    private synchronized void onEvaluationsChanged(ChangeSet<String, PerformanceEvaluation> changes) {
+        departmentRatings = null;
+    }
+}
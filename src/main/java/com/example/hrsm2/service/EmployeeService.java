@@ -1,23 +1,39 @@
 package com.example.hrsm2.service;
 
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.event.ChangeSetEvent;
 import com.example.hrsm2.model.Employee;
-import com.example.hrsm2.util.DatabaseDriver;
+import com.example.hrsm2.repository.EmployeeRepository;
+import com.example.hrsm2.repository.StorageEngines;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID; // Keep UUID for potential ID generation if needed elsewhere
 
 public class EmployeeService {
     // Singleton instance
     private static EmployeeService instance;
 
-    // Reference to the SINGLETON data access layer instance
-    private final DatabaseDriver dbDriver;
+    // Storage for employees; the configured engine unless one is injected
+    private final EmployeeRepository employeeRepository;
 
     // Private constructor to enforce Singleton pattern
     private EmployeeService() {
-        // *** MODIFIED HERE: Use the Singleton instance of DatabaseDriver ***
-        dbDriver = DatabaseDriver.getInstance();
+        this(StorageEngines.getDefault().employees());
+    }
+
+    /**
+     * Creates a service over the given repository, e.g. an in-memory one for tests.
+     * The application itself uses {@link #getInstance()}.
+     *
+     * @param employeeRepository The storage for employees.
+     */
+    public EmployeeService(EmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
     }
 
     /**
@@ -33,6 +49,11 @@ public class EmployeeService {
         return instance;
     }
 
+    // Lets ServiceRegistry.reset() rebuild the service over another storage engine
+    static synchronized void resetInstance() {
+        instance = null;
+    }
+
     /**
      * Retrieves all employees from the database.
      * Includes basic error handling.
@@ -41,7 +62,7 @@ public class EmployeeService {
      */
     public List<Employee> getAllEmployees() {
         try {
-            return dbDriver.getAllEmployees();
+            return employeeRepository.getAllEmployees();
         } catch (Exception e) {
             System.err.println("Service Error: Failed to get all employees. " + e.getMessage());
             e.printStackTrace();
@@ -49,6 +70,28 @@ public class EmployeeService {
         }
     }
 
+    /**
+     * Counts the employees matching a query.
+     *
+     * @param spec The filters to apply; a department filter matches the employee's department.
+     * @return The number of matching employees.
+     */
+    public int countEmployees(QuerySpec spec) {
+        return employeeRepository.countEmployees(spec);
+    }
+
+    /**
+     * Retrieves one page of the employees matching a query, sorted by the database.
+     *
+     * @param spec The filters and sort keys (by name if none).
+     * @param offset Index of the first employee to return.
+     * @param limit Maximum number of employees to return.
+     * @return The employees of the page.
+     */
+    public List<Employee> getEmployeePage(QuerySpec spec, int offset, int limit) {
+        return employeeRepository.getEmployeePage(spec, offset, limit);
+    }
+
     /**
      * Retrieves a specific employee by their String ID (UUID).
      * Includes basic error handling.
@@ -63,7 +106,7 @@ public class EmployeeService {
             return null;
         }
         try {
-            return dbDriver.getEmployeeById(id);
+            return employeeRepository.getEmployeeById(id);
         } catch (Exception e) {
             System.err.println("Service Error: Failed to get employee by ID " + id + ". " + e.getMessage());
             e.printStackTrace();
@@ -74,7 +117,7 @@ public class EmployeeService {
     /**
      * Adds a new employee to the system.
      * Ensures the Employee object has a valid UUID before attempting insertion.
-     * Delegates the insertion operation to the DatabaseDriver.
+     * Delegates the insertion operation to the repository.
      *
      * @param employee The Employee object to add. If ID is null, a new UUID will be generated.
      * @return true if the employee was added successfully, false otherwise.
@@ -91,6 +134,7 @@ public class EmployeeService {
             employee.setId(newId);
         }
 
+        boolean added;
         try {
             // Basic business rule validation (example)
             if (employee.getSalary() < 0) {
@@ -100,7 +144,7 @@ public class EmployeeService {
             // Add more validation: check email format, phone format, etc.
             // if (!isValidEmail(employee.getEmail())) { ... return false; }
 
-            return dbDriver.insertEmployee(employee);
+            added = employeeRepository.insertEmployee(employee);
         } catch (Exception e) {
             // Log the specific employee ID if available
             String employeeId = (employee != null && employee.getId() != null) ? employee.getId() : "N/A";
@@ -113,29 +157,94 @@ public class EmployeeService {
             e.printStackTrace();
             return false;
         }
+        if (added) {
+            publishChanges(newChangeSet().add(employee));
+        }
+        return added;
+    }
+
+    /**
+     * Adds several employees at once, e.g. from an import.
+     * All rows are written in one transaction and subscribers receive a single
+     * change event for the whole batch. Invalid or duplicate employees are skipped.
+     *
+     * @param employees The employees to add. Missing IDs are generated.
+     * @return The employees that were added, or an empty list if none could be saved.
+     */
+    public List<Employee> addEmployees(List<Employee> employees) {
+        if (employees == null || employees.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Employee> valid = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            if (employee == null) {
+                continue;
+            }
+            if (employee.getSalary() < 0) {
+                System.err.println("Service Error: Skipping employee with negative salary: " + employee.getEmail());
+                continue;
+            }
+            if (employee.getId() == null || employee.getId().trim().isEmpty()) {
+                employee.setId(UUID.randomUUID().toString());
+            }
+            valid.add(employee);
+        }
+
+        List<Employee> inserted = employeeRepository.insertEmployees(valid);
+        if (inserted == null) {
+            System.err.println("Service Error: Failed to add " + valid.size() + " employees.");
+            return Collections.emptyList();
+        }
+        if (inserted.size() < valid.size()) {
+            System.err.println("Service Info: Skipped " + (valid.size() - inserted.size()) + " employees (duplicate ID or email).");
+        }
+
+        ChangeSet<String, Employee> changes = newChangeSet();
+        inserted.forEach(changes::add);
+        publishChanges(changes);
+        return inserted;
     }
 
     /**
      * Updates an existing employee's details in the system.
-     * Delegates the update operation to the DatabaseDriver.
+     * Delegates the update operation to the repository.
      *
      * @param employee The Employee object with updated information (must have the correct ID).
      * @return true if the update was successful, false otherwise.
      */
     public boolean updateEmployee(Employee employee) {
+        return tryUpdateEmployee(employee) == UpdateResult.UPDATED;
+    }
+
+    /**
+     * Updates an existing employee's details and reports why an update did not happen.
+     * An employee loaded from the service is only saved if nobody changed it in the meantime.
+     *
+     * @param employee The Employee object with updated information (must have the correct ID).
+     * @return UPDATED on success, CONFLICT if the employee was modified concurrently,
+     *         NOT_FOUND if it no longer exists, ERROR for invalid data or database errors.
+     */
+    public UpdateResult tryUpdateEmployee(Employee employee) {
         if (employee == null || employee.getId() == null || employee.getId().trim().isEmpty()) {
             System.err.println("Service Error: Cannot update null employee or employee with null/empty ID.");
-            return false;
+            return UpdateResult.ERROR;
         }
+        UpdateResult result;
+        Set<String> changedFields;
         try {
             // Basic business rule validation (example)
             if (employee.getSalary() < 0) {
                 System.err.println("Service Error: Salary cannot be negative for employee ID " + employee.getId());
-                return false;
+                return UpdateResult.ERROR;
             }
             // Add more validation as needed
 
-            return dbDriver.updateEmployee(employee);
+            // Saving clears the dirty fields, so note them first for subscribers (null if they do not describe the row)
+            changedFields = employee.isTracked() ? employee.getDirtyFields() : null;
+            result = employeeRepository.tryUpdateEmployee(employee);
+            if (result == UpdateResult.CONFLICT) {
+                System.err.println("Service Error: Employee ID " + employee.getId() + " was modified by another user. Reload and try again.");
+            }
         } catch (Exception e) {
             System.err.println("Service Error: Failed to update employee ID " + employee.getId() + ". " + e.getMessage());
             // Check for specific DB errors (like unique constraint violation on email update)
@@ -144,13 +253,19 @@ public class EmployeeService {
                 // Optionally re-throw a custom exception or return a specific error code/message
             }
             e.printStackTrace();
-            return false;
+            return UpdateResult.ERROR;
+        }
+        if (result == UpdateResult.UPDATED) {
+            publishChanges(changedFields != null
+                    ? newChangeSet().update(employee, changedFields)
+                    : newChangeSet().update(employee));
         }
+        return result;
     }
 
     /**
      * Deletes an employee from the system using their String ID (UUID).
-     * Delegates the deletion operation to the DatabaseDriver.
+     * Delegates the deletion operation to the repository.
      * Consider adding checks here (e.g., cannot delete employee with active assignments/payroll).
      *
      * @param id The String UUID of the employee to delete.
@@ -161,6 +276,7 @@ public class EmployeeService {
             System.err.println("Service Error: Cannot delete employee with null or empty ID.");
             return false;
         }
+        boolean deleted;
         try {
             // Potential Business Logic: Check if employee can be deleted
             // e.g., boolean hasActiveLeave = leaveRequestService.hasActiveLeave(id);
@@ -169,7 +285,7 @@ public class EmployeeService {
             //     return false;
             // }
 
-            return dbDriver.deleteEmployee(id);
+            deleted = employeeRepository.deleteEmployee(id);
         } catch (Exception e) {
             System.err.println("Service Error: Failed to delete employee ID " + id + ". " + e.getMessage());
             // DB Foreign Key constraints should handle related data deletion if set up with CASCADE,
@@ -177,11 +293,26 @@ public class EmployeeService {
             e.printStackTrace();
             return false;
         }
+        if (deleted) {
+            publishChanges(newChangeSet().delete(id));
+        }
+        return deleted;
+    }
+
+    private static ChangeSet<String, Employee> newChangeSet() {
+        return new ChangeSet<>(Employee::getId);
+    }
+
+    /**
+     * Notifies subscribers of committed employee changes with one batched event.
+     */
+    private void publishChanges(ChangeSet<String, Employee> changes) {
+        ChangeSetEvent.publish(ChangeSetEvent.EMPLOYEES_CHANGED, changes);
     }
 
     /**
      * Searches for employees based on a keyword matching various fields.
-     * Delegates the search operation to the DatabaseDriver.
+     * Delegates the search operation to the repository.
      *
      * @param keyword The search term (can be null or empty to return all employees).
      * @return A List of matching Employee objects, or an empty list if an error occurs.
@@ -190,7 +321,7 @@ public class EmployeeService {
         // Service layer might cleanse/validate the keyword, but for now, pass directly
         String sanitizedKeyword = (keyword == null) ? "" : keyword.trim(); // Example sanitization
         try {
-            return dbDriver.searchEmployees(sanitizedKeyword);
+            return employeeRepository.searchEmployees(sanitizedKeyword);
         } catch (Exception e) {
             System.err.println("Service Error: Failed to search employees with keyword '" + sanitizedKeyword + "'. " + e.getMessage());
             e.printStackTrace();
@@ -199,16 +330,16 @@ public class EmployeeService {
     }
 
     /**
-     * Closes the underlying database connection via the DatabaseDriver instance.
+     * Closes the underlying storage engine.
      * This method might not be strictly necessary in the service layer itself,
      * as connection management could be handled globally at application shutdown.
      * However, keeping it allows explicit closure request if needed.
      */
     public void closeDatabaseConnection() {
-        // This method is less critical now that DatabaseDriver is a Singleton,
+        // This method is less critical now that the storage engine is shared,
         // as only the Singleton's close method needs to be called once at app shutdown.
-        // Calling it multiple times via different services won't hurt if DatabaseDriver handles it gracefully.
-        System.out.println("EmployeeService requesting database connection closure (via Singleton Driver).");
-        dbDriver.closeConnection(); // Delegates to the single driver instance's close method
+        // Calling it multiple times via different services won't hurt; engines tolerate repeated close calls.
+        System.out.println("EmployeeService requesting database connection closure (via the storage engine).");
+        StorageEngines.getDefault().close(); // Delegates to the shared engine's close method
     }
 }
\ No newline at end of file
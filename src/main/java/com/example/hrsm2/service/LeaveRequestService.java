@@ -1,24 +1,40 @@
 package com.example.hrsm2.service;
 
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.event.ChangeSetEvent;
 import com.example.hrsm2.model.LeaveRequest;
-import com.example.hrsm2.util.DatabaseDriver;
+import com.example.hrsm2.repository.LeaveRequestRepository;
+import com.example.hrsm2.repository.StorageEngines;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
  * Service layer for managing LeaveRequest business logic and data access.
- * Acts as an intermediary between the Controller and the DatabaseDriver.
+ * Acts as an intermediary between the Controller and the repository.
  * Implements the Singleton pattern to ensure a single instance.
  */
 public class LeaveRequestService {
     private static LeaveRequestService instance;
-    private final DatabaseDriver dbDriver;
+    private final LeaveRequestRepository leaveRequestRepository;
 
     // Default leave allowance per employee. In a real application, this might be configurable or stored per employee.
     private static final int DEFAULT_AVAILABLE_LEAVE_DAYS = 20;
 
     // Private constructor to enforce Singleton pattern.
     private LeaveRequestService() {
-        dbDriver = DatabaseDriver.getInstance(); // Obtain the shared DatabaseDriver instance.
+        this(StorageEngines.getDefault().leaveRequests()); // Storage of the configured engine.
+    }
+
+    /**
+     * Creates a service over the given repository, e.g. an in-memory one for tests.
+     * The application itself uses {@link #getInstance()}.
+     *
+     * @param leaveRequestRepository The storage for leave requests.
+     */
+    public LeaveRequestService(LeaveRequestRepository leaveRequestRepository) {
+        this.leaveRequestRepository = leaveRequestRepository;
     }
 
     /**
@@ -34,6 +50,11 @@ public class LeaveRequestService {
         return instance;
     }
 
+    // Lets ServiceRegistry.reset() rebuild the service over another storage engine
+    static synchronized void resetInstance() {
+        instance = null;
+    }
+
     // --- Database Interaction Methods ---
 
     /**
@@ -42,7 +63,29 @@ public class LeaveRequestService {
      * @return A list of all LeaveRequest objects.
      */
     public List<LeaveRequest> getAllLeaveRequests() {
-        return dbDriver.getAllLeaveRequests();
+        return leaveRequestRepository.getAllLeaveRequests();
+    }
+
+    /**
+     * Counts the leave requests matching a query.
+     *
+     * @param spec The filters to apply.
+     * @return The number of matching leave requests.
+     */
+    public int countLeaveRequests(QuerySpec spec) {
+        return leaveRequestRepository.countLeaveRequests(spec);
+    }
+
+    /**
+     * Retrieves one page of the leave requests matching a query, sorted by the database.
+     *
+     * @param spec The filters and sort keys (newest first if none).
+     * @param offset Index of the first request to return.
+     * @param limit Maximum number of requests to return.
+     * @return The leave requests of the page.
+     */
+    public List<LeaveRequest> getLeaveRequestPage(QuerySpec spec, int offset, int limit) {
+        return leaveRequestRepository.getLeaveRequestPage(spec, offset, limit);
     }
 
     /**
@@ -52,7 +95,7 @@ public class LeaveRequestService {
      * @return The LeaveRequest object if found, otherwise null.
      */
     public LeaveRequest getLeaveRequestById(int id) {
-        return dbDriver.getLeaveRequestById(id);
+        return leaveRequestRepository.getLeaveRequestById(id);
     }
 
     /**
@@ -62,7 +105,18 @@ public class LeaveRequestService {
      * @return A list of LeaveRequest objects for the specified employee.
      */
     public List<LeaveRequest> getLeaveRequestsForEmployee(String employeeId) {
-        return dbDriver.getLeaveRequestsByEmployeeId(employeeId);
+        return leaveRequestRepository.getLeaveRequestsByEmployeeId(employeeId);
+    }
+
+    /**
+     * Retrieves the leave requests that overlap a date range, e.g. everyone absent during a quarter.
+     *
+     * @param from The first day of the range (inclusive).
+     * @param to The last day of the range (inclusive).
+     * @return The overlapping leave requests, newest first.
+     */
+    public List<LeaveRequest> getLeaveRequestsOverlapping(LocalDate from, LocalDate to) {
+        return leaveRequestRepository.getLeaveRequestsOverlapping(from, to);
     }
 
     /**
@@ -94,10 +148,11 @@ public class LeaveRequestService {
         }
 
         // Attempt to insert into the database.
-        int generatedId = dbDriver.insertLeaveRequest(leaveRequest);
+        int generatedId = leaveRequestRepository.insertLeaveRequest(leaveRequest);
 
         if (generatedId > 0) {
             leaveRequest.setId(generatedId); // Update the object with the database-generated ID.
+            publishChanges(newChangeSet().add(leaveRequest));
             return true;
         } else {
             System.err.println("Submit failed: Database insertion error for employee " + leaveRequest.getEmployeeId());
@@ -113,12 +168,13 @@ public class LeaveRequestService {
      * @return true if the request was successfully updated to APPROVED, false otherwise.
      */
     public boolean approveLeaveRequest(int leaveRequestId, String managerComments) {
-        LeaveRequest request = dbDriver.getLeaveRequestById(leaveRequestId);
+        LeaveRequest request = leaveRequestRepository.getLeaveRequestById(leaveRequestId);
         // Can only approve requests that exist and are currently PENDING.
         if (request != null && request.getStatus() == LeaveRequest.LeaveStatus.PENDING) {
             request.setStatus(LeaveRequest.LeaveStatus.APPROVED);
             request.setManagerComments(managerComments); // Store manager comments.
-            return dbDriver.updateLeaveRequest(request); // Persist changes.
+            // Versioned update: fails if the request was decided concurrently.
+            return tryUpdateLeaveRequest(request) == UpdateResult.UPDATED; // Persist changes.
         }
         System.err.println("Approve failed: Request ID " + leaveRequestId + " not found or not in PENDING state.");
         return false;
@@ -137,12 +193,13 @@ public class LeaveRequestService {
             System.err.println("Reject failed: Manager comments are required for request ID " + leaveRequestId);
             return false;
         }
-        LeaveRequest request = dbDriver.getLeaveRequestById(leaveRequestId);
+        LeaveRequest request = leaveRequestRepository.getLeaveRequestById(leaveRequestId);
         // Can only reject requests that exist and are currently PENDING.
         if (request != null && request.getStatus() == LeaveRequest.LeaveStatus.PENDING) {
             request.setStatus(LeaveRequest.LeaveStatus.REJECTED);
             request.setManagerComments(managerComments); // Store manager comments.
-            return dbDriver.updateLeaveRequest(request); // Persist changes.
+            // Versioned update: fails if the request was decided concurrently.
+            return tryUpdateLeaveRequest(request) == UpdateResult.UPDATED; // Persist changes.
         }
         System.err.println("Reject failed: Request ID " + leaveRequestId + " not found or not in PENDING state.");
         return false;
@@ -156,12 +213,30 @@ public class LeaveRequestService {
      * @return true if the update was successful, false otherwise.
      */
     public boolean updateLeaveRequest(LeaveRequest leaveRequest) {
+        return tryUpdateLeaveRequest(leaveRequest) == UpdateResult.UPDATED;
+    }
+
+    /**
+     * Updates an existing leave request and reports why an update did not happen.
+     * A request loaded from the service is only saved if nobody changed it in the meantime.
+     *
+     * @param leaveRequest The LeaveRequest object with updated information (must have a valid ID).
+     * @return UPDATED on success, CONFLICT if the request was modified concurrently,
+     *         NOT_FOUND if it no longer exists, ERROR for invalid data or database errors.
+     */
+    public UpdateResult tryUpdateLeaveRequest(LeaveRequest leaveRequest) {
         if (leaveRequest == null || leaveRequest.getId() == null || leaveRequest.getId() <= 0) {
             System.err.println("Update failed: Invalid leave request data (null or invalid ID).");
-            return false;
+            return UpdateResult.ERROR;
         }
         // Consider adding validation similar to submitLeaveRequest if updates need strict checks.
-        return dbDriver.updateLeaveRequest(leaveRequest);
+        UpdateResult result = leaveRequestRepository.tryUpdateLeaveRequest(leaveRequest);
+        if (result == UpdateResult.CONFLICT) {
+            System.err.println("Update failed: Request ID " + leaveRequest.getId() + " was modified by another user.");
+        } else if (result == UpdateResult.UPDATED) {
+            publishChanges(newChangeSet().update(leaveRequest));
+        }
+        return result;
     }
 
     /**
@@ -172,7 +247,20 @@ public class LeaveRequestService {
      * @return true if the deletion was successful, false otherwise.
      */
     public boolean deleteLeaveRequest(int id) {
-        return dbDriver.deleteLeaveRequest(id);
+        boolean deleted = leaveRequestRepository.deleteLeaveRequest(id);
+        if (deleted) {
+            publishChanges(newChangeSet().delete(id));
+        }
+        return deleted;
+    }
+
+    private static ChangeSet<Integer, LeaveRequest> newChangeSet() {
+        return new ChangeSet<>(LeaveRequest::getId);
+    }
+
+    // Notifies subscribers of a committed change so they can patch their rows.
+    private void publishChanges(ChangeSet<Integer, LeaveRequest> changes) {
+        ChangeSetEvent.publish(ChangeSetEvent.LEAVE_REQUESTS_CHANGED, changes);
     }
 
     // --- Calculation and Validation Logic ---
@@ -186,7 +274,7 @@ public class LeaveRequestService {
      */
     public int getApprovedLeaveDaysForEmployee(String employeeId) {
         int totalDays = 0;
-        List<LeaveRequest> approvedRequests = dbDriver.getApprovedLeaveRequestsByEmployeeId(employeeId);
+        List<LeaveRequest> approvedRequests = leaveRequestRepository.getApprovedLeaveRequestsByEmployeeId(employeeId);
         for (LeaveRequest request : approvedRequests) {
             totalDays += request.getDurationInDays(); // Sum days using the model's calculation.
         }
@@ -200,7 +288,9 @@ public class LeaveRequestService {
      * @return true if an overlap is found, false otherwise.
      */
     private boolean hasOverlappingLeave(LeaveRequest newRequest) {
-        List<LeaveRequest> existingRequests = dbDriver.getLeaveRequestsByEmployeeId(newRequest.getEmployeeId());
+        // Only requests overlapping the new dates are read; the date check below stays as a safeguard
+        List<LeaveRequest> existingRequests = leaveRequestRepository.getLeaveRequestsOverlapping(newRequest.getEmployeeId(),
+                newRequest.getStartDate(), newRequest.getEndDate());
 
         for (LeaveRequest existing : existingRequests) {
             // Ignore rejected requests and the request itself if it's being updated.
@@ -0,0 +1,141 @@
+package com.example.hrsm2.service;
+
+import com.example.hrsm2.model.PayrollCost;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable column-oriented cache of payroll cost aggregates, one row per department and pay period.
+ * Each attribute is held in its own array, so the scans behind the analytics queries walk flat
+ * columns instead of chasing one object per row. Changes produce a new instance,
+ * which lets readers keep using the old one without locking.
+ */
+final class PayrollCostColumns {
+
+    // Newest period first, then department, matching the order of the SQL aggregate
+    private static final Comparator<PayrollCost> ORDER = Comparator
+            .comparing(PayrollCost::getPayPeriodStart, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(PayrollCost::getPayPeriodEnd, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(PayrollCost::getDepartment, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final String[] departments;
+    private final LocalDate[] periodStarts;
+    private final LocalDate[] periodEnds;
+    private final int[] payrollCounts;
+    private final double[] totalGross;
+    private final double[] totalNet;
+
+    private PayrollCostColumns(List<PayrollCost> rows) {
+        int size = rows.size();
+        departments = new String[size];
+        periodStarts = new LocalDate[size];
+        periodEnds = new LocalDate[size];
+        payrollCounts = new int[size];
+        totalGross = new double[size];
+        totalNet = new double[size];
+        for (int i = 0; i < size; i++) {
+            PayrollCost row = rows.get(i);
+            departments[i] = row.getDepartment();
+            periodStarts[i] = row.getPayPeriodStart();
+            periodEnds[i] = row.getPayPeriodEnd();
+            payrollCounts[i] = row.getPayrollCount();
+            totalGross[i] = row.getTotalGross();
+            totalNet[i] = row.getTotalNet();
+        }
+    }
+
+    /**
+     * @param rows Aggregate rows, in any order.
+     * @return Columns holding the rows sorted newest period first.
+     */
+    static PayrollCostColumns of(List<PayrollCost> rows) {
+        List<PayrollCost> sorted = new ArrayList<>(rows);
+        sorted.sort(ORDER);
+        return new PayrollCostColumns(sorted);
+    }
+
+    int size() {
+        return departments.length;
+    }
+
+    /**
+     * Replaces the rows of one pay period, leaving every other period untouched.
+     *
+     * @param start Start of the pay period.
+     * @param end End of the pay period.
+     * @param periodRows The freshly aggregated rows for that period (empty if it has no payrolls left).
+     * @return A new instance; this one is not modified.
+     */
+    PayrollCostColumns withPeriod(LocalDate start, LocalDate end, List<PayrollCost> periodRows) {
+        List<PayrollCost> rows = new ArrayList<>(size() + periodRows.size());
+        for (int i = 0; i < size(); i++) {
+            if (!Objects.equals(periodStarts[i], start) || !Objects.equals(periodEnds[i], end)) {
+                rows.add(row(i));
+            }
+        }
+        rows.addAll(periodRows);
+        return of(rows);
+    }
+
+    /**
+     * @param department The department, or null for employees without one.
+     * @return The department's cost for every period, newest first.
+     */
+    List<PayrollCost> forDepartment(String department) {
+        List<PayrollCost> rows = new ArrayList<>();
+        for (int i = 0; i < size(); i++) {
+            if (Objects.equals(departments[i], department)) {
+                rows.add(row(i));
+            }
+        }
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * @return Each department's cost for one pay period, in department order.
+     */
+    List<PayrollCost> forPeriod(LocalDate start, LocalDate end) {
+        List<PayrollCost> rows = new ArrayList<>();
+        for (int i = 0; i < size(); i++) {
+            if (Objects.equals(periodStarts[i], start) && Objects.equals(periodEnds[i], end)) {
+                rows.add(row(i));
+            }
+        }
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Sums the department rows of each pay period into company-wide totals.
+     *
+     * @return One row per period with a null department, newest first.
+     */
+    List<PayrollCost> totalsByPeriod() {
+        Map<List<LocalDate>, int[]> counts = new LinkedHashMap<>();
+        Map<List<LocalDate>, double[]> sums = new LinkedHashMap<>();
+        for (int i = 0; i < size(); i++) {
+            List<LocalDate> period = Arrays.asList(periodStarts[i], periodEnds[i]);
+            counts.computeIfAbsent(period, k -> new int[1])[0] += payrollCounts[i];
+            double[] sum = sums.computeIfAbsent(period, k -> new double[2]);
+            sum[0] += totalGross[i];
+            sum[1] += totalNet[i];
+        }
+        List<PayrollCost> totals = new ArrayList<>(counts.size());
+        counts.forEach((period, count) -> {
+            double[] sum = sums.get(period);
+            totals.add(new PayrollCost(null, period.get(0), period.get(1), count[0], sum[0], sum[1]));
+        });
+        return Collections.unmodifiableList(totals);
+    }
+
+    private PayrollCost row(int i) {
+        return new PayrollCost(departments[i], periodStarts[i], periodEnds[i], payrollCounts[i], totalGross[i], totalNet[i]);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.hrsm2.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Handle to a running bulk payroll run started by {@link PayrollService#startPayrollRun}.
+ * Allows callers to cancel the run and to wait for (or react to) its summary.
+ */
+public class PayrollJob {
+    private final AtomicBoolean cancelRequested = new AtomicBoolean(false);
+    private final CompletableFuture<PayrollRunSummary> result = new CompletableFuture<>();
+
+    /**
+     * Requests cancellation. Employees already handed to the writer are still saved;
+     * the remaining ones are skipped and reported in the summary.
+     */
+    public void cancel() {
+        cancelRequested.set(true);
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested.get();
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    /**
+     * @return A future completed with the run summary once the writer has finished.
+     */
+    public CompletableFuture<PayrollRunSummary> getResult() {
+        return result;
+    }
+
+    /**
+     * Blocks until the run finishes.
+     *
+     * @return The run summary.
+     */
+    public PayrollRunSummary await() {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new IllegalStateException("Interrupted while waiting for payroll run", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Payroll run failed", e.getCause());
+        }
+    }
+
+    void complete(PayrollRunSummary summary) {
+        result.complete(summary);
+    }
+
+    void fail(Throwable error) {
+        result.completeExceptionally(error);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.hrsm2.service;
+
+/**
+ * Callback for observing the progress of a bulk payroll run.
+ * Invoked from the run's writer thread after each batch is committed,
+ * so GUI implementations must hop onto the FX thread themselves.
+ */
+@FunctionalInterface
+public interface PayrollRunListener {
+
+    /**
+     * Called after a batch of payrolls has been persisted.
+     *
+     * @param completed Number of employees processed so far (saved or failed).
+     * @param total     Total number of employees in the run.
+     */
+    void onProgress(int completed, int total);
+}
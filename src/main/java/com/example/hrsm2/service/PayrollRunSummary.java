@@ -0,0 +1,81 @@
+package com.example.hrsm2.service;
+
+import com.example.hrsm2.model.Payroll;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable result of a bulk payroll run.
+ * Reports how many payrolls were saved, how many failed and whether the run was cancelled.
+ * Counts cover only the employees processed by this invocation; a resumed run excludes
+ * payrolls committed before the restart.
+ */
+public class PayrollRunSummary {
+    private final String runId;
+    private final boolean resumed;
+    private final LocalDate payPeriodStart;
+    private final LocalDate payPeriodEnd;
+    private final int totalEmployees;
+    private final int failedCount;
+    private final boolean cancelled;
+    private final long elapsedMillis;
+    private final List<Payroll> payrolls;
+
+    public PayrollRunSummary(String runId, boolean resumed, LocalDate payPeriodStart, LocalDate payPeriodEnd, int totalEmployees,
+                             List<Payroll> payrolls, int failedCount, boolean cancelled, long elapsedMillis) {
+        this.runId = runId;
+        this.resumed = resumed;
+        this.payPeriodStart = payPeriodStart;
+        this.payPeriodEnd = payPeriodEnd;
+        this.totalEmployees = totalEmployees;
+        this.payrolls = Collections.unmodifiableList(payrolls);
+        this.failedCount = failedCount;
+        this.cancelled = cancelled;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getRunId() { return runId; }
+
+    /**
+     * @return true if this run continued an earlier, interrupted run for the same period.
+     */
+    public boolean isResumed() { return resumed; }
+
+    public LocalDate getPayPeriodStart() { return payPeriodStart; }
+    public LocalDate getPayPeriodEnd() { return payPeriodEnd; }
+    public int getTotalEmployees() { return totalEmployees; }
+    public int getGeneratedCount() { return payrolls.size(); }
+    public int getFailedCount() { return failedCount; }
+    public boolean isCancelled() { return cancelled; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    /**
+     * @return The payrolls that were successfully saved during the run.
+     */
+    public List<Payroll> getPayrolls() { return payrolls; }
+
+    /**
+     * @return Employees that were not paid by this run, because it was cancelled or
+     *         because a payroll for the period already existed.
+     */
+    public int getSkippedCount() {
+        return Math.max(0, totalEmployees - getGeneratedCount() - failedCount);
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollRunSummary{" +
+                "runId=" + runId +
+                ", resumed=" + resumed +
+                ", period=" + payPeriodStart + ".." + payPeriodEnd +
+                ", total=" + totalEmployees +
+                ", generated=" + getGeneratedCount() +
+                ", failed=" + failedCount +
+                ", skipped=" + getSkippedCount() +
+                ", cancelled=" + cancelled +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
@@ -1,53 +1,102 @@
 package com.example.hrsm2.service;
 
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.event.ChangeSetEvent;
 import com.example.hrsm2.model.Employee;
 import com.example.hrsm2.model.Payroll;
-import com.example.hrsm2.util.DatabaseDriver;
+import com.example.hrsm2.model.PayrollRun;
+import com.example.hrsm2.repository.PayrollRepository;
+import com.example.hrsm2.repository.StorageEngines;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-// import java.util.HashMap; // Remove HashMap import
 import java.util.List;
-// import java.util.Map; // Remove Map import
-// import java.util.stream.Collectors; // No longer needed for filtering in memory
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class PayrollService {
-    // Remove the in-memory map
-    // private Map<String, Payroll> payrolls;
+    // Number of payrolls persisted per transaction during bulk runs
+    private static final int WRITE_BATCH_SIZE = 250;
+    // What a status transition changes, as reported to change set subscribers
+    private static final Set<String> STATUS_ONLY = Set.of("status");
 
     private static PayrollService instance;
     private final EmployeeService employeeService;
-    private final DatabaseDriver databaseDriver; // Add DatabaseDriver instance
+    private final PayrollRepository payrollRepository;
+    // Pay periods ("start..end") with a payroll run in progress in this process
+    private final Set<String> periodsInProgress = ConcurrentHashMap.newKeySet();
 
     private PayrollService() {
-        // Remove map initialization
-        // payrolls = new HashMap<>();
-        employeeService = EmployeeService.getInstance();
-        databaseDriver = DatabaseDriver.getInstance(); // Get DatabaseDriver instance
+        this(StorageEngines.getDefault().payrolls(), EmployeeService.getInstance());
     }
 
-    public static PayrollService getInstance() {
+    /**
+     * Creates a service over the given repository, e.g. an in-memory one for tests.
+     * The application itself uses {@link #getInstance()}.
+     *
+     * @param payrollRepository The storage for payrolls and payroll runs.
+     * @param employeeService   The service employees are read from.
+     */
+    public PayrollService(PayrollRepository payrollRepository, EmployeeService employeeService) {
+        this.employeeService = employeeService;
+        this.payrollRepository = payrollRepository;
+    }
+
+    public static synchronized PayrollService getInstance() {
         if (instance == null) {
             instance = new PayrollService();
         }
         return instance;
     }
 
-    // --- Methods modified to use DatabaseDriver ---
+    // Lets ServiceRegistry.reset() rebuild the service over another storage engine
+    static synchronized void resetInstance() {
+        instance = null;
+    }
+
+    // --- Payroll records ---
 
     public List<Payroll> getAllPayrolls() {
-        // Retrieve from database instead of map
-        return databaseDriver.getAllPayrolls();
+        // Retrieve from database
+        return payrollRepository.getAllPayrolls();
+    }
+
+    public int countPayrolls(QuerySpec spec) {
+        return payrollRepository.countPayrolls(spec);
+    }
+
+    /**
+     * Retrieves one page of the payrolls matching a query; sorting and filtering run in the database.
+     */
+    public List<Payroll> getPayrollPage(QuerySpec spec, int offset, int limit) {
+        return payrollRepository.getPayrollPage(spec, offset, limit);
     }
 
     public Payroll getPayrollById(String id) {
         // Retrieve from database
-        return databaseDriver.getPayrollById(id);
+        return payrollRepository.getPayrollById(id);
     }
 
     public List<Payroll> getPayrollsByEmployeeId(String employeeId) {
         // Retrieve from database
-        return databaseDriver.getPayrollsByEmployeeId(employeeId);
+        return payrollRepository.getPayrollsByEmployeeId(employeeId);
+    }
+
+    /**
+     * Retrieves the payrolls whose pay period overlaps the given dates (inclusive), e.g. a quarter.
+     * Only the matching rows are read from the database.
+     */
+    public List<Payroll> getPayrollsForPeriod(LocalDate from, LocalDate to) {
+        return payrollRepository.getPayrollsOverlapping(from, to);
     }
 
     public Payroll generatePayroll(String employeeId, LocalDate payPeriodStart, LocalDate payPeriodEnd) {
@@ -57,11 +106,39 @@ public class PayrollService {
             return null;
         }
 
+        // An employee is paid at most once per period; hand back the existing payroll instead of a duplicate
+        Payroll existing = payrollRepository.getPayrollForPeriod(employeeId, payPeriodStart, payPeriodEnd);
+        if (existing != null) {
+            return existing;
+        }
+
+        Payroll payroll = buildPayroll(employee, payPeriodStart, payPeriodEnd);
+
+        // Save to database
+        boolean success = payrollRepository.insertPayroll(payroll);
+        if (!success) {
+            // Lost a race with another generator for the same period
+            return payrollRepository.getPayrollForPeriod(employeeId, payPeriodStart, payPeriodEnd);
+        }
+        publishChanges(newChangeSet().add(payroll));
+        return payroll;
+    }
+
+    /**
+     * Computes (but does not save) the payroll entry for an employee.
+     * Pure calculation on the given Employee, so it is safe to call from worker threads.
+     *
+     * @param employee       The employee to pay.
+     * @param payPeriodStart The start date of the pay period.
+     * @param payPeriodEnd   The end date of the pay period.
+     * @return A new PENDING Payroll with a fresh UUID.
+     */
+    private Payroll buildPayroll(Employee employee, LocalDate payPeriodStart, LocalDate payPeriodEnd) {
         // Calculate monthly salary (assuming employee.salary is annual)
         double monthlySalary = employee.getSalary() / 12;
 
         // Create a new payroll entry (ID is generated in constructor)
-        Payroll payroll = new Payroll(employeeId, payPeriodStart, payPeriodEnd, monthlySalary);
+        Payroll payroll = new Payroll(employee.getId(), payPeriodStart, payPeriodEnd, monthlySalary);
 
         // Apply default deductions (example: 20% tax) - Keep this logic or adjust as needed
         double taxDeduction = monthlySalary * 0.2;
@@ -69,52 +146,79 @@ public class PayrollService {
 
         // Recalculate net salary
         payroll.calculateNetSalary();
-
-        // Save to database instead of map
-        boolean success = databaseDriver.insertPayroll(payroll);
-
-        // Return the payroll object if saved successfully, otherwise null
-        return success ? payroll : null;
+        return payroll;
     }
 
     public boolean processPayroll(String id) {
-        // Fetch from database
-        Payroll payroll = databaseDriver.getPayrollById(id);
+        // Conditional update: succeeds only if the payroll is still PENDING
+        Payroll processed = payrollRepository.transitionPayrollStatus(id, Payroll.PayrollStatus.PENDING, Payroll.PayrollStatus.PROCESSED);
+        if (processed != null) {
+            publishChanges(newChangeSet().update(processed, STATUS_ONLY));
+            return true;
+        }
 
+        // Fetch from database only to report why the transition was refused
+        Payroll payroll = payrollRepository.getPayrollById(id);
         if (payroll == null) {
             System.err.println("Cannot process payroll: Payroll not found with ID " + id);
-            return false;
-        }
-        if (payroll.getStatus() != Payroll.PayrollStatus.PENDING) {
+        } else {
             System.err.println("Cannot process payroll: Payroll ID " + id + " is not in PENDING status (current: " + payroll.getStatus() + ")");
-            return false; // Can only process pending payrolls
         }
-
-        // Update status to processed
-        payroll.setStatus(Payroll.PayrollStatus.PROCESSED);
-
-        // Update in database
-        return databaseDriver.updatePayroll(payroll);
+        return false; // Can only process pending payrolls
     }
 
     public boolean markPayrollAsPaid(String id) {
-        // Fetch from database
-        Payroll payroll = databaseDriver.getPayrollById(id);
+        // Conditional update: succeeds only if the payroll is still PROCESSED
+        Payroll paid = payrollRepository.transitionPayrollStatus(id, Payroll.PayrollStatus.PROCESSED, Payroll.PayrollStatus.PAID);
+        if (paid != null) {
+            publishChanges(newChangeSet().update(paid, STATUS_ONLY));
+            return true;
+        }
 
+        // Fetch from database only to report why the transition was refused
+        Payroll payroll = payrollRepository.getPayrollById(id);
         if (payroll == null) {
             System.err.println("Cannot mark as paid: Payroll not found with ID " + id);
-            return false;
-        }
-        if (payroll.getStatus() != Payroll.PayrollStatus.PROCESSED) {
+        } else {
             System.err.println("Cannot mark as paid: Payroll ID " + id + " is not in PROCESSED status (current: " + payroll.getStatus() + ")");
-            return false; // Can only mark processed payrolls as paid
         }
+        return false; // Can only mark processed payrolls as paid
+    }
 
-        // Update status to paid
-        payroll.setStatus(Payroll.PayrollStatus.PAID);
+    /**
+     * Processes every PENDING payroll in one set-based update.
+     *
+     * @param payPeriodStart Start of the pay period to restrict to, or null for all periods.
+     * @param payPeriodEnd   End of the pay period to restrict to, or null for all periods.
+     * @return The IDs of the payrolls that moved to PROCESSED.
+     */
+    public List<String> processAllPendingPayrolls(LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        return publishTransitioned(payrollRepository.transitionPayrollStatuses(Payroll.PayrollStatus.PENDING,
+                Payroll.PayrollStatus.PROCESSED, payPeriodStart, payPeriodEnd));
+    }
 
-        // Update in database
-        return databaseDriver.updatePayroll(payroll);
+    /**
+     * Marks every PROCESSED payroll as PAID in one set-based update.
+     *
+     * @param payPeriodStart Start of the pay period to restrict to, or null for all periods.
+     * @param payPeriodEnd   End of the pay period to restrict to, or null for all periods.
+     * @return The IDs of the payrolls that moved to PAID.
+     */
+    public List<String> markAllProcessedPayrollsAsPaid(LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        return publishTransitioned(payrollRepository.transitionPayrollStatuses(Payroll.PayrollStatus.PROCESSED,
+                Payroll.PayrollStatus.PAID, payPeriodStart, payPeriodEnd));
+    }
+
+    // Publishes a bulk transition as one change set and returns the affected IDs
+    private List<String> publishTransitioned(List<Payroll> transitioned) {
+        ChangeSet<String, Payroll> changes = newChangeSet();
+        List<String> ids = new ArrayList<>(transitioned.size());
+        for (Payroll payroll : transitioned) {
+            changes.update(payroll, STATUS_ONLY);
+            ids.add(payroll.getId());
+        }
+        publishChanges(changes);
+        return ids;
     }
 
     /**
@@ -126,13 +230,36 @@ public class PayrollService {
      * @return true if the update was successful, false otherwise.
      */
     public boolean updatePayroll(Payroll payroll) {
+        return tryUpdatePayroll(payroll) == UpdateResult.UPDATED;
+    }
+
+    /**
+     * Updates a payroll record and reports why an update did not happen.
+     * A payroll loaded from the service is only saved if nobody changed it in the meantime
+     * (including a status transition by a bulk run).
+     *
+     * @param payroll The Payroll object with updated details. The ID must match an existing record.
+     * @return UPDATED on success, CONFLICT if the payroll was modified concurrently,
+     *         NOT_FOUND if it no longer exists, ERROR for invalid data or database errors.
+     */
+    public UpdateResult tryUpdatePayroll(Payroll payroll) {
         if (payroll == null || payroll.getId() == null) {
-            return false;
+            return UpdateResult.ERROR;
         }
         // Ensure net salary is correct before saving
         payroll.calculateNetSalary();
+        // Saving clears the dirty fields, so note them first for subscribers (null if they do not describe the row)
+        Set<String> changedFields = payroll.isTracked() ? payroll.getDirtyFields() : null;
         // Update in database
-        return databaseDriver.updatePayroll(payroll);
+        UpdateResult result = payrollRepository.tryUpdatePayroll(payroll);
+        if (result == UpdateResult.CONFLICT) {
+            System.err.println("Cannot update payroll: Payroll ID " + payroll.getId() + " was modified by another user.");
+        } else if (result == UpdateResult.UPDATED) {
+            publishChanges(changedFields != null
+                    ? newChangeSet().update(payroll, changedFields)
+                    : newChangeSet().update(payroll));
+        }
+        return result;
     }
 
     /**
@@ -144,43 +271,226 @@ public class PayrollService {
      */
     public boolean deletePayroll(String id) {
         // Delete from database
-        return databaseDriver.deletePayroll(id);
+        boolean deleted = payrollRepository.deletePayroll(id);
+        if (deleted) {
+            publishChanges(newChangeSet().delete(id));
+        }
+        return deleted;
     }
 
     /**
      * Generates payroll records for all employees for the given period and saves them to the database.
+     * Blocking convenience wrapper around {@link #startPayrollRun}.
      *
      * @param payPeriodStart The start date of the pay period.
      * @param payPeriodEnd   The end date of the pay period.
      * @return A list of the generated Payroll objects that were successfully saved.
      */
     public List<Payroll> generatePayrollsForAllEmployees(LocalDate payPeriodStart, LocalDate payPeriodEnd) {
-        List<Employee> employees = employeeService.getAllEmployees();
-        List<Payroll> generatedPayrolls = new ArrayList<>();
+        PayrollRunSummary summary = startPayrollRun(payPeriodStart, payPeriodEnd, null).await();
+        return new ArrayList<>(summary.getPayrolls());
+    }
+
+    /**
+     * Starts a parallel payroll run for every employee.
+     * The roster is read once and partitioned across a pool of worker threads (one per core)
+     * that compute the payrolls; a single writer thread persists them in batched transactions,
+     * since the SQLite connection only supports one writer at a time.
+     * <p>
+     * Runs are recorded in the PayrollRuns ledger and each batch is committed together with
+     * the run's checkpoint. Starting a run for a period whose last run failed or was cancelled
+     * resumes that run; so does starting one whose last run is still marked running although no
+     * run for the period is in progress here, since that run was cut short by a crash. A run whose
+     * ledger entry cannot be recorded fails without writing anything. Only employees without a payroll for the period are processed, so restarting
+     * after a crash or cancellation never creates duplicates. While a run for the period is still
+     * in progress, another start is rejected: the returned job fails with an IllegalStateException.
+     *
+     * @param payPeriodStart The start date of the pay period.
+     * @param payPeriodEnd   The end date of the pay period.
+     * @param listener       Optional progress callback (may be null), invoked from the writer thread.
+     * @return A handle to cancel the run or wait for its summary.
+     */
+    public PayrollJob startPayrollRun(LocalDate payPeriodStart, LocalDate payPeriodEnd, PayrollRunListener listener) {
+        String period = payPeriodStart + ".." + payPeriodEnd;
+        if (!periodsInProgress.add(period)) {
+            PayrollJob rejected = new PayrollJob();
+            rejected.fail(new IllegalStateException("A payroll run for " + period + " is already in progress."));
+            return rejected;
+        }
+        try {
+            PayrollJob job = runPayroll(payPeriodStart, payPeriodEnd, listener);
+            job.getResult().whenComplete((summary, error) -> periodsInProgress.remove(period));
+            return job;
+        } catch (RuntimeException e) {
+            periodsInProgress.remove(period);
+            throw e;
+        }
+    }
+
+    private PayrollJob runPayroll(LocalDate payPeriodStart, LocalDate payPeriodEnd, PayrollRunListener listener) {
+        PayrollJob job = new PayrollJob();
+        long startedAt = System.nanoTime();
+        // Employees already paid for this period were committed by an earlier run
+        List<Employee> employees = payrollRepository.getEmployeesWithoutPayroll(payPeriodStart, payPeriodEnd);
+        int total = employees.size();
+
+        PayrollRun run = payrollRepository.getLatestPayrollRun(payPeriodStart, payPeriodEnd);
+        if (run != null && run.getStatus() == PayrollRun.RunStatus.RUNNING) {
+            // No job in this process holds the period, so the run was left open by a process that stopped mid-run
+            System.out.println("Payroll run " + run.getId() + " was interrupted after " + run.getCommittedCount()
+                    + " committed payrolls; marking it failed.");
+            markRunFailed(run);
+        }
+        boolean resumed = run != null && run.isResumable();
+        if (resumed) {
+            System.out.println("Resuming payroll run " + run.getId() + " after " + run.getCommittedCount() + " committed payrolls.");
+            run.setStatus(PayrollRun.RunStatus.RUNNING);
+            run.setTotalEmployees(run.getCommittedCount() + total);
+            payrollRepository.updatePayrollRunStatus(run);
+        } else {
+            run = new PayrollRun(payPeriodStart, payPeriodEnd, total);
+            if (!payrollRepository.insertPayrollRun(run)) {
+                // Every chunk is committed against the ledger row, so there is nothing to run without it
+                System.err.println("Could not record payroll run for " + payPeriodStart + ".." + payPeriodEnd + ".");
+                job.fail(new IllegalStateException("Could not record payroll run for " + payPeriodStart + ".." + payPeriodEnd + "."));
+                return job;
+            }
+        }
+        PayrollRun ledger = run;
 
         if (employees.isEmpty()) {
-            System.out.println("No employees found to generate payroll for.");
-            return generatedPayrolls; // Return empty list
-        }
-
-        System.out.println("Generating payrolls for " + employees.size() + " employees...");
-        for (Employee employee : employees) {
-            // generatePayroll now handles creation AND saving to DB
-            Payroll payroll = generatePayroll(employee.getId(), payPeriodStart, payPeriodEnd);
-            if (payroll != null) {
-                // Optionally update with default overtime/bonus if logic exists
-                // payroll.setOvertimePay(...);
-                // payroll.setBonus(...);
-                // payroll.calculateNetSalary(); // Recalculate if defaults were added
-                // databaseDriver.updatePayroll(payroll); // Update again if defaults added *after* insert
-
-                generatedPayrolls.add(payroll);
-                System.out.println("Successfully generated and saved payroll for employee: " + employee.getFullName() + " (Payroll ID: " + payroll.getId() + ")");
-            } else {
-                System.err.println("Failed to generate or save payroll for employee: " + employee.getFullName() + " (ID: " + employee.getId() + ")");
+            System.out.println("No employees without payroll for this period.");
+            ledger.setStatus(PayrollRun.RunStatus.COMPLETED);
+            payrollRepository.updatePayrollRunStatus(ledger);
+            job.complete(new PayrollRunSummary(ledger.getId(), resumed, payPeriodStart, payPeriodEnd, 0,
+                    new ArrayList<>(), 0, false, 0));
+            return job;
+        }
+
+        // Split the roster into one contiguous partition per worker
+        int workerCount = Math.min(Runtime.getRuntime().availableProcessors(), total);
+        int partitionSize = (total + workerCount - 1) / workerCount;
+        List<List<Employee>> partitions = new ArrayList<>();
+        for (int from = 0; from < total; from += partitionSize) {
+            partitions.add(employees.subList(from, Math.min(from + partitionSize, total)));
+        }
+
+        BlockingQueue<Payroll> pending = new LinkedBlockingQueue<>(WRITE_BATCH_SIZE * 4);
+        CountDownLatch workersDone = new CountDownLatch(partitions.size());
+        AtomicInteger failed = new AtomicInteger();
+
+        System.out.println("Generating payrolls for " + total + " employees on " + partitions.size() + " workers...");
+        ExecutorService workers = Executors.newFixedThreadPool(partitions.size(), runnable -> {
+            Thread thread = new Thread(runnable, "payroll-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (List<Employee> partition : partitions) {
+            workers.execute(() -> {
+                try {
+                    for (Employee employee : partition) {
+                        if (job.isCancelRequested()) {
+                            break;
+                        }
+                        try {
+                            pending.put(buildPayroll(employee, payPeriodStart, payPeriodEnd));
+                        } catch (RuntimeException e) {
+                            failed.incrementAndGet();
+                            System.err.println("Failed to compute payroll for employee: " + employee.getFullName() + " (ID: " + employee.getId() + ")");
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    workersDone.countDown();
+                }
+            });
+        }
+        workers.shutdown();
+
+        // Single writer: drains computed payrolls and stores them in batches
+        Thread.ofVirtual().name("payroll-writer").start(() -> {
+            List<Payroll> saved = new ArrayList<>();
+            List<Payroll> batch = new ArrayList<>(WRITE_BATCH_SIZE);
+            try {
+                while (true) {
+                    Payroll next = pending.poll(50, TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                        pending.drainTo(batch, WRITE_BATCH_SIZE - batch.size());
+                    }
+                    boolean producersFinished = workersDone.getCount() == 0 && pending.isEmpty();
+                    if (batch.size() >= WRITE_BATCH_SIZE || (producersFinished && !batch.isEmpty())) {
+                        List<Payroll> committed = payrollRepository.commitPayrollChunk(ledger.getId(), batch);
+                        if (committed != null) {
+                            saved.addAll(committed);
+                            // One event per committed chunk; FX subscribers merge bursts into one repaint
+                            ChangeSet<String, Payroll> changes = newChangeSet();
+                            committed.forEach(changes::add);
+                            publishChanges(changes);
+                        } else {
+                            failed.addAndGet(batch.size());
+                            System.err.println("Failed to save a batch of " + batch.size() + " payrolls.");
+                        }
+                        batch.clear();
+                        notifyProgress(listener, saved.size() + failed.get(), total);
+                    }
+                    if (producersFinished && batch.isEmpty()) {
+                        break;
+                    }
+                }
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                if (job.isCancelRequested()) {
+                    ledger.setStatus(PayrollRun.RunStatus.CANCELLED);
+                } else if (failed.get() > 0) {
+                    ledger.setStatus(PayrollRun.RunStatus.FAILED);
+                } else {
+                    ledger.setStatus(PayrollRun.RunStatus.COMPLETED);
+                }
+                payrollRepository.updatePayrollRunStatus(ledger);
+                PayrollRunSummary summary = new PayrollRunSummary(ledger.getId(), resumed, payPeriodStart, payPeriodEnd,
+                        total, saved, failed.get(), job.isCancelRequested(), elapsedMillis);
+                System.out.println("Finished generating payrolls. " + summary);
+                job.complete(summary);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                job.cancel();
+                markRunFailed(ledger);
+                job.fail(e);
+            } catch (RuntimeException e) {
+                markRunFailed(ledger);
+                job.fail(e);
+            } finally {
+                // Nothing drains the queue any more: wake workers blocked on a full queue so they exit
+                workers.shutdownNow();
             }
+        });
+        return job;
+    }
+
+    private static ChangeSet<String, Payroll> newChangeSet() {
+        return new ChangeSet<>(Payroll::getId);
+    }
+
+    // Notifies subscribers of committed payroll changes so they can patch their rows
+    private void publishChanges(ChangeSet<String, Payroll> changes) {
+        ChangeSetEvent.publish(ChangeSetEvent.PAYROLLS_CHANGED, changes);
+    }
+
+    private void markRunFailed(PayrollRun run) {
+        run.setStatus(PayrollRun.RunStatus.FAILED);
+        payrollRepository.updatePayrollRunStatus(run);
+    }
+
+    private void notifyProgress(PayrollRunListener listener, int completed, int total) {
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.onProgress(completed, total);
+        } catch (RuntimeException e) {
+            // A misbehaving listener must not abort the run
+            System.err.println("Payroll progress listener failed: " + e.getMessage());
         }
-        System.out.println("Finished generating payrolls. " + generatedPayrolls.size() + " successful.");
-        return generatedPayrolls;
     }
-}
\ No newline at end of file
+}
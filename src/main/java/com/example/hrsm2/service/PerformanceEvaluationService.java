@@ -1,108 +1,180 @@
 package com.example.hrsm2.service;
 
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.event.ChangeSetEvent;
 import com.example.hrsm2.model.PerformanceEvaluation;
-import com.example.hrsm2.util.DatabaseDriver;
+import com.example.hrsm2.model.RatingStats;
+import com.example.hrsm2.repository.PerformanceEvaluationRepository;
+import com.example.hrsm2.repository.StorageEngines;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors; // Keep for filtering by date range
+import java.util.Map;
 
 public class PerformanceEvaluationService {
     // Remove in-memory storage:
     // private Map<String, PerformanceEvaluation> evaluations;
 
-    // Add DatabaseDriver instance
-    private final DatabaseDriver dbDriver;
+    private final PerformanceEvaluationRepository evaluationRepository;
     private static PerformanceEvaluationService instance;
 
     private PerformanceEvaluationService() {
         // Remove HashMap initialization
         // evaluations = new HashMap<>();
-        // Initialize DatabaseDriver
-        dbDriver = DatabaseDriver.getInstance();
+        this(StorageEngines.getDefault().evaluations());
     }
 
-    public static PerformanceEvaluationService getInstance() {
+    /**
+     * Creates a service over the given repository, e.g. an in-memory one for tests.
+     * The application itself uses {@link #getInstance()}.
+     *
+     * @param evaluationRepository The storage for evaluations and their rating aggregates.
+     */
+    public PerformanceEvaluationService(PerformanceEvaluationRepository evaluationRepository) {
+        this.evaluationRepository = evaluationRepository;
+    }
+
+    public static synchronized PerformanceEvaluationService getInstance() {
         if (instance == null) {
             instance = new PerformanceEvaluationService();
         }
         return instance;
     }
 
-    // --- Modified CRUD methods using DatabaseDriver ---
+    // Lets ServiceRegistry.reset() rebuild the service over another storage engine
+    static synchronized void resetInstance() {
+        instance = null;
+    }
+
+    // --- Modified CRUD methods using the repository ---
 
     public List<PerformanceEvaluation> getAllEvaluations() {
-        // Delegate to DatabaseDriver
-        return dbDriver.getAllEvaluations();
+        // Delegate to the repository
+        return evaluationRepository.getAllEvaluations();
+    }
+
+    public int countEvaluations(QuerySpec spec) {
+        // Delegate to the repository
+        return evaluationRepository.countEvaluations(spec);
+    }
+
+    public List<PerformanceEvaluation> getEvaluationPage(QuerySpec spec, int offset, int limit) {
+        // Delegate to the repository; sorting and filtering run in SQL
+        return evaluationRepository.getEvaluationPage(spec, offset, limit);
     }
 
     public PerformanceEvaluation getEvaluationById(String id) {
-        // Delegate to DatabaseDriver
-        return dbDriver.getEvaluationById(id);
+        // Delegate to the repository
+        return evaluationRepository.getEvaluationById(id);
     }
 
     public List<PerformanceEvaluation> getEvaluationsByEmployeeId(String employeeId) {
-        // Delegate to DatabaseDriver
-        return dbDriver.getEvaluationsByEmployeeId(employeeId);
+        // Delegate to the repository
+        return evaluationRepository.getEvaluationsByEmployeeId(employeeId);
     }
 
     public void addEvaluation(PerformanceEvaluation evaluation) {
-        // Delegate to DatabaseDriver
+        // Delegate to the repository
         // The evaluation object already has its ID generated by its constructor
-        boolean success = dbDriver.insertEvaluation(evaluation);
+        boolean success = evaluationRepository.insertEvaluation(evaluation);
         if (!success) {
             // Optional: Log error or throw a custom exception
             System.err.println("Failed to add performance evaluation to the database (ID: " + evaluation.getId() + ")");
             // Consider throwing a RuntimeException or a specific ServiceException
             // throw new RuntimeException("Failed to add performance evaluation.");
+        } else {
+            publishChanges(newChangeSet().add(evaluation));
         }
     }
 
     public void updateEvaluation(PerformanceEvaluation evaluation) {
-        // Delegate to DatabaseDriver
-        boolean success = dbDriver.updateEvaluation(evaluation);
-        if (!success) {
+        tryUpdateEvaluation(evaluation);
+    }
+
+    /**
+     * Updates an evaluation and reports why an update did not happen.
+     * An evaluation loaded from the service is only saved if nobody changed it in the meantime.
+     *
+     * @param evaluation The evaluation with updated data.
+     * @return UPDATED on success, CONFLICT if the evaluation was modified concurrently,
+     *         NOT_FOUND if it no longer exists, ERROR on database errors.
+     */
+    public UpdateResult tryUpdateEvaluation(PerformanceEvaluation evaluation) {
+        // Delegate to the repository
+        UpdateResult result = evaluationRepository.tryUpdateEvaluation(evaluation);
+        if (result == UpdateResult.CONFLICT) {
+            System.err.println("Performance evaluation was modified by another user (ID: " + evaluation.getId() + ")");
+        } else if (result != UpdateResult.UPDATED) {
             System.err.println("Failed to update performance evaluation in the database (ID: " + evaluation.getId() + ")");
             // throw new RuntimeException("Failed to update performance evaluation.");
+        } else {
+            publishChanges(newChangeSet().update(evaluation));
         }
+        return result;
     }
 
     public void deleteEvaluation(String id) {
-        // Delegate to DatabaseDriver
-        boolean success = dbDriver.deleteEvaluation(id);
+        // Delegate to the repository
+        boolean success = evaluationRepository.deleteEvaluation(id);
         if (!success) {
             System.err.println("Failed to delete performance evaluation from the database (ID: " + id + ")");
             // throw new RuntimeException("Failed to delete performance evaluation.");
+        } else {
+            publishChanges(newChangeSet().delete(id));
         }
     }
 
+    private static ChangeSet<String, PerformanceEvaluation> newChangeSet() {
+        return new ChangeSet<>(PerformanceEvaluation::getId);
+    }
+
+    // Notifies subscribers of committed evaluation changes so they can patch their rows
+    private void publishChanges(ChangeSet<String, PerformanceEvaluation> changes) {
+        ChangeSetEvent.publish(ChangeSetEvent.EVALUATIONS_CHANGED, changes);
+    }
+
     // --- Business Logic methods (can remain largely the same, but use DB-backed methods) ---
 
     public double getAverageRatingForEmployee(String employeeId) {
-        // This now uses the DB-backed getEvaluationsByEmployeeId
-        List<PerformanceEvaluation> employeeEvaluations = getEvaluationsByEmployeeId(employeeId);
+        // Read from the rating aggregates the database maintains on every evaluation change
+        RatingStats stats = evaluationRepository.getRatingStatsForEmployee(employeeId);
+        return stats == null ? 0.0 : stats.getAverageRating();
+    }
 
-        if (employeeEvaluations.isEmpty()) {
-            return 0.0;
-        }
+    /**
+     * @param employeeId The employee's ID.
+     * @return Count, average, min, max, last evaluation date and rating distribution for the
+     *         employee, or null if they have not been evaluated.
+     */
+    public RatingStats getRatingStatsForEmployee(String employeeId) {
+        return evaluationRepository.getRatingStatsForEmployee(employeeId);
+    }
 
-        int totalRating = 0;
-        for (PerformanceEvaluation evaluation : employeeEvaluations) {
-            totalRating += evaluation.getPerformanceRating();
-        }
+    /**
+     * @return The average rating of every evaluated employee, keyed by employee ID; one query.
+     */
+    public Map<String, Double> getAverageRatingsByEmployee() {
+        return evaluationRepository.getAverageRatingsByEmployee();
+    }
+
+    /**
+     * @return Rating statistics and distributions per department.
+     */
+    public Map<String, RatingStats> getRatingStatsByDepartment() {
+        return evaluationRepository.getRatingStatsByDepartment();
+    }
 
-        return (double) totalRating / employeeEvaluations.size();
+    /**
+     * @return Company-wide rating statistics and distribution.
+     */
+    public RatingStats getCompanyRatingStats() {
+        return evaluationRepository.getCompanyRatingStats();
     }
 
     public List<PerformanceEvaluation> getEvaluationsByDateRange(LocalDate startDate, LocalDate endDate) {
-        // Fetch all evaluations from DB first, then filter in memory.
-        // For very large datasets, optimizing this with a specific DB query would be better.
-        List<PerformanceEvaluation> allEvaluations = getAllEvaluations(); // Gets from DB now
-        return allEvaluations.stream()
-                .filter(evaluation ->
-                        evaluation.getEvaluationDate() != null && // Add null check
-                                !evaluation.getEvaluationDate().isBefore(startDate) &&
-                                !evaluation.getEvaluationDate().isAfter(endDate))
-                .collect(Collectors.toList());
+        // Range query on the evaluation date index; only the requested period is read
+        return evaluationRepository.getEvaluationsBetween(startDate, endDate);
     }
 }
\ No newline at end of file
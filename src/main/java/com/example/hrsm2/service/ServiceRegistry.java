@@ -0,0 +1,40 @@
+package com.example.hrsm2.service;
+
+import com.example.hrsm2.repository.StorageEngine;
+import com.example.hrsm2.repository.StorageEngines;
+
+/**
+ * Central control over the service singletons.
+ * The application never needs it: services are created on first use over the default storage
+ * engine and live for the whole run. Tests use it to point the services at a database of their own.
+ */
+public final class ServiceRegistry {
+
+    private ServiceRegistry() {
+        // Static holder
+    }
+
+    /**
+     * Makes the given engine the default and drops every service singleton,
+     * so the next {@code getInstance()} of each service is built over that engine.
+     *
+     * @param engine The new default engine, or null to go back to the configured one on next use.
+     */
+    public static synchronized void useStorageEngine(StorageEngine engine) {
+        StorageEngines.setDefault(engine);
+        reset();
+    }
+
+    /**
+     * Drops every service singleton; each is rebuilt over the default engine on its next use.
+     * Subscriptions of the dropped services to change events are removed.
+     */
+    public static synchronized void reset() {
+        AnalyticsService.resetInstance();
+        PayrollService.resetInstance();
+        LeaveRequestService.resetInstance();
+        PerformanceEvaluationService.resetInstance();
+        UserService.resetInstance();
+        EmployeeService.resetInstance();
+    }
+}
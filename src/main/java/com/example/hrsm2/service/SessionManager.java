@@ -0,0 +1,133 @@
+package com.example.hrsm2.service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the login sessions of {@link UserService}. Any number of users may be logged in at
+ * once, each session identified by a random token.
+ * <p>
+ * A session ends when it is closed, when its user is deleted, or when it has not been used
+ * for the idle timeout. Thread-safe.
+ */
+public final class SessionManager {
+    /** System property setting the idle timeout in minutes; 0 keeps sessions until they are closed. */
+    public static final String IDLE_TIMEOUT_PROPERTY = "hrsm.session.idleTimeoutMinutes";
+    public static final long DEFAULT_IDLE_TIMEOUT_MINUTES = 8 * 60;
+
+    private static final int TOKEN_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * A logged-in user.
+     *
+     * @param token The secret identifying the session; hand it only to the session's owner.
+     * @param username The user the session belongs to.
+     * @param createdAt When the user logged in.
+     */
+    public record Session(String token, String username, Instant createdAt) {
+        @Override
+        public String toString() {
+            // Keep the token out of logs
+            return "Session[username=" + username + ", createdAt=" + createdAt + "]";
+        }
+    }
+
+    private static final class Tracked {
+        private final Session session;
+        private volatile long lastUsed = System.nanoTime();
+
+        Tracked(Session session) {
+            this.session = session;
+        }
+    }
+
+    private final Map<String, Tracked> sessions = new ConcurrentHashMap<>();
+    private final long idleTimeoutNanos;
+
+    public SessionManager() {
+        this(Duration.ofMinutes(Long.getLong(IDLE_TIMEOUT_PROPERTY, DEFAULT_IDLE_TIMEOUT_MINUTES)));
+    }
+
+    /**
+     * @param idleTimeout How long an unused session stays valid; zero or negative never expires sessions.
+     */
+    public SessionManager(Duration idleTimeout) {
+        this.idleTimeoutNanos = idleTimeout.isNegative() ? 0 : idleTimeout.toNanos();
+    }
+
+    /**
+     * Starts a session for a user who has just been authenticated.
+     *
+     * @param username The user's username.
+     * @return The new session.
+     */
+    public Session open(String username) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        Session session = new Session(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes),
+                username, Instant.now());
+        sessions.put(session.token(), new Tracked(session));
+        return session;
+    }
+
+    /**
+     * Looks up a session and marks it as used.
+     *
+     * @param token The session token.
+     * @return The session, or null if the token is unknown, closed or has expired.
+     */
+    public Session get(String token) {
+        if (token == null) {
+            return null;
+        }
+        Tracked tracked = sessions.get(token);
+        if (tracked == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (idleTimeoutNanos > 0 && now - tracked.lastUsed > idleTimeoutNanos) {
+            sessions.remove(token, tracked);
+            return null;
+        }
+        tracked.lastUsed = now;
+        return tracked.session;
+    }
+
+    /**
+     * @return true if the session was open.
+     */
+    public boolean close(String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    /**
+     * Ends every session of a user, e.g. when the user is deleted.
+     *
+     * @return The number of sessions ended.
+     */
+    public int closeAll(String username) {
+        int closed = 0;
+        for (Map.Entry<String, Tracked> entry : sessions.entrySet()) {
+            if (entry.getValue().session.username().equals(username) && sessions.remove(entry.getKey(), entry.getValue())) {
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * @return The number of open sessions, dropping any that have expired.
+     */
+    public int getActiveSessionCount() {
+        if (idleTimeoutNanos > 0) {
+            long now = System.nanoTime();
+            sessions.values().removeIf(tracked -> now - tracked.lastUsed > idleTimeoutNanos);
+        }
+        return sessions.size();
+    }
+}
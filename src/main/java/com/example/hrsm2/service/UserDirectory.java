@@ -0,0 +1,123 @@
+package com.example.hrsm2.service;
+
+import com.example.hrsm2.model.User;
+import com.example.hrsm2.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caches user lookups for {@link UserService}: users by username (including "no such user") and
+ * user lists by role.
+ * <p>
+ * Entries expire after a time to live, so changes made from another terminal sharing the database
+ * show up within that time; changes made through this service invalidate their entries at once.
+ * Loads are single-flight: when many callers miss the same entry together, one of them queries
+ * the repository and the others wait for its result instead of all querying the user table.
+ * Callers get copies, so changing a returned user never changes the cache.
+ */
+final class UserDirectory {
+    /** System property setting how long cached users stay fresh, in milliseconds; 0 disables the cache. */
+    static final String TTL_PROPERTY = "hrsm.users.cacheTtlMillis";
+    static final long DEFAULT_TTL_MILLIS = 30_000;
+
+    private final UserRepository repository;
+    private final long ttlNanos;
+    private final Map<String, Entry<Optional<User>>> byUsername = new ConcurrentHashMap<>();
+    private final Map<User.UserRole, Entry<List<User>>> byRole = new ConcurrentHashMap<>();
+
+    /**
+     * A value loaded, or being loaded, at a point in time.
+     */
+    private record Entry<T>(CompletableFuture<T> value, long loadedAt) {
+        boolean isFresh(long now, long ttlNanos) {
+            return now - loadedAt < ttlNanos;
+        }
+    }
+
+    UserDirectory(UserRepository repository) {
+        this(repository, Long.getLong(TTL_PROPERTY, DEFAULT_TTL_MILLIS));
+    }
+
+    UserDirectory(UserRepository repository, long ttlMillis) {
+        this.repository = repository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis));
+    }
+
+    /**
+     * @return A copy of the user, or null if there is none.
+     */
+    User getUser(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return null;
+        }
+        String key = username.trim();
+        return get(byUsername, key, () -> Optional.ofNullable(repository.getUserByUsername(key)))
+                .map(UserDirectory::copy)
+                .orElse(null);
+    }
+
+    /**
+     * @return Copies of the users with the role, ordered by full name.
+     */
+    List<User> getUsersByRole(User.UserRole role) {
+        if (role == null) {
+            return new ArrayList<>();
+        }
+        List<User> cached = get(byRole, role, () -> List.copyOf(repository.getUsersByRole(role)));
+        List<User> users = new ArrayList<>(cached.size());
+        for (User user : cached) {
+            users.add(copy(user));
+        }
+        return users;
+    }
+
+    /**
+     * Drops everything cached about a user, e.g. after it was created, changed or deleted.
+     * The role lists are dropped as well, since the user may have joined or left one.
+     */
+    void invalidate(String username) {
+        if (username != null) {
+            byUsername.remove(username.trim());
+        }
+        byRole.clear();
+    }
+
+    void invalidateAll() {
+        byUsername.clear();
+        byRole.clear();
+    }
+
+    private <K, T> T get(Map<K, Entry<T>> cache, K key, Supplier<T> loader) {
+        if (ttlNanos == 0) {
+            return loader.get();
+        }
+        long now = System.nanoTime();
+        Entry<T> cached = cache.get(key);
+        if (cached == null || !cached.isFresh(now, ttlNanos)) {
+            // Only the caller that installs the new entry loads it; everyone else waits on its future
+            Entry<T> loading = new Entry<>(new CompletableFuture<>(), now);
+            cached = cache.compute(key, (k, current) -> current != null && current.isFresh(now, ttlNanos) ? current : loading);
+            if (cached == loading) {
+                try {
+                    loading.value().complete(loader.get());
+                } catch (RuntimeException e) {
+                    // Do not cache a failure; the next caller tries again
+                    cache.remove(key, loading);
+                    loading.value().completeExceptionally(e);
+                }
+            }
+        }
+        return cached.value().join();
+    }
+
+    private static User copy(User user) {
+        return new User(user.getUsername(), user.getPassword(), user.getFullName(), user.getRole());
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.hrsm2.service;
 
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.event.ChangeSetEvent;
 import com.example.hrsm2.model.User;
-import com.example.hrsm2.util.DatabaseDriver; // Import DatabaseDriver
+import com.example.hrsm2.repository.StorageEngines;
+import com.example.hrsm2.repository.UserRepository;
+import com.example.hrsm2.util.PasswordHasher;
 
 // Remove map/list imports if no longer needed internally
 // import java.util.ArrayList;
@@ -12,14 +16,15 @@ import java.util.List;
 public class UserService {
     private static UserService instance;
     // private final Map<String, User> users = new HashMap<>(); // REMOVED - Use DB now
-    private final DatabaseDriver dbDriver; // Instance of the DB driver
+    private final UserRepository userRepository; // Storage for users
+    private final UserDirectory directory; // Cached lookups over userRepository
+    private final SessionManager sessions; // Everyone logged in through this service
 
-    // Current logged-in user
-    private User currentUser;
+    // Token of the session this application window logged in with; other sessions are held by their callers
+    private volatile String currentSessionToken;
 
     private UserService() {
-        // Get the Singleton instance of DatabaseDriver
-        this.dbDriver = DatabaseDriver.getInstance();
+        this(StorageEngines.getDefault().users());
         // REMOVED - Super admin initialization is now handled by DatabaseDriver constructor
         /*
         User superAdmin = new User(
@@ -30,7 +35,29 @@ public class UserService {
         );
         users.put(superAdmin.getUsername(), superAdmin);
         */
-        // DatabaseDriver constructor now calls ensureSuperAdminExists()
+        // Each storage engine ensures the super admin exists when it starts
+    }
+
+    /**
+     * Creates a service over the given repository, e.g. an in-memory one for tests.
+     * The application itself uses {@link #getInstance()}.
+     *
+     * @param userRepository The storage for users.
+     */
+    public UserService(UserRepository userRepository) {
+        this(userRepository, new SessionManager());
+    }
+
+    /**
+     * Creates a service over the given repository that tracks logins in the given sessions.
+     *
+     * @param userRepository The storage for users.
+     * @param sessions The session registry, e.g. one with a short idle timeout.
+     */
+    public UserService(UserRepository userRepository, SessionManager sessions) {
+        this.userRepository = userRepository;
+        this.directory = new UserDirectory(userRepository);
+        this.sessions = sessions;
     }
 
     public static synchronized UserService getInstance() {
@@ -40,35 +67,113 @@ public class UserService {
         return instance;
     }
 
+    // Lets ServiceRegistry.reset() rebuild the service over another storage engine
+    static synchronized void resetInstance() {
+        instance = null;
+    }
+
     /**
-     * Authenticates a user against the database.
+     * Authenticates a user and makes them the current user of this application window.
+     * Any previous login of the window is ended.
      * @param username The username entered by the user.
      * @param plainPassword The plain text password entered by the user.
      * @return The User object if authentication is successful, null otherwise.
      */
     public User authenticate(String username, String plainPassword) {
-        User user = dbDriver.getUserByUsername(username); // Get user (with hashed password) from DB
+        User user = verifyCredentials(username, plainPassword);
+        if (user == null) {
+            return null;
+        }
+        String previous = currentSessionToken;
+        currentSessionToken = sessions.open(user.getUsername()).token();
+        sessions.close(previous);
+        return user;
+    }
 
-        if (user != null) {
-            // Hash the entered plain password using the same method as DB storage
-            String enteredPasswordHash = dbDriver.hashPassword(plainPassword);
+    /**
+     * Authenticates a user and starts a session of their own, leaving the current user unchanged.
+     * Use it when several users are logged in at once, e.g. through a server.
+     * @param username The username entered by the user.
+     * @param plainPassword The plain text password entered by the user.
+     * @return The new session, or null if authentication failed.
+     */
+    public SessionManager.Session login(String username, String plainPassword) {
+        User user = verifyCredentials(username, plainPassword);
+        return user != null ? sessions.open(user.getUsername()) : null;
+    }
 
-            // Compare the hash of the entered password with the stored hash
-            if (enteredPasswordHash != null && enteredPasswordHash.equals(user.getPassword())) {
-                currentUser = user; // Set current user on successful login
-                return user;
+    /**
+     * @param token A session token from {@link #login}.
+     * @return The session's user, or null if the session is unknown, ended or the user no longer exists.
+     */
+    public User getSessionUser(String token) {
+        SessionManager.Session session = sessions.get(token);
+        return session != null ? directory.getUser(session.username()) : null;
+    }
+
+    /**
+     * Ends a session started with {@link #login}.
+     * @return true if the session was open.
+     */
+    public boolean logout(String token) {
+        return sessions.close(token);
+    }
+
+    public SessionManager getSessions() {
+        return sessions;
+    }
+
+    // Checks the password against the (cached) stored hash; returns the user on success, null otherwise
+    private User verifyCredentials(String username, String plainPassword) {
+        User user = directory.getUser(username); // Cached; a burst of logins does not re-read the user table
+
+        if (user == null) {
+            // Take as long as a wrong password would, so response times do not reveal which usernames exist
+            PasswordHasher.getDefault().verifyDummy(plainPassword);
+            return null;
+        }
+
+        // Compare the entered password with the stored salted hash, in constant time
+        if (!userRepository.verifyPassword(plainPassword, user.getPassword())) {
+            // The cached hash may predate a password change made elsewhere; check the stored one once
+            directory.invalidate(user.getUsername());
+            User stored = directory.getUser(user.getUsername());
+            if (stored == null || stored.getPassword().equals(user.getPassword())
+                    || !userRepository.verifyPassword(plainPassword, stored.getPassword())) {
+                return null; // Authentication failed (password mismatch)
             }
+            user = stored;
         }
-        // Authentication failed (user not found or password mismatch)
-        return null;
+
+        // Replace a legacy SHA-256 hash (or a cheaper PBKDF2 one) now that the plain password is known
+        // Only the hash is written, and only if it is still the one just verified, so an
+        // administrator's concurrent change to the role, name or password is never reverted
+        if (userRepository.passwordNeedsRehash(user.getPassword())) {
+            String upgraded = userRepository.hashPassword(plainPassword);
+            if (userRepository.updatePasswordHash(user.getUsername(), user.getPassword(), upgraded)) {
+                user = new User(user.getUsername(), upgraded, user.getFullName(), user.getRole());
+            } else {
+                System.err.println("Service Info: Password hash for user " + username + " was not upgraded; it changed meanwhile or could not be written.");
+            }
+            directory.invalidate(user.getUsername());
+        }
+        return user;
     }
 
+    /**
+     * @return The user logged in to this application window, or null if none is.
+     */
     public User getCurrentUser() {
-        return currentUser;
+        return getSessionUser(currentSessionToken);
     }
 
+    /**
+     * Logs out the user of this application window. Other sessions stay open.
+     */
     public void logout() {
-        currentUser = null;
+        String token = currentSessionToken;
+        currentSessionToken = null;
+        sessions.close(token);
     }
 
     /**
@@ -85,8 +190,17 @@ public class UserService {
             return false; // Username already exists
         }
 
-        // Call DatabaseDriver to insert the user (it handles hashing)
-        return dbDriver.insertUser(username, fullName, plainPassword, role.name());
+        // Call the repository to insert the user (it handles hashing)
+        boolean created = userRepository.insertUser(username, fullName, plainPassword, role.name());
+        directory.invalidate(username); // Also drops a cached "no such user"
+        if (created) {
+            // Re-read the single new row so subscribers get the stored state (hashed password)
+            User user = userRepository.getUserByUsername(username);
+            if (user != null) {
+                publishChanges(newChangeSet().add(user));
+            }
+        }
+        return created;
     }
 
     /**
@@ -104,7 +218,7 @@ public class UserService {
         if (user == null || user.getUsername() == null) {
             return false;
         }
-        // NOTE: This basic version calls dbDriver.updateUser which expects the HASHED password.
+        // NOTE: This basic version calls userRepository.updateUser which expects the HASHED password.
         // If you are only changing Full Name or Role, you MUST fetch the existing user first
         // to get their current hashed password and put it in the 'user' object being passed.
         // A more robust implementation would have specific methods like:
@@ -115,7 +229,7 @@ public class UserService {
         // If the goal is just CRUD, and updates are rare/handled elsewhere, this might suffice.
         // However, if updating from a UI, fetching the current user first is safer:
         /*
-         User existingUser = dbDriver.getUserByUsername(user.getUsername());
+         User existingUser = userRepository.getUserByUsername(user.getUsername());
          if (existingUser == null) return false; // User not found
 
          // Create a user object to pass for update, keeping existing hash unless changing password
@@ -127,15 +241,21 @@ public class UserService {
          );
          // If password change is intended, hash the new plain password and set it here.
 
-         return dbDriver.updateUser(userToUpdate);
+         return userRepository.updateUser(userToUpdate);
         */
 
         // Simpler, direct call (assumes 'user' object has correct hashed password):
-        return dbDriver.updateUser(user);
+        boolean updated = userRepository.updateUser(user);
+        directory.invalidate(user.getUsername());
+        if (updated) {
+            publishChanges(newChangeSet().update(user));
+        }
+        return updated;
     }
 
     public boolean deleteUser(String username) {
         // Don't allow deleting the currently logged-in user
+        User currentUser = getCurrentUser();
         if (currentUser != null && currentUser.getUsername().equals(username)) {
             System.err.println("Cannot delete the currently logged-in user.");
             return false;
@@ -146,7 +266,23 @@ public class UserService {
             return false;
         }
 
-        return dbDriver.deleteUser(username);
+        boolean deleted = userRepository.deleteUser(username);
+        directory.invalidate(username);
+        if (deleted) {
+            // A deleted user is logged out everywhere
+            sessions.closeAll(username);
+            publishChanges(newChangeSet().delete(username));
+        }
+        return deleted;
+    }
+
+    private static ChangeSet<String, User> newChangeSet() {
+        return new ChangeSet<>(User::getUsername);
+    }
+
+    // Notifies subscribers of committed user changes so they can patch their rows
+    private void publishChanges(ChangeSet<String, User> changes) {
+        ChangeSetEvent.publish(ChangeSetEvent.USERS_CHANGED, changes);
     }
 
     /**
@@ -154,16 +290,25 @@ public class UserService {
      * @return A List of all User objects.
      */
     public List<User> getAllUsers() {
-        return dbDriver.getAllUsers();
+        return userRepository.getAllUsers();
+    }
+
+    /**
+     * Retrieves the users with one role through the role index; cached like single users.
+     * @param role The role to list.
+     * @return The users ordered by full name.
+     */
+    public List<User> getUsersByRole(User.UserRole role) {
+        return directory.getUsersByRole(role);
     }
 
 
     public User getUserByUsername(String username) {
-        return dbDriver.getUserByUsername(username);
+        return directory.getUser(username);
     }
 
 
     public boolean isUsernameTaken(String username) {
-        return dbDriver.getUserByUsername(username) != null;
+        return directory.getUser(username) != null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.example.hrsm2.store;
+
+import com.example.hrsm2.event.ChangeSetEvent;
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.service.EmployeeService;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * The shared roster: one copy of the employee table for every tab, indexed by id and department.
+ * Kept current by the {@link ChangeSetEvent#EMPLOYEES_CHANGED} events of {@link EmployeeService}.
+ */
+public class EmployeeStore extends EntityStore<String, Employee> {
+    private static final String DEPARTMENT_INDEX = "department";
+
+    private static EmployeeStore instance;
+
+    private EmployeeStore() {
+        super(ChangeSetEvent.EMPLOYEES_CHANGED, Employee::getId, Employee.BY_NAME,
+                () -> EmployeeService.getInstance().getAllEmployees());
+        addIndex(DEPARTMENT_INDEX, Employee::getDepartment);
+    }
+
+    public static synchronized EmployeeStore getInstance() {
+        if (instance == null) {
+            instance = new EmployeeStore();
+        }
+        return instance;
+    }
+
+    /**
+     * @param department The department name
+     * @return The employees in that department, in no particular order.
+     */
+    public List<Employee> getByDepartment(String department) {
+        return getByIndex(DEPARTMENT_INDEX, department);
+    }
+
+    /**
+     * @return The distinct departments of all employees, sorted by name.
+     */
+    public List<String> getDepartments() {
+        return getItems().stream()
+                .map(Employee::getDepartment)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.hrsm2.store;
+
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.event.ChangeSetEvent;
+import com.example.hrsm2.event.EventManager;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.event.EventType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Application-wide, in-memory copy of one entity table, shared by all GUI tabs.
+ * <p>
+ * The rows are loaded once, on first access, and then kept current by the change events
+ * the services publish after each commit, so tabs never reload the table themselves.
+ * Tabs consume the rows through {@link FilteredList}/{@link SortedList} views of
+ * {@link #getItems()}, and look rows up through the id and secondary indexes.
+ * <p>
+ * Like any JavaFX list, the store must only be used from the JavaFX Application Thread,
+ * except {@link #getById} which may be called from any thread once the store is loaded.
+ *
+ * @param <K> The type of the entity id
+ * @param <T> The type of the entity
+ */
+public class EntityStore<K, T> {
+    private final Function<T, K> idOf;
+    private final Comparator<? super T> order;
+    private final Supplier<List<T>> loader;
+
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+    private final ObservableList<T> readOnlyItems = FXCollections.unmodifiableObservableList(items);
+    // Concurrent so background threads (e.g. page prefetching) can resolve ids; a reload builds
+    // a new map and swaps it in, so those threads never see it half empty
+    private volatile Map<K, T> byId = new ConcurrentHashMap<>();
+    // Secondary indexes: index name -> key -> rows with that key
+    private final Map<String, Function<T, ?>> indexKeys = new LinkedHashMap<>();
+    private final Map<String, Map<Object, Map<K, T>>> indexes = new HashMap<>();
+    private final List<Consumer<ChangeSet<K, T>>> changeListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean loaded;
+
+    /**
+     * @param changeType The change event the services publish for this entity
+     * @param idOf Extracts the id of an entity
+     * @param order The order rows are kept in (should match the loader's order)
+     * @param loader Loads every row, used on first access and by {@link #reload()}
+     */
+    protected EntityStore(EventType<ChangeSetEvent<K, T>> changeType, Function<T, K> idOf,
+                          Comparator<? super T> order, Supplier<List<T>> loader) {
+        this.idOf = idOf;
+        this.order = order;
+        this.loader = loader;
+        EventManager.getInstance().addCoalescingEventHandler(changeType,
+                event -> apply(event.getChangeSet()), ChangeSetEvent::merge);
+    }
+
+    /**
+     * Registers a secondary index. Must be called before the store is first loaded.
+     *
+     * @param name The index name used with {@link #getByIndex}
+     * @param key Extracts the indexed value of an entity (may return null)
+     */
+    protected void addIndex(String name, Function<T, ?> key) {
+        indexKeys.put(name, key);
+        indexes.put(name, new HashMap<>());
+    }
+
+    /**
+     * @return All rows as a read-only list, kept in the store's order and updated in place.
+     */
+    public ObservableList<T> getItems() {
+        ensureLoaded();
+        return readOnlyItems;
+    }
+
+    /**
+     * @param predicate Which rows to show, or null for all
+     * @return A new filtered view of the rows; changing its predicate re-filters without reloading.
+     */
+    public FilteredList<T> filtered(Predicate<T> predicate) {
+        return new FilteredList<>(getItems(), predicate);
+    }
+
+    /**
+     * Looks a row up by id. Once the store is loaded this may be called from any thread.
+     *
+     * @param id The id to look up
+     * @return The row with that id, or null if there is none.
+     */
+    public T getById(K id) {
+        ensureLoaded();
+        return id == null ? null : byId.get(id);
+    }
+
+    /**
+     * @param name The index name
+     * @param key The indexed value to look up
+     * @return The rows whose indexed value equals {@code key}, in no particular order.
+     */
+    public List<T> getByIndex(String name, Object key) {
+        ensureLoaded();
+        Map<Object, Map<K, T>> index = indexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown index: " + name);
+        }
+        Map<K, T> rows = index.get(key);
+        return rows == null ? Collections.emptyList() : new ArrayList<>(rows.values());
+    }
+
+    /**
+     * Registers a callback for each change set, called on the JavaFX Application Thread just
+     * before the change is applied, so it can still see affected rows in their current state
+     * (e.g. to clear a selection that is about to be deleted).
+     *
+     * @param listener Receives each (coalesced) change set
+     */
+    public void addChangeListener(Consumer<ChangeSet<K, T>> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Discards the rows and loads them again. Only needed to pick up changes made outside
+     * the services, e.g. by another process writing to the database.
+     */
+    public void reload() {
+        List<T> rows = loader.get();
+        Map<K, T> reloaded = new ConcurrentHashMap<>();
+        indexes.values().forEach(Map::clear);
+        for (T row : rows) {
+            reloaded.put(idOf.apply(row), row);
+            index(row);
+        }
+        byId = reloaded;
+        items.setAll(rows);
+        loaded = true;
+    }
+
+    /**
+     * Replaces one row with its current database state, e.g. after a save was rejected because
+     * another user changed or deleted the row. Cheaper than {@link #reload()} for a single row.
+     *
+     * @param id The id of the row
+     * @param row The row as now stored, or null if it no longer exists
+     */
+    public void refresh(K id, T row) {
+        ChangeSet<K, T> changes = new ChangeSet<>(idOf);
+        apply(row == null ? changes.delete(id) : changes.update(row));
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            reload();
+        }
+    }
+
+    private void apply(ChangeSet<K, T> changes) {
+        if (!loaded) {
+            // Nothing displayed yet; the first access loads the committed state anyway
+            return;
+        }
+        for (Consumer<ChangeSet<K, T>> listener : changeListeners) {
+            try {
+                listener.accept(changes);
+            } catch (RuntimeException e) {
+                System.err.println("Store change listener failed: " + e.getMessage());
+            }
+        }
+
+        for (K id : changes.getDeletedIds()) {
+            T removed = byId.remove(id);
+            if (removed != null) {
+                unindex(removed);
+            }
+        }
+        putAll(changes.getUpdated());
+        putAll(changes.getAdded());
+        changes.applyTo(items, order);
+    }
+
+    private void putAll(Map<K, T> rows) {
+        rows.forEach((id, row) -> {
+            T previous = byId.put(id, row);
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(row);
+        });
+    }
+
+    private void index(T row) {
+        K id = idOf.apply(row);
+        indexKeys.forEach((name, key) ->
+                indexes.get(name).computeIfAbsent(key.apply(row), k -> new LinkedHashMap<>()).put(id, row));
+    }
+
+    private void unindex(T row) {
+        K id = idOf.apply(row);
+        indexKeys.forEach((name, key) -> {
+            Map<Object, Map<K, T>> index = indexes.get(name);
+            Object value = key.apply(row);
+            Map<K, T> rows = index.get(value);
+            if (rows != null) {
+                rows.remove(id);
+                if (rows.isEmpty()) {
+                    index.remove(value);
+                }
+            }
+        });
+    }
+}
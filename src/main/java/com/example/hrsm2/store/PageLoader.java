@@ -0,0 +1,70 @@
+package com.example.hrsm2.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * Source of rows for a {@link PagedList}: a row count and random access to pages of rows,
+ * both in one stable order (typically an indexed ORDER BY with LIMIT/OFFSET).
+ *
+ * @param <T> The type of the rows
+ */
+public interface PageLoader<T> {
+
+    /**
+     * @return The total number of rows.
+     */
+    int count();
+
+    /**
+     * @param offset Index of the first row to load
+     * @param limit Maximum number of rows to load
+     * @return The rows from {@code offset}, at most {@code limit} of them.
+     */
+    List<T> loadPage(int offset, int limit);
+
+    /**
+     * Returns a loader whose pages are converted row by row, e.g. into pre-formatted table rows.
+     * The conversion runs wherever the page is loaded, which for prefetched pages is a
+     * background thread.
+     *
+     * @param mapper Converts one row
+     * @param <R> The type of the converted rows
+     * @return The converting loader
+     */
+    default <R> PageLoader<R> map(Function<? super T, ? extends R> mapper) {
+        return of(this::count, (offset, limit) -> {
+            List<T> rows = loadPage(offset, limit);
+            List<R> mapped = new ArrayList<>(rows.size());
+            for (T row : rows) {
+                mapped.add(mapper.apply(row));
+            }
+            return mapped;
+        });
+    }
+
+    /**
+     * Creates a loader from two functions, typically service method references.
+     *
+     * @param counter Returns the total number of rows
+     * @param pageReader Returns the rows for an offset and a limit
+     * @param <T> The type of the rows
+     * @return The loader
+     */
+    static <T> PageLoader<T> of(IntSupplier counter, BiFunction<Integer, Integer, List<T>> pageReader) {
+        return new PageLoader<>() {
+            @Override
+            public int count() {
+                return counter.getAsInt();
+            }
+
+            @Override
+            public List<T> loadPage(int offset, int limit) {
+                return pageReader.apply(offset, limit);
+            }
+        };
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.hrsm2.store;
+
+import com.example.hrsm2.event.ChangeSet;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read-only, virtual {@code ObservableList} for large tables.
+ * <p>
+ * Only the row count is known up front; rows are fetched a page at a time when a
+ * {@code TableView} asks for them, and only a sliding window of recently used pages is
+ * kept in memory. While the user scrolls, the next page in the scroll direction is
+ * loaded in the background so it is usually ready before it becomes visible.
+ * <p>
+ * Must be used from the JavaFX Application Thread, like any list shown in a control.
+ *
+ * @param <T> The type of the rows
+ */
+public class PagedList<T> extends ObservableListBase<T> {
+
+    // A few screens of rows per page; the window holds well under two thousand rows
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int DEFAULT_MAX_CACHED_PAGES = 8;
+
+    // One background thread is enough: prefetches are small and the database has a single connection
+    private static final ExecutorService PREFETCHER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "page-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final PageLoader<T> loader;
+    private final int pageSize;
+    private final Map<Integer, List<T>> pages;
+    private final Set<Integer> prefetching = new HashSet<>();
+    private int size;
+    private int lastPage = -1;
+    // Bumped by refresh() so late prefetches of the old data are discarded
+    private int generation;
+
+    /**
+     * Creates a list with the default page size and cache window.
+     *
+     * @param loader Supplies the row count and pages of rows
+     */
+    public PagedList(PageLoader<T> loader) {
+        this(loader, DEFAULT_PAGE_SIZE, DEFAULT_MAX_CACHED_PAGES);
+    }
+
+    /**
+     * @param loader Supplies the row count and pages of rows
+     * @param pageSize Rows per page; a few screens' worth is a good choice
+     * @param maxCachedPages Pages kept in memory; the least recently used page is evicted first
+     */
+    public PagedList(PageLoader<T> loader, int pageSize, int maxCachedPages) {
+        this.loader = loader;
+        this.pageSize = Math.max(1, pageSize);
+        int capacity = Math.max(2, maxCachedPages);
+        this.pages = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.size = loader.count();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int page = index / pageSize;
+        List<T> rows = getPage(page);
+        prefetchAhead(page);
+        int offset = index % pageSize;
+        // The table may have shrunk since the count was taken; show an empty row rather than fail
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    /**
+     * Drops all cached pages and re-reads the row count, e.g. after rows were added or deleted.
+     * Only the pages the table shows next are loaded again.
+     */
+    public void refresh() {
+        int oldSize = size;
+        synchronized (pages) {
+            pages.clear();
+            prefetching.clear();
+            generation++;
+        }
+        lastPage = -1;
+        size = loader.count();
+        beginChange();
+        nextReplace(0, size, Collections.nCopies(oldSize, null));
+        endChange();
+    }
+
+    /**
+     * Applies committed changes. Updated rows that are currently cached are replaced in place;
+     * additions and deletions shift row positions, so they trigger a {@link #refresh()}.
+     *
+     * @param changes The changes published by a service
+     * @param <K> The type of the entity id
+     */
+    public <K> void applyChanges(ChangeSet<K, T> changes) {
+        applyChanges(changes, changes::idOf, Function.identity());
+    }
+
+    /**
+     * Applies committed changes to a list of rows derived from the changed entities,
+     * e.g. pre-formatted table rows.
+     *
+     * @param changes The changes published by a service
+     * @param idOfRow Extracts the entity id from a row
+     * @param toRow Builds the row for an updated entity
+     * @param <K> The type of the entity id
+     * @param <E> The type of the entity
+     */
+    public <K, E> void applyChanges(ChangeSet<K, E> changes, Function<? super T, K> idOfRow,
+                                    Function<? super E, ? extends T> toRow) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (!changes.getAdded().isEmpty() || !changes.getDeletedIds().isEmpty()) {
+            refresh();
+            return;
+        }
+        replaceCached(row -> {
+            E updated = changes.getUpdated().get(idOfRow.apply(row));
+            return updated != null ? toRow.apply(updated) : row;
+        });
+    }
+
+    /**
+     * Replaces cached rows without reloading them, e.g. to show a renamed employee.
+     * Rows that are not cached pick up the change when their page is next loaded.
+     *
+     * @param replacer Returns the new row, or the same instance to leave a row unchanged
+     */
+    public void replaceCached(UnaryOperator<T> replacer) {
+        beginChange();
+        synchronized (pages) {
+            for (Map.Entry<Integer, List<T>> page : pages.entrySet()) {
+                List<T> rows = page.getValue();
+                for (int i = 0; i < rows.size(); i++) {
+                    T previous = rows.get(i);
+                    T replacement = replacer.apply(previous);
+                    if (replacement != previous) {
+                        rows.set(i, replacement);
+                        nextSet(page.getKey() * pageSize + i, previous);
+                    }
+                }
+            }
+        }
+        endChange();
+    }
+
+    private List<T> getPage(int page) {
+        synchronized (pages) {
+            List<T> rows = pages.get(page);
+            if (rows != null) {
+                return rows;
+            }
+        }
+        // Cache miss: load on the calling thread, the table needs these rows now
+        List<T> rows = new ArrayList<>(loader.loadPage(page * pageSize, pageSize));
+        synchronized (pages) {
+            pages.put(page, rows);
+        }
+        return rows;
+    }
+
+    private void prefetchAhead(int page) {
+        if (page == lastPage) {
+            return;
+        }
+        int next = page > lastPage ? page + 1 : page - 1;
+        lastPage = page;
+        if (next < 0 || next * pageSize >= size) {
+            return;
+        }
+        int expectedGeneration;
+        synchronized (pages) {
+            if (pages.containsKey(next) || !prefetching.add(next)) {
+                return;
+            }
+            expectedGeneration = generation;
+        }
+        PREFETCHER.execute(() -> {
+            List<T> rows;
+            try {
+                rows = new ArrayList<>(loader.loadPage(next * pageSize, pageSize));
+            } catch (RuntimeException e) {
+                System.err.println("Failed to prefetch page " + next + ": " + e.getMessage());
+                rows = null;
+            }
+            storePrefetched(next, rows, expectedGeneration);
+        });
+    }
+
+    private void storePrefetched(int page, List<T> rows, int expectedGeneration) {
+        synchronized (pages) {
+            prefetching.remove(page);
+            // The rows are identical to what a synchronous load would return, so no change event is needed
+            if (rows != null && generation == expectedGeneration && !pages.containsKey(page)) {
+                pages.put(page, rows);
+            }
+        }
+    }
+}
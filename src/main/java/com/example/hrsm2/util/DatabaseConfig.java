@@ -0,0 +1,206 @@
+package com.example.hrsm2.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Where the SQLite database lives and how its connection is opened.
+ * <p>
+ * {@link #load()} reads the settings from an optional {@code hrsm.properties} file (in the
+ * working directory, or the file named by the {@code hrsm.config} system property), with
+ * system properties of the same name taking precedence:
+ * <ul>
+ *     <li>{@code hrsm.db.url} - a complete JDBC URL; overrides the mode and path.</li>
+ *     <li>{@code hrsm.db.mode} - {@code file} (default), {@code memory} (private to the connection)
+ *         or {@code shared-memory} (shared by every connection of the process).</li>
+ *     <li>{@code hrsm.db.path} - the database file for {@code file} mode; default {@code hr_database.db}.</li>
+ *     <li>{@code hrsm.db.name} - names a {@code shared-memory} database, so several can coexist.</li>
+ *     <li>{@code hrsm.db.pragma.<name>} - an open flag passed to the driver, e.g.
+ *         {@code hrsm.db.pragma.busy_timeout=5000} or {@code hrsm.db.pragma.journal_mode=WAL}.</li>
+ * </ul>
+ * Instances are immutable; the {@code with...} methods return modified copies.
+ */
+public final class DatabaseConfig {
+    public static final String CONFIG_FILE_PROPERTY = "hrsm.config";
+    public static final String DEFAULT_CONFIG_FILE = "hrsm.properties";
+    public static final String URL_PROPERTY = "hrsm.db.url";
+    public static final String MODE_PROPERTY = "hrsm.db.mode";
+    public static final String PATH_PROPERTY = "hrsm.db.path";
+    public static final String NAME_PROPERTY = "hrsm.db.name";
+    public static final String PRAGMA_PREFIX = "hrsm.db.pragma.";
+
+    public static final String DEFAULT_PATH = "hr_database.db";
+
+    private static final String JDBC_PREFIX = "jdbc:sqlite:";
+
+    private final String url;
+    private final boolean inMemory;
+    private final Map<String, String> pragmas;
+
+    private DatabaseConfig(String url, boolean inMemory, Map<String, String> pragmas) {
+        this.url = url;
+        this.inMemory = inMemory;
+        this.pragmas = Collections.unmodifiableMap(new LinkedHashMap<>(pragmas));
+    }
+
+    /**
+     * @param file The database file; created on first use.
+     * @return A configuration for an on-disk database.
+     */
+    public static DatabaseConfig file(Path file) {
+        return new DatabaseConfig(JDBC_PREFIX + file, false, Map.of());
+    }
+
+    /**
+     * @return A configuration for a private in-memory database ({@code :memory:}),
+     *         which lives as long as the connection that opened it.
+     */
+    public static DatabaseConfig memory() {
+        return new DatabaseConfig(JDBC_PREFIX + ":memory:", true, Map.of());
+    }
+
+    /**
+     * An in-memory database shared by every connection of the process that uses the same name.
+     * It lives until the last of those connections is closed.
+     *
+     * @param name The database name, or null for the process-wide unnamed database
+     *             ({@code file::memory:?cache=shared}).
+     * @return The configuration.
+     */
+    public static DatabaseConfig sharedMemory(String name) {
+        String location = name == null || name.isBlank()
+                ? "file::memory:?cache=shared"
+                : "file:" + name + "?mode=memory&cache=shared";
+        return new DatabaseConfig(JDBC_PREFIX + location, true, Map.of());
+    }
+
+    /**
+     * Creates an empty database file in the temporary directory, deleted when the JVM exits.
+     * Gives a test its own on-disk database.
+     *
+     * @param prefix Prefix of the file name.
+     * @return A configuration for the new file.
+     * @throws IOException if the file cannot be created.
+     */
+    public static DatabaseConfig tempFile(String prefix) throws IOException {
+        Path file = Files.createTempFile(prefix, ".db");
+        file.toFile().deleteOnExit();
+        return file(file);
+    }
+
+    /**
+     * @param url A complete SQLite JDBC URL.
+     * @return A configuration that opens exactly this URL.
+     */
+    public static DatabaseConfig url(String url) {
+        return new DatabaseConfig(url, url.contains(":memory:") || url.contains("mode=memory"), Map.of());
+    }
+
+    /**
+     * Reads the configuration from the config file and system properties (see the class comment).
+     * Falls back to the {@code hr_database.db} file if nothing is configured or the file is unreadable.
+     *
+     * @return The configuration the application should use.
+     */
+    public static DatabaseConfig load() {
+        Properties settings = new Properties();
+        Path configFile = Path.of(System.getProperty(CONFIG_FILE_PROPERTY, DEFAULT_CONFIG_FILE));
+        if (Files.isRegularFile(configFile)) {
+            try (InputStream in = Files.newInputStream(configFile)) {
+                settings.load(in);
+            } catch (IOException e) {
+                // Error handled by caller or application logic
+            }
+        }
+        // System properties override the config file
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("hrsm.db.")) {
+                settings.setProperty(key, System.getProperty(key));
+            }
+        }
+        return fromProperties(settings);
+    }
+
+    /**
+     * @param settings Settings using the {@code hrsm.db.*} keys described in the class comment.
+     * @return The configuration they describe.
+     * @throws IllegalArgumentException if the mode is unknown.
+     */
+    public static DatabaseConfig fromProperties(Properties settings) {
+        DatabaseConfig config;
+        String url = settings.getProperty(URL_PROPERTY);
+        if (url != null && !url.isBlank()) {
+            config = url(url.trim());
+        } else {
+            String mode = settings.getProperty(MODE_PROPERTY, "file").trim().toLowerCase();
+            config = switch (mode) {
+                case "file" -> file(Path.of(settings.getProperty(PATH_PROPERTY, DEFAULT_PATH).trim()));
+                case "memory" -> memory();
+                case "shared-memory" -> sharedMemory(settings.getProperty(NAME_PROPERTY));
+                default -> throw new IllegalArgumentException("Unknown database mode: " + mode);
+            };
+        }
+        for (String key : settings.stringPropertyNames()) {
+            if (key.startsWith(PRAGMA_PREFIX)) {
+                config = config.withPragma(key.substring(PRAGMA_PREFIX.length()), settings.getProperty(key).trim());
+            }
+        }
+        return config;
+    }
+
+    /**
+     * @param name A pragma the driver applies when opening the connection, e.g. "busy_timeout".
+     * @param value Its value.
+     * @return A copy with the open flag added or replaced.
+     */
+    public DatabaseConfig withPragma(String name, String value) {
+        Map<String, String> newPragmas = new LinkedHashMap<>(pragmas);
+        newPragmas.put(name, value);
+        return new DatabaseConfig(url, inMemory, newPragmas);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return true if the database is held in memory and disappears with its last connection.
+     */
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    /**
+     * @return true for a private in-memory database, which only the connection that opened it can see.
+     */
+    public boolean isPrivateMemory() {
+        return inMemory && !url.contains("cache=shared");
+    }
+
+    public Map<String, String> getPragmas() {
+        return pragmas;
+    }
+
+    /**
+     * @return The open flags as the connection properties the SQLite driver reads.
+     */
+    public Properties toConnectionProperties() {
+        Properties properties = new Properties();
+        pragmas.forEach(properties::setProperty);
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return "DatabaseConfig{" +
+                "url='" + url + '\'' +
+                ", pragmas=" + pragmas +
+                '}';
+    }
+}
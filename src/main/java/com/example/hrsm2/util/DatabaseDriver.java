@@ -3,27 +3,45 @@ package com.example.hrsm2.util;
 import com.example.hrsm2.model.Employee;
 import com.example.hrsm2.model.LeaveRequest;
 import com.example.hrsm2.model.Payroll;
+import com.example.hrsm2.model.PayrollCost;
+import com.example.hrsm2.model.PayrollRun;
 import com.example.hrsm2.model.User;
 import com.example.hrsm2.model.PerformanceEvaluation;
+import com.example.hrsm2.model.RatingStats;
+import com.example.hrsm2.model.TrackedEntity;
+import com.example.hrsm2.repository.EmployeeRepository;
+import com.example.hrsm2.repository.LeaveRequestRepository;
+import com.example.hrsm2.repository.PayrollRepository;
+import com.example.hrsm2.repository.PerformanceEvaluationRepository;
+import com.example.hrsm2.repository.UserRepository;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.lang.reflect.Field;
 
 /**
  * Handles all direct database interactions using JDBC and SQLite.
  * Manages connection, table creation, and CRUD operations for various entities.
+ * Implements every repository interface, so it serves as the SQLite storage engine.
+ * <p>
+ * Multi-statement transactions (employee imports and payroll run chunks) run on a connection of
+ * their own, so reads and single-statement writes from other threads never see a transaction in
+ * progress and do not wait for it. A private in-memory database only exists for the connection
+ * that opened it, so there the transactions share the one connection and hold the driver lock.
  */
-public class DatabaseDriver {
+public class DatabaseDriver implements EmployeeRepository, LeaveRequestRepository, PayrollRepository,
+        PerformanceEvaluationRepository, UserRepository {
 
-    private static final String DB_URL = "jdbc:sqlite:hr_database.db"; // Database file name
     // Formatter for storing/retrieving LocalDate as TEXT in yyyy-MM-dd format
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
@@ -37,7 +55,8 @@ public class DatabaseDriver {
             + "hire_date TEXT, " // Stored as 'yyyy-MM-dd'
             + "department TEXT, "
             + "job_title TEXT, "
-            + "salary REAL"
+            + "salary REAL, "
+            + "version INTEGER NOT NULL DEFAULT 0" // Row version for optimistic locking
             + ");";
 
     private static final String CREATE_LEAVE_TABLE = "CREATE TABLE IF NOT EXISTS LeaveManagement ("
@@ -48,6 +67,7 @@ public class DatabaseDriver {
             + "reason TEXT, "
             + "status TEXT NOT NULL, " // e.g., 'PENDING', 'APPROVED', 'REJECTED'
             + "manager_comments TEXT, "
+            + "version INTEGER NOT NULL DEFAULT 0, " // Row version for optimistic locking
             + "FOREIGN KEY(employee_id) REFERENCES Employee(id) ON DELETE CASCADE" // Cascade delete if employee is removed
             + ");";
 
@@ -63,9 +83,46 @@ public class DatabaseDriver {
             + "other_deductions REAL DEFAULT 0.0, "
             + "net_salary REAL DEFAULT 0.0, "
             + "status TEXT NOT NULL, "                // e.g., 'PENDING', 'PROCESSED', 'PAID'
+            + "version INTEGER NOT NULL DEFAULT 0, "  // Row version for optimistic locking
             + "FOREIGN KEY(employee_id) REFERENCES Employee(id) ON DELETE CASCADE"
             + ");";
 
+    // At most one payroll per employee and pay period; makes re-running a payroll run idempotent
+    private static final String CREATE_PAYROLL_PERIOD_UNIQUE_INDEX = "CREATE UNIQUE INDEX IF NOT EXISTS idx_payroll_employee_period "
+            + "ON Payroll(employee_id, pay_period_start, pay_period_end);";
+    // Fallback used when legacy duplicate rows prevent the unique index from being built
+    private static final String CREATE_PAYROLL_PERIOD_INDEX = "CREATE INDEX IF NOT EXISTS idx_payroll_employee_period_legacy "
+            + "ON Payroll(employee_id, pay_period_start, pay_period_end);";
+
+    // Query indexes: the default listing orders plus the sortable and filterable table columns,
+    // so paged, sorted and filtered table queries walk an index instead of sorting the whole table
+    private static final String[] CREATE_QUERY_INDEXES = {
+            "CREATE INDEX IF NOT EXISTS idx_payroll_listing ON Payroll(pay_period_start DESC, employee_id, id);",
+            "CREATE INDEX IF NOT EXISTS idx_payroll_status ON Payroll(status, pay_period_start DESC);",
+            "CREATE INDEX IF NOT EXISTS idx_payroll_period_end ON Payroll(pay_period_end);",
+            "CREATE INDEX IF NOT EXISTS idx_payroll_net_salary ON Payroll(net_salary);",
+            "CREATE INDEX IF NOT EXISTS idx_leave_listing ON LeaveManagement(start_date DESC, id);",
+            "CREATE INDEX IF NOT EXISTS idx_leave_status ON LeaveManagement(status, start_date DESC);",
+            "CREATE INDEX IF NOT EXISTS idx_leave_employee ON LeaveManagement(employee_id, start_date DESC);",
+            "CREATE INDEX IF NOT EXISTS idx_leave_end_date ON LeaveManagement(end_date);",
+            "CREATE INDEX IF NOT EXISTS idx_evaluation_listing ON PerformanceEvaluations(evaluation_date DESC, employee_id, id);",
+            "CREATE INDEX IF NOT EXISTS idx_evaluation_rating ON PerformanceEvaluations(rating, evaluation_date DESC);",
+            "CREATE INDEX IF NOT EXISTS idx_evaluation_employee ON PerformanceEvaluations(employee_id, evaluation_date DESC);",
+            "CREATE INDEX IF NOT EXISTS idx_employee_department ON Employee(department);",
+            "CREATE INDEX IF NOT EXISTS idx_user_role ON UserManagement(role, full_name);"
+    };
+
+    private static final String CREATE_PAYROLL_RUN_TABLE = "CREATE TABLE IF NOT EXISTS PayrollRuns ("
+            + "id TEXT PRIMARY KEY, "                  // UUID stored as TEXT
+            + "pay_period_start TEXT NOT NULL, "     // Stored as 'yyyy-MM-dd'
+            + "pay_period_end TEXT NOT NULL, "       // Stored as 'yyyy-MM-dd'
+            + "status TEXT NOT NULL, "                // 'RUNNING', 'COMPLETED', 'CANCELLED', 'FAILED'
+            + "total_employees INTEGER DEFAULT 0, "
+            + "committed_count INTEGER DEFAULT 0, "   // Payrolls committed so far (checkpoint)
+            + "committed_chunks INTEGER DEFAULT 0, "
+            + "started_at TEXT, "                    // ISO-8601 timestamp
+            + "updated_at TEXT"
+            + ");";
 
     private static final String CREATE_EVALUATION_TABLE = "CREATE TABLE IF NOT EXISTS PerformanceEvaluations ("
             + "id TEXT PRIMARY KEY, "                  // Store UUID as TEXT
@@ -76,9 +133,79 @@ public class DatabaseDriver {
             + "areas_for_improvement TEXT, "
             + "comments TEXT, "
             + "reviewed_by TEXT, "                    // Reviewer's name or ID
+            + "version INTEGER NOT NULL DEFAULT 0, "  // Row version for optimistic locking
             + "FOREIGN KEY(employee_id) REFERENCES Employee(id) ON DELETE CASCADE" // Cascade delete
             + ");";
 
+    // --- Rating Aggregates (maintained by triggers on PerformanceEvaluations) ---
+    private static final String CREATE_RATING_STATS_TABLE = "CREATE TABLE IF NOT EXISTS EmployeeRatingStats ("
+            + "employee_id TEXT PRIMARY KEY, "
+            + "evaluation_count INTEGER NOT NULL, "
+            + "rating_sum INTEGER NOT NULL, "
+            + "min_rating INTEGER, "
+            + "max_rating INTEGER, "
+            + "last_evaluation_date TEXT"             // Stored as 'yyyy-MM-dd'
+            + ");";
+
+    private static final String CREATE_RATING_DISTRIBUTION_TABLE = "CREATE TABLE IF NOT EXISTS EmployeeRatingDistribution ("
+            + "employee_id TEXT NOT NULL, "
+            + "rating INTEGER NOT NULL, "
+            + "evaluation_count INTEGER NOT NULL, "   // Evaluations of this employee with this rating
+            + "PRIMARY KEY(employee_id, rating)"
+            + ");";
+
+    // Fill the aggregates for databases created before they existed; a no-op once they hold rows
+    private static final String[] BACKFILL_RATING_AGGREGATES = {
+            "INSERT INTO EmployeeRatingStats(employee_id, evaluation_count, rating_sum, min_rating, max_rating, last_evaluation_date) "
+                    + "SELECT employee_id, COUNT(*), SUM(rating), MIN(rating), MAX(rating), MAX(evaluation_date) "
+                    + "FROM PerformanceEvaluations WHERE NOT EXISTS (SELECT 1 FROM EmployeeRatingStats) GROUP BY employee_id;",
+            "INSERT INTO EmployeeRatingDistribution(employee_id, rating, evaluation_count) "
+                    + "SELECT employee_id, rating, COUNT(*) "
+                    + "FROM PerformanceEvaluations WHERE NOT EXISTS (SELECT 1 FROM EmployeeRatingDistribution) GROUP BY employee_id, rating;"
+    };
+
+    // Trigger body that counts the NEW row into the aggregates
+    private static final String RATING_AGGREGATES_ADD_NEW =
+            "INSERT INTO EmployeeRatingStats(employee_id, evaluation_count, rating_sum, min_rating, max_rating, last_evaluation_date) "
+                    + "VALUES(NEW.employee_id, 1, NEW.rating, NEW.rating, NEW.rating, NEW.evaluation_date) "
+                    + "ON CONFLICT(employee_id) DO UPDATE SET "
+                    + "evaluation_count = evaluation_count + 1, "
+                    + "rating_sum = rating_sum + excluded.rating_sum, "
+                    + "min_rating = MIN(min_rating, excluded.min_rating), "
+                    + "max_rating = MAX(max_rating, excluded.max_rating), "
+                    + "last_evaluation_date = MAX(last_evaluation_date, excluded.last_evaluation_date); "
+                    + "INSERT INTO EmployeeRatingDistribution(employee_id, rating, evaluation_count) "
+                    + "VALUES(NEW.employee_id, NEW.rating, 1) "
+                    + "ON CONFLICT(employee_id, rating) DO UPDATE SET evaluation_count = evaluation_count + 1; ";
+
+    // Trigger body that takes the OLD row out of the aggregates. Count and sum are decremented;
+    // min and max come from the employee's distribution rows and the last date from the
+    // employee index, so removal never rescans the employee's evaluations.
+    private static final String RATING_AGGREGATES_REMOVE_OLD =
+            "UPDATE EmployeeRatingDistribution SET evaluation_count = evaluation_count - 1 "
+                    + "WHERE employee_id = OLD.employee_id AND rating = OLD.rating; "
+                    + "DELETE FROM EmployeeRatingDistribution "
+                    + "WHERE employee_id = OLD.employee_id AND rating = OLD.rating AND evaluation_count <= 0; "
+                    + "UPDATE EmployeeRatingStats SET "
+                    + "evaluation_count = evaluation_count - 1, "
+                    + "rating_sum = rating_sum - OLD.rating, "
+                    + "min_rating = (SELECT MIN(rating) FROM EmployeeRatingDistribution WHERE employee_id = OLD.employee_id), "
+                    + "max_rating = (SELECT MAX(rating) FROM EmployeeRatingDistribution WHERE employee_id = OLD.employee_id), "
+                    + "last_evaluation_date = (SELECT MAX(evaluation_date) FROM PerformanceEvaluations WHERE employee_id = OLD.employee_id) "
+                    + "WHERE employee_id = OLD.employee_id; "
+                    + "DELETE FROM EmployeeRatingStats WHERE employee_id = OLD.employee_id AND evaluation_count <= 0; ";
+
+    // Triggers run inside the statement's transaction, so the aggregates commit or roll back with the evaluation
+    private static final String[] CREATE_RATING_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS trg_evaluation_rating_insert AFTER INSERT ON PerformanceEvaluations BEGIN "
+                    + RATING_AGGREGATES_ADD_NEW + "END;",
+            "CREATE TRIGGER IF NOT EXISTS trg_evaluation_rating_delete AFTER DELETE ON PerformanceEvaluations BEGIN "
+                    + RATING_AGGREGATES_REMOVE_OLD + "END;",
+            "CREATE TRIGGER IF NOT EXISTS trg_evaluation_rating_update AFTER UPDATE OF employee_id, rating, evaluation_date "
+                    + "ON PerformanceEvaluations BEGIN "
+                    + RATING_AGGREGATES_REMOVE_OLD + RATING_AGGREGATES_ADD_NEW + "END;"
+    };
+
     private static final String CREATE_USER_TABLE = "CREATE TABLE IF NOT EXISTS UserManagement ("
             + "username TEXT PRIMARY KEY, "
             + "full_name TEXT NOT NULL, "
@@ -89,8 +216,9 @@ public class DatabaseDriver {
     // --- SQL CRUD Statements for Employee ---
     private static final String INSERT_EMPLOYEE_SQL = "INSERT INTO Employee(id, first_name, last_name, email, phone, hire_date, department, job_title, salary) VALUES(?,?,?,?,?,?,?,?,?)";
     private static final String SELECT_ALL_EMPLOYEES_SQL = "SELECT * FROM Employee ORDER BY last_name, first_name";
+    private static final String EMPLOYEE_LISTING_ORDER = "last_name, first_name, id";
     private static final String SELECT_EMPLOYEE_BY_ID_SQL = "SELECT * FROM Employee WHERE id = ?";
-    private static final String UPDATE_EMPLOYEE_SQL = "UPDATE Employee SET first_name = ?, last_name = ?, email = ?, phone = ?, hire_date = ?, department = ?, job_title = ?, salary = ? WHERE id = ?";
+    private static final String UPDATE_EMPLOYEE_SQL = "UPDATE Employee SET first_name = ?, last_name = ?, email = ?, phone = ?, hire_date = ?, department = ?, job_title = ?, salary = ?, version = version + 1 WHERE id = ?";
     private static final String DELETE_EMPLOYEE_SQL = "DELETE FROM Employee WHERE id = ?";
     private static final String SEARCH_EMPLOYEES_SQL = "SELECT * FROM Employee WHERE "
             + "lower(first_name) LIKE ? OR "
@@ -103,17 +231,27 @@ public class DatabaseDriver {
     // --- SQL CRUD Statements for LeaveManagement ---
     private static final String INSERT_LEAVE_SQL = "INSERT INTO LeaveManagement(employee_id, start_date, end_date, reason, status, manager_comments) VALUES(?,?,?,?,?,?)";
     private static final String SELECT_ALL_LEAVES_SQL = "SELECT * FROM LeaveManagement ORDER BY start_date DESC";
+    // Default order of paged queries: as SELECT_ALL_LEAVES_SQL, the id tie-breaker keeps page boundaries stable
+    private static final String LEAVE_LISTING_ORDER = "start_date DESC, id";
     private static final String SELECT_LEAVE_BY_ID_SQL = "SELECT * FROM LeaveManagement WHERE id = ?";
     private static final String SELECT_LEAVES_BY_EMPLOYEE_ID_SQL = "SELECT * FROM LeaveManagement WHERE employee_id = ? ORDER BY start_date DESC";
+    // Range queries: a request overlaps [from, to] if it starts on or before 'to' and ends on or after 'from'
+    private static final String SELECT_LEAVES_OVERLAPPING_SQL = "SELECT * FROM LeaveManagement "
+            + "WHERE start_date <= ? AND end_date >= ? ORDER BY start_date DESC, id";
+    private static final String SELECT_EMPLOYEE_LEAVES_OVERLAPPING_SQL = "SELECT * FROM LeaveManagement "
+            + "WHERE employee_id = ? AND start_date <= ? AND end_date >= ? ORDER BY start_date DESC, id";
     private static final String SELECT_APPROVED_LEAVES_BY_EMPLOYEE_ID_SQL = "SELECT * FROM LeaveManagement WHERE employee_id = ? AND status = 'APPROVED'";
-    private static final String UPDATE_LEAVE_SQL = "UPDATE LeaveManagement SET employee_id = ?, start_date = ?, end_date = ?, reason = ?, status = ?, manager_comments = ? WHERE id = ?";
+    private static final String UPDATE_LEAVE_SQL = "UPDATE LeaveManagement SET employee_id = ?, start_date = ?, end_date = ?, reason = ?, status = ?, manager_comments = ?, version = version + 1 WHERE id = ?";
     private static final String DELETE_LEAVE_SQL = "DELETE FROM LeaveManagement WHERE id = ?";
 
     // --- SQL CRUD Statements for User ---
     private static final String INSERT_USER_SQL = "INSERT INTO UserManagement(username, full_name, password, role) VALUES(?,?,?,?)";
     private static final String SELECT_ALL_USERS_SQL = "SELECT * FROM UserManagement ORDER BY full_name";
+    private static final String SELECT_USERS_BY_ROLE_SQL = "SELECT * FROM UserManagement WHERE role = ? ORDER BY full_name";
     private static final String SELECT_USER_BY_USERNAME_SQL = "SELECT * FROM UserManagement WHERE username = ?";
     private static final String UPDATE_USER_SQL = "UPDATE UserManagement SET full_name = ?, password = ?, role = ? WHERE username = ?";
+    // Password-only and conditional, for upgrading a hash on login
+    private static final String UPDATE_USER_PASSWORD_HASH_SQL = "UPDATE UserManagement SET password = ? WHERE username = ? AND password = ?";
     private static final String DELETE_USER_SQL = "DELETE FROM UserManagement WHERE username = ?";
 
     // --- SQL CRUD Statements for Payroll ---
@@ -122,13 +260,45 @@ public class DatabaseDriver {
             + "overtime_pay, bonus, tax_deductions, other_deductions, net_salary, status) "
             + "VALUES(?,?,?,?,?,?,?,?,?,?,?)";
     private static final String SELECT_ALL_PAYROLLS_SQL = "SELECT * FROM Payroll ORDER BY pay_period_start DESC, employee_id";
+    private static final String PAYROLL_LISTING_ORDER = "pay_period_start DESC, employee_id, id";
     private static final String SELECT_PAYROLL_BY_ID_SQL = "SELECT * FROM Payroll WHERE id = ?";
+    // Payrolls whose pay period overlaps [from, to]
+    private static final String SELECT_PAYROLLS_OVERLAPPING_SQL = "SELECT * FROM Payroll "
+            + "WHERE pay_period_start <= ? AND pay_period_end >= ? ORDER BY pay_period_start DESC, employee_id, id";
     private static final String SELECT_PAYROLLS_BY_EMPLOYEE_ID_SQL = "SELECT * FROM Payroll WHERE employee_id = ? ORDER BY pay_period_start DESC";
     private static final String UPDATE_PAYROLL_SQL = "UPDATE Payroll SET "
             + "employee_id = ?, pay_period_start = ?, pay_period_end = ?, base_salary = ?, "
             + "overtime_pay = ?, bonus = ?, tax_deductions = ?, other_deductions = ?, "
-            + "net_salary = ?, status = ? WHERE id = ?";
+            + "net_salary = ?, status = ?, version = version + 1 WHERE id = ?";
     private static final String DELETE_PAYROLL_SQL = "DELETE FROM Payroll WHERE id = ?";
+    // Inserts the payroll only if the employee has none for that period yet
+    private static final String INSERT_PAYROLL_IF_ABSENT_SQL = "INSERT INTO Payroll("
+            + "id, employee_id, pay_period_start, pay_period_end, base_salary, "
+            + "overtime_pay, bonus, tax_deductions, other_deductions, net_salary, status) "
+            + "SELECT ?,?,?,?,?,?,?,?,?,?,? WHERE NOT EXISTS ("
+            + "SELECT 1 FROM Payroll WHERE employee_id = ? AND pay_period_start = ? AND pay_period_end = ?)";
+    // Conditional status transitions: only rows still in the expected status are changed
+    // Transitions return the updated rows so change events carry the new state without a re-read
+    private static final String TRANSITION_PAYROLL_STATUS_SQL = "UPDATE Payroll SET status = ?, version = version + 1 WHERE id = ? AND status = ? RETURNING *";
+    private static final String TRANSITION_PAYROLLS_FOR_PERIOD_SQL = "UPDATE Payroll SET status = ?, version = version + 1 "
+            + "WHERE status = ? AND pay_period_start = ? AND pay_period_end = ? RETURNING *";
+    private static final String TRANSITION_ALL_PAYROLLS_SQL = "UPDATE Payroll SET status = ?, version = version + 1 WHERE status = ? RETURNING *";
+    private static final String SELECT_PAYROLL_FOR_PERIOD_SQL = "SELECT * FROM Payroll "
+            + "WHERE employee_id = ? AND pay_period_start = ? AND pay_period_end = ?";
+    private static final String SELECT_EMPLOYEES_WITHOUT_PAYROLL_SQL = "SELECT e.* FROM Employee e WHERE NOT EXISTS ("
+            + "SELECT 1 FROM Payroll p WHERE p.employee_id = e.id AND p.pay_period_start = ? AND p.pay_period_end = ?) "
+            + "ORDER BY e.id";
+
+    // --- SQL CRUD Statements for PayrollRun ---
+    private static final String INSERT_PAYROLL_RUN_SQL = "INSERT INTO PayrollRuns("
+            + "id, pay_period_start, pay_period_end, status, total_employees, committed_count, "
+            + "committed_chunks, started_at, updated_at) VALUES(?,?,?,?,?,?,?,?,?)";
+    private static final String SELECT_LATEST_PAYROLL_RUN_SQL = "SELECT * FROM PayrollRuns "
+            + "WHERE pay_period_start = ? AND pay_period_end = ? ORDER BY started_at DESC LIMIT 1";
+    private static final String UPDATE_PAYROLL_RUN_STATUS_SQL = "UPDATE PayrollRuns SET "
+            + "status = ?, total_employees = ?, updated_at = ? WHERE id = ?";
+    private static final String UPDATE_PAYROLL_RUN_PROGRESS_SQL = "UPDATE PayrollRuns SET "
+            + "committed_count = committed_count + ?, committed_chunks = committed_chunks + 1, updated_at = ? WHERE id = ?";
 
     // --- SQL CRUD Statements for PerformanceEvaluation ---
     private static final String INSERT_EVALUATION_SQL = "INSERT INTO PerformanceEvaluations("
@@ -136,31 +306,160 @@ public class DatabaseDriver {
             + "areas_for_improvement, comments, reviewed_by) "
             + "VALUES(?,?,?,?,?,?,?,?)";
     private static final String SELECT_ALL_EVALUATIONS_SQL = "SELECT * FROM PerformanceEvaluations ORDER BY evaluation_date DESC, employee_id";
+    private static final String EVALUATION_LISTING_ORDER = "evaluation_date DESC, employee_id, id";
     private static final String SELECT_EVALUATION_BY_ID_SQL = "SELECT * FROM PerformanceEvaluations WHERE id = ?";
+    private static final String SELECT_EVALUATIONS_BETWEEN_SQL = "SELECT * FROM PerformanceEvaluations "
+            + "WHERE evaluation_date BETWEEN ? AND ? ORDER BY evaluation_date DESC, employee_id, id";
     private static final String SELECT_EVALUATIONS_BY_EMPLOYEE_ID_SQL = "SELECT * FROM PerformanceEvaluations WHERE employee_id = ? ORDER BY evaluation_date DESC";
     private static final String UPDATE_EVALUATION_SQL = "UPDATE PerformanceEvaluations SET "
             + "employee_id = ?, evaluation_date = ?, rating = ?, strengths = ?, "
-            + "areas_for_improvement = ?, comments = ?, reviewed_by = ? WHERE id = ?";
+            + "areas_for_improvement = ?, comments = ?, reviewed_by = ?, version = version + 1 WHERE id = ?";
     private static final String DELETE_EVALUATION_SQL = "DELETE FROM PerformanceEvaluations WHERE id = ?";
 
+    // --- SQL Queries for Rating Aggregates ---
+    private static final String RATING_STATS_COLUMNS = "SUM(s.evaluation_count) AS evaluation_count, SUM(s.rating_sum) AS rating_sum, "
+            + "MIN(s.min_rating) AS min_rating, MAX(s.max_rating) AS max_rating, MAX(s.last_evaluation_date) AS last_evaluation_date";
+    private static final String SELECT_EMPLOYEE_RATING_STATS_SQL = "SELECT s.employee_id AS group_key, " + RATING_STATS_COLUMNS
+            + " FROM EmployeeRatingStats s WHERE s.employee_id = ? GROUP BY s.employee_id";
+    private static final String SELECT_EMPLOYEE_RATING_DISTRIBUTION_SQL = "SELECT employee_id AS group_key, rating, evaluation_count "
+            + "FROM EmployeeRatingDistribution WHERE employee_id = ?";
+    private static final String SELECT_AVERAGE_RATINGS_SQL = "SELECT employee_id, CAST(rating_sum AS REAL) / evaluation_count AS average_rating "
+            + "FROM EmployeeRatingStats WHERE evaluation_count > 0";
+    private static final String SELECT_DEPARTMENT_RATING_STATS_SQL = "SELECT e.department AS group_key, " + RATING_STATS_COLUMNS
+            + " FROM EmployeeRatingStats s JOIN Employee e ON e.id = s.employee_id GROUP BY e.department";
+    private static final String SELECT_DEPARTMENT_RATING_DISTRIBUTION_SQL = "SELECT e.department AS group_key, d.rating, "
+            + "SUM(d.evaluation_count) AS evaluation_count FROM EmployeeRatingDistribution d "
+            + "JOIN Employee e ON e.id = d.employee_id GROUP BY e.department, d.rating";
+    private static final String SELECT_COMPANY_RATING_STATS_SQL = "SELECT NULL AS group_key, " + RATING_STATS_COLUMNS
+            + " FROM EmployeeRatingStats s";
+    private static final String SELECT_COMPANY_RATING_DISTRIBUTION_SQL = "SELECT NULL AS group_key, rating, "
+            + "SUM(evaluation_count) AS evaluation_count FROM EmployeeRatingDistribution GROUP BY rating";
+
+    // --- SQL Queries for Department Analytics ---
+    private static final String SELECT_HEADCOUNT_BY_DEPARTMENT_SQL = "SELECT department, COUNT(*) AS headcount "
+            + "FROM Employee GROUP BY department ORDER BY department";
+    private static final String PAYROLL_COST_SELECT = "SELECT e.department, p.pay_period_start, p.pay_period_end, "
+            + "COUNT(*) AS payroll_count, "
+            + "SUM(p.base_salary + p.overtime_pay + p.bonus) AS total_gross, "
+            + "SUM(p.net_salary) AS total_net "
+            + "FROM Payroll p LEFT JOIN Employee e ON e.id = p.employee_id ";
+    private static final String PAYROLL_COST_GROUPING = "GROUP BY e.department, p.pay_period_start, p.pay_period_end "
+            + "ORDER BY p.pay_period_start DESC, p.pay_period_end DESC, e.department";
+    private static final String SELECT_PAYROLL_COST_SQL = PAYROLL_COST_SELECT + PAYROLL_COST_GROUPING;
+    private static final String SELECT_PAYROLL_COST_FOR_PERIOD_SQL = PAYROLL_COST_SELECT
+            + "WHERE p.pay_period_start = ? AND p.pay_period_end = ? " + PAYROLL_COST_GROUPING;
+    // Approved leave days inside [from, to]; requests straddling the range count only their overlap
+    private static final String SELECT_LEAVE_DAYS_BY_DEPARTMENT_SQL = "SELECT e.department, "
+            + "SUM(julianday(MIN(l.end_date, ?)) - julianday(MAX(l.start_date, ?)) + 1) AS leave_days "
+            + "FROM LeaveManagement l JOIN Employee e ON e.id = l.employee_id "
+            + "WHERE l.status = 'APPROVED' AND l.start_date <= ? AND l.end_date >= ? "
+            + "GROUP BY e.department";
+
+    // --- Optimistic Locking ---
+    // Appended to UPDATE statements for entities whose loaded version is known
+    private static final String VERSION_CONDITION = " AND version = ?";
+    // Every versioned UPDATE reports the new version, or no row if nothing matched
+    private static final String RETURNING_VERSION = " RETURNING version";
+    // Tables that carry a version column (migrated on startup for older databases)
+    private static final String[] VERSIONED_TABLES = {"Employee", "LeaveManagement", "Payroll", "PerformanceEvaluations"};
+
+    // --- Column Mappings for Partial Updates (model field name -> column) ---
+    private static final Map<String, ColumnBinding<Employee>> EMPLOYEE_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, ColumnBinding<LeaveRequest>> LEAVE_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, ColumnBinding<Payroll>> PAYROLL_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, ColumnBinding<PerformanceEvaluation>> EVALUATION_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        EMPLOYEE_COLUMNS.put("firstName", new ColumnBinding<>("first_name", Employee::getFirstName));
+        EMPLOYEE_COLUMNS.put("lastName", new ColumnBinding<>("last_name", Employee::getLastName));
+        EMPLOYEE_COLUMNS.put("email", new ColumnBinding<>("email", Employee::getEmail));
+        EMPLOYEE_COLUMNS.put("phone", new ColumnBinding<>("phone", Employee::getPhone));
+        EMPLOYEE_COLUMNS.put("hireDate", new ColumnBinding<>("hire_date", Employee::getHireDate));
+        EMPLOYEE_COLUMNS.put("department", new ColumnBinding<>("department", Employee::getDepartment));
+        EMPLOYEE_COLUMNS.put("jobTitle", new ColumnBinding<>("job_title", Employee::getJobTitle));
+        EMPLOYEE_COLUMNS.put("salary", new ColumnBinding<>("salary", Employee::getSalary));
+
+        LEAVE_COLUMNS.put("employeeId", new ColumnBinding<>("employee_id", LeaveRequest::getEmployeeId));
+        LEAVE_COLUMNS.put("startDate", new ColumnBinding<>("start_date", LeaveRequest::getStartDate));
+        LEAVE_COLUMNS.put("endDate", new ColumnBinding<>("end_date", LeaveRequest::getEndDate));
+        LEAVE_COLUMNS.put("reason", new ColumnBinding<>("reason", LeaveRequest::getReason));
+        LEAVE_COLUMNS.put("status", new ColumnBinding<>("status", LeaveRequest::getStatus));
+        LEAVE_COLUMNS.put("managerComments", new ColumnBinding<>("manager_comments", LeaveRequest::getManagerComments));
+
+        PAYROLL_COLUMNS.put("employeeId", new ColumnBinding<>("employee_id", Payroll::getEmployeeId));
+        PAYROLL_COLUMNS.put("payPeriodStart", new ColumnBinding<>("pay_period_start", Payroll::getPayPeriodStart));
+        PAYROLL_COLUMNS.put("payPeriodEnd", new ColumnBinding<>("pay_period_end", Payroll::getPayPeriodEnd));
+        PAYROLL_COLUMNS.put("baseSalary", new ColumnBinding<>("base_salary", Payroll::getBaseSalary));
+        PAYROLL_COLUMNS.put("overtimePay", new ColumnBinding<>("overtime_pay", Payroll::getOvertimePay));
+        PAYROLL_COLUMNS.put("bonus", new ColumnBinding<>("bonus", Payroll::getBonus));
+        PAYROLL_COLUMNS.put("taxDeductions", new ColumnBinding<>("tax_deductions", Payroll::getTaxDeductions));
+        PAYROLL_COLUMNS.put("otherDeductions", new ColumnBinding<>("other_deductions", Payroll::getOtherDeductions));
+        PAYROLL_COLUMNS.put("netSalary", new ColumnBinding<>("net_salary", Payroll::getNetSalary));
+        PAYROLL_COLUMNS.put("status", new ColumnBinding<>("status", Payroll::getStatus));
+
+        EVALUATION_COLUMNS.put("employeeId", new ColumnBinding<>("employee_id", PerformanceEvaluation::getEmployeeId));
+        EVALUATION_COLUMNS.put("evaluationDate", new ColumnBinding<>("evaluation_date", PerformanceEvaluation::getEvaluationDate));
+        EVALUATION_COLUMNS.put("performanceRating", new ColumnBinding<>("rating", PerformanceEvaluation::getPerformanceRating));
+        EVALUATION_COLUMNS.put("strengths", new ColumnBinding<>("strengths", PerformanceEvaluation::getStrengths));
+        EVALUATION_COLUMNS.put("areasForImprovement", new ColumnBinding<>("areas_for_improvement", PerformanceEvaluation::getAreasForImprovement));
+        EVALUATION_COLUMNS.put("comments", new ColumnBinding<>("comments", PerformanceEvaluation::getComments));
+        EVALUATION_COLUMNS.put("reviewedBy", new ColumnBinding<>("reviewed_by", PerformanceEvaluation::getReviewedBy));
+    }
+
+    /**
+     * Maps a model field to its column and value accessor.
+     */
+    private record ColumnBinding<T>(String column, Function<T, Object> getter) {
+    }
+
+    // Generated partial UPDATE statements, keyed by table and column set
+    private final Map<String, String> partialUpdateSqlCache = new ConcurrentHashMap<>();
+
+    // Shared by every caller for reads and single-statement writes; always in autocommit mode
     private Connection connection;
+    // Used only by multi-statement transactions, one at a time; the shared connection for in-memory databases
+    private Connection batchConnection;
+    // Guards batchConnection. When it is the shared connection this is the driver itself, so the
+    // (synchronized) single-statement writes wait for a transaction instead of joining it
+    private final Object batchLock;
 
     // --- Singleton Pattern ---
     private static DatabaseDriver instance;
 
+    // Where the database lives and how the connection is opened
+    private final DatabaseConfig config;
+
     /**
-     * Private constructor for Singleton pattern.
+     * Opens the database configured by {@link DatabaseConfig#load()}.
      * Establishes the database connection and ensures tables exist.
      */
     public DatabaseDriver() {
+        this(DatabaseConfig.load());
+    }
+
+    /**
+     * Opens the given database, e.g. an in-memory or temporary one for tests.
+     * Establishes the database connection and ensures tables exist.
+     *
+     * @param config The database location and open flags.
+     */
+    public DatabaseDriver(DatabaseConfig config) {
+        this.config = config;
+        // Two connections to one file wait for each other's commits instead of failing at once
+        DatabaseConfig opened = config.isInMemory() || config.getPragmas().containsKey("busy_timeout")
+                ? config : config.withPragma("busy_timeout", "5000");
         try {
-            connection = DriverManager.getConnection(DB_URL);
+            connection = DriverManager.getConnection(opened.getUrl(), opened.toConnectionProperties());
             createTableIfNotExists();
             // Ensure the super admin exists on first run or subsequent startups
             ensureSuperAdminExists();
+            batchConnection = config.isInMemory()
+                    ? connection
+                    : DriverManager.getConnection(opened.getUrl(), opened.toConnectionProperties());
         } catch (SQLException e) {
             // Error handled by caller or application logic
         }
+        batchLock = batchConnection == null || batchConnection == connection ? this : new Object();
     }
 
     /**
@@ -186,6 +485,85 @@ public class DatabaseDriver {
             stmt.execute(CREATE_PAYROLL_TABLE);
             stmt.execute(CREATE_EVALUATION_TABLE);
             stmt.execute(CREATE_USER_TABLE);
+            stmt.execute(CREATE_PAYROLL_RUN_TABLE);
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+        }
+        for (String table : VERSIONED_TABLES) {
+            ensureVersionColumn(table);
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(CREATE_PAYROLL_PERIOD_UNIQUE_INDEX);
+        } catch (SQLException e) {
+            // Existing duplicate payrolls block the unique index; keep the lookup fast anyway
+            System.err.println("Duplicate payrolls found for the same employee and period; uniqueness is not enforced until they are removed.");
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(CREATE_PAYROLL_PERIOD_INDEX);
+            } catch (SQLException indexError) {
+                // Error handled by caller or application logic
+            }
+        }
+        try (Statement stmt = connection.createStatement()) {
+            for (String index : CREATE_QUERY_INDEXES) {
+                stmt.execute(index);
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+        }
+        createRatingAggregates();
+    }
+
+    /**
+     * Creates the rating aggregate tables, backfills them from existing evaluations and
+     * installs the triggers that keep them in step with PerformanceEvaluations.
+     * Runs in one transaction so the backfill and the triggers see the same rows.
+     */
+    private void createRatingAggregates() {
+        boolean previousAutoCommit = true;
+        try {
+            previousAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(CREATE_RATING_STATS_TABLE);
+                stmt.execute(CREATE_RATING_DISTRIBUTION_TABLE);
+                for (String backfill : BACKFILL_RATING_AGGREGATES) {
+                    stmt.execute(backfill);
+                }
+                for (String trigger : CREATE_RATING_TRIGGERS) {
+                    stmt.execute(trigger);
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                // Error handled by caller or application logic
+            }
+        } finally {
+            try {
+                connection.setAutoCommit(previousAutoCommit);
+            } catch (SQLException e) {
+                // Error handled by caller or application logic
+            }
+        }
+    }
+
+    /**
+     * Adds the optimistic-locking version column to tables created before it existed.
+     *
+     * @param table The table to migrate.
+     */
+    private void ensureVersionColumn(String table) {
+        try (Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+                while (rs.next()) {
+                    if ("version".equalsIgnoreCase(rs.getString("name"))) {
+                        return;
+                    }
+                }
+            }
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN version INTEGER NOT NULL DEFAULT 0");
         } catch (SQLException e) {
             // Error handled by caller or application logic
         }
@@ -200,24 +578,19 @@ public class DatabaseDriver {
      * @param employee The Employee object to insert.
      * @return true if insertion was successful, false otherwise.
      */
-    public boolean insertEmployee(Employee employee) {
+    public synchronized boolean insertEmployee(Employee employee) {
         if (connection == null || employee == null || employee.getId() == null || employee.getId().trim().isEmpty()) {
             return false;
         }
 
         try (PreparedStatement pstmt = connection.prepareStatement(INSERT_EMPLOYEE_SQL)) {
-            pstmt.setString(1, employee.getId()); // Use the pre-generated UUID
-            pstmt.setString(2, employee.getFirstName());
-            pstmt.setString(3, employee.getLastName());
-            pstmt.setString(4, employee.getEmail());
-            pstmt.setString(5, employee.getPhone());
-            // Format LocalDate to String or null
-            pstmt.setString(6, (employee.getHireDate() != null) ? employee.getHireDate().format(DATE_FORMATTER) : null);
-            pstmt.setString(7, employee.getDepartment());
-            pstmt.setString(8, employee.getJobTitle());
-            pstmt.setDouble(9, employee.getSalary());
+            bindEmployeeInsert(pstmt, employee);
 
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                employee.setVersion(0); // Column default for new rows
+                employee.markClean();
+            }
             return affectedRows > 0;
 
         } catch (SQLException e) {
@@ -228,6 +601,78 @@ public class DatabaseDriver {
         }
     }
 
+    /**
+     * Inserts several employees in a single transaction.
+     * A row that violates a constraint (e.g. a duplicate email) is skipped without
+     * aborting the others, so an import saves every valid employee with one commit.
+     * Runs on the transaction connection (see the class comment).
+     *
+     * @param employees The employees to insert; each must already have an ID.
+     * @return The employees that were inserted, or null if the transaction failed.
+     */
+    public List<Employee> insertEmployees(List<Employee> employees) {
+        if (batchConnection == null || employees == null) {
+            return null;
+        }
+        synchronized (batchLock) {
+            return insertEmployeesInTransaction(batchConnection, employees);
+        }
+    }
+
+    private List<Employee> insertEmployeesInTransaction(Connection tx, List<Employee> employees) {
+        boolean previousAutoCommit = true;
+        try {
+            previousAutoCommit = tx.getAutoCommit();
+            tx.setAutoCommit(false);
+            List<Employee> inserted = new ArrayList<>();
+            try (PreparedStatement pstmt = tx.prepareStatement(INSERT_EMPLOYEE_SQL)) {
+                for (Employee employee : employees) {
+                    if (employee == null || employee.getId() == null || employee.getId().trim().isEmpty()) {
+                        continue;
+                    }
+                    bindEmployeeInsert(pstmt, employee);
+                    try {
+                        if (pstmt.executeUpdate() > 0) {
+                            employee.setVersion(0);
+                            employee.markClean();
+                            inserted.add(employee);
+                        }
+                    } catch (SQLException rowError) {
+                        // Constraint violation on this row only; the transaction stays usable
+                    }
+                }
+            }
+            tx.commit();
+            return inserted;
+        } catch (SQLException e) {
+            try {
+                tx.rollback();
+            } catch (SQLException rollbackError) {
+                // Error handled by caller or application logic
+            }
+            return null;
+        } finally {
+            try {
+                tx.setAutoCommit(previousAutoCommit);
+            } catch (SQLException e) {
+                // Error handled by caller or application logic
+            }
+        }
+    }
+
+    private void bindEmployeeInsert(PreparedStatement pstmt, Employee employee) throws SQLException {
+        pstmt.setString(1, employee.getId()); // Use the pre-generated UUID
+        pstmt.setString(2, employee.getFirstName());
+        pstmt.setString(3, employee.getLastName());
+        pstmt.setString(4, employee.getEmail());
+        pstmt.setString(5, employee.getPhone());
+        // Format LocalDate to String or null
+        pstmt.setString(6, (employee.getHireDate() != null) ? employee.getHireDate().format(DATE_FORMATTER) : null);
+        pstmt.setString(7, employee.getDepartment());
+        pstmt.setString(8, employee.getJobTitle());
+        pstmt.setDouble(9, employee.getSalary());
+    }
+
     /**
      * Retrieves all employee records from the database, ordered by name.
      *
@@ -251,6 +696,36 @@ public class DatabaseDriver {
         return employees;
     }
 
+    /**
+     * Counts the employee records matching a query, for sizing a paged table.
+     *
+     * @param spec The filters to apply (its sort keys are ignored).
+     * @return The number of matching rows, or 0 if an error occurs.
+     */
+    public int countEmployees(QuerySpec spec) {
+        return countMatching("Employee", compileQuery(EMPLOYEE_COLUMNS, employeeQuery(spec), EMPLOYEE_LISTING_ORDER));
+    }
+
+    /**
+     * Retrieves one page of employee records matching a query, in the query's order
+     * (or by name if it has no sort keys).
+     *
+     * @param spec The filters and sort keys.
+     * @param offset Index of the first row to return.
+     * @param limit Maximum number of rows to return.
+     * @return The rows of the page, or an empty list if none found or error occurs.
+     */
+    public List<Employee> getEmployeePage(QuerySpec spec, int offset, int limit) {
+        return queryPage("Employee", compileQuery(EMPLOYEE_COLUMNS, employeeQuery(spec), EMPLOYEE_LISTING_ORDER),
+                offset, limit, this::mapResultSetToEmployee);
+    }
+
+    // The Employee table has no employee_id to join on; its department filter is a plain column filter
+    private static QuerySpec employeeQuery(QuerySpec spec) {
+        String department = spec.getDepartment();
+        return department == null ? spec : spec.withDepartment(null).withEquals("department", department);
+    }
+
     /**
      * Retrieves a single employee by their String ID (UUID).
      *
@@ -280,16 +755,31 @@ public class DatabaseDriver {
 
     /**
      * Updates an existing employee record in the database.
+     * Entities loaded from the database, or given a version by the caller, are only written if the
+     * row still has that version; otherwise {@link UpdateResult#CONFLICT} is returned. A loaded
+     * entity with no changes is not written at all.
      *
      * @param employee The Employee object containing updated data (must have correct ID).
-     * @return true if the update was successful (at least one row affected), false otherwise.
+     * @return The outcome of the update.
      */
-    public boolean updateEmployee(Employee employee) {
+    public synchronized UpdateResult tryUpdateEmployee(Employee employee) {
         if (connection == null || employee == null || employee.getId() == null || employee.getId().trim().isEmpty()) {
-            return false;
+            return UpdateResult.ERROR;
+        }
+
+        // Nothing changed since the row was loaded or saved: nothing to write, and the version stays
+        if (employee.isUnchanged()) {
+            return checkUnchanged("Employee", employee.getId(), employee);
+        }
+
+        // Only write the columns that changed since the row was loaded
+        List<String> dirtyColumns = dirtyColumns(employee, EMPLOYEE_COLUMNS);
+        if (!dirtyColumns.isEmpty()) {
+            return executePartialUpdate("Employee", employee.getId(), employee, EMPLOYEE_COLUMNS, dirtyColumns);
         }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(UPDATE_EMPLOYEE_SQL)) {
+        String sql = UPDATE_EMPLOYEE_SQL + (employee.hasVersion() ? VERSION_CONDITION : "") + RETURNING_VERSION;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, employee.getFirstName());
             pstmt.setString(2, employee.getLastName());
             pstmt.setString(3, employee.getEmail());
@@ -299,25 +789,37 @@ public class DatabaseDriver {
             pstmt.setString(7, employee.getJobTitle());
             pstmt.setDouble(8, employee.getSalary());
             pstmt.setString(9, employee.getId()); // WHERE clause uses the String ID
+            if (employee.hasVersion()) {
+                pstmt.setLong(10, employee.getVersion());
+            }
 
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+            return completeVersionedUpdate(pstmt, "Employee", employee.getId(), employee);
 
         } catch (SQLException e) {
             // Check for potential unique constraint violation (e.g., changing email to one that already exists)
             // if (e.getErrorCode() == 19 && e.getMessage().toLowerCase().contains("employee.email")) { ... }
             // Error handled by caller or application logic
-            return false;
+            return UpdateResult.ERROR;
         }
     }
 
+    /**
+     * Updates an existing employee record, see {@link #tryUpdateEmployee}.
+     *
+     * @param employee The Employee object with updated data.
+     * @return true if the row was updated, false on conflict, missing row or error.
+     */
+    public boolean updateEmployee(Employee employee) {
+        return tryUpdateEmployee(employee) == UpdateResult.UPDATED;
+    }
+
     /**
      * Deletes an employee record from the database using their String ID (UUID).
      *
      * @param id The String UUID of the employee to delete.
      * @return true if the deletion was successful (at least one row affected), false otherwise.
      */
-    public boolean deleteEmployee(String id) {
+    public synchronized boolean deleteEmployee(String id) {
         if (connection == null || id == null || id.trim().isEmpty()) {
             return false;
         }
@@ -388,7 +890,10 @@ public class DatabaseDriver {
         double salary = rs.getDouble("salary");
 
         // Use the constructor that accepts the String ID
-        return new Employee(id, firstName, lastName, email, phone, hireDate, department, jobTitle, salary);
+        Employee employee = new Employee(id, firstName, lastName, email, phone, hireDate, department, jobTitle, salary);
+        employee.setVersion(rs.getLong("version"));
+        employee.markClean(); // Mirrors the stored row
+        return employee;
     }
 
 
@@ -400,7 +905,7 @@ public class DatabaseDriver {
      * @param leaveRequest The LeaveRequest object to insert (ID should be null or 0).
      * @return The generated ID of the inserted request, or -1 if insertion failed.
      */
-    public int insertLeaveRequest(LeaveRequest leaveRequest) {
+    public synchronized int insertLeaveRequest(LeaveRequest leaveRequest) {
         if (connection == null || leaveRequest == null) {
             return -1;
         }
@@ -456,6 +961,81 @@ public class DatabaseDriver {
         return requests;
     }
 
+    /**
+     * Counts the leave request records matching a query, for sizing a paged table.
+     *
+     * @param spec The filters to apply (its sort keys are ignored).
+     * @return The number of matching rows, or 0 if an error occurs.
+     */
+    public int countLeaveRequests(QuerySpec spec) {
+        return countMatching("LeaveManagement", compileQuery(LEAVE_COLUMNS, spec, LEAVE_LISTING_ORDER));
+    }
+
+    /**
+     * Retrieves one page of leave request records matching a query, in the query's order
+     * (or the default listing order if it has no sort keys).
+     *
+     * @param spec The filters and sort keys.
+     * @param offset Index of the first row to return.
+     * @param limit Maximum number of rows to return.
+     * @return The rows of the page, or an empty list if none found or error occurs.
+     */
+    public List<LeaveRequest> getLeaveRequestPage(QuerySpec spec, int offset, int limit) {
+        return queryPage("LeaveManagement", compileQuery(LEAVE_COLUMNS, spec, LEAVE_LISTING_ORDER), offset, limit,
+                this::mapResultSetToLeaveRequest);
+    }
+
+    /**
+     * Retrieves the leave requests that overlap a date range, i.e. that start on or before
+     * {@code to} and end on or after {@code from}. Both dates are inclusive.
+     *
+     * @param from The first day of the range.
+     * @param to The last day of the range.
+     * @return The overlapping requests, newest first, or an empty list if none found or error occurs.
+     */
+    public List<LeaveRequest> getLeaveRequestsOverlapping(LocalDate from, LocalDate to) {
+        return queryLeaveRange(SELECT_LEAVES_OVERLAPPING_SQL, null, from, to);
+    }
+
+    /**
+     * Retrieves one employee's leave requests that overlap a date range (both dates inclusive).
+     *
+     * @param employeeId The String ID of the employee.
+     * @param from The first day of the range.
+     * @param to The last day of the range.
+     * @return The overlapping requests, newest first, or an empty list if none found or error occurs.
+     */
+    public List<LeaveRequest> getLeaveRequestsOverlapping(String employeeId, LocalDate from, LocalDate to) {
+        if (employeeId == null || employeeId.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        return queryLeaveRange(SELECT_EMPLOYEE_LEAVES_OVERLAPPING_SQL, employeeId, from, to);
+    }
+
+    private List<LeaveRequest> queryLeaveRange(String sql, String employeeId, LocalDate from, LocalDate to) {
+        List<LeaveRequest> requests = new ArrayList<>();
+        if (connection == null || from == null || to == null) {
+            return requests;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (employeeId != null) {
+                pstmt.setString(index++, employeeId);
+            }
+            pstmt.setString(index++, to.format(DATE_FORMATTER));
+            pstmt.setString(index, from.format(DATE_FORMATTER));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    requests.add(mapResultSetToLeaveRequest(rs));
+                }
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+        }
+        return requests;
+    }
+
     /**
      * Retrieves a single leave request by its Integer ID.
      *
@@ -536,16 +1116,31 @@ public class DatabaseDriver {
 
     /**
      * Updates an existing leave request record in the database.
+     * Entities loaded from the database, or given a version by the caller, are only written if the
+     * row still has that version; otherwise {@link UpdateResult#CONFLICT} is returned. A loaded
+     * entity with no changes is not written at all.
      *
      * @param leaveRequest The LeaveRequest object containing updated data (must have correct Integer ID).
-     * @return true if the update was successful, false otherwise.
+     * @return The outcome of the update.
      */
-    public boolean updateLeaveRequest(LeaveRequest leaveRequest) {
+    public synchronized UpdateResult tryUpdateLeaveRequest(LeaveRequest leaveRequest) {
         if (connection == null || leaveRequest == null || leaveRequest.getId() == null || leaveRequest.getId() <= 0) {
-            return false;
+            return UpdateResult.ERROR;
+        }
+
+        // Nothing changed since the row was loaded or saved: nothing to write, and the version stays
+        if (leaveRequest.isUnchanged()) {
+            return checkUnchanged("LeaveManagement", leaveRequest.getId(), leaveRequest);
+        }
+
+        // Only write the columns that changed since the row was loaded
+        List<String> dirtyColumns = dirtyColumns(leaveRequest, LEAVE_COLUMNS);
+        if (!dirtyColumns.isEmpty()) {
+            return executePartialUpdate("LeaveManagement", leaveRequest.getId(), leaveRequest, LEAVE_COLUMNS, dirtyColumns);
         }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(UPDATE_LEAVE_SQL)) {
+        String sql = UPDATE_LEAVE_SQL + (leaveRequest.hasVersion() ? VERSION_CONDITION : "") + RETURNING_VERSION;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, leaveRequest.getEmployeeId());
             pstmt.setString(2, leaveRequest.getStartDate() != null ? leaveRequest.getStartDate().format(DATE_FORMATTER) : null);
             pstmt.setString(3, leaveRequest.getEndDate() != null ? leaveRequest.getEndDate().format(DATE_FORMATTER) : null);
@@ -553,22 +1148,34 @@ public class DatabaseDriver {
             pstmt.setString(5, leaveRequest.getStatus().name()); // Enum to string
             pstmt.setString(6, leaveRequest.getManagerComments());
             pstmt.setInt(7, leaveRequest.getId()); // WHERE clause uses the Integer ID
+            if (leaveRequest.hasVersion()) {
+                pstmt.setLong(8, leaveRequest.getVersion());
+            }
 
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+            return completeVersionedUpdate(pstmt, "LeaveManagement", leaveRequest.getId(), leaveRequest);
         } catch (SQLException e) {
             // Error handled by caller or application logic
-            return false;
+            return UpdateResult.ERROR;
         }
     }
 
+    /**
+     * Updates an existing leave request record, see {@link #tryUpdateLeaveRequest}.
+     *
+     * @param leaveRequest The LeaveRequest object with updated data.
+     * @return true if the row was updated, false on conflict, missing row or error.
+     */
+    public boolean updateLeaveRequest(LeaveRequest leaveRequest) {
+        return tryUpdateLeaveRequest(leaveRequest) == UpdateResult.UPDATED;
+    }
+
     /**
      * Deletes a leave request record from the database using its Integer ID.
      *
      * @param id The Integer ID of the leave request to delete.
      * @return true if deletion was successful, false otherwise.
      */
-    public boolean deleteLeaveRequest(int id) {
+    public synchronized boolean deleteLeaveRequest(int id) {
         if (connection == null || id <= 0) {
             return false;
         }
@@ -609,7 +1216,10 @@ public class DatabaseDriver {
         }
 
         // Use the constructor that includes the Integer ID
-        return new LeaveRequest(id, employeeId, startDate, endDate, reason, status, managerComments);
+        LeaveRequest leaveRequest = new LeaveRequest(id, employeeId, startDate, endDate, reason, status, managerComments);
+        leaveRequest.setVersion(rs.getLong("version"));
+        leaveRequest.markClean(); // Mirrors the stored row
+        return leaveRequest;
     }
 
     /**
@@ -631,31 +1241,6 @@ public class DatabaseDriver {
 
     // --- User Management Methods ---
 
-    /**
-     * Hashes a password using SHA-256.
-     * Public now so UserService can use it for comparison during authentication.
-     * @param password The plain text password.
-     * @return The hex string representation of the hashed password, or null if error.
-     */
-    public String hashPassword(String password) {
-        if (password == null) return null;
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder(2 * hash.length);
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            return null; // Indicate failure
-        }
-    }
-
     /**
      * Inserts a new user with a hashed password.
      *
@@ -665,7 +1250,7 @@ public class DatabaseDriver {
      * @param role User's role as a String (e.g., "SUPER_ADMIN", "HR_ADMIN").
      * @return true if successful, false otherwise.
      */
-    public boolean insertUser(String username, String fullName, String plainPassword, String role) {
+    public synchronized boolean insertUser(String username, String fullName, String plainPassword, String role) {
         if (connection == null || username == null || username.trim().isEmpty() ||
                 fullName == null || fullName.trim().isEmpty() || plainPassword == null ||
                 role == null || role.trim().isEmpty()) {
@@ -741,6 +1326,31 @@ public class DatabaseDriver {
         return userList;
     }
 
+    /**
+     * Retrieves the users with one role, walking the role index instead of reading every user.
+     *
+     * @param role The role to list.
+     * @return The users ordered by full name, or an empty list if none found or error occurs.
+     */
+    public List<User> getUsersByRole(User.UserRole role) {
+        List<User> userList = new ArrayList<>();
+        if (connection == null || role == null) {
+            return userList; // Return empty list
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(SELECT_USERS_BY_ROLE_SQL)) {
+            pstmt.setString(1, role.name()); // Roles are stored uppercase
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    userList.add(mapResultSetToUser(rs));
+                }
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+        }
+        return userList;
+    }
+
     /**
      * Updates an existing user's details (full name, password hash, role).
      * Note: The password in the User object MUST be the HASHED password.
@@ -748,7 +1358,7 @@ public class DatabaseDriver {
      * @param user The User object containing the updated data (username identifies the user).
      * @return true if the update was successful, false otherwise.
      */
-    public boolean updateUser(User user) {
+    public synchronized boolean updateUser(User user) {
         if (connection == null || user == null || user.getUsername() == null || user.getUsername().trim().isEmpty()) {
             return false;
         }
@@ -772,6 +1382,30 @@ public class DatabaseDriver {
         }
     }
 
+    /**
+     * Replaces a user's password hash if the stored hash is still the expected one.
+     * Leaves full name and role alone, so it cannot revert a concurrent change to them.
+     *
+     * @param username     The user whose hash is replaced.
+     * @param expectedHash The hash the password was just verified against.
+     * @param newHash      The new hash.
+     * @return true if the row was updated, false if the user is gone, the hash changed meanwhile, or on error.
+     */
+    public synchronized boolean updatePasswordHash(String username, String expectedHash, String newHash) {
+        if (connection == null || username == null || expectedHash == null || newHash == null || newHash.isEmpty()) {
+            return false;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(UPDATE_USER_PASSWORD_HASH_SQL)) {
+            pstmt.setString(1, newHash);
+            pstmt.setString(2, username);
+            pstmt.setString(3, expectedHash);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+            return false;
+        }
+    }
 
     /**
      * Deletes a user from the database by username.
@@ -780,7 +1414,7 @@ public class DatabaseDriver {
      * @param username The username of the user to delete.
      * @return true if deletion was successful, false otherwise.
      */
-    public boolean deleteUser(String username) {
+    public synchronized boolean deleteUser(String username) {
         if (connection == null || username == null || username.trim().isEmpty()) {
             return false;
         }
@@ -834,7 +1468,7 @@ public class DatabaseDriver {
      * @param payroll The Payroll object to insert.
      * @return true if insertion was successful, false otherwise.
      */
-    public boolean insertPayroll(Payroll payroll) {
+    public synchronized boolean insertPayroll(Payroll payroll) {
         if (connection == null || payroll == null || payroll.getId() == null || payroll.getId().trim().isEmpty()) {
             return false;
         }
@@ -853,6 +1487,10 @@ public class DatabaseDriver {
             pstmt.setString(11, payroll.getStatus().name()); // Enum to String
 
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                payroll.setVersion(0); // Column default for new rows
+                payroll.markClean();
+            }
             return affectedRows > 0;
 
         } catch (SQLException e) {
@@ -862,6 +1500,112 @@ public class DatabaseDriver {
         }
     }
 
+    /**
+     * Commits one chunk of a payroll run: inserts the payrolls and advances the run's
+     * checkpoint in the same transaction, so the ledger never disagrees with the Payroll table.
+     * Payrolls for an employee that already has one for the period are skipped.
+     * Runs on the transaction connection (see the class comment).
+     *
+     * @param runId    The ID of the PayrollRun the chunk belongs to.
+     * @param payrolls The Payroll objects to insert (each must have a non-null UUID).
+     * @return The payrolls actually inserted, or null if the chunk was rolled back.
+     */
+    public List<Payroll> commitPayrollChunk(String runId, List<Payroll> payrolls) {
+        if (batchConnection == null || runId == null || payrolls == null) {
+            return null;
+        }
+        synchronized (batchLock) {
+            return commitPayrollChunkInTransaction(batchConnection, runId, payrolls);
+        }
+    }
+
+    private List<Payroll> commitPayrollChunkInTransaction(Connection tx, String runId, List<Payroll> payrolls) {
+        boolean previousAutoCommit = true;
+        try {
+            previousAutoCommit = tx.getAutoCommit();
+            tx.setAutoCommit(false);
+            List<Payroll> inserted = new ArrayList<>();
+            try (PreparedStatement pstmt = tx.prepareStatement(INSERT_PAYROLL_IF_ABSENT_SQL);
+                 PreparedStatement progress = tx.prepareStatement(UPDATE_PAYROLL_RUN_PROGRESS_SQL)) {
+                for (Payroll payroll : payrolls) {
+                    String start = payroll.getPayPeriodStart() != null ? payroll.getPayPeriodStart().format(DATE_FORMATTER) : null;
+                    String end = payroll.getPayPeriodEnd() != null ? payroll.getPayPeriodEnd().format(DATE_FORMATTER) : null;
+                    pstmt.setString(1, payroll.getId());
+                    pstmt.setString(2, payroll.getEmployeeId());
+                    pstmt.setString(3, start);
+                    pstmt.setString(4, end);
+                    pstmt.setDouble(5, payroll.getBaseSalary());
+                    pstmt.setDouble(6, payroll.getOvertimePay());
+                    pstmt.setDouble(7, payroll.getBonus());
+                    pstmt.setDouble(8, payroll.getTaxDeductions());
+                    pstmt.setDouble(9, payroll.getOtherDeductions());
+                    pstmt.setDouble(10, payroll.getNetSalary());
+                    pstmt.setString(11, payroll.getStatus().name());
+                    pstmt.setString(12, payroll.getEmployeeId());
+                    pstmt.setString(13, start);
+                    pstmt.setString(14, end);
+                    pstmt.addBatch();
+                }
+                int[] counts = payrolls.isEmpty() ? new int[0] : pstmt.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] > 0) {
+                        payrolls.get(i).setVersion(0);
+                        payrolls.get(i).markClean();
+                        inserted.add(payrolls.get(i));
+                    }
+                }
+
+                progress.setInt(1, inserted.size());
+                progress.setString(2, LocalDateTime.now().toString());
+                progress.setString(3, runId);
+                progress.executeUpdate();
+                tx.commit();
+                return inserted;
+            }
+        } catch (SQLException e) {
+            try {
+                tx.rollback();
+            } catch (SQLException rollbackError) {
+                // Error handled by caller or application logic
+            }
+            return null;
+        } finally {
+            try {
+                tx.setAutoCommit(previousAutoCommit);
+            } catch (SQLException e) {
+                // Error handled by caller or application logic
+            }
+        }
+    }
+
+    /**
+     * Retrieves the employees that do not yet have a payroll for the given period.
+     * Used to resume an interrupted payroll run without regenerating committed payrolls.
+     *
+     * @param payPeriodStart The start date of the pay period.
+     * @param payPeriodEnd   The end date of the pay period.
+     * @return A List of Employee objects still to be paid, or an empty list.
+     */
+    public List<Employee> getEmployeesWithoutPayroll(LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        List<Employee> employeeList = new ArrayList<>();
+        if (connection == null || payPeriodStart == null || payPeriodEnd == null) {
+            return employeeList;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(SELECT_EMPLOYEES_WITHOUT_PAYROLL_SQL)) {
+            pstmt.setString(1, payPeriodStart.format(DATE_FORMATTER));
+            pstmt.setString(2, payPeriodEnd.format(DATE_FORMATTER));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    employeeList.add(mapResultSetToEmployee(rs));
+                }
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+        }
+        return employeeList;
+    }
+
     /**
      * Retrieves all payroll records from the database.
      *
@@ -885,7 +1629,59 @@ public class DatabaseDriver {
     }
 
     /**
-     * Retrieves a single payroll record by its String ID (UUID).
+     * Counts the payroll records matching a query, for sizing a paged table.
+     *
+     * @param spec The filters to apply (its sort keys are ignored).
+     * @return The number of matching rows, or 0 if an error occurs.
+     */
+    public int countPayrolls(QuerySpec spec) {
+        return countMatching("Payroll", compileQuery(PAYROLL_COLUMNS, spec, PAYROLL_LISTING_ORDER));
+    }
+
+    /**
+     * Retrieves one page of payroll records matching a query, in the query's order
+     * (or the default listing order if it has no sort keys).
+     *
+     * @param spec The filters and sort keys.
+     * @param offset Index of the first row to return.
+     * @param limit Maximum number of rows to return.
+     * @return The rows of the page, or an empty list if none found or error occurs.
+     */
+    public List<Payroll> getPayrollPage(QuerySpec spec, int offset, int limit) {
+        return queryPage("Payroll", compileQuery(PAYROLL_COLUMNS, spec, PAYROLL_LISTING_ORDER), offset, limit,
+                this::mapResultSetToPayroll);
+    }
+
+    /**
+     * Retrieves the payrolls whose pay period overlaps a date range (both dates inclusive),
+     * e.g. every payroll of a quarter.
+     *
+     * @param from The first day of the range.
+     * @param to The last day of the range.
+     * @return The payrolls, newest period first, or an empty list if none found or error occurs.
+     */
+    public List<Payroll> getPayrollsOverlapping(LocalDate from, LocalDate to) {
+        List<Payroll> payrollList = new ArrayList<>();
+        if (connection == null || from == null || to == null) {
+            return payrollList;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(SELECT_PAYROLLS_OVERLAPPING_SQL)) {
+            pstmt.setString(1, to.format(DATE_FORMATTER));
+            pstmt.setString(2, from.format(DATE_FORMATTER));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    payrollList.add(mapResultSetToPayroll(rs));
+                }
+            }
+        } catch (SQLException | ReflectiveOperationException e) {
+            // Error handled by caller or application logic
+        }
+        return payrollList;
+    }
+
+    /**
+     * Retrieves a single payroll record by its String ID (UUID).
      *
      * @param id The String UUID of the payroll record.
      * @return The Payroll object if found, otherwise null.
@@ -935,18 +1731,59 @@ public class DatabaseDriver {
         return payrollList;
     }
 
+    /**
+     * Retrieves the payroll of an employee for an exact pay period.
+     *
+     * @param employeeId     The String UUID of the employee.
+     * @param payPeriodStart The start date of the pay period.
+     * @param payPeriodEnd   The end date of the pay period.
+     * @return The Payroll object if found, otherwise null.
+     */
+    public Payroll getPayrollForPeriod(String employeeId, LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        if (connection == null || employeeId == null || payPeriodStart == null || payPeriodEnd == null) {
+            return null;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(SELECT_PAYROLL_FOR_PERIOD_SQL)) {
+            pstmt.setString(1, employeeId);
+            pstmt.setString(2, payPeriodStart.format(DATE_FORMATTER));
+            pstmt.setString(3, payPeriodEnd.format(DATE_FORMATTER));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapResultSetToPayroll(rs) : null;
+            }
+        } catch (SQLException | ReflectiveOperationException e) {
+            // Error handled by caller or application logic
+            return null;
+        }
+    }
+
     /**
      * Updates an existing payroll record in the database.
+     * Entities loaded from the database, or given a version by the caller, are only written if the
+     * row still has that version; otherwise {@link UpdateResult#CONFLICT} is returned. A loaded
+     * entity with no changes is not written at all.
      *
      * @param payroll The Payroll object containing updated data (must have correct ID).
-     * @return true if the update was successful, false otherwise.
+     * @return The outcome of the update.
      */
-    public boolean updatePayroll(Payroll payroll) {
+    public synchronized UpdateResult tryUpdatePayroll(Payroll payroll) {
         if (connection == null || payroll == null || payroll.getId() == null || payroll.getId().trim().isEmpty()) {
-            return false;
+            return UpdateResult.ERROR;
         }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(UPDATE_PAYROLL_SQL)) {
+        // Nothing changed since the row was loaded or saved: nothing to write, and the version stays
+        if (payroll.isUnchanged()) {
+            return checkUnchanged("Payroll", payroll.getId(), payroll);
+        }
+
+        // Only write the columns that changed since the row was loaded
+        List<String> dirtyColumns = dirtyColumns(payroll, PAYROLL_COLUMNS);
+        if (!dirtyColumns.isEmpty()) {
+            return executePartialUpdate("Payroll", payroll.getId(), payroll, PAYROLL_COLUMNS, dirtyColumns);
+        }
+
+        String sql = UPDATE_PAYROLL_SQL + (payroll.hasVersion() ? VERSION_CONDITION : "") + RETURNING_VERSION;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, payroll.getEmployeeId());
             pstmt.setString(2, payroll.getPayPeriodStart() != null ? payroll.getPayPeriodStart().format(DATE_FORMATTER) : null);
             pstmt.setString(3, payroll.getPayPeriodEnd() != null ? payroll.getPayPeriodEnd().format(DATE_FORMATTER) : null);
@@ -958,14 +1795,89 @@ public class DatabaseDriver {
             pstmt.setDouble(9, payroll.getNetSalary());
             pstmt.setString(10, payroll.getStatus().name()); // Enum to String
             pstmt.setString(11, payroll.getId()); // WHERE clause
+            if (payroll.hasVersion()) {
+                pstmt.setLong(12, payroll.getVersion());
+            }
 
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+            return completeVersionedUpdate(pstmt, "Payroll", payroll.getId(), payroll);
 
         } catch (SQLException e) {
             // Error handled by caller or application logic
-            return false;
+            return UpdateResult.ERROR;
+        }
+    }
+
+    /**
+     * Updates an existing payroll record, see {@link #tryUpdatePayroll}.
+     *
+     * @param payroll The Payroll object with updated data.
+     * @return true if the row was updated, false on conflict, missing row or error.
+     */
+    public boolean updatePayroll(Payroll payroll) {
+        return tryUpdatePayroll(payroll) == UpdateResult.UPDATED;
+    }
+
+    /**
+     * Moves a single payroll from one status to another, but only if it is still in the expected status.
+     * The check and the update happen in one statement, so no prior read is needed.
+     *
+     * @param id         The String UUID of the payroll record.
+     * @param fromStatus The status the payroll must currently have.
+     * @param toStatus   The new status.
+     * @return The payroll as stored after the transition, or null if not found, in another status, or on error.
+     */
+    public synchronized Payroll transitionPayrollStatus(String id, Payroll.PayrollStatus fromStatus, Payroll.PayrollStatus toStatus) {
+        if (connection == null || id == null || id.trim().isEmpty() || fromStatus == null || toStatus == null) {
+            return null;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(TRANSITION_PAYROLL_STATUS_SQL)) {
+            pstmt.setString(1, toStatus.name());
+            pstmt.setString(2, id);
+            pstmt.setString(3, fromStatus.name());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapResultSetToPayroll(rs) : null;
+            }
+        } catch (SQLException | ReflectiveOperationException e) {
+            // Error handled by caller or application logic
+            return null;
+        }
+    }
+
+    /**
+     * Moves every payroll in {@code fromStatus} to {@code toStatus} with a single set-based UPDATE.
+     *
+     * @param fromStatus     The status the payrolls must currently have.
+     * @param toStatus       The new status.
+     * @param payPeriodStart Start of the pay period to restrict to, or null for all periods.
+     * @param payPeriodEnd   End of the pay period to restrict to, or null for all periods.
+     * @return The payrolls as stored after the transition, or an empty list if none or on error.
+     */
+    public synchronized List<Payroll> transitionPayrollStatuses(Payroll.PayrollStatus fromStatus, Payroll.PayrollStatus toStatus,
+                                                  LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        List<Payroll> transitioned = new ArrayList<>();
+        if (connection == null || fromStatus == null || toStatus == null) {
+            return transitioned;
+        }
+
+        boolean forPeriod = payPeriodStart != null && payPeriodEnd != null;
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                forPeriod ? TRANSITION_PAYROLLS_FOR_PERIOD_SQL : TRANSITION_ALL_PAYROLLS_SQL)) {
+            pstmt.setString(1, toStatus.name());
+            pstmt.setString(2, fromStatus.name());
+            if (forPeriod) {
+                pstmt.setString(3, payPeriodStart.format(DATE_FORMATTER));
+                pstmt.setString(4, payPeriodEnd.format(DATE_FORMATTER));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    transitioned.add(mapResultSetToPayroll(rs));
+                }
+            }
+        } catch (SQLException | ReflectiveOperationException e) {
+            // Error handled by caller or application logic
         }
+        return transitioned;
     }
 
     /**
@@ -974,7 +1886,7 @@ public class DatabaseDriver {
      * @param id The String UUID of the payroll record to delete.
      * @return true if deletion was successful, false otherwise.
      */
-    public boolean deletePayroll(String id) {
+    public synchronized boolean deletePayroll(String id) {
         if (connection == null || id == null || id.trim().isEmpty()) {
             return false;
         }
@@ -1045,9 +1957,117 @@ public class DatabaseDriver {
             // throw new ReflectiveOperationException("Error setting netSalary via reflection", e);
         }
 
+        payroll.setVersion(rs.getLong("version"));
+        payroll.markClean(); // Mirrors the stored row
         return payroll;
     }
 
+    // --- PayrollRun Ledger Methods ---
+
+    /**
+     * Inserts a new payroll run into the ledger.
+     *
+     * @param run The PayrollRun to insert.
+     * @return true if insertion was successful, false otherwise.
+     */
+    public synchronized boolean insertPayrollRun(PayrollRun run) {
+        if (connection == null || run == null || run.getId() == null) {
+            return false;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(INSERT_PAYROLL_RUN_SQL)) {
+            pstmt.setString(1, run.getId());
+            pstmt.setString(2, run.getPayPeriodStart().format(DATE_FORMATTER));
+            pstmt.setString(3, run.getPayPeriodEnd().format(DATE_FORMATTER));
+            pstmt.setString(4, run.getStatus().name());
+            pstmt.setInt(5, run.getTotalEmployees());
+            pstmt.setInt(6, run.getCommittedCount());
+            pstmt.setInt(7, run.getCommittedChunks());
+            pstmt.setString(8, run.getStartedAt() != null ? run.getStartedAt().toString() : null);
+            pstmt.setString(9, run.getUpdatedAt() != null ? run.getUpdatedAt().toString() : null);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+            return false;
+        }
+    }
+
+    /**
+     * Retrieves the most recently started payroll run for a pay period.
+     *
+     * @param payPeriodStart The start date of the pay period.
+     * @param payPeriodEnd   The end date of the pay period.
+     * @return The latest PayrollRun for the period, or null if none exists.
+     */
+    public PayrollRun getLatestPayrollRun(LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        if (connection == null || payPeriodStart == null || payPeriodEnd == null) {
+            return null;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(SELECT_LATEST_PAYROLL_RUN_SQL)) {
+            pstmt.setString(1, payPeriodStart.format(DATE_FORMATTER));
+            pstmt.setString(2, payPeriodEnd.format(DATE_FORMATTER));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapResultSetToPayrollRun(rs) : null;
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+            return null;
+        }
+    }
+
+    /**
+     * Updates the status and employee total of a payroll run.
+     * Progress counters are only advanced by {@link #commitPayrollChunk}.
+     *
+     * @param run The PayrollRun with the new status.
+     * @return true if the update was successful, false otherwise.
+     */
+    public synchronized boolean updatePayrollRunStatus(PayrollRun run) {
+        if (connection == null || run == null || run.getId() == null) {
+            return false;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(UPDATE_PAYROLL_RUN_STATUS_SQL)) {
+            run.setUpdatedAt(LocalDateTime.now());
+            pstmt.setString(1, run.getStatus().name());
+            pstmt.setInt(2, run.getTotalEmployees());
+            pstmt.setString(3, run.getUpdatedAt().toString());
+            pstmt.setString(4, run.getId());
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+            return false;
+        }
+    }
+
+    /**
+     * Helper method to map a row from a ResultSet to a PayrollRun object.
+     *
+     * @param rs The ResultSet cursor, positioned at the row to map.
+     * @return A PayrollRun object populated with data.
+     * @throws SQLException If a database access error occurs.
+     */
+    private PayrollRun mapResultSetToPayrollRun(ResultSet rs) throws SQLException {
+        PayrollRun run = new PayrollRun();
+        run.setId(rs.getString("id"));
+        run.setPayPeriodStart(parseDate(rs.getString("pay_period_start")));
+        run.setPayPeriodEnd(parseDate(rs.getString("pay_period_end")));
+        try {
+            run.setStatus(PayrollRun.RunStatus.valueOf(rs.getString("status")));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            run.setStatus(PayrollRun.RunStatus.FAILED); // Unknown status: treat as resumable
+        }
+        run.setTotalEmployees(rs.getInt("total_employees"));
+        run.setCommittedCount(rs.getInt("committed_count"));
+        run.setCommittedChunks(rs.getInt("committed_chunks"));
+        String startedAt = rs.getString("started_at");
+        String updatedAt = rs.getString("updated_at");
+        run.setStartedAt(startedAt != null ? LocalDateTime.parse(startedAt) : null);
+        run.setUpdatedAt(updatedAt != null ? LocalDateTime.parse(updatedAt) : null);
+        return run;
+    }
+
     /**
      * Inserts a new performance evaluation record into the database.
      * Assumes the PerformanceEvaluation object has a non-null, valid UUID assigned.
@@ -1055,7 +2075,7 @@ public class DatabaseDriver {
      * @param evaluation The PerformanceEvaluation object to insert.
      * @return true if insertion was successful, false otherwise.
      */
-    public boolean insertEvaluation(PerformanceEvaluation evaluation) {
+    public synchronized boolean insertEvaluation(PerformanceEvaluation evaluation) {
         if (connection == null || evaluation == null || evaluation.getId() == null || evaluation.getId().trim().isEmpty()) {
             return false;
         }
@@ -1071,6 +2091,10 @@ public class DatabaseDriver {
             pstmt.setString(8, evaluation.getReviewedBy());
 
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                evaluation.setVersion(0); // Column default for new rows
+                evaluation.markClean();
+            }
             return affectedRows > 0;
 
         } catch (SQLException e) {
@@ -1102,6 +2126,58 @@ public class DatabaseDriver {
         return evaluationList;
     }
 
+    /**
+     * Counts the performance evaluation records matching a query, for sizing a paged table.
+     *
+     * @param spec The filters to apply (its sort keys are ignored).
+     * @return The number of matching rows, or 0 if an error occurs.
+     */
+    public int countEvaluations(QuerySpec spec) {
+        return countMatching("PerformanceEvaluations", compileQuery(EVALUATION_COLUMNS, spec, EVALUATION_LISTING_ORDER));
+    }
+
+    /**
+     * Retrieves one page of performance evaluation records matching a query, in the query's order
+     * (or the default listing order if it has no sort keys).
+     *
+     * @param spec The filters and sort keys.
+     * @param offset Index of the first row to return.
+     * @param limit Maximum number of rows to return.
+     * @return The rows of the page, or an empty list if none found or error occurs.
+     */
+    public List<PerformanceEvaluation> getEvaluationPage(QuerySpec spec, int offset, int limit) {
+        return queryPage("PerformanceEvaluations", compileQuery(EVALUATION_COLUMNS, spec, EVALUATION_LISTING_ORDER), offset, limit,
+                this::mapResultSetToEvaluation);
+    }
+
+    /**
+     * Retrieves the evaluations dated within a range (both dates inclusive), read through the
+     * evaluation date index rather than by scanning the table.
+     *
+     * @param from The first day of the range.
+     * @param to The last day of the range.
+     * @return The evaluations, newest first, or an empty list if none found or error occurs.
+     */
+    public List<PerformanceEvaluation> getEvaluationsBetween(LocalDate from, LocalDate to) {
+        List<PerformanceEvaluation> evaluationList = new ArrayList<>();
+        if (connection == null || from == null || to == null) {
+            return evaluationList;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(SELECT_EVALUATIONS_BETWEEN_SQL)) {
+            pstmt.setString(1, from.format(DATE_FORMATTER));
+            pstmt.setString(2, to.format(DATE_FORMATTER));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    evaluationList.add(mapResultSetToEvaluation(rs));
+                }
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+        }
+        return evaluationList;
+    }
+
     /**
      * Retrieves a single performance evaluation record by its String ID (UUID).
      *
@@ -1155,16 +2231,31 @@ public class DatabaseDriver {
 
     /**
      * Updates an existing performance evaluation record in the database.
+     * Entities loaded from the database, or given a version by the caller, are only written if the
+     * row still has that version; otherwise {@link UpdateResult#CONFLICT} is returned. A loaded
+     * entity with no changes is not written at all.
      *
      * @param evaluation The PerformanceEvaluation object containing updated data (must have correct ID).
-     * @return true if the update was successful, false otherwise.
+     * @return The outcome of the update.
      */
-    public boolean updateEvaluation(PerformanceEvaluation evaluation) {
+    public synchronized UpdateResult tryUpdateEvaluation(PerformanceEvaluation evaluation) {
         if (connection == null || evaluation == null || evaluation.getId() == null || evaluation.getId().trim().isEmpty()) {
-            return false;
+            return UpdateResult.ERROR;
+        }
+
+        // Nothing changed since the row was loaded or saved: nothing to write, and the version stays
+        if (evaluation.isUnchanged()) {
+            return checkUnchanged("PerformanceEvaluations", evaluation.getId(), evaluation);
+        }
+
+        // Only write the columns that changed since the row was loaded
+        List<String> dirtyColumns = dirtyColumns(evaluation, EVALUATION_COLUMNS);
+        if (!dirtyColumns.isEmpty()) {
+            return executePartialUpdate("PerformanceEvaluations", evaluation.getId(), evaluation, EVALUATION_COLUMNS, dirtyColumns);
         }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(UPDATE_EVALUATION_SQL)) {
+        String sql = UPDATE_EVALUATION_SQL + (evaluation.hasVersion() ? VERSION_CONDITION : "") + RETURNING_VERSION;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, evaluation.getEmployeeId());
             pstmt.setString(2, evaluation.getEvaluationDate() != null ? evaluation.getEvaluationDate().format(DATE_FORMATTER) : null);
             pstmt.setInt(3, evaluation.getPerformanceRating());
@@ -1173,23 +2264,35 @@ public class DatabaseDriver {
             pstmt.setString(6, evaluation.getComments());
             pstmt.setString(7, evaluation.getReviewedBy());
             pstmt.setString(8, evaluation.getId()); // WHERE clause
+            if (evaluation.hasVersion()) {
+                pstmt.setLong(9, evaluation.getVersion());
+            }
 
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
+            return completeVersionedUpdate(pstmt, "PerformanceEvaluations", evaluation.getId(), evaluation);
 
         } catch (SQLException e) {
             // Error handled by caller or application logic
-            return false;
+            return UpdateResult.ERROR;
         }
     }
 
+    /**
+     * Updates an existing evaluation record, see {@link #tryUpdateEvaluation}.
+     *
+     * @param evaluation The PerformanceEvaluation object with updated data.
+     * @return true if the row was updated, false on conflict, missing row or error.
+     */
+    public boolean updateEvaluation(PerformanceEvaluation evaluation) {
+        return tryUpdateEvaluation(evaluation) == UpdateResult.UPDATED;
+    }
+
     /**
      * Deletes a performance evaluation record from the database using its String ID (UUID).
      *
      * @param id The String UUID of the evaluation record to delete.
      * @return true if deletion was successful, false otherwise.
      */
-    public boolean deleteEvaluation(String id) {
+    public synchronized boolean deleteEvaluation(String id) {
         if (connection == null || id == null || id.trim().isEmpty()) {
             return false;
         }
@@ -1222,8 +2325,449 @@ public class DatabaseDriver {
         String reviewedBy = rs.getString("reviewed_by");
 
         // Use the constructor that takes all arguments, including the ID from the DB
-        return new PerformanceEvaluation(id, employeeId, evaluationDate, rating, strengths,
+        PerformanceEvaluation evaluation = new PerformanceEvaluation(id, employeeId, evaluationDate, rating, strengths,
                 areasForImprovement, comments, reviewedBy);
+        evaluation.setVersion(rs.getLong("version"));
+        evaluation.markClean(); // Mirrors the stored row
+        return evaluation;
+    }
+
+    // --- Rating Aggregate Methods ---
+
+    /**
+     * Reads an employee's rating statistics from the aggregate tables: two primary-key lookups
+     * instead of loading the employee's evaluations.
+     *
+     * @param employeeId The employee's ID.
+     * @return The employee's rating statistics, or null if they have no evaluations or an error occurs.
+     */
+    public RatingStats getRatingStatsForEmployee(String employeeId) {
+        if (connection == null || employeeId == null) {
+            return null;
+        }
+        Map<String, RatingStats> stats = queryRatingStats(SELECT_EMPLOYEE_RATING_STATS_SQL,
+                SELECT_EMPLOYEE_RATING_DISTRIBUTION_SQL, employeeId);
+        return stats.get(employeeId);
+    }
+
+    /**
+     * Reads the average rating of every evaluated employee in a single query over the aggregate table.
+     *
+     * @return Average rating by employee ID, or an empty map if none found or an error occurs.
+     */
+    public Map<String, Double> getAverageRatingsByEmployee() {
+        Map<String, Double> averages = new LinkedHashMap<>();
+        if (connection == null) {
+            return averages;
+        }
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_AVERAGE_RATINGS_SQL)) {
+            while (rs.next()) {
+                averages.put(rs.getString("employee_id"), rs.getDouble("average_rating"));
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+        }
+        return averages;
+    }
+
+    /**
+     * Rolls the per-employee aggregates up by department.
+     * Employees without a department are grouped under a null key.
+     *
+     * @return Rating statistics by department, or an empty map if none found or an error occurs.
+     */
+    public Map<String, RatingStats> getRatingStatsByDepartment() {
+        if (connection == null) {
+            return new LinkedHashMap<>();
+        }
+        return queryRatingStats(SELECT_DEPARTMENT_RATING_STATS_SQL, SELECT_DEPARTMENT_RATING_DISTRIBUTION_SQL, null);
+    }
+
+    /**
+     * Rolls the per-employee aggregates up for the whole company.
+     *
+     * @return Company-wide rating statistics (empty if there are no evaluations), or null if an error occurs.
+     */
+    public RatingStats getCompanyRatingStats() {
+        if (connection == null) {
+            return null;
+        }
+        Map<String, RatingStats> stats = queryRatingStats(SELECT_COMPANY_RATING_STATS_SQL,
+                SELECT_COMPANY_RATING_DISTRIBUTION_SQL, null);
+        return stats.isEmpty() ? null : stats.get(null);
+    }
+
+    /**
+     * Runs a statistics query and its matching distribution query and joins them on group_key.
+     *
+     * @param statsSql Query returning group_key and the aggregate columns.
+     * @param distributionSql Query returning group_key, rating and evaluation_count.
+     * @param key Value for the single parameter of both queries, or null if they take none.
+     */
+    private Map<String, RatingStats> queryRatingStats(String statsSql, String distributionSql, String key) {
+        Map<String, Map<Integer, Integer>> distributions = new LinkedHashMap<>();
+        Map<String, RatingStats> stats = new LinkedHashMap<>();
+        try (PreparedStatement distributionStmt = connection.prepareStatement(distributionSql);
+             PreparedStatement statsStmt = connection.prepareStatement(statsSql)) {
+            if (key != null) {
+                distributionStmt.setString(1, key);
+                statsStmt.setString(1, key);
+            }
+            try (ResultSet rs = distributionStmt.executeQuery()) {
+                while (rs.next()) {
+                    distributions.computeIfAbsent(rs.getString("group_key"), k -> new LinkedHashMap<>())
+                            .put(rs.getInt("rating"), rs.getInt("evaluation_count"));
+                }
+            }
+            try (ResultSet rs = statsStmt.executeQuery()) {
+                while (rs.next()) {
+                    String groupKey = rs.getString("group_key");
+                    stats.put(groupKey, new RatingStats(groupKey,
+                            rs.getInt("evaluation_count"),
+                            rs.getLong("rating_sum"),
+                            rs.getInt("min_rating"),
+                            rs.getInt("max_rating"),
+                            parseDate(rs.getString("last_evaluation_date")),
+                            distributions.getOrDefault(groupKey, Map.of())));
+                }
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+        }
+        return stats;
+    }
+
+    // --- Department Analytics Methods ---
+
+    /**
+     * Counts employees per department with one grouped scan of the department index.
+     * Employees without a department are counted under a null key.
+     *
+     * @return Headcount by department in department order, or an empty map if an error occurs.
+     */
+    public Map<String, Integer> getHeadcountByDepartment() {
+        Map<String, Integer> headcount = new LinkedHashMap<>();
+        if (connection == null) {
+            return headcount;
+        }
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(SELECT_HEADCOUNT_BY_DEPARTMENT_SQL)) {
+            while (rs.next()) {
+                headcount.put(rs.getString("department"), rs.getInt("headcount"));
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+        }
+        return headcount;
+    }
+
+    /**
+     * Sums payroll cost per department and pay period.
+     *
+     * @param periodStart Start of the pay period to aggregate, or null for every period.
+     * @param periodEnd End of the pay period to aggregate, or null for every period.
+     * @return One entry per department and period, newest period first, or an empty list if an error occurs.
+     */
+    public List<PayrollCost> getPayrollCostByDepartment(LocalDate periodStart, LocalDate periodEnd) {
+        List<PayrollCost> costs = new ArrayList<>();
+        if (connection == null) {
+            return costs;
+        }
+
+        boolean singlePeriod = periodStart != null && periodEnd != null;
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                singlePeriod ? SELECT_PAYROLL_COST_FOR_PERIOD_SQL : SELECT_PAYROLL_COST_SQL)) {
+            if (singlePeriod) {
+                pstmt.setString(1, periodStart.format(DATE_FORMATTER));
+                pstmt.setString(2, periodEnd.format(DATE_FORMATTER));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    costs.add(new PayrollCost(rs.getString("department"),
+                            parseDate(rs.getString("pay_period_start")),
+                            parseDate(rs.getString("pay_period_end")),
+                            rs.getInt("payroll_count"),
+                            rs.getDouble("total_gross"),
+                            rs.getDouble("total_net")));
+                }
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+        }
+        return costs;
+    }
+
+    /**
+     * Sums the approved leave days per department that fall inside a date range.
+     *
+     * @param from First day of the range (inclusive).
+     * @param to Last day of the range (inclusive).
+     * @return Leave days by department, or an empty map if the range is invalid or an error occurs.
+     */
+    public Map<String, Long> getApprovedLeaveDaysByDepartment(LocalDate from, LocalDate to) {
+        Map<String, Long> leaveDays = new LinkedHashMap<>();
+        if (connection == null || from == null || to == null || to.isBefore(from)) {
+            return leaveDays;
+        }
+
+        String fromText = from.format(DATE_FORMATTER);
+        String toText = to.format(DATE_FORMATTER);
+        try (PreparedStatement pstmt = connection.prepareStatement(SELECT_LEAVE_DAYS_BY_DEPARTMENT_SQL)) {
+            pstmt.setString(1, toText);
+            pstmt.setString(2, fromText);
+            pstmt.setString(3, toText);
+            pstmt.setString(4, fromText);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    leaveDays.put(rs.getString("department"), rs.getLong("leave_days"));
+                }
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+        }
+        return leaveDays;
+    }
+
+    // --- Partial Update Helpers ---
+
+    /**
+     * Resolves the dirty fields of a tracked entity to the columns that need writing.
+     * Returns an empty list when the entity was never loaded or saved (its dirty set would
+     * not describe the stored row), or when nothing mapped changed; callers then fall back
+     * to a full-row update.
+     */
+    private <T extends TrackedEntity> List<String> dirtyColumns(T entity, Map<String, ColumnBinding<T>> columns) {
+        List<String> dirtyColumns = new ArrayList<>();
+        if (!entity.isTracked()) {
+            return dirtyColumns;
+        }
+        // Walk the column map rather than the dirty set, so the same columns always produce the same
+        // statement (and cache key) whatever order the setters were called in
+        Set<String> dirtyFields = entity.getDirtyFields();
+        for (String field : columns.keySet()) {
+            if (dirtyFields.contains(field)) {
+                dirtyColumns.add(field);
+            }
+        }
+        return dirtyColumns;
+    }
+
+    /**
+     * Writes only the given fields of an entity with an UPDATE built for that column set.
+     * The fields must be in column map order (see {@link #dirtyColumns}).
+     * The generated SQL is cached, so repeated status-only updates reuse the same statement text.
+     * Only tracked entities reach this path, so the version check is always applied.
+     *
+     * @return The outcome of the update.
+     */
+    private <T extends TrackedEntity> UpdateResult executePartialUpdate(String table, Object id, T entity,
+                                                                         Map<String, ColumnBinding<T>> columns,
+                                                                         List<String> dirtyFields) {
+        String sql = partialUpdateSqlCache.computeIfAbsent(table + ":" + String.join(",", dirtyFields), key -> {
+            StringBuilder builder = new StringBuilder("UPDATE ").append(table).append(" SET ");
+            for (String field : dirtyFields) {
+                builder.append(columns.get(field).column()).append(" = ?, ");
+            }
+            return builder.append("version = version + 1 WHERE id = ?")
+                    .append(VERSION_CONDITION).append(RETURNING_VERSION).toString();
+        });
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (String field : dirtyFields) {
+                bindColumnValue(pstmt, index++, columns.get(field).getter().apply(entity));
+            }
+            pstmt.setObject(index++, id); // WHERE clause
+            pstmt.setLong(index, entity.getVersion());
+
+            return completeVersionedUpdate(pstmt, table, id, entity);
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+            return UpdateResult.ERROR;
+        }
+    }
+
+    /**
+     * Reports the outcome an update of an unchanged entity would have had, without writing:
+     * NOT_FOUND if the row is gone, CONFLICT if its version moved on, UPDATED otherwise.
+     */
+    private UpdateResult checkUnchanged(String table, Object id, TrackedEntity entity) {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT version FROM " + table + " WHERE id = ?")) {
+            pstmt.setObject(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return UpdateResult.NOT_FOUND;
+                }
+                return rs.getLong(1) == entity.getVersion() ? UpdateResult.UPDATED : UpdateResult.CONFLICT;
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+            return UpdateResult.ERROR;
+        }
+    }
+
+    /**
+     * Runs a prepared versioned UPDATE ... RETURNING version and classifies the outcome.
+     * On success the entity takes the new version and is marked clean.
+     */
+    private UpdateResult completeVersionedUpdate(PreparedStatement pstmt, String table, Object id,
+                                                 TrackedEntity entity) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            if (rs.next()) {
+                entity.setVersion(rs.getLong(1));
+                entity.markClean();
+                return UpdateResult.UPDATED;
+            }
+        }
+        // Nothing matched: either the row is gone or its version moved on
+        return entity.hasVersion() && rowExists(table, id) ? UpdateResult.CONFLICT : UpdateResult.NOT_FOUND;
+    }
+
+    private boolean rowExists(String table, Object id) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT 1 FROM " + table + " WHERE id = ?")) {
+            pstmt.setObject(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private void bindColumnValue(PreparedStatement pstmt, int index, Object value) throws SQLException {
+        if (value instanceof LocalDate date) {
+            pstmt.setString(index, date.format(DATE_FORMATTER));
+        } else if (value instanceof Enum<?> constant) {
+            pstmt.setString(index, constant.name());
+        } else {
+            pstmt.setObject(index, value);
+        }
+    }
+
+    // --- Query Spec Compilation ---
+
+    /**
+     * A {@link QuerySpec} compiled to SQL fragments plus the values for their placeholders.
+     */
+    private record CompiledQuery(String where, String orderBy, List<Object> parameters) {
+    }
+
+    /**
+     * Reads one result row; lets paged queries share one implementation across tables.
+     */
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException, ReflectiveOperationException;
+    }
+
+    /**
+     * Compiles a query spec into a parameterized WHERE clause and an ORDER BY clause.
+     * Field names are resolved through the table's column mapping, so only known columns
+     * ever reach the SQL text; all values are bound as parameters.
+     *
+     * @param columns The model field to column mapping of the table ("id" is always allowed).
+     * @param spec The query to compile.
+     * @param defaultOrder The ORDER BY used when the spec has no sort keys; must end with id.
+     * @throws IllegalArgumentException if the spec names an unknown field.
+     */
+    private <T> CompiledQuery compileQuery(Map<String, ColumnBinding<T>> columns, QuerySpec spec,
+                                           String defaultOrder) {
+        StringBuilder where = new StringBuilder();
+        List<Object> parameters = new ArrayList<>();
+        for (QuerySpec.Filter filter : spec.getFilters()) {
+            where.append(where.isEmpty() ? " WHERE " : " AND ")
+                    .append(queryColumn(columns, filter.field()))
+                    .append(switch (filter.operator()) {
+                        case EQUALS -> " = ?";
+                        case AT_LEAST -> " >= ?";
+                        case AT_MOST -> " <= ?";
+                    });
+            parameters.add(filter.value());
+        }
+        if (spec.getDepartment() != null) {
+            where.append(where.isEmpty() ? " WHERE " : " AND ")
+                    .append("employee_id IN (SELECT id FROM Employee WHERE department = ?)");
+            parameters.add(spec.getDepartment());
+        }
+
+        StringBuilder orderBy = new StringBuilder();
+        boolean sortedById = false;
+        for (QuerySpec.Sort sort : spec.getSorts()) {
+            String column = queryColumn(columns, sort.field());
+            orderBy.append(orderBy.isEmpty() ? "" : ", ")
+                    .append(column)
+                    .append(sort.direction() == QuerySpec.Direction.DESCENDING ? " DESC" : " ASC");
+            sortedById |= "id".equals(column);
+        }
+        if (orderBy.isEmpty()) {
+            orderBy.append(defaultOrder);
+        } else if (!sortedById) {
+            // Tie-breaker so rows with equal sort keys keep a stable position across pages
+            orderBy.append(", id");
+        }
+        return new CompiledQuery(where.toString(), " ORDER BY " + orderBy, parameters);
+    }
+
+    private <T> String queryColumn(Map<String, ColumnBinding<T>> columns, String field) {
+        if ("id".equals(field)) {
+            return "id";
+        }
+        ColumnBinding<T> binding = columns.get(field);
+        if (binding == null) {
+            throw new IllegalArgumentException("Unknown query field: " + field);
+        }
+        return binding.column();
+    }
+
+    private void bindQueryParameters(PreparedStatement pstmt, List<Object> parameters) throws SQLException {
+        int index = 1;
+        for (Object parameter : parameters) {
+            bindColumnValue(pstmt, index++, parameter);
+        }
+    }
+
+    /**
+     * @return The number of rows of {@code table} matching the compiled query, or 0 if an error occurs.
+     */
+    private int countMatching(String table, CompiledQuery query) {
+        if (connection == null) {
+            return 0;
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT COUNT(*) FROM " + table + query.where())) {
+            bindQueryParameters(pstmt, query.parameters());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            // Error handled by caller or application logic
+            return 0;
+        }
+    }
+
+    /**
+     * @return One page of rows of {@code table} matching the compiled query, or an empty list if an error occurs.
+     */
+    private <T> List<T> queryPage(String table, CompiledQuery query, int offset, int limit, RowMapper<T> mapper) {
+        List<T> page = new ArrayList<>();
+        if (connection == null || offset < 0 || limit <= 0) {
+            return page;
+        }
+        String sql = "SELECT * FROM " + table + query.where() + query.orderBy() + " LIMIT ? OFFSET ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            bindQueryParameters(pstmt, query.parameters());
+            int index = query.parameters().size() + 1;
+            pstmt.setInt(index++, limit);
+            pstmt.setInt(index, offset);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(mapper.map(rs));
+                }
+            }
+        } catch (SQLException | ReflectiveOperationException e) {
+            // Error handled by caller or application logic
+        }
+        return page;
     }
 
     /**
@@ -1250,10 +2794,36 @@ public class DatabaseDriver {
 
 
     // --- Connection Management ---
+
+    /**
+     * @return The location and open flags this driver was created with.
+     */
+    public DatabaseConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return true if the connection was opened and has not been closed.
+     */
+    public boolean isConnected() {
+        try {
+            return connection != null && !connection.isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
     /**
      * Closes the database connection. Should be called when the application shuts down.
      */
     public void closeConnection() {
+        if (batchConnection != null && batchConnection != connection) {
+            try {
+                batchConnection.close();
+            } catch (SQLException e) {
+                // Error handled by caller or application logic
+            }
+        }
         if (connection != null) {
             try {
                 connection.close();
@@ -0,0 +1,87 @@
+package com.example.hrsm2.util;
+
+import java.util.Arrays;
+
+/**
+ * Measures how long a login's password check takes at increasing PBKDF2 iteration counts and
+ * recommends the highest count that stays within a latency budget.
+ * <p>
+ * Run it on the slowest machine users log in from, e.g.
+ * {@code java -cp target/classes com.example.hrsm2.util.PasswordCostBenchmark 250},
+ * then start the application with {@code -Dhrsm.password.iterations=<recommended>}.
+ * Existing passwords are rehashed at the new cost the next time each user logs in.
+ */
+public final class PasswordCostBenchmark {
+    private static final long DEFAULT_BUDGET_MILLIS = 250;
+    private static final int JIT_WARMUP_ROUNDS = 50;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int MAX_ITERATIONS = 10_000_000;
+
+    private PasswordCostBenchmark() {
+    }
+
+    /**
+     * @param args Optional login latency budget in milliseconds (default 250).
+     */
+    public static void main(String[] args) {
+        long budgetMillis = DEFAULT_BUDGET_MILLIS;
+        if (args.length > 0) {
+            try {
+                budgetMillis = Long.parseLong(args[0]);
+            } catch (NumberFormatException e) {
+                System.err.println("Usage: PasswordCostBenchmark [budget-millis]");
+                System.exit(2);
+            }
+        }
+
+        System.out.printf("Login budget: %d ms (%s)%n", budgetMillis, Runtime.version());
+        // Let the JIT compile the HMAC code first, or the cheapest counts look as slow as the others
+        PasswordHasher warmup = PasswordHasher.withIterations(PasswordHasher.MIN_ITERATIONS);
+        String warmupHash = warmup.hash("warmup");
+        for (int i = 0; i < JIT_WARMUP_ROUNDS; i++) {
+            warmup.verify("warmup", warmupHash);
+        }
+
+        System.out.printf("%12s %12s%n", "iterations", "median ms");
+
+        int recommended = -1;
+        // Double the cost until a check takes longer than the budget
+        for (int iterations = PasswordHasher.MIN_ITERATIONS; iterations <= MAX_ITERATIONS; iterations *= 2) {
+            double median = medianVerifyMillis(PasswordHasher.withIterations(iterations));
+            System.out.printf("%12d %12.1f%n", iterations, median);
+            if (median > budgetMillis) {
+                break;
+            }
+            // Time grows linearly with the count, so scale the last fitting measurement up to the budget
+            recommended = (int) Math.min(MAX_ITERATIONS, iterations * (budgetMillis / median));
+        }
+
+        if (recommended < PasswordHasher.MIN_ITERATIONS) {
+            System.out.println("Even " + PasswordHasher.MIN_ITERATIONS
+                    + " iterations exceed the budget; raise the budget rather than weaken the hash.");
+            return;
+        }
+        // Round down to a readable number
+        recommended = Math.max(PasswordHasher.MIN_ITERATIONS, recommended / 10_000 * 10_000);
+        double check = medianVerifyMillis(PasswordHasher.withIterations(recommended));
+        System.out.printf("Recommended: -D%s=%d (%.1f ms per login; default is %d)%n",
+                PasswordHasher.ITERATIONS_PROPERTY, recommended, check, PasswordHasher.DEFAULT_ITERATIONS);
+    }
+
+    // Median time of a successful verify, which is what a login spends on the password
+    private static double medianVerifyMillis(PasswordHasher hasher) {
+        String stored = hasher.hash("benchmark-password");
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            hasher.verify("benchmark-password", stored);
+        }
+        double[] millis = new double[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            hasher.verify("benchmark-password", stored);
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis[MEASURED_ROUNDS / 2];
+    }
+}
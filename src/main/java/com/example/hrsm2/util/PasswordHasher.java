@@ -0,0 +1,199 @@
+package com.example.hrsm2.util;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Hashes and verifies user passwords with salted PBKDF2 (HMAC-SHA256).
+ * <p>
+ * Hashes are stored as {@code pbkdf2-sha256$<iterations>$<salt>$<hash>} (salt and hash in Base64),
+ * so the cost can be raised later without invalidating existing passwords. Older databases hold
+ * unsalted SHA-256 hex digests; {@link #verify} still accepts them and {@link #needsRehash} reports
+ * them, so they are replaced at the next successful login.
+ * <p>
+ * Comparisons take the same time however many bytes match. The key factories and digests are
+ * expensive to look up, so each thread keeps its own. Instances are immutable and thread-safe.
+ */
+public final class PasswordHasher {
+    /** System property overriding the PBKDF2 iteration count; pick it with {@link PasswordCostBenchmark}. */
+    public static final String ITERATIONS_PROPERTY = "hrsm.password.iterations";
+
+    public static final int DEFAULT_ITERATIONS = 310_000;
+    // Below this PBKDF2 gives little protection; also rejects typos like "310"
+    public static final int MIN_ITERATIONS = 10_000;
+
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final HexFormat HEX = HexFormat.of();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final ThreadLocal<SecretKeyFactory> KEY_FACTORIES = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    });
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private static PasswordHasher defaultHasher;
+
+    private final int iterations;
+
+    private PasswordHasher(int iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     * @return The hasher used for stored passwords: {@link #DEFAULT_ITERATIONS} unless the
+     *         {@code hrsm.password.iterations} system property sets another count.
+     */
+    public static synchronized PasswordHasher getDefault() {
+        if (defaultHasher == null) {
+            int configured = Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS);
+            defaultHasher = new PasswordHasher(Math.max(configured, MIN_ITERATIONS));
+        }
+        return defaultHasher;
+    }
+
+    /**
+     * @param iterations The PBKDF2 iteration count; higher is slower for attackers and for logins.
+     * @return A hasher producing hashes with that cost.
+     * @throws IllegalArgumentException if the count is below {@link #MIN_ITERATIONS}.
+     */
+    public static PasswordHasher withIterations(int iterations) {
+        if (iterations < MIN_ITERATIONS) {
+            throw new IllegalArgumentException("At least " + MIN_ITERATIONS + " iterations are required: " + iterations);
+        }
+        return new PasswordHasher(iterations);
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @param password The plain text password.
+     * @return A new salted hash in the stored format, or null if the password is null.
+     */
+    public String hash(String password) {
+        if (password == null) {
+            return null;
+        }
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + '$' + iterations + '$' + base64.encodeToString(salt) + '$'
+                + base64.encodeToString(pbkdf2(password, salt, iterations, HASH_BITS));
+    }
+
+    /**
+     * Checks a password against a stored hash, in either the PBKDF2 or the legacy SHA-256 format.
+     *
+     * @param password The plain text password entered.
+     * @param storedHash The stored hash.
+     * @return true if they match; false if they do not, either is null or the hash is malformed.
+     */
+    public boolean verify(String password, String storedHash) {
+        if (password == null || storedHash == null) {
+            return false;
+        }
+        if (isLegacy(storedHash)) {
+            byte[] expected = HEX.parseHex(storedHash.toLowerCase());
+            return MessageDigest.isEqual(sha256(password), expected);
+        }
+        String[] parts = storedHash.split("\\$");
+        if (parts.length != 4 || !PREFIX.equals(parts[0])) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            if (storedIterations < 1 || expected.length == 0) {
+                return false;
+            }
+            return MessageDigest.isEqual(pbkdf2(password, salt, storedIterations, expected.length * 8), expected);
+        } catch (IllegalArgumentException e) {
+            // Error handled by caller or application logic: a malformed hash matches nothing
+            return false;
+        }
+    }
+
+    /**
+     * @param storedHash A hash that just verified successfully.
+     * @return true if it should be replaced with {@link #hash}: it is a legacy SHA-256 digest or
+     *         uses fewer iterations than this hasher.
+     */
+    public boolean needsRehash(String storedHash) {
+        if (storedHash == null || isLegacy(storedHash)) {
+            return true;
+        }
+        String[] parts = storedHash.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Spends about as long as verifying a real password, so a login for an unknown user
+     * cannot be told apart by its response time.
+     */
+    public void verifyDummy(String password) {
+        pbkdf2(password == null ? "" : password, new byte[SALT_BYTES], iterations, HASH_BITS);
+    }
+
+    /**
+     * @return The unsalted SHA-256 hex digest older versions stored, e.g. to migrate or test old data.
+     */
+    public static String legacyHash(String password) {
+        return password == null ? null : HEX.formatHex(sha256(password));
+    }
+
+    // A legacy hash is exactly the 64 hex digits of a SHA-256 digest
+    private static boolean isLegacy(String storedHash) {
+        if (storedHash.length() != 64) {
+            return false;
+        }
+        for (int i = 0; i < storedHash.length(); i++) {
+            if (Character.digit(storedHash.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] sha256(String password) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations, int bits) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, bits);
+        try {
+            return KEY_FACTORIES.get().generateSecret(spec).getEncoded();
+        } catch (InvalidKeySpecException e) {
+            throw new IllegalStateException("Cannot derive password hash", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
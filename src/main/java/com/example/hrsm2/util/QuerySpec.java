@@ -0,0 +1,151 @@
+package com.example.hrsm2.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable description of a table query: which rows (filters) and in which order (sort keys).
+ * {@link DatabaseDriver} compiles it into a parameterized {@code WHERE}/{@code ORDER BY}, so
+ * sorting and filtering run in SQLite, on its indexes, instead of on an in-memory list.
+ * <p>
+ * Fields are named by the model's Java property names (e.g. "payPeriodStart", "status"), the
+ * same names used for dirty-field tracking; unknown names are rejected when the query is compiled.
+ * Every {@code with...} method returns a new spec, so a spec can be shared between threads.
+ */
+public final class QuerySpec {
+
+    /**
+     * Sort direction of one sort key.
+     */
+    public enum Direction {
+        ASCENDING,
+        DESCENDING
+    }
+
+    /**
+     * How a filter compares the column with its value.
+     */
+    public enum Operator {
+        EQUALS,
+        AT_LEAST,
+        AT_MOST
+    }
+
+    /**
+     * One sort key.
+     */
+    public record Sort(String field, Direction direction) {
+    }
+
+    /**
+     * One filter condition; conditions are combined with AND.
+     */
+    public record Filter(String field, Operator operator, Object value) {
+    }
+
+    private static final QuerySpec ALL = new QuerySpec(List.of(), List.of(), null);
+
+    private final List<Sort> sorts;
+    private final List<Filter> filters;
+    private final String department;
+
+    private QuerySpec(List<Sort> sorts, List<Filter> filters, String department) {
+        this.sorts = Collections.unmodifiableList(sorts);
+        this.filters = Collections.unmodifiableList(filters);
+        this.department = department;
+    }
+
+    /**
+     * @return A spec without filters, in the table's default order.
+     */
+    public static QuerySpec all() {
+        return ALL;
+    }
+
+    /**
+     * @param field The property to sort by
+     * @param direction The sort direction
+     * @return A copy with this sort key added after the existing ones.
+     */
+    public QuerySpec withSort(String field, Direction direction) {
+        List<Sort> newSorts = new ArrayList<>(sorts);
+        newSorts.add(new Sort(field, direction));
+        return new QuerySpec(newSorts, filters, department);
+    }
+
+    /**
+     * @param newSorts The sort keys, most significant first; empty for the default order
+     * @return A copy with the sort keys replaced.
+     */
+    public QuerySpec withSorts(List<Sort> newSorts) {
+        return new QuerySpec(new ArrayList<>(newSorts), filters, department);
+    }
+
+    /**
+     * @param field The property to filter on
+     * @param value The required value; null removes nothing and adds no condition
+     * @return A copy that only matches rows whose property equals {@code value}.
+     */
+    public QuerySpec withEquals(String field, Object value) {
+        return withFilter(field, Operator.EQUALS, value);
+    }
+
+    /**
+     * @param field The property to filter on, typically a date
+     * @param from The inclusive lower bound, or null for none
+     * @param to The inclusive upper bound, or null for none
+     * @return A copy that only matches rows whose property lies in the range.
+     */
+    public QuerySpec withRange(String field, Object from, Object to) {
+        return withFilter(field, Operator.AT_LEAST, from).withFilter(field, Operator.AT_MOST, to);
+    }
+
+    /**
+     * @param newDepartment The department of the row's employee, or null for any
+     * @return A copy that only matches rows of employees in that department.
+     */
+    public QuerySpec withDepartment(String newDepartment) {
+        return new QuerySpec(sorts, filters, newDepartment);
+    }
+
+    private QuerySpec withFilter(String field, Operator operator, Object value) {
+        if (value == null) {
+            return this;
+        }
+        List<Filter> newFilters = new ArrayList<>(filters);
+        newFilters.add(new Filter(field, operator, value));
+        return new QuerySpec(sorts, newFilters, department);
+    }
+
+    /**
+     * @return true if the spec neither filters nor sorts, i.e. selects the default listing.
+     */
+    public boolean isDefault() {
+        return sorts.isEmpty() && filters.isEmpty() && department == null;
+    }
+
+    public List<Sort> getSorts() {
+        return sorts;
+    }
+
+    public List<Filter> getFilters() {
+        return filters;
+    }
+
+    /**
+     * @return The employee department filter, or null if rows of all departments match.
+     */
+    public String getDepartment() {
+        return department;
+    }
+
+    @Override
+    public String toString() {
+        return "QuerySpec{" +
+                "sorts=" + sorts +
+                ", filters=" + filters +
+                ", department=" + department +
+                '}';
+    }
+}
@@ -11,6 +11,7 @@ import com.example.hrsm2.service.PayrollService;
 import com.example.hrsm2.service.UserService;
 
 import java.time.LocalDate;
+import java.util.List;
 
 public class SampleDataLoader {
 
@@ -46,12 +47,8 @@ public class SampleDataLoader {
                 "Michael", "Brown", "michael.brown@example.com", "555-234-5678",
                 LocalDate.of(2022, 2, 8), "Engineering", "DevOps Engineer", 88000.0);
 
-        // Insert employees using EmployeeService (which internally calls DatabaseDriver's new SQL CRUD methods)
-        employeeService.addEmployee(john);
-        employeeService.addEmployee(jane);
-        employeeService.addEmployee(bob);
-        employeeService.addEmployee(sarah);
-        employeeService.addEmployee(michael);
+        // Insert employees as one batch: a single transaction and a single change event
+        employeeService.addEmployees(List.of(john, jane, bob, sarah, michael));
 
         // --- Create Sample Leave Requests ---
         LeaveRequest johnLeave = new LeaveRequest(
@@ -134,8 +131,7 @@ public class SampleDataLoader {
 
     private static void loadSampleUsers() {
         // Check if an HR admin exists using UserService (which uses the new SQL statements)
-        boolean hasHrUsers = userService.getAllUsers().stream()
-                .anyMatch(user -> user.getRole() == User.UserRole.HR_ADMIN);
+        boolean hasHrUsers = !userService.getUsersByRole(User.UserRole.HR_ADMIN).isEmpty();
         if (!hasHrUsers) {
             // The DatabaseDriver will hash the password during user creation.
             userService.createUser("hr", "hr", "John Doe", User.UserRole.HR_ADMIN);
@@ -0,0 +1,160 @@
+package com.example.hrsm2.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the slow parts of application startup (opening the database, creating the services,
+ * loading sample data) on a background thread, so the login window can be shown right away.
+ * <p>
+ * Phases run in the order they were added. {@link #whenReady()} is the readiness gate: it completes
+ * once every phase has finished, or completes exceptionally with the first phase that failed.
+ * Each phase is timed, and the timings are printed when startup finishes.
+ */
+public final class StartupSequence {
+    private static StartupSequence instance;
+
+    private record Phase(String name, Runnable action) {
+    }
+
+    private final List<Phase> phases = new ArrayList<>();
+    // Phase durations in milliseconds, in the order the phases finished
+    private final Map<String, Long> timings = new LinkedHashMap<>();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private final long createdAt = System.nanoTime();
+    private boolean started;
+    // Milliseconds from creation until every phase had finished; -1 until then
+    private long readyAfter = -1;
+
+    /**
+     * Creates an empty sequence, e.g. for tests. The application itself uses {@link #getInstance()}.
+     */
+    public StartupSequence() {
+    }
+
+    /**
+     * @return The application's startup sequence.
+     */
+    public static synchronized StartupSequence getInstance() {
+        if (instance == null) {
+            instance = new StartupSequence();
+        }
+        return instance;
+    }
+
+    /**
+     * Adds a phase to run in the background. Must be called before {@link #start()}.
+     *
+     * @param name The name the phase is reported under.
+     * @param action The work of the phase.
+     * @return This sequence, for chaining.
+     * @throws IllegalStateException if the sequence has already started.
+     */
+    public synchronized StartupSequence addPhase(String name, Runnable action) {
+        if (started) {
+            throw new IllegalStateException("Startup already started");
+        }
+        phases.add(new Phase(name, action));
+        return this;
+    }
+
+    /**
+     * Starts running the phases on a daemon thread. Later calls do nothing.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        List<Phase> toRun = List.copyOf(phases);
+        Thread thread = new Thread(() -> run(toRun), "startup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run(List<Phase> toRun) {
+        for (Phase phase : toRun) {
+            long phaseStart = System.nanoTime();
+            try {
+                phase.action().run();
+            } catch (RuntimeException e) {
+                System.err.println("Startup Error: Phase '" + phase.name() + "' failed. " + e.getMessage());
+                e.printStackTrace();
+                ready.completeExceptionally(e);
+                return;
+            }
+            record(phase.name(), phaseStart);
+        }
+        synchronized (this) {
+            readyAfter = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createdAt);
+        }
+        System.out.println("Startup Info: " + report());
+        ready.complete(null);
+    }
+
+    /**
+     * Records the duration of a phase that ran elsewhere, e.g. showing the login window on the FX thread.
+     *
+     * @param name The name the phase is reported under.
+     * @param phaseStart The {@link System#nanoTime()} at which the phase began.
+     */
+    public synchronized void record(String name, long phaseStart) {
+        timings.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - phaseStart));
+    }
+
+    /**
+     * @return A future completed when every phase has finished; completed exceptionally if one failed.
+     *         Completing or cancelling the returned future does not affect the sequence.
+     */
+    public CompletableFuture<Void> whenReady() {
+        return ready.copy();
+    }
+
+    /**
+     * @return true once every phase has finished successfully.
+     */
+    public boolean isReady() {
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    /**
+     * @return Milliseconds since the JVM process was launched, or -1 if the platform does not report it.
+     */
+    public static long millisSinceLaunch() {
+        return ProcessHandle.current().info().startInstant()
+                .map(launch -> Duration.between(launch, Instant.now()).toMillis())
+                .orElse(-1L);
+    }
+
+    /**
+     * @return The duration of each finished phase in milliseconds, in the order they finished.
+     */
+    public synchronized Map<String, Long> getPhaseTimings() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(timings));
+    }
+
+    /**
+     * @return The phase timings as one line, e.g. "storage 120 ms, sample data 35 ms (ready after 160 ms)";
+     *         the total is left out while phases are still running.
+     */
+    public synchronized String report() {
+        StringBuilder report = new StringBuilder();
+        timings.forEach((name, millis) -> {
+            if (report.length() > 0) {
+                report.append(", ");
+            }
+            report.append(name).append(' ').append(millis).append(" ms");
+        });
+        if (readyAfter >= 0) {
+            report.append(" (ready after ").append(readyAfter).append(" ms)");
+        }
+        return report.toString();
+    }
+}
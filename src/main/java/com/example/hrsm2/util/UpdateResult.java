@@ -0,0 +1,15 @@
+package com.example.hrsm2.util;
+
+/**
+ * Outcome of a versioned (optimistically locked) update.
+ */
+public enum UpdateResult {
+    /** The row was written and its version incremented. */
+    UPDATED,
+    /** The row exists but was changed by someone else since it was loaded; reload and retry. */
+    CONFLICT,
+    /** No row with the given ID exists. */
+    NOT_FOUND,
+    /** The update could not be attempted or the database reported an error. */
+    ERROR
+}
@@ -2,6 +2,7 @@ module com.example.hrsm2 {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.sql;
+    requires jdk.httpserver;
 
     opens com.example.hrsm2 to javafx.fxml;
     opens com.example.hrsm2.controller to javafx.fxml;
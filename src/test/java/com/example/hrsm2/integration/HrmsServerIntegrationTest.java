@@ -0,0 +1,214 @@
+package com.example.hrsm2.integration;
+
+import com.example.hrsm2.repository.PooledStorageEngine;
+import com.example.hrsm2.server.HrmsServer;
+import com.example.hrsm2.service.ServiceRegistry;
+import com.example.hrsm2.testutil.IsolatedDatabaseExtension;
+import com.example.hrsm2.util.DatabaseConfig;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the server mode over HTTP on localhost, against a temporary database behind a connection pool.
+ */
+@TestMethodOrder(OrderAnnotation.class)
+@ResourceLock(IsolatedDatabaseExtension.SERVICES_LOCK)
+class HrmsServerIntegrationTest {
+
+    private static PooledStorageEngine engine;
+    private static HrmsServer server;
+    private static String baseUrl;
+
+    private record Reply(int status, String body, String totalCount) {
+        String field(String name) {
+            Matcher matcher = Pattern.compile("\"" + name + "\":(\"([^\"]*)\"|[-0-9.]+)").matcher(body);
+            assertTrue(matcher.find(), "No '" + name + "' in " + body);
+            return matcher.group(2) != null ? matcher.group(2) : matcher.group(1);
+        }
+    }
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        engine = new PooledStorageEngine(DatabaseConfig.tempFile("HrmsServerIntegrationTest"), 4);
+        ServiceRegistry.useStorageEngine(engine);
+        server = new HrmsServer(new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+        ServiceRegistry.useStorageEngine(null);
+        engine.close();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Should answer health checks and refuse data without a session")
+    void requiresSession() throws IOException {
+        Reply health = call("GET", "/health", null, null);
+        assertEquals(200, health.status());
+        assertEquals("ok", health.field("status"));
+
+        assertEquals(401, call("GET", "/employees", null, null).status());
+        assertEquals(401, call("GET", "/employees", "not-a-token", null).status());
+        assertEquals(401, call("POST", "/sessions", null, "{\"username\":\"super\",\"password\":\"wrong\"}").status());
+        assertEquals(400, call("POST", "/sessions", null, "{\"username\":").status());
+        // Nesting deep enough to overflow a recursive parser is refused as bad JSON
+        assertEquals(400, call("POST", "/sessions", null, "[".repeat(20_000)).status());
+        assertEquals(404, call("GET", "/nothing", null, null).status());
+        assertEquals(405, call("PUT", "/health", null, null).status());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Should let a super admin create an HR admin who then manages employees and leave")
+    void hrWorkflow() throws IOException {
+        String superToken = login("super", "super123");
+        assertEquals(201, call("POST", "/users", superToken,
+                "{\"username\":\"hr.api\",\"password\":\"secret1\",\"fullName\":\"HR Api\"}").status());
+        assertEquals(409, call("POST", "/users", superToken,
+                "{\"username\":\"hr.api\",\"password\":\"secret1\",\"fullName\":\"HR Api\"}").status());
+        assertEquals(403, call("GET", "/employees", superToken, null).status());
+
+        String hrToken = login("hr.api", "secret1");
+        assertEquals("HR_ADMIN", call("GET", "/me", hrToken, null).field("role"));
+        assertEquals(403, call("GET", "/users", hrToken, null).status());
+
+        Reply created = call("POST", "/employees", hrToken, "{\"firstName\":\"Ada\",\"lastName\":\"Lovelace\","
+                + "\"email\":\"ada@example.com\",\"phone\":\"555-0100\",\"hireDate\":\"2020-01-15\","
+                + "\"department\":\"Engineering\",\"jobTitle\":\"Analyst\",\"salary\":90000}");
+        assertEquals(201, created.status(), created.body());
+        String id = created.field("id");
+        assertEquals("Ada", call("GET", "/employees/" + id, hrToken, null).field("firstName"));
+        assertTrue(call("GET", "/employees?q=Lovelace", hrToken, null).body().contains(id));
+
+        assertEquals(428, call("PUT", "/employees/" + id, hrToken, "{\"jobTitle\":\"Unversioned\"}").status());
+        Reply updated = call("PUT", "/employees/" + id, hrToken, "{\"jobTitle\":\"Lead Analyst\",\"version\":0}");
+        assertEquals(200, updated.status(), updated.body());
+        assertEquals("Lead Analyst", updated.field("jobTitle"));
+        assertEquals(409, call("PUT", "/employees/" + id, hrToken, "{\"jobTitle\":\"Stale\",\"version\":0}").status());
+
+        Reply leave = call("POST", "/leave-requests", hrToken, "{\"employeeId\":\"" + id + "\","
+                + "\"startDate\":\"2031-03-02\",\"endDate\":\"2031-03-03\",\"reason\":\"Conference\"}");
+        assertEquals(201, leave.status(), leave.body());
+        Reply approved = call("POST", "/leave-requests/" + leave.field("id") + "/approve", hrToken, "{\"comments\":\"Enjoy\"}");
+        assertEquals(200, approved.status(), approved.body());
+        assertEquals("APPROVED", approved.field("status"));
+        assertEquals(409, call("POST", "/leave-requests/" + leave.field("id") + "/reject", hrToken, null).status());
+
+        assertEquals(204, call("DELETE", "/sessions/current", hrToken, null).status());
+        assertEquals(401, call("GET", "/me", hrToken, null).status());
+        assertEquals(200, call("GET", "/me", superToken, null).status(), "Other sessions stay open.");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Should serve concurrent clients through the connection pool")
+    void concurrentClients() throws Exception {
+        String token = login("hr.api", "secret1");
+        int clients = 24;
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                int n = i;
+                statuses.add(pool.submit(() -> n % 3 == 0
+                        ? call("POST", "/employees", token, "{\"firstName\":\"Client\",\"lastName\":\"No" + n + "\","
+                                + "\"email\":\"client" + n + "@example.com\",\"hireDate\":\"2022-02-02\",\"salary\":50000}").status()
+                        : call("GET", "/employees", token, null).status()));
+            }
+            for (int i = 0; i < clients; i++) {
+                assertEquals(i % 3 == 0 ? 201 : 200, statuses.get(i).get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(engine.getPoolSize(), engine.getIdleCount(), "Every connection must be returned to the pool.");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Should answer listings one page at a time")
+    void pagedListings() throws IOException {
+        String token = login("hr.api", "secret1");
+        Reply first = call("GET", "/employees?limit=5", token, null);
+        assertEquals(200, first.status(), first.body());
+        assertEquals("9", first.totalCount(), "Ada and the 8 employees added by the clients.");
+        assertEquals(5, rows(first));
+        assertEquals(1, rows(call("GET", "/employees?offset=8&limit=5", token, null)));
+
+        Reply engineering = call("GET", "/employees?department=Engineering", token, null);
+        assertEquals("1", engineering.totalCount());
+        assertTrue(engineering.body().contains("Lovelace"));
+        Reply search = call("GET", "/employees?q=Client&limit=3", token, null);
+        assertEquals("8", search.totalCount());
+        assertEquals(3, rows(search));
+
+        assertEquals("1", call("GET", "/leave-requests?status=APPROVED", token, null).totalCount());
+        assertEquals("0", call("GET", "/leave-requests?status=PENDING", token, null).totalCount());
+        assertEquals("0", call("GET", "/payrolls?department=Engineering", token, null).totalCount());
+
+        assertEquals(400, call("GET", "/employees?limit=0", token, null).status());
+        assertEquals(400, call("GET", "/employees?limit=501", token, null).status());
+        assertEquals(400, call("GET", "/payrolls?offset=-1", token, null).status());
+        assertEquals(400, call("GET", "/evaluations?limit=ten", token, null).status());
+    }
+
+    private static int rows(Reply reply) {
+        Matcher matcher = Pattern.compile("\"firstName\":").matcher(reply.body());
+        int rows = 0;
+        while (matcher.find()) {
+            rows++;
+        }
+        return rows;
+    }
+
+    private static String login(String username, String password) throws IOException {
+        Reply reply = call("POST", "/sessions", null,
+                "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}");
+        assertEquals(201, reply.status(), reply.body());
+        return reply.field("token");
+    }
+
+    private static Reply call(String method, String path, String token, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(baseUrl + path).toURL().openConnection();
+        connection.setRequestMethod(method);
+        if (token != null) {
+            connection.setRequestProperty("Authorization", "Bearer " + token);
+        }
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        String text = in == null ? "" : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        String totalCount = connection.getHeaderField("X-Total-Count");
+        connection.disconnect();
+        return new Reply(status, text, totalCount);
+    }
+}
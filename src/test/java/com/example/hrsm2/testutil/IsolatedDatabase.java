@@ -0,0 +1,36 @@
+package com.example.hrsm2.testutil;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a test class against a database of its own instead of the shared {@code hr_database.db}.
+ * <p>
+ * Before the first test the service singletons are rebuilt over a fresh, empty database holding
+ * only the super admin; after the last test they are dropped again and the database is discarded.
+ * The service singletons are process-wide, so annotated classes in the same JVM take turns through
+ * a resource lock; suites scale by running one surefire fork per core.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(IsolatedDatabaseExtension.class)
+@ResourceLock(IsolatedDatabaseExtension.SERVICES_LOCK)
+public @interface IsolatedDatabase {
+
+    /**
+     * Where the per-class database lives.
+     */
+    enum Mode {
+        /** A private in-memory database; the fastest, gone when the class finishes. */
+        MEMORY,
+        /** A file in the temporary directory, for tests that need real file behaviour. */
+        TEMP_FILE
+    }
+
+    Mode value() default Mode.MEMORY;
+}
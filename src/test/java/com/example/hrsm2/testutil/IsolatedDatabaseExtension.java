@@ -0,0 +1,50 @@
+package com.example.hrsm2.testutil;
+
+import com.example.hrsm2.repository.SqliteStorageEngine;
+import com.example.hrsm2.service.ServiceRegistry;
+import com.example.hrsm2.util.DatabaseConfig;
+import com.example.hrsm2.util.DatabaseDriver;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import java.io.IOException;
+
+/**
+ * Provisions the database of an {@link IsolatedDatabase} test class and points the service
+ * singletons at it for the duration of the class.
+ */
+public class IsolatedDatabaseExtension implements BeforeAllCallback, AfterAllCallback {
+
+    /** Lock shared by every class that swaps the process-wide service singletons. */
+    public static final String SERVICES_LOCK = "com.example.hrsm2.services";
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(IsolatedDatabaseExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) throws IOException {
+        IsolatedDatabase.Mode mode = AnnotationSupport
+                .findAnnotation(context.getRequiredTestClass(), IsolatedDatabase.class)
+                .map(IsolatedDatabase::value)
+                .orElse(IsolatedDatabase.Mode.MEMORY);
+        DatabaseConfig config = mode == IsolatedDatabase.Mode.TEMP_FILE
+                ? DatabaseConfig.tempFile(context.getRequiredTestClass().getSimpleName())
+                : DatabaseConfig.memory();
+
+        DatabaseDriver driver = new DatabaseDriver(config);
+        context.getStore(NAMESPACE).put(DatabaseDriver.class, driver);
+        ServiceRegistry.useStorageEngine(new SqliteStorageEngine(driver));
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        // The next user of the services gets the configured engine again
+        ServiceRegistry.useStorageEngine(null);
+        DatabaseDriver driver = context.getStore(NAMESPACE).remove(DatabaseDriver.class, DatabaseDriver.class);
+        if (driver != null) {
+            driver.closeConnection();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.hrsm2.unittest;
+
+import com.example.hrsm2.model.*;
+import com.example.hrsm2.repository.memory.InMemoryStorageEngine;
+import com.example.hrsm2.service.AnalyticsService;
+import com.example.hrsm2.service.EmployeeService;
+import com.example.hrsm2.service.LeaveRequestService;
+import com.example.hrsm2.service.PayrollService;
+import com.example.hrsm2.service.PerformanceEvaluationService;
+import com.example.hrsm2.testutil.IsolatedDatabase;
+import com.example.hrsm2.util.UpdateResult;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(OrderAnnotation.class)
+@IsolatedDatabase
+class AnalyticsServiceTest {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2031, 1, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2031, 1, 31);
+
+    private AnalyticsService analytics;
+    private EmployeeService employeeService;
+    private final List<Employee> employees = new ArrayList<>();
+    private String department;
+
+    @BeforeEach
+    void setUp() {
+        analytics = AnalyticsService.getInstance();
+        employeeService = EmployeeService.getInstance();
+        department = "Analytics-" + System.nanoTime();
+        for (int i = 0; i < 2; i++) {
+            Employee employee = new Employee("Ana" + i, "Lytics", department + i + "@example.com", "555-0100",
+                    LocalDate.of(2020, 1, 1), department, "Analyst", 120000);
+            assertTrue(employeeService.addEmployee(employee));
+            employees.add(employee);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Employee employee : employees) {
+            employeeService.deleteEmployee(employee.getId());
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Should return same instance for a singleton")
+    void getInstance() {
+        assertSame(analytics, AnalyticsService.getInstance());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Should count employees per department and follow additions")
+    void headcountFollowsEmployeeChanges() {
+        assertEquals(2, analytics.getHeadcountByDepartment().get(department));
+
+        Employee third = new Employee("Ana2", "Lytics", department + "2@example.com", "555-0100",
+                LocalDate.of(2020, 1, 1), department, "Analyst", 90000);
+        assertTrue(employeeService.addEmployee(third));
+        employees.add(third);
+
+        assertEquals(3, analytics.getHeadcountByDepartment().get(department));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Should fold a new pay period into the cached payroll costs")
+    void payrollCostFollowsNewPeriods() {
+        PayrollService payrollService = PayrollService.getInstance();
+        // Prime the cache so the new period is merged incrementally
+        analytics.getPayrollCostByPeriod();
+
+        List<Payroll> payrolls = new ArrayList<>();
+        for (Employee employee : employees) {
+            payrolls.add(payrollService.generatePayroll(employee.getId(), PERIOD_START, PERIOD_END));
+        }
+        double expectedGross = payrolls.stream()
+                .mapToDouble(p -> p.getBaseSalary() + p.getOvertimePay() + p.getBonus())
+                .sum();
+
+        try {
+            List<PayrollCost> costs = analytics.getPayrollCostForPeriod(PERIOD_START, PERIOD_END);
+            PayrollCost departmentCost = costs.stream()
+                    .filter(cost -> department.equals(cost.getDepartment()))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(2, departmentCost.getPayrollCount());
+            assertEquals(expectedGross, departmentCost.getTotalGross(), 0.01);
+            assertEquals(expectedGross / 2, departmentCost.getAverageGross(), 0.01);
+            assertEquals(1, analytics.getPayrollCostForDepartment(department).size());
+            assertTrue(analytics.getPayrollCostByPeriod().stream()
+                    .anyMatch(total -> total.getDepartment() == null && PERIOD_START.equals(total.getPayPeriodStart())
+                            && total.getPayrollCount() >= 2));
+        } finally {
+            payrolls.forEach(payroll -> payrollService.deletePayroll(payroll.getId()));
+        }
+        assertTrue(analytics.getPayrollCostForDepartment(department).isEmpty());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Should compute leave utilization from approved leave inside the range")
+    void leaveUtilizationCountsApprovedDays() {
+        LeaveRequestService leaveService = LeaveRequestService.getInstance();
+        LocalDate from = LocalDate.of(2031, 2, 1);
+        LocalDate to = LocalDate.of(2031, 2, 28);
+        // Starts before the range, so only 4 of its days fall inside it
+        LeaveRequest request = new LeaveRequest(employees.get(0).getId(), LocalDate.of(2031, 1, 29),
+                LocalDate.of(2031, 2, 4), "Holiday");
+        assertTrue(leaveService.submitLeaveRequest(request));
+
+        try {
+            assertEquals(0, utilizationOf(from, to).getLeaveDays(), "Pending leave is not utilization.");
+
+            assertTrue(leaveService.approveLeaveRequest(request.getId(), "Enjoy"));
+            LeaveUtilization utilization = utilizationOf(from, to);
+            assertEquals(2, utilization.getHeadcount());
+            assertEquals(4, utilization.getLeaveDays());
+            assertEquals(56, utilization.getAvailableDays());
+            assertEquals(4.0 / 56, utilization.getUtilizationRate(), 0.0001);
+        } finally {
+            leaveService.deleteLeaveRequest(request.getId());
+        }
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Should report rating statistics per department")
+    void ratingStatsByDepartment() {
+        PerformanceEvaluationService evaluationService = PerformanceEvaluationService.getInstance();
+        assertNull(analytics.getRatingStatsByDepartment().get(department));
+
+        PerformanceEvaluation evaluation = new PerformanceEvaluation(employees.get(1).getId(), 4,
+                "Strengths", "Improvement", "Good", "Manager");
+        evaluationService.addEvaluation(evaluation);
+        try {
+            RatingStats stats = analytics.getRatingStatsByDepartment().get(department);
+            assertNotNull(stats);
+            assertEquals(1, stats.getEvaluationCount());
+            assertEquals(4.0, stats.getAverageRating(), 0.001);
+        } finally {
+            evaluationService.deleteEvaluation(evaluation.getId());
+        }
+    }
+
+    private LeaveUtilization utilizationOf(LocalDate from, LocalDate to) {
+        return analytics.getLeaveUtilization(from, to).stream()
+                .filter(utilization -> department.equals(utilization.getDepartment()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. Should keep cached payroll costs across status changes and refresh edited periods")
+    void payrollCostIgnoresStatusChanges() {
+        InMemoryStorageEngine engine = new InMemoryStorageEngine();
+        AnalyticsService isolated = new AnalyticsService(engine);
+        PayrollService payrollService = new PayrollService(engine.payrolls(), employeeService);
+        try {
+            Employee employee = new Employee("Cost", "Cache", "cost@example.com", "555-0100",
+                    LocalDate.of(2020, 1, 1), department, "Analyst", 60000);
+            assertTrue(engine.employees().insertEmployee(employee));
+            Payroll payroll = new Payroll(employee.getId(), PERIOD_START, PERIOD_END, 5000);
+            assertTrue(engine.payrolls().insertPayroll(payroll));
+            assertEquals(5000, grossFor(isolated), 0.01);
+
+            // Written behind the service's back, so only a reload of the cache would show it
+            Payroll unannounced = engine.payrolls().getPayrollById(payroll.getId());
+            unannounced.setBonus(1000);
+            assertEquals(UpdateResult.UPDATED, engine.payrolls().tryUpdatePayroll(unannounced));
+
+            assertTrue(payrollService.processPayroll(payroll.getId()));
+            assertEquals(5000, grossFor(isolated), 0.01);
+
+            Payroll edited = payrollService.getPayrollById(payroll.getId());
+            edited.setOvertimePay(500);
+            assertTrue(payrollService.updatePayroll(edited));
+            assertEquals(6500, grossFor(isolated), 0.01);
+        } finally {
+            isolated.close();
+        }
+    }
+
+    private double grossFor(AnalyticsService service) {
+        return service.getPayrollCostForPeriod(PERIOD_START, PERIOD_END).stream()
+                .filter(cost -> department.equals(cost.getDepartment()))
+                .mapToDouble(PayrollCost::getTotalGross)
+                .sum();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.hrsm2.unittest;
+
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.event.ChangeSetEvent;
+import com.example.hrsm2.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeSetTest {
+
+    private static Employee employee(String id, String firstName, String lastName) {
+        return new Employee(id, firstName, lastName, id + "@example.com", "555-0000",
+                LocalDate.of(2023, 1, 1), "IT", "Developer", 5000.0);
+    }
+
+    private static ChangeSet<String, Employee> changes() {
+        return new ChangeSet<>(Employee::getId);
+    }
+
+    @Test
+    @DisplayName("Merging keeps only the net effect of a burst of changes")
+    void testMergeCollapsesChanges() {
+        Employee created = employee("E1", "Ann", "Able");
+        Employee createdThenEdited = employee("E1", "Anna", "Able");
+        Employee existing = employee("E2", "Ben", "Baker");
+
+        ChangeSet<String, Employee> merged = changes().add(created)
+                .merge(changes().update(createdThenEdited))
+                .merge(changes().update(existing))
+                .merge(changes().add(employee("E3", "Cy", "Cole")))
+                .merge(changes().delete("E3"))
+                .merge(changes().delete("E4"));
+
+        assertEquals(1, merged.getAdded().size());
+        assertSame(createdThenEdited, merged.getAdded().get("E1"), "An added then edited row stays an addition");
+        assertSame(existing, merged.getUpdated().get("E2"));
+        assertFalse(merged.getDeletedIds().contains("E3"), "A row added and deleted in the same burst is dropped");
+        assertTrue(merged.getDeletedIds().contains("E4"));
+        assertEquals(3, merged.size());
+    }
+
+    @Test
+    @DisplayName("Applying a change set patches a sorted list in place")
+    void testApplyToSortedList() {
+        Employee adams = employee("A", "Amy", "Adams");
+        Employee clark = employee("C", "Carl", "Clark");
+        Employee evans = employee("E", "Eve", "Evans");
+        List<Employee> list = new ArrayList<>(List.of(adams, clark, evans));
+
+        Employee clarkRenamed = employee("C", "Carl", "Zeller");
+        changes().add(employee("B", "Bea", "Brown"))
+                .update(clarkRenamed)
+                .delete("A")
+                .applyTo(list, Employee.BY_NAME);
+
+        assertEquals(List.of("B", "E", "C"), list.stream().map(Employee::getId).toList());
+        assertSame(clarkRenamed, list.get(2), "Updated rows are replaced, not duplicated");
+    }
+
+    @Test
+    @DisplayName("Merged events leave their inputs untouched")
+    void testEventMerge() {
+        ChangeSetEvent<String, Employee> first = new ChangeSetEvent<>(ChangeSetEvent.EMPLOYEES_CHANGED,
+                changes().add(employee("E1", "Ann", "Able")));
+        ChangeSetEvent<String, Employee> second = new ChangeSetEvent<>(ChangeSetEvent.EMPLOYEES_CHANGED,
+                changes().delete("E2"));
+
+        ChangeSetEvent<String, Employee> merged = ChangeSetEvent.merge(first, second);
+
+        assertEquals(ChangeSetEvent.EMPLOYEES_CHANGED, merged.getEventType());
+        assertEquals(2, merged.getChangeSet().size());
+        assertEquals(1, first.getChangeSet().size());
+        assertEquals(1, second.getChangeSet().size());
+    }
+
+    @Test
+    @DisplayName("Restricting to a filtered view turns updates that leave the view into deletions")
+    void testRestrictTo() {
+        ChangeSet<String, Employee> restricted = changes()
+                .add(employee("E1", "Ann", "Able"))
+                .add(employee("E2", "Ben", "Baker"))
+                .update(employee("E3", "Cy", "Cole"))
+                .restrictTo(e -> !e.getId().equals("E2") && !e.getId().equals("E3"));
+
+        assertEquals(List.of("E1"), List.copyOf(restricted.getAdded().keySet()));
+        assertTrue(restricted.getUpdated().isEmpty());
+        assertTrue(restricted.getDeletedIds().contains("E3"));
+    }
+
+    @Test
+    @DisplayName("Merging unions the changed fields of updates and forgets them once one update does not say")
+    void testMergeTracksChangedFields() {
+        Employee first = employee("E1", "Ann", "Able");
+        Employee second = employee("E2", "Ben", "Baker");
+
+        ChangeSet<String, Employee> merged = changes().update(first, List.of("firstName"))
+                .merge(changes().update(first, List.of("department")))
+                .merge(changes().update(second, List.of("phone")))
+                .merge(changes().update(second));
+
+        assertEquals(Set.of("firstName", "department"), merged.getChangedFields("E1"));
+        assertNull(merged.getChangedFields("E2"));
+        assertEquals(Set.of("firstName", "department"),
+                merged.restrictTo(e -> true).getChangedFields("E1"));
+
+        ChangeSet<String, Employee> addedThenEdited = changes().add(first)
+                .merge(changes().update(first, List.of("phone")));
+        assertEquals(1, addedThenEdited.getAdded().size());
+        assertNull(addedThenEdited.getChangedFields("E1"));
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.hrsm2.unittest;
+
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.repository.PooledStorageEngine;
+import com.example.hrsm2.util.DatabaseConfig;
+import com.example.hrsm2.util.DatabaseDriver;
+import com.example.hrsm2.util.UpdateResult;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(OrderAnnotation.class)
+class DatabaseConfigTest {
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Should default to the hr_database.db file")
+    void defaultsToFile() {
+        DatabaseConfig config = DatabaseConfig.fromProperties(new Properties());
+        assertEquals("jdbc:sqlite:" + Path.of(DatabaseConfig.DEFAULT_PATH), config.getUrl());
+        assertFalse(config.isInMemory());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Should resolve modes, URLs and open flags from properties")
+    void resolvesProperties() {
+        Properties settings = new Properties();
+        settings.setProperty(DatabaseConfig.MODE_PROPERTY, "shared-memory");
+        settings.setProperty(DatabaseConfig.NAME_PROPERTY, "reports");
+        settings.setProperty(DatabaseConfig.PRAGMA_PREFIX + "busy_timeout", "5000");
+        DatabaseConfig config = DatabaseConfig.fromProperties(settings);
+        assertEquals("jdbc:sqlite:file:reports?mode=memory&cache=shared", config.getUrl());
+        assertTrue(config.isInMemory());
+        assertEquals("5000", config.toConnectionProperties().getProperty("busy_timeout"));
+
+        settings.setProperty(DatabaseConfig.URL_PROPERTY, "jdbc:sqlite:file::memory:?cache=shared");
+        assertEquals("jdbc:sqlite:file::memory:?cache=shared", DatabaseConfig.fromProperties(settings).getUrl());
+
+        settings.setProperty(DatabaseConfig.URL_PROPERTY, "");
+        settings.setProperty(DatabaseConfig.MODE_PROPERTY, "cloud");
+        assertThrows(IllegalArgumentException.class, () -> DatabaseConfig.fromProperties(settings));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Should open a private in-memory database with the full schema")
+    void opensInMemoryDatabase() {
+        DatabaseDriver driver = new DatabaseDriver(DatabaseConfig.memory());
+        try {
+            assertNotNull(driver.getUserByUsername("super"));
+            Employee employee = new Employee("Mem", "Ory", "memory@example.com", "555-0100",
+                    LocalDate.of(2020, 1, 1), "IT", "Engineer", 50000);
+            assertTrue(driver.insertEmployee(employee));
+            assertEquals(1, driver.getAllEmployees().size());
+        } finally {
+            driver.closeConnection();
+        }
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Should give each temporary database its own file")
+    void tempFilesAreIsolated() throws IOException {
+        DatabaseDriver first = new DatabaseDriver(DatabaseConfig.tempFile("hrsm-test"));
+        DatabaseDriver second = new DatabaseDriver(DatabaseConfig.tempFile("hrsm-test"));
+        try {
+            assertNotEquals(first.getConfig().getUrl(), second.getConfig().getUrl());
+            assertTrue(first.insertEmployee(new Employee("Temp", "One", "temp@example.com", "555-0100",
+                    LocalDate.of(2020, 1, 1), "IT", "Engineer", 50000)));
+            assertTrue(second.getAllEmployees().isEmpty());
+        } finally {
+            first.closeConnection();
+            second.closeConnection();
+        }
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Should reuse one partial update statement whatever order the fields change in")
+    void partialUpdateSqlIgnoresFieldOrder() throws ReflectiveOperationException {
+        DatabaseDriver driver = new DatabaseDriver(DatabaseConfig.memory());
+        try {
+            Employee employee = new Employee("Part", "Ial", "partial@example.com", "555-0100",
+                    LocalDate.of(2020, 1, 1), "IT", "Engineer", 50000);
+            assertTrue(driver.insertEmployee(employee));
+
+            Employee first = driver.getEmployeeById(employee.getId());
+            first.setDepartment("HR");
+            first.setJobTitle("Recruiter");
+            assertEquals(UpdateResult.UPDATED, driver.tryUpdateEmployee(first));
+
+            Employee second = driver.getEmployeeById(employee.getId());
+            second.setJobTitle("Engineer");
+            second.setDepartment("IT");
+            assertEquals(UpdateResult.UPDATED, driver.tryUpdateEmployee(second));
+
+            Field cache = DatabaseDriver.class.getDeclaredField("partialUpdateSqlCache");
+            cache.setAccessible(true);
+            assertEquals(1, ((Map<?, ?>) cache.get(driver)).size());
+            assertEquals("IT", driver.getEmployeeById(employee.getId()).getDepartment());
+        } finally {
+            driver.closeConnection();
+        }
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. Should run file database transactions on their own connection")
+    void transactionsDoNotBlockTheSharedConnection() throws Exception {
+        DatabaseDriver driver = new DatabaseDriver(DatabaseConfig.tempFile("hrsm-test"));
+        try {
+            List<Employee> imported = driver.insertEmployees(List.of(
+                    new Employee("Im", "Port", "import1@example.com", "555-0100", LocalDate.of(2020, 1, 1), "IT", "Engineer", 50000),
+                    new Employee("Im", "Port", "import2@example.com", "555-0100", LocalDate.of(2020, 1, 1), "IT", "Engineer", 50000)));
+            assertEquals(2, imported.size());
+            assertEquals(2, driver.getAllEmployees().size());
+
+            // While a transaction holds its connection, single writes and reads still go through
+            Field lock = DatabaseDriver.class.getDeclaredField("batchLock");
+            lock.setAccessible(true);
+            ExecutorService other = Executors.newSingleThreadExecutor();
+            try {
+                synchronized (lock.get(driver)) {
+                    Future<Integer> write = other.submit(() -> {
+                        driver.insertEmployee(new Employee("Sin", "Gle", "single@example.com", "555-0100",
+                                LocalDate.of(2020, 1, 1), "IT", "Engineer", 50000));
+                        return driver.getAllEmployees().size();
+                    });
+                    assertEquals(3, write.get(5, TimeUnit.SECONDS));
+                }
+            } finally {
+                other.shutdownNow();
+            }
+        } finally {
+            driver.closeConnection();
+        }
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("7. Should skip unchanged updates and check versions supplied by the caller")
+    void updatesHonourSuppliedVersions() {
+        DatabaseDriver driver = new DatabaseDriver(DatabaseConfig.memory());
+        try {
+            Employee employee = new Employee("Ver", "Sion", "version@example.com", "555-0100",
+                    LocalDate.of(2020, 1, 1), "IT", "Engineer", 50000);
+            assertTrue(driver.insertEmployee(employee));
+
+            Employee unchanged = driver.getEmployeeById(employee.getId());
+            assertEquals(UpdateResult.UPDATED, driver.tryUpdateEmployee(unchanged));
+            assertEquals(0, driver.getEmployeeById(employee.getId()).getVersion());
+
+            Employee edited = driver.getEmployeeById(employee.getId());
+            edited.setJobTitle("Lead");
+            assertEquals(UpdateResult.UPDATED, driver.tryUpdateEmployee(edited));
+
+            // Not loaded, but the caller says which version it edits
+            Employee stale = new Employee(employee.getId(), "Ver", "Sion", "version@example.com", "555-0100",
+                    LocalDate.of(2020, 1, 1), "IT", "Engineer", 60000);
+            stale.setVersion(0);
+            assertEquals(UpdateResult.CONFLICT, driver.tryUpdateEmployee(stale));
+            stale.setVersion(1);
+            assertEquals(UpdateResult.UPDATED, driver.tryUpdateEmployee(stale));
+
+            // An unchanged entity is not written, but still learns that its row moved on or is gone
+            assertEquals(UpdateResult.CONFLICT, driver.tryUpdateEmployee(unchanged));
+            assertTrue(driver.deleteEmployee(employee.getId()));
+            assertEquals(UpdateResult.NOT_FOUND, driver.tryUpdateEmployee(unchanged));
+        } finally {
+            driver.closeConnection();
+        }
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("8. Should only limit pools over a private in-memory database to one connection")
+    void poolsSharedMemory() {
+        assertTrue(DatabaseConfig.memory().isPrivateMemory());
+        assertFalse(DatabaseConfig.sharedMemory("pooled").isPrivateMemory());
+        assertFalse(DatabaseConfig.url("jdbc:sqlite:file::memory:?cache=shared").isPrivateMemory());
+
+        PooledStorageEngine privatePool = new PooledStorageEngine(DatabaseConfig.memory(), 3);
+        try {
+            assertEquals(1, privatePool.getPoolSize());
+        } finally {
+            privatePool.close();
+        }
+
+        PooledStorageEngine sharedPool = new PooledStorageEngine(DatabaseConfig.sharedMemory("DatabaseConfigTestPool"), 3);
+        try {
+            assertEquals(3, sharedPool.getPoolSize());
+            Employee employee = new Employee("POOL1", "Pia", "Pool", "pia.pool@example.com", "555-0500",
+                    LocalDate.of(2024, 1, 1), "IT", "Developer", 5000.0);
+            assertTrue(sharedPool.employees().insertEmployee(employee));
+            // Each call borrows the next idle driver, so the row must be visible on every connection
+            for (int i = 0; i < 3; i++) {
+                assertNotNull(sharedPool.employees().getEmployeeById("POOL1"));
+            }
+        } finally {
+            sharedPool.close();
+        }
+    }
+}
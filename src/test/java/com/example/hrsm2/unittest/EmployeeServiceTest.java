@@ -1,17 +1,26 @@
 package com.example.hrsm2.unittest;
 
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.event.ChangeSetEvent;
+import com.example.hrsm2.event.EventManager;
 import com.example.hrsm2.model.Employee;
 import com.example.hrsm2.service.EmployeeService;
+import com.example.hrsm2.testutil.IsolatedDatabase;
+import com.example.hrsm2.util.QuerySpec;
+import javafx.event.EventHandler;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@IsolatedDatabase
 class EmployeeServiceTest {
 
 private static EmployeeService operation;
@@ -134,7 +143,64 @@ void deleteEmployee(String ID) {
 
 @Test
 @Order(8)
-@DisplayName("8. Close DB Connection Test")
+@DisplayName("8. Bulk Add Employees Fires One Change Event Test")
+void addEmployeesFiresSingleEvent() {
+    List<Employee> batch = List.of(
+            new Employee("BULK1", "Bulk", "One", "bulk.one@example.com", "1111111111",
+                    LocalDate.of(2024, 1, 1), "IT", "Developer", 5000.0),
+            new Employee("BULK2", "Bulk", "Two", "bulk.two@example.com", "2222222222",
+                    LocalDate.of(2024, 1, 1), "IT", "Developer", 5000.0),
+            new Employee("BULK3", "Bulk", "Three", "bulk.one@example.com", "3333333333",
+                    LocalDate.of(2024, 1, 1), "IT", "Developer", 5000.0));
+    List<ChangeSet<String, Employee>> received = new ArrayList<>();
+    EventHandler<ChangeSetEvent<String, Employee>> handler = event -> received.add(event.getChangeSet());
+
+    EventManager.getInstance().addEventHandler(ChangeSetEvent.EMPLOYEES_CHANGED, handler);
+    try {
+        List<Employee> added = operation.addEmployees(batch);
+
+        assertEquals(2, added.size(), "The employee with a duplicate email should be skipped");
+        assertEquals(1, received.size(), "One change event should be fired for the whole batch");
+        assertEquals(Set.of("BULK1", "BULK2"), received.get(0).getAdded().keySet());
+    } finally {
+        EventManager.getInstance().removeEventHandler(ChangeSetEvent.EMPLOYEES_CHANGED, handler);
+        operation.deleteEmployee("BULK1");
+        operation.deleteEmployee("BULK2");
+        operation.deleteEmployee("BULK3");
+    }
+}
+
+@Test
+@Order(9)
+@DisplayName("9. Page and Filter Employees in the Database Test")
+void getEmployeePage() {
+    List<Employee> batch = List.of(
+            new Employee("PAGE3", "Pat", "Page-C", "page.c@example.com", "3333333333",
+                    LocalDate.of(2024, 1, 1), "QA", "Tester", 4000.0),
+            new Employee("PAGE1", "Pat", "Page-A", "page.a@example.com", "1111111111",
+                    LocalDate.of(2024, 1, 1), "QA", "Tester", 4000.0),
+            new Employee("PAGE2", "Pat", "Page-B", "page.b@example.com", "2222222222",
+                    LocalDate.of(2024, 1, 1), "QA", "Tester", 4000.0));
+    assertEquals(3, operation.addEmployees(batch).size());
+    try {
+        assertEquals(operation.getAllEmployees().size(), operation.countEmployees(QuerySpec.all()));
+        QuerySpec qa = QuerySpec.all().withDepartment("QA");
+        assertEquals(3, operation.countEmployees(qa), "A department filter should match the employee's own department");
+        assertEquals(List.of("PAGE2", "PAGE3"),
+                operation.getEmployeePage(qa, 1, 2).stream().map(Employee::getId).toList(),
+                "Pages should follow the name order of the full listing");
+        assertThrows(IllegalArgumentException.class,
+                () -> operation.countEmployees(QuerySpec.all().withEquals("salary; DROP TABLE Employee", 1)));
+    } finally {
+        operation.deleteEmployee("PAGE1");
+        operation.deleteEmployee("PAGE2");
+        operation.deleteEmployee("PAGE3");
+    }
+}
+
+@Test
+@Order(10)
+@DisplayName("10. Close DB Connection Test")
 void closeDatabaseConnection() {
     assertDoesNotThrow(() -> operation.closeDatabaseConnection(), "Closing DB connection should not throw an exception");
 }
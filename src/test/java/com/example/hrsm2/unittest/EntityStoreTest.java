@@ -0,0 +1,116 @@
+package com.example.hrsm2.unittest;
+
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.event.ChangeSetEvent;
+import com.example.hrsm2.event.EventManager;
+import com.example.hrsm2.model.Employee;
+import com.example.hrsm2.store.EntityStore;
+import javafx.collections.transformation.FilteredList;
+import javafx.event.Event;
+import javafx.event.EventType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityStoreTest {
+
+    // Own event type so the test does not touch the application-wide employee store
+    private static final EventType<ChangeSetEvent<String, Employee>> TEST_EMPLOYEES_CHANGED =
+            new EventType<>(Event.ANY, "TEST_STORE_EMPLOYEES_CHANGED");
+
+    private static Employee employee(String id, String lastName, String department) {
+        return new Employee(id, "First", lastName, id + "@example.com", "555-0000",
+                LocalDate.of(2023, 1, 1), department, "Staff", 5000.0);
+    }
+
+    private static class TestStore extends EntityStore<String, Employee> {
+        TestStore(List<Employee> rows, AtomicInteger loads) {
+            super(TEST_EMPLOYEES_CHANGED, Employee::getId, Employee.BY_NAME, () -> {
+                loads.incrementAndGet();
+                return new ArrayList<>(rows);
+            });
+            addIndex("department", Employee::getDepartment);
+        }
+    }
+
+    private static void publish(ChangeSet<String, Employee> changes) {
+        // The JavaFX toolkit is not running in tests, so FX delivery happens inline
+        EventManager.getInstance().fireEvent(new ChangeSetEvent<>(TEST_EMPLOYEES_CHANGED, changes));
+    }
+
+    @Test
+    @DisplayName("Store loads once and follows change events, keeping its indexes current")
+    void testStoreFollowsChangeEvents() {
+        AtomicInteger loads = new AtomicInteger();
+        TestStore store = new TestStore(List.of(employee("A", "Adams", "IT"), employee("C", "Clark", "HR")), loads);
+        FilteredList<Employee> itOnly = store.filtered(e -> "IT".equals(e.getDepartment()));
+        List<String> seenBeforeApply = new ArrayList<>();
+        store.addChangeListener(changes -> seenBeforeApply.add(store.getById("C").getDepartment()));
+
+        publish(new ChangeSet<String, Employee>(Employee::getId)
+                .add(employee("B", "Brown", "IT"))
+                .update(employee("C", "Clark", "IT")));
+
+        assertEquals(1, loads.get(), "Changes must be applied in place, not by reloading");
+        assertEquals(List.of("A", "B", "C"), store.getItems().stream().map(Employee::getId).toList());
+        assertEquals(3, itOnly.size(), "Views follow the shared list");
+        assertEquals(3, store.getByIndex("department", "IT").size());
+        assertTrue(store.getByIndex("department", "HR").isEmpty());
+        assertEquals(List.of("HR"), seenBeforeApply, "Listeners run before the change is applied");
+
+        publish(new ChangeSet<String, Employee>(Employee::getId).delete("A"));
+
+        assertNull(store.getById("A"));
+        assertEquals(2, itOnly.size());
+        assertThrows(UnsupportedOperationException.class, () -> store.getItems().clear());
+    }
+
+    @Test
+    @DisplayName("Refreshing one row replaces or removes it without reloading the table")
+    void testRefreshSingleRow() {
+        AtomicInteger loads = new AtomicInteger();
+        TestStore store = new TestStore(List.of(employee("A", "Adams", "IT"), employee("C", "Clark", "HR")), loads);
+        store.getItems();
+
+        store.refresh("C", employee("C", "Clark", "IT"));
+        store.refresh("A", null);
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of("C"), store.getItems().stream().map(Employee::getId).toList());
+        assertEquals("IT", store.getById("C").getDepartment());
+        assertEquals(1, store.getByIndex("department", "IT").size());
+    }
+
+    @Test
+    @DisplayName("Reload keeps every row visible to lookups until the new rows are swapped in")
+    void testReloadNeverExposesPartialMap() {
+        List<String> missingDuringReload = new ArrayList<>();
+        AtomicReference<EntityStore<String, Employee>> holder = new AtomicReference<>();
+        EntityStore<String, Employee> store = new EntityStore<>(TEST_EMPLOYEES_CHANGED, Employee::getId, Employee.BY_NAME,
+                () -> List.of(employee("A", "Adams", "IT"), employee("C", "Clark", "HR"))) {
+            {
+                // Indexing runs while the reload is in progress, like a lookup from a prefetch thread
+                addIndex("probe", row -> {
+                    if (holder.get() != null && holder.get().getById("C") == null) {
+                        missingDuringReload.add(row.getId());
+                    }
+                    return row.getDepartment();
+                });
+            }
+        };
+        store.getItems();
+        holder.set(store);
+
+        store.reload();
+
+        assertTrue(missingDuringReload.isEmpty(), "Rows vanished during reload: " + missingDuringReload);
+        assertEquals("Clark", store.getById("C").getLastName());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.hrsm2.unittest;
+
+import com.example.hrsm2.event.EventManager;
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.event.EventType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventManagerTest {
+
+    // Each test uses its own event type because the EventManager is a shared singleton
+    private static final EventType<Event> SYNC_EVENT = new EventType<>(Event.ANY, "TEST_SYNC_EVENT");
+    private static final EventType<Event> ASYNC_EVENT = new EventType<>(Event.ANY, "TEST_ASYNC_EVENT");
+    private static final EventType<Event> PRESSURE_EVENT = new EventType<>(Event.ANY, "TEST_PRESSURE_EVENT");
+    private static final EventType<Event> FX_EVENT = new EventType<>(Event.ANY, "TEST_FX_EVENT");
+    private static final EventType<Event> FAILING_EVENT = new EventType<>(Event.ANY, "TEST_FAILING_EVENT");
+
+    private final EventManager eventManager = EventManager.getInstance();
+
+    @Test
+    @DisplayName("SYNC handlers run on the firing thread and can be removed")
+    void testSyncDelivery() {
+        AtomicInteger calls = new AtomicInteger();
+        Thread caller = Thread.currentThread();
+        EventHandler<Event> handler = event -> {
+            assertSame(caller, Thread.currentThread());
+            calls.incrementAndGet();
+        };
+
+        eventManager.addEventHandler(SYNC_EVENT, handler);
+        eventManager.fireEvent(new Event(SYNC_EVENT));
+        eventManager.removeEventHandler(SYNC_EVENT, handler);
+        eventManager.fireEvent(new Event(SYNC_EVENT));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("ASYNC handlers run off the firing thread in firing order")
+    void testAsyncDeliveryPreservesOrder() throws InterruptedException {
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(100);
+        Thread caller = Thread.currentThread();
+        EventHandler<Event> handler = event -> {
+            assertNotSame(caller, Thread.currentThread());
+            received.add(((CountedEvent) event).sequence);
+            done.countDown();
+        };
+
+        eventManager.addEventHandler(ASYNC_EVENT, handler, EventManager.DeliveryMode.ASYNC);
+        for (int i = 0; i < 100; i++) {
+            eventManager.fireEvent(new CountedEvent(ASYNC_EVENT, i));
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, received.get(i));
+        }
+        eventManager.removeEventHandler(ASYNC_EVENT, handler);
+    }
+
+    @Test
+    @DisplayName("Saturated ASYNC subscriber makes the producer wait, never run the handler itself")
+    void testBackPressureBlocksProducer() throws InterruptedException {
+        List<Runnable> parked = new CopyOnWriteArrayList<>();
+        Executor neverRuns = parked::add;
+        AtomicInteger handledByProducer = new AtomicInteger();
+        CountDownLatch fired = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 3; i++) {
+                eventManager.fireEvent(new Event(PRESSURE_EVENT));
+            }
+            fired.countDown();
+        });
+        EventHandler<Event> handler = event -> {
+            if (Thread.currentThread() == producer) {
+                handledByProducer.incrementAndGet();
+            }
+        };
+
+        eventManager.addEventHandler(PRESSURE_EVENT, handler, neverRuns, 2);
+        producer.start();
+
+        assertFalse(fired.await(200, TimeUnit.MILLISECONDS), "The third event must wait for a free slot");
+        assertEquals(2, parked.size());
+        parked.get(0).run(); // The subscriber handles one event, freeing a slot
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertEquals(3, parked.size(), "The waiting event is queued behind the others");
+        assertEquals(0, handledByProducer.get());
+        eventManager.removeEventHandler(PRESSURE_EVENT, handler);
+    }
+
+    @Test
+    @DisplayName("A failing SYNC handler does not stop the publisher or the other handlers")
+    void testSyncHandlerFailureIsContained() {
+        AtomicInteger calls = new AtomicInteger();
+        EventHandler<Event> failing = event -> {
+            throw new IllegalStateException("boom");
+        };
+        EventHandler<Event> counting = event -> calls.incrementAndGet();
+
+        eventManager.addEventHandler(FAILING_EVENT, failing);
+        eventManager.addEventHandler(FAILING_EVENT, counting);
+        assertDoesNotThrow(() -> eventManager.fireEvent(new Event(FAILING_EVENT)));
+
+        assertEquals(1, calls.get());
+        eventManager.removeEventHandler(FAILING_EVENT, failing);
+        eventManager.removeEventHandler(FAILING_EVENT, counting);
+    }
+
+    @Test
+    @DisplayName("FX handlers are delivered inline when the JavaFX toolkit is not running")
+    void testFxDeliveryWithoutToolkit() {
+        AtomicInteger calls = new AtomicInteger();
+        EventHandler<Event> handler = event -> calls.incrementAndGet();
+
+        eventManager.addEventHandler(FX_EVENT, handler, EventManager.DeliveryMode.FX);
+        eventManager.fireEvent(new Event(FX_EVENT));
+        eventManager.fireEvent(new Event(FX_EVENT));
+
+        assertEquals(2, calls.get());
+        eventManager.removeEventHandler(FX_EVENT, handler);
+    }
+
+    private static class CountedEvent extends Event {
+        private final int sequence;
+
+        CountedEvent(EventType<? extends Event> eventType, int sequence) {
+            super(eventType);
+            this.sequence = sequence;
+        }
+    }
+}
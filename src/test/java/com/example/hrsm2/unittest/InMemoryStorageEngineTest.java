@@ -0,0 +1,166 @@
+package com.example.hrsm2.unittest;
+
+import com.example.hrsm2.model.*;
+import com.example.hrsm2.repository.memory.InMemoryStorageEngine;
+import com.example.hrsm2.service.EmployeeService;
+import com.example.hrsm2.service.LeaveRequestService;
+import com.example.hrsm2.service.PayrollService;
+import com.example.hrsm2.service.PerformanceEvaluationService;
+import com.example.hrsm2.service.UserService;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(OrderAnnotation.class)
+class InMemoryStorageEngineTest {
+
+    private InMemoryStorageEngine engine;
+    private EmployeeService employeeService;
+    private Employee alice;
+    private Employee bob;
+
+    @BeforeEach
+    void setUp() {
+        engine = new InMemoryStorageEngine();
+        employeeService = new EmployeeService(engine.employees());
+        alice = new Employee("Alice", "Adams", "alice@example.com", "555-0101",
+                LocalDate.of(2020, 1, 1), "Engineering", "Developer", 120000);
+        bob = new Employee("Bob", "Brown", "bob@example.com", "555-0102",
+                LocalDate.of(2021, 6, 1), "Sales", "Account Manager", 60000);
+        assertTrue(employeeService.addEmployee(bob));
+        assertTrue(employeeService.addEmployee(alice));
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Should store employees in name order and enforce unique emails")
+    void employeesAreOrderedAndUnique() {
+        List<Employee> employees = employeeService.getAllEmployees();
+        assertEquals(List.of(alice.getId(), bob.getId()), employees.stream().map(Employee::getId).toList());
+        assertEquals(List.of(bob.getId()), employeeService.getEmployeePage(QuerySpec.all(), 1, 5).stream()
+                .map(Employee::getId).toList());
+        assertEquals(1, employeeService.countEmployees(QuerySpec.all().withDepartment("Sales")));
+        assertEquals(alice.getId(), employeeService.getEmployeePage(QuerySpec.all()
+                .withSort("salary", QuerySpec.Direction.DESCENDING), 0, 1).get(0).getId());
+
+        Employee duplicate = new Employee("Alicia", "Other", "alice@example.com", "555-0103",
+                LocalDate.of(2022, 1, 1), "Engineering", "Tester", 70000);
+        assertFalse(employeeService.addEmployee(duplicate), "Emails are unique, as in the SQL schema.");
+        assertEquals(1, employeeService.searchEmployees("sales").size());
+        assertEquals(1, engine.employees().getHeadcountByDepartment().get("Engineering"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Should return copies and reject stale updates")
+    void updatesAreVersioned() {
+        Employee first = employeeService.getEmployeeById(alice.getId());
+        Employee second = employeeService.getEmployeeById(alice.getId());
+        first.setSalary(130000);
+        assertEquals(120000, employeeService.getEmployeeById(alice.getId()).getSalary(),
+                "Editing a returned entity must not change the store.");
+
+        assertEquals(UpdateResult.UPDATED, employeeService.tryUpdateEmployee(first));
+        second.setJobTitle("Lead Developer");
+        assertEquals(UpdateResult.CONFLICT, employeeService.tryUpdateEmployee(second));
+        assertEquals(130000, employeeService.getEmployeeById(alice.getId()).getSalary());
+
+        // A form edits a copy, so a rejected save leaves the shown row as stored
+        Employee shown = employeeService.getEmployeeById(alice.getId());
+        Employee edited = shown.copy();
+        edited.setJobTitle("Architect");
+        assertEquals(Set.of("jobTitle"), edited.getDirtyFields());
+        assertEquals(UpdateResult.UPDATED, employeeService.tryUpdateEmployee(edited));
+        Employee staleCopy = shown.copy();
+        staleCopy.setPhone("555-9999");
+        assertEquals(UpdateResult.CONFLICT, employeeService.tryUpdateEmployee(staleCopy));
+        assertNotEquals("555-9999", shown.getPhone());
+        assertTrue(shown.getDirtyFields().isEmpty());
+
+        assertTrue(employeeService.deleteEmployee(bob.getId()));
+        assertEquals(UpdateResult.NOT_FOUND, engine.employees().tryUpdateEmployee(bob));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Should page, sort and filter payrolls like the SQL engine")
+    void payrollQueries() {
+        PayrollService payrollService = new PayrollService(engine.payrolls(), employeeService);
+        LocalDate january = LocalDate.of(2031, 1, 1);
+        LocalDate february = LocalDate.of(2031, 2, 1);
+        assertEquals(2, payrollService.generatePayrollsForAllEmployees(january, january.plusDays(30)).size());
+        assertEquals(2, payrollService.generatePayrollsForAllEmployees(february, february.plusDays(27)).size());
+        assertTrue(payrollService.generatePayrollsForAllEmployees(january, january.plusDays(30)).isEmpty(),
+                "An employee has at most one payroll per period.");
+
+        List<Payroll> newestFirst = payrollService.getPayrollPage(QuerySpec.all(), 0, 2);
+        assertTrue(newestFirst.stream().allMatch(p -> february.equals(p.getPayPeriodStart())));
+
+        QuerySpec engineering = QuerySpec.all().withDepartment("Engineering")
+                .withSort("netSalary", QuerySpec.Direction.ASCENDING);
+        assertEquals(2, payrollService.countPayrolls(engineering));
+        assertEquals(alice.getId(), payrollService.getPayrollPage(engineering, 1, 5).get(0).getEmployeeId());
+        assertEquals(4, payrollService.getPayrollsForPeriod(january.plusDays(20), february.plusDays(3)).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> payrollService.countPayrolls(QuerySpec.all().withEquals("noSuchField", 1)));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Should keep leave requests and rating statistics up to date")
+    void leaveAndRatings() {
+        LeaveRequestService leaveService = new LeaveRequestService(engine.leaveRequests());
+        LeaveRequest request = new LeaveRequest(alice.getId(), LocalDate.of(2031, 3, 30),
+                LocalDate.of(2031, 4, 3), "Holiday");
+        assertTrue(leaveService.submitLeaveRequest(request));
+        assertTrue(leaveService.approveLeaveRequest(request.getId(), "Enjoy"));
+        assertEquals(3L, engine.leaveRequests().getApprovedLeaveDaysByDepartment(
+                LocalDate.of(2031, 4, 1), LocalDate.of(2031, 4, 30)).get("Engineering"));
+
+        PerformanceEvaluationService evaluationService = new PerformanceEvaluationService(engine.evaluations());
+        PerformanceEvaluation good = new PerformanceEvaluation(alice.getId(), 5, "Design", "Docs", "Great", "Manager");
+        PerformanceEvaluation fair = new PerformanceEvaluation(alice.getId(), 3, "Speed", "Tests", "Fair", "Manager");
+        evaluationService.addEvaluation(good);
+        evaluationService.addEvaluation(fair);
+        assertEquals(4.0, evaluationService.getAverageRatingForEmployee(alice.getId()), 0.001);
+
+        evaluationService.deleteEvaluation(good.getId());
+        RatingStats stats = evaluationService.getRatingStatsForEmployee(alice.getId());
+        assertEquals(1, stats.getEvaluationCount());
+        assertEquals(3, stats.getMaxRating());
+        assertEquals(1, evaluationService.getCompanyRatingStats().getEvaluationCount());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. Should restore every table from a snapshot")
+    void snapshotRoundTrip(@TempDir Path directory) {
+        Path snapshot = directory.resolve("hrsm.snapshot");
+        UserService userService = new UserService(engine.users());
+        assertTrue(userService.createUser("hr1", "secret", "HR One", User.UserRole.HR_ADMIN));
+        LeaveRequestService leaveService = new LeaveRequestService(engine.leaveRequests());
+        LeaveRequest request = new LeaveRequest(bob.getId(), LocalDate.of(2031, 5, 1),
+                LocalDate.of(2031, 5, 2), "Moving");
+        assertTrue(leaveService.submitLeaveRequest(request));
+        assertTrue(engine.saveSnapshot(snapshot));
+
+        InMemoryStorageEngine restored = new InMemoryStorageEngine(snapshot);
+        assertEquals(2, restored.employees().getAllEmployees().size());
+        assertEquals(alice.getVersion(), restored.employees().getEmployeeById(alice.getId()).getVersion());
+        assertNotNull(new UserService(restored.users()).authenticate("hr1", "secret"));
+        assertNotNull(restored.users().getUserByUsername("super"));
+
+        // Leave IDs keep counting from where the saved engine stopped
+        LeaveRequest next = new LeaveRequest(bob.getId(), LocalDate.of(2031, 6, 1), LocalDate.of(2031, 6, 1), "Errand");
+        assertEquals(request.getId() + 1, restored.leaveRequests().insertLeaveRequest(next));
+    }
+}
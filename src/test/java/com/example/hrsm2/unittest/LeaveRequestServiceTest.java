@@ -2,6 +2,7 @@ package com.example.hrsm2.unittest;
 
 import com.example.hrsm2.model.*;
 import com.example.hrsm2.service.LeaveRequestService;
+import com.example.hrsm2.testutil.IsolatedDatabase;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
@@ -15,6 +16,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 @TestMethodOrder(OrderAnnotation.class)
+@IsolatedDatabase
 class LeaveRequestServiceTest {
 
     private LeaveRequestService operation;
@@ -58,9 +60,16 @@ class LeaveRequestServiceTest {
     @Order(3)
     @DisplayName("3. Get all leave requests")
     void getAllLeaveRequests() {
+        // The class runs against its own empty database, so provide a request to list
+        Request = new LeaveRequest("EMP001", LocalDate.now().plusDays(210),
+                LocalDate.now().plusDays(211), "Vacation");
+        assertTrue(operation.submitLeaveRequest(Request));
+
         List<LeaveRequest> requests = operation.getAllLeaveRequests();
         assertFalse(requests.isEmpty());
         assertNotNull(requests);
+
+        operation.deleteLeaveRequest(Request.getId());
     }
 
     @ParameterizedTest
@@ -266,4 +275,27 @@ class LeaveRequestServiceTest {
         assertNull(deleted);
     }
 
+    @Test
+    @Order(13)
+    @DisplayName("13. Overlap range query returns only requests touching the range")
+    void getLeaveRequestsOverlapping() {
+        LocalDate start = LocalDate.now().plusDays(400);
+        Request = new LeaveRequest("EMP001", start, start.plusDays(5), "Vacation");
+        assertTrue(operation.submitLeaveRequest(Request));
+        try {
+            List<LeaveRequest> overlapping = operation.getLeaveRequestsOverlapping(start.plusDays(5), start.plusDays(30));
+            assertTrue(overlapping.stream().anyMatch(r -> r.getId().equals(Request.getId())),
+                    "A request ending on the first day of the range overlaps it");
+
+            List<LeaveRequest> after = operation.getLeaveRequestsOverlapping(start.plusDays(6), start.plusDays(30));
+            assertTrue(after.stream().noneMatch(r -> r.getId().equals(Request.getId())));
+            for (LeaveRequest request : after) {
+                assertFalse(request.getStartDate().isAfter(start.plusDays(30)));
+                assertFalse(request.getEndDate().isBefore(start.plusDays(6)));
+            }
+        } finally {
+            operation.deleteLeaveRequest(Request.getId());
+        }
+    }
+
 }
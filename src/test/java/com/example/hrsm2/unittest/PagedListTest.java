@@ -0,0 +1,131 @@
+package com.example.hrsm2.unittest;
+
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.store.PageLoader;
+import com.example.hrsm2.store.PagedList;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedListTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    /**
+     * In-memory loader that records the offset of every page it serves.
+     */
+    private static class RecordingLoader implements PageLoader<String> {
+        final List<String> rows = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> loadedOffsets = new CopyOnWriteArrayList<>();
+
+        RecordingLoader(int count) {
+            for (int i = 0; i < count; i++) {
+                rows.add("row-" + i);
+            }
+        }
+
+        @Override
+        public int count() {
+            return rows.size();
+        }
+
+        @Override
+        public List<String> loadPage(int offset, int limit) {
+            loadedOffsets.add(offset);
+            synchronized (rows) {
+                return new ArrayList<>(rows.subList(Math.min(offset, rows.size()), Math.min(offset + limit, rows.size())));
+            }
+        }
+
+        long loadsAt(int offset) {
+            return loadedOffsets.stream().filter(o -> o == offset).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Only the pages that are read are loaded, each once while cached")
+    void testLoadsPagesOnDemand() {
+        RecordingLoader loader = new RecordingLoader(1_000_000);
+        PagedList<String> list = new PagedList<>(loader, PAGE_SIZE, 4);
+
+        assertEquals(1_000_000, list.size());
+        assertEquals("row-0", list.get(0));
+        assertEquals("row-9", list.get(9));
+        assertEquals("row-500000", list.get(500_000));
+
+        assertEquals(1, loader.loadsAt(0), "Rows of a cached page must not be reloaded");
+        assertEquals(1, loader.loadsAt(500_000));
+        assertTrue(loader.loadedOffsets.size() <= 4, "Only visited pages and their prefetch neighbours may be loaded");
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1_000_000));
+    }
+
+    @Test
+    @DisplayName("Least recently used pages are evicted from the window")
+    void testEvictsOldPages() {
+        RecordingLoader loader = new RecordingLoader(100);
+        PagedList<String> list = new PagedList<>(loader, PAGE_SIZE, 2);
+
+        list.get(0);
+        list.get(50);
+        list.get(90);
+        assertEquals("row-1", list.get(1));
+
+        assertEquals(2, loader.loadsAt(0), "Page 0 must have been evicted and loaded again");
+    }
+
+    @Test
+    @DisplayName("Updates patch cached rows in place; inserts and deletes refresh the count")
+    void testApplyChanges() {
+        RecordingLoader loader = new RecordingLoader(25);
+        PagedList<String> list = new PagedList<>(loader, PAGE_SIZE, 4);
+        list.get(3);
+        List<String> changes = new ArrayList<>();
+        list.addListener((ListChangeListener<String>) change -> {
+            while (change.next()) {
+                changes.add(change.wasReplaced() ? "replaced" : change.wasAdded() ? "added" : "removed");
+            }
+        });
+
+        // Rows are keyed by their numeric suffix so an updated value keeps its identity
+        ChangeSet<String, String> update = new ChangeSet<String, String>(row -> row.substring(row.indexOf('-') + 1))
+                .update("updated-3");
+        list.applyChanges(update);
+        assertEquals("updated-3", list.get(3));
+        assertEquals(List.of("replaced"), changes);
+
+        loader.rows.add("row-25");
+        list.applyChanges(new ChangeSet<String, String>(row -> row.substring(row.indexOf('-') + 1)).add("row-25"));
+        assertEquals(26, list.size());
+        assertEquals("row-25", list.get(25));
+        assertEquals("row-3", list.get(3), "A refresh must reload rows from the loader");
+    }
+
+    @Test
+    @DisplayName("Mapped pages are projected once per load and re-projected only for changed rows")
+    void testProjectedRows() {
+        RecordingLoader loader = new RecordingLoader(30);
+        List<String> projected = new CopyOnWriteArrayList<>();
+        PagedList<String[]> list = new PagedList<>(loader.map(row -> {
+            projected.add(row);
+            return new String[]{row, row.toUpperCase()};
+        }), PAGE_SIZE, 4);
+
+        assertEquals("ROW-4", list.get(4)[1]);
+        list.get(5);
+        assertEquals(1, projected.stream().filter("row-5"::equals).count(), "Rendering must not project again");
+
+        ChangeSet<String, String> update = new ChangeSet<String, String>(row -> row.substring(row.indexOf('-') + 1))
+                .update("changed-5");
+        list.applyChanges(update, row -> row[0].substring(row[0].indexOf('-') + 1),
+                row -> new String[]{row, row.toUpperCase()});
+        assertEquals("CHANGED-5", list.get(5)[1]);
+        assertEquals("ROW-4", list.get(4)[1]);
+    }
+}
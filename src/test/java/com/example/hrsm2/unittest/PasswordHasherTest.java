@@ -0,0 +1,91 @@
+package com.example.hrsm2.unittest;
+
+import com.example.hrsm2.model.User;
+import com.example.hrsm2.repository.UserRepository;
+import com.example.hrsm2.repository.memory.InMemoryStorageEngine;
+import com.example.hrsm2.service.UserService;
+import com.example.hrsm2.util.PasswordHasher;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(OrderAnnotation.class)
+class PasswordHasherTest {
+
+    // The cheapest allowed cost keeps the tests fast
+    private final PasswordHasher hasher = PasswordHasher.withIterations(PasswordHasher.MIN_ITERATIONS);
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Should verify a salted hash and reject a wrong password")
+    void hashAndVerify() {
+        String first = hasher.hash("secret");
+        String second = hasher.hash("secret");
+
+        assertTrue(first.startsWith("pbkdf2-sha256$" + PasswordHasher.MIN_ITERATIONS + "$"));
+        assertNotEquals(first, second, "Each hash must use its own salt.");
+        assertTrue(hasher.verify("secret", first));
+        assertTrue(hasher.verify("secret", second));
+        assertFalse(hasher.verify("Secret", first));
+        assertFalse(hasher.verify(null, first));
+        assertFalse(hasher.verify("secret", "pbkdf2-sha256$x$y$z"));
+        assertFalse(hasher.needsRehash(first));
+        assertTrue(PasswordHasher.withIterations(2 * PasswordHasher.MIN_ITERATIONS).needsRehash(first));
+        assertThrows(IllegalArgumentException.class, () -> PasswordHasher.withIterations(1));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Should accept legacy SHA-256 hashes and mark them for rehashing")
+    void legacyHash() {
+        String legacy = PasswordHasher.legacyHash("super123");
+
+        assertEquals(64, legacy.length());
+        assertTrue(hasher.verify("super123", legacy));
+        assertTrue(hasher.verify("super123", legacy.toUpperCase()));
+        assertFalse(hasher.verify("super124", legacy));
+        assertTrue(hasher.needsRehash(legacy));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Should replace a legacy hash on successful login")
+    void rehashOnLogin() {
+        UserRepository users = new InMemoryStorageEngine().users();
+        UserService userService = new UserService(users);
+        assertTrue(userService.createUser("hr1", "secret", "HR One", User.UserRole.HR_ADMIN));
+        User stored = users.getUserByUsername("hr1");
+        users.updateUser(new User("hr1", PasswordHasher.legacyHash("secret"), stored.getFullName(), stored.getRole()));
+
+        assertNull(userService.authenticate("hr1", "wrong"));
+        assertEquals(64, users.getUserByUsername("hr1").getPassword().length(), "A failed login must not rehash.");
+
+        assertNotNull(userService.authenticate("hr1", "secret"));
+        String upgraded = users.getUserByUsername("hr1").getPassword();
+        assertTrue(upgraded.startsWith("pbkdf2-sha256$"));
+        assertNotNull(userService.authenticate("hr1", "secret"));
+        assertNull(userService.authenticate("nobody", "secret"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Should upgrade only the hash, keeping a role changed since the user was cached")
+    void rehashKeepsConcurrentChanges() {
+        UserRepository users = new InMemoryStorageEngine().users();
+        UserService userService = new UserService(users);
+        assertTrue(userService.createUser("hr2", "secret", "HR Two", User.UserRole.HR_ADMIN));
+        String legacy = PasswordHasher.legacyHash("secret");
+        users.updateUser(new User("hr2", legacy, "HR Two", User.UserRole.HR_ADMIN));
+        assertNull(userService.authenticate("hr2", "wrong")); // Caches the user with the legacy hash
+
+        // An administrator promotes the user behind the service's back
+        users.updateUser(new User("hr2", legacy, "HR Two", User.UserRole.SUPER_ADMIN));
+        assertNotNull(userService.authenticate("hr2", "secret"));
+
+        User stored = users.getUserByUsername("hr2");
+        assertTrue(stored.getPassword().startsWith("pbkdf2-sha256$"));
+        assertEquals(User.UserRole.SUPER_ADMIN, stored.getRole(), "The upgrade must not write back the cached role.");
+        assertFalse(users.updatePasswordHash("hr2", legacy, "stale"), "Only the hash just verified may be replaced.");
+    }
+}
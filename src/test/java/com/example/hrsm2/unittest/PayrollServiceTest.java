@@ -1,8 +1,19 @@
 package com.example.hrsm2.unittest;
 
+import com.example.hrsm2.event.ChangeSet;
+import com.example.hrsm2.event.ChangeSetEvent;
+import com.example.hrsm2.event.EventManager;
 import com.example.hrsm2.model.*;
+import com.example.hrsm2.repository.PayrollRepository;
+import com.example.hrsm2.repository.memory.InMemoryStorageEngine;
 import com.example.hrsm2.service.PayrollService;
 import com.example.hrsm2.service.EmployeeService;
+import com.example.hrsm2.service.PayrollJob;
+import com.example.hrsm2.service.PayrollRunSummary;
+import com.example.hrsm2.util.QuerySpec;
+import com.example.hrsm2.util.UpdateResult;
+import com.example.hrsm2.testutil.IsolatedDatabase;
+import javafx.event.EventHandler;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
@@ -11,10 +22,17 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
 import static org.junit.jupiter.api.Assertions.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @TestMethodOrder(OrderAnnotation.class)
+@IsolatedDatabase
 public class PayrollServiceTest {
 
     private PayrollService operation;
@@ -105,7 +123,7 @@ public class PayrollServiceTest {
         employee= new Employee(employeeID,"FirstName","LastName", "Email", "Phone",
                 LocalDate.of(2023, 11, 15), "Department", "Department", 5000.00);
         employeeService.addEmployee(employee);
-        payroll = operation.generatePayroll(employeeID, LocalDate.now(), LocalDate.now().plusDays(30));
+        payroll = operation.generatePayroll(employeeID, LocalDate.now().minusDays(1), LocalDate.now().plusDays(30));
         payroll.setTaxDeductions(100);
         payroll.setOtherDeductions(50);
 
@@ -128,7 +146,7 @@ public class PayrollServiceTest {
         employee= new Employee(employeeID,"FirstName","LastName", "Email", "Phone",
                 LocalDate.of(2023, 11, 15), "Department", "Department", 5000.00);
         employeeService.addEmployee(employee);
-        payroll = operation.generatePayroll(employeeID, LocalDate.now(), LocalDate.now().plusDays(30));
+        payroll = operation.generatePayroll(employeeID, LocalDate.now().minusDays(2), LocalDate.now().plusDays(30));
 
         assertTrue(operation.processPayroll(payroll.getId()));
 
@@ -149,7 +167,7 @@ public class PayrollServiceTest {
         employee= new Employee(employeeID,"FirstName","LastName", "Email", "Phone",
                 LocalDate.of(2023, 11, 15), "Department", "Department", 5000.00);
         employeeService.addEmployee(employee);
-        payroll = operation.generatePayroll(employeeID, LocalDate.now(), LocalDate.now().plusDays(30));
+        payroll = operation.generatePayroll(employeeID, LocalDate.now().minusDays(3), LocalDate.now().plusDays(30));
         operation.processPayroll(payroll.getId());
 
         assertTrue(operation.markPayrollAsPaid(payroll.getId()));
@@ -171,7 +189,7 @@ public class PayrollServiceTest {
         employee= new Employee(employeeID,"FirstName","LastName", "Email", "Phone",
                 LocalDate.of(2023, 11, 15), "Department", "Department", 5000.00);
         employeeService.addEmployee(employee);
-        payroll = operation.generatePayroll(employeeID, LocalDate.now(), LocalDate.now().plusDays(30));
+        payroll = operation.generatePayroll(employeeID, LocalDate.now().minusDays(4), LocalDate.now().plusDays(30));
 
         assertTrue(operation.deletePayroll(payroll.getId()));
 
@@ -199,7 +217,7 @@ public class PayrollServiceTest {
         employee= new Employee(employeeID,"FirstName","LastName", "Email", "Phone",
                 LocalDate.of(2023, 11, 15), "Department", "Department", 5000.00);
         employeeService.addEmployee(employee);
-        payroll= operation.generatePayroll(employeeID, LocalDate.now(), LocalDate.now().plusDays(30));
+        payroll= operation.generatePayroll(employeeID, LocalDate.now().minusDays(5), LocalDate.now().plusDays(30));
         List<Payroll> payrolls = operation.getPayrollsByEmployeeId(employeeID);
 
         assertNotNull(payrolls);
@@ -207,4 +225,331 @@ public class PayrollServiceTest {
         employeeService.deleteEmployee(employeeID);
         operation.deletePayroll(payroll.getId());
     }
+
+    @Test
+    @Order(11)
+    @DisplayName("11. Parallel payroll run reports progress and summary")
+    void testStartPayrollRun() {
+        LocalDate start = LocalDate.of(2031, 1, 1);
+        LocalDate end = LocalDate.of(2031, 1, 31);
+        AtomicInteger lastProgress = new AtomicInteger();
+
+        PayrollJob job = operation.startPayrollRun(start, end, (completed, total) -> lastProgress.set(completed));
+        PayrollRunSummary summary = job.await();
+
+        assertNotNull(summary);
+        assertFalse(summary.isCancelled());
+        assertEquals(summary.getTotalEmployees(), summary.getGeneratedCount() + summary.getFailedCount());
+        assertEquals(summary.getTotalEmployees(), lastProgress.get());
+
+        for (Payroll generated : summary.getPayrolls()) {
+            assertEquals(start, generated.getPayPeriodStart());
+            operation.deletePayroll(generated.getId());
+        }
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("12. Re-running a payroll run does not duplicate payrolls")
+    void testPayrollRunIsIdempotent() {
+        LocalDate start = LocalDate.of(2032, 2, 1);
+        LocalDate end = LocalDate.of(2032, 2, 29);
+
+        PayrollRunSummary first = operation.startPayrollRun(start, end, null).await();
+        PayrollRunSummary second = operation.startPayrollRun(start, end, null).await();
+
+        assertNotNull(first.getRunId());
+        assertEquals(0, second.getGeneratedCount());
+        assertFalse(second.isResumed());
+
+        for (Payroll generated : first.getPayrolls()) {
+            assertEquals(1, operation.getPayrollsByEmployeeId(generated.getEmployeeId()).stream()
+                    .filter(p -> start.equals(p.getPayPeriodStart()))
+                    .count());
+            operation.deletePayroll(generated.getId());
+        }
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("13. Bulk process and pay payrolls for a period")
+    void testBulkTransitions() {
+        LocalDate start = LocalDate.of(2033, 3, 1);
+        LocalDate end = LocalDate.of(2033, 3, 31);
+        List<Payroll> generated = operation.startPayrollRun(start, end, null).await().getPayrolls();
+
+        List<String> processed = operation.processAllPendingPayrolls(start, end);
+        assertEquals(generated.size(), processed.size());
+        assertTrue(operation.processAllPendingPayrolls(start, end).isEmpty());
+
+        List<String> paid = operation.markAllProcessedPayrollsAsPaid(start, end);
+        assertEquals(generated.size(), paid.size());
+        for (String id : paid) {
+            assertEquals(Payroll.PayrollStatus.PAID, operation.getPayrollById(id).getStatus());
+            operation.deletePayroll(id);
+        }
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("14. Update writes only the changed payroll columns")
+    void testPartialUpdateTracksDirtyFields() {
+        LocalDate start = LocalDate.of(2034, 4, 1);
+        LocalDate end = LocalDate.of(2034, 4, 30);
+        List<Payroll> generated = operation.startPayrollRun(start, end, null).await().getPayrolls();
+        if (generated.isEmpty()) {
+            return;
+        }
+        Payroll stored = operation.getPayrollById(generated.get(0).getId());
+        assertTrue(stored.getDirtyFields().isEmpty());
+
+        stored.setBonus(250);
+        assertTrue(stored.getDirtyFields().containsAll(List.of("bonus", "netSalary")));
+        assertTrue(operation.updatePayroll(stored));
+        assertTrue(stored.getDirtyFields().isEmpty());
+
+        Payroll reloaded = operation.getPayrollById(stored.getId());
+        assertEquals(250, reloaded.getBonus());
+        assertEquals(stored.getNetSalary(), reloaded.getNetSalary());
+        assertEquals(stored.getBaseSalary(), reloaded.getBaseSalary());
+
+        for (Payroll p : generated) {
+            operation.deletePayroll(p.getId());
+        }
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("15. Stale payroll update is rejected as a conflict")
+    void testStaleUpdateConflicts() {
+        LocalDate start = LocalDate.of(2035, 5, 1);
+        LocalDate end = LocalDate.of(2035, 5, 31);
+        List<Payroll> generated = operation.startPayrollRun(start, end, null).await().getPayrolls();
+        if (generated.isEmpty()) {
+            return;
+        }
+        String id = generated.get(0).getId();
+        Payroll first = operation.getPayrollById(id);
+        Payroll second = operation.getPayrollById(id);
+
+        first.setBonus(100);
+        assertEquals(UpdateResult.UPDATED, operation.tryUpdatePayroll(first));
+        assertEquals(second.getVersion() + 1, first.getVersion());
+
+        second.setOvertimePay(75);
+        assertEquals(UpdateResult.CONFLICT, operation.tryUpdatePayroll(second));
+        assertEquals(100, operation.getPayrollById(id).getBonus());
+
+        operation.deletePayroll(id);
+        assertEquals(UpdateResult.NOT_FOUND, operation.tryUpdatePayroll(first));
+
+        for (Payroll p : generated) {
+            operation.deletePayroll(p.getId());
+        }
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("16. Bulk transition publishes one change event with the updated rows")
+    void testBulkTransitionPublishesChangeSet() {
+        LocalDate start = LocalDate.of(2036, 6, 1);
+        LocalDate end = LocalDate.of(2036, 6, 30);
+        List<Payroll> generated = operation.startPayrollRun(start, end, null).await().getPayrolls();
+        if (generated.isEmpty()) {
+            return;
+        }
+        // Other tests may publish payroll events concurrently, so only look at events for this period
+        List<ChangeSet<String, Payroll>> received = new CopyOnWriteArrayList<>();
+        EventHandler<ChangeSetEvent<String, Payroll>> handler = event -> {
+            if (event.getChangeSet().getUpdated().values().stream().anyMatch(p -> start.equals(p.getPayPeriodStart()))) {
+                received.add(event.getChangeSet());
+            }
+        };
+
+        EventManager.getInstance().addEventHandler(ChangeSetEvent.PAYROLLS_CHANGED, handler);
+        try {
+            List<String> processed = operation.processAllPendingPayrolls(start, end);
+
+            assertEquals(1, received.size());
+            assertEquals(Set.copyOf(processed), received.get(0).getUpdated().keySet());
+            for (Payroll payroll : received.get(0).getUpdated().values()) {
+                assertEquals(Payroll.PayrollStatus.PROCESSED, payroll.getStatus());
+            }
+        } finally {
+            EventManager.getInstance().removeEventHandler(ChangeSetEvent.PAYROLLS_CHANGED, handler);
+            for (Payroll p : generated) {
+                operation.deletePayroll(p.getId());
+            }
+        }
+    }
+
+    @Test
+    @Order(17)
+    @DisplayName("17. Query specs filter and sort payroll pages in the database")
+    void testQuerySpecPage() {
+        LocalDate start = LocalDate.of(2037, 3, 1);
+        LocalDate end = LocalDate.of(2037, 3, 31);
+        List<Payroll> generated = operation.startPayrollRun(start, end, null).await().getPayrolls();
+        try {
+            QuerySpec spec = QuerySpec.all()
+                    .withRange("payPeriodStart", start, start)
+                    .withEquals("status", Payroll.PayrollStatus.PENDING)
+                    .withSort("netSalary", QuerySpec.Direction.DESCENDING);
+
+            assertEquals(generated.size(), operation.countPayrolls(spec));
+            List<Payroll> page = operation.getPayrollPage(spec, 0, generated.size() + 1);
+            assertEquals(generated.size(), page.size());
+            for (int i = 0; i < page.size(); i++) {
+                assertEquals(start, page.get(i).getPayPeriodStart());
+                assertEquals(Payroll.PayrollStatus.PENDING, page.get(i).getStatus());
+                if (i > 0) {
+                    assertTrue(page.get(i - 1).getNetSalary() >= page.get(i).getNetSalary());
+                }
+            }
+            assertThrows(IllegalArgumentException.class,
+                    () -> operation.countPayrolls(QuerySpec.all().withEquals("net_salary; DROP TABLE Payroll", 1)));
+        } finally {
+            for (Payroll p : generated) {
+                operation.deletePayroll(p.getId());
+            }
+        }
+    }
+
+    @Test
+    @Order(18)
+    @DisplayName("18. A failing writer stops the workers instead of leaving them blocked")
+    void testWriterFailureReleasesWorkers() throws InterruptedException {
+        InMemoryStorageEngine engine = new InMemoryStorageEngine();
+        EmployeeService employees = new EmployeeService(engine.employees());
+        for (int i = 0; i < 2000; i++) {
+            employees.addEmployee(new Employee("Worker", "No" + i, "worker" + i + "@example.com", "555-0000",
+                    LocalDate.of(2020, 1, 1), "Operations", "Operator", 40000));
+        }
+        PayrollRepository delegate = engine.payrolls();
+        // Every chunk commit fails, so the writer gives up with the queue full
+        PayrollRepository failing = (PayrollRepository) Proxy.newProxyInstance(PayrollRepository.class.getClassLoader(),
+                new Class<?>[]{PayrollRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("commitPayrollChunk")) {
+                        throw new IllegalStateException("disk full");
+                    }
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        PayrollService service = new PayrollService(failing, employees);
+
+        PayrollJob job = service.startPayrollRun(LocalDate.of(2038, 1, 1), LocalDate.of(2038, 1, 31), null);
+
+        assertThrows(IllegalStateException.class, job::await);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (workerThreadsAlive() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(workerThreadsAlive(), "Payroll workers must not stay blocked on the queue");
+    }
+
+    @Test
+    @Order(19)
+    @DisplayName("19. A second run for a period in progress is rejected, not joined")
+    void testConcurrentRunForSamePeriodIsRejected() throws InterruptedException {
+        InMemoryStorageEngine engine = new InMemoryStorageEngine();
+        EmployeeService employees = new EmployeeService(engine.employees());
+        for (int i = 0; i < 20; i++) {
+            employees.addEmployee(new Employee("Clerk", "No" + i, "clerk" + i + "@example.com", "555-0000",
+                    LocalDate.of(2020, 1, 1), "Finance", "Clerk", 45000));
+        }
+        PayrollService service = new PayrollService(engine.payrolls(), employees);
+        LocalDate start = LocalDate.of(2039, 1, 1);
+        LocalDate end = LocalDate.of(2039, 1, 31);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // The first run cannot finish before its progress listener returns
+        PayrollJob first = service.startPayrollRun(start, end, (completed, total) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        PayrollJob second = service.startPayrollRun(start, end, null);
+        release.countDown();
+
+        assertThrows(IllegalStateException.class, second::await);
+        assertEquals(20, first.await().getGeneratedCount());
+        assertEquals(0, service.startPayrollRun(start, end, null).await().getGeneratedCount(),
+                "The period is free again once the first run finished.");
+
+        PayrollRun running = new PayrollRun(start, end, 20);
+        assertFalse(running.isResumable());
+        running.setStatus(PayrollRun.RunStatus.CANCELLED);
+        assertTrue(running.isResumable());
+    }
+
+    @Test
+    @Order(20)
+    @DisplayName("20. A run left RUNNING by a crashed process is resumed from its checkpoint")
+    void testCrashedRunIsResumed() {
+        InMemoryStorageEngine engine = new InMemoryStorageEngine();
+        EmployeeService employees = new EmployeeService(engine.employees());
+        for (int i = 0; i < 5; i++) {
+            employees.addEmployee(new Employee("Crash", "No" + i, "crash" + i + "@example.com", "555-0000",
+                    LocalDate.of(2020, 1, 1), "Finance", "Clerk", 45000));
+        }
+        PayrollRepository payrolls = engine.payrolls();
+        LocalDate start = LocalDate.of(2040, 1, 1);
+        LocalDate end = LocalDate.of(2040, 1, 31);
+
+        // What a process that died after its first chunk leaves behind
+        PayrollRun crashed = new PayrollRun(start, end, 5);
+        assertTrue(payrolls.insertPayrollRun(crashed));
+        List<Payroll> firstChunk = employees.getAllEmployees().stream().limit(2)
+                .map(employee -> new Payroll(employee.getId(), start, end, 3750))
+                .toList();
+        assertEquals(2, payrolls.commitPayrollChunk(crashed.getId(), firstChunk).size());
+
+        PayrollRunSummary summary = new PayrollService(payrolls, employees).startPayrollRun(start, end, null).await();
+
+        assertTrue(summary.isResumed());
+        assertEquals(crashed.getId(), summary.getRunId());
+        assertEquals(3, summary.getGeneratedCount());
+        PayrollRun ledger = payrolls.getLatestPayrollRun(start, end);
+        assertEquals(crashed.getId(), ledger.getId());
+        assertEquals(PayrollRun.RunStatus.COMPLETED, ledger.getStatus());
+        assertEquals(5, ledger.getCommittedCount());
+    }
+
+    @Test
+    @Order(21)
+    @DisplayName("21. A run whose ledger entry cannot be recorded fails without writing payrolls")
+    void testRunWithoutLedgerFails() {
+        InMemoryStorageEngine engine = new InMemoryStorageEngine();
+        EmployeeService employees = new EmployeeService(engine.employees());
+        employees.addEmployee(new Employee("Ledger", "Less", "ledger@example.com", "555-0000",
+                LocalDate.of(2020, 1, 1), "Finance", "Clerk", 45000));
+        PayrollRepository delegate = engine.payrolls();
+        PayrollRepository noLedger = (PayrollRepository) Proxy.newProxyInstance(PayrollRepository.class.getClassLoader(),
+                new Class<?>[]{PayrollRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("insertPayrollRun")) {
+                        return false;
+                    }
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+
+        PayrollJob job = new PayrollService(noLedger, employees)
+                .startPayrollRun(LocalDate.of(2041, 1, 1), LocalDate.of(2041, 1, 31), null);
+
+        assertThrows(IllegalStateException.class, job::await);
+        assertTrue(delegate.getAllPayrolls().isEmpty());
+    }
+
+    private static boolean workerThreadsAlive() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(thread -> thread.isAlive() && thread.getName().equals("payroll-worker"));
+    }
 }
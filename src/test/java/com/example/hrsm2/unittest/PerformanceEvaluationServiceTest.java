@@ -2,6 +2,7 @@ package com.example.hrsm2.unittest;
 
 import com.example.hrsm2.model.*;
 import com.example.hrsm2.service.PerformanceEvaluationService;
+import com.example.hrsm2.testutil.IsolatedDatabase;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -9,11 +10,13 @@ import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Order;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 
 @TestMethodOrder(OrderAnnotation.class)
+@IsolatedDatabase
 class PerformanceEvaluationServiceTest {
 
     private PerformanceEvaluationService operation;
@@ -64,12 +67,19 @@ class PerformanceEvaluationServiceTest {
     @Order(3)
     @DisplayName("3. Should get all evaluations")
     void getAllEvaluations() {
+        // The class runs against its own empty database, so provide an evaluation to list
+        PerformanceEvaluation eval = new PerformanceEvaluation("emp1", 4, "Strengths1", "Improvement1",
+                "Good", "Manager");
+        operation.addEvaluation(eval);
+
         // Retrieve all evaluations
         List<PerformanceEvaluation> evaluations = operation.getAllEvaluations();
 
         // Validate the list size and content
         assertNotNull(evaluations, "Evaluations list should not be null.");
         assertTrue(evaluations.size() > 0, "There should be at least 1 evaluation.");
+
+        operation.deleteEvaluation(eval.getId());
     }
 
     @ParameterizedTest
@@ -230,5 +240,49 @@ class PerformanceEvaluationServiceTest {
 
     }
 
+    @Test
+    @Order(10)
+    @DisplayName("10. Should keep rating aggregates in step with evaluation changes")
+    void ratingStatsFollowEvaluationChanges() {
+        String employeeId = "stats-" + System.nanoTime();
+        int companyCountBefore = operation.getCompanyRatingStats().getEvaluationCount();
+
+        PerformanceEvaluation eval1 = new PerformanceEvaluation(employeeId, 2, "Strengths", "Improvement", "Fair", "Manager");
+        eval1.setEvaluationDate(LocalDate.of(2024, 3, 1));
+        PerformanceEvaluation eval2 = new PerformanceEvaluation(employeeId, 5, "Strengths", "Improvement", "Great", "Manager");
+        eval2.setEvaluationDate(LocalDate.of(2024, 6, 1));
+        operation.addEvaluation(eval1);
+        operation.addEvaluation(eval2);
+
+        RatingStats stats = operation.getRatingStatsForEmployee(employeeId);
+        assertNotNull(stats, "Stats should exist once the employee is evaluated.");
+        assertEquals(2, stats.getEvaluationCount());
+        assertEquals(3.5, stats.getAverageRating(), 0.001);
+        assertEquals(2, stats.getMinRating());
+        assertEquals(5, stats.getMaxRating());
+        assertEquals(LocalDate.of(2024, 6, 1), stats.getLastEvaluationDate());
+        assertEquals(Map.of(2, 1, 5, 1), stats.getDistribution());
+        assertEquals(3.5, operation.getAverageRatingsByEmployee().get(employeeId), 0.001);
+        assertEquals(companyCountBefore + 2, operation.getCompanyRatingStats().getEvaluationCount());
+
+        // Lowering the top rating moves the maximum and the distribution
+        PerformanceEvaluation loaded = operation.getEvaluationById(eval2.getId());
+        loaded.setPerformanceRating(3);
+        operation.updateEvaluation(loaded);
+        stats = operation.getRatingStatsForEmployee(employeeId);
+        assertEquals(2.5, stats.getAverageRating(), 0.001);
+        assertEquals(3, stats.getMaxRating());
+        assertEquals(Map.of(2, 1, 3, 1), stats.getDistribution());
+
+        // Removing the latest evaluation moves the last evaluation date back
+        operation.deleteEvaluation(eval2.getId());
+        stats = operation.getRatingStatsForEmployee(employeeId);
+        assertEquals(1, stats.getEvaluationCount());
+        assertEquals(LocalDate.of(2024, 3, 1), stats.getLastEvaluationDate());
 
+        operation.deleteEvaluation(eval1.getId());
+        assertNull(operation.getRatingStatsForEmployee(employeeId), "Stats should be removed with the last evaluation.");
+        assertEquals(0.0, operation.getAverageRatingForEmployee(employeeId));
+        assertEquals(companyCountBefore, operation.getCompanyRatingStats().getEvaluationCount());
+    }
 }
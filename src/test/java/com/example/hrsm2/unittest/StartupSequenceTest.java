@@ -0,0 +1,58 @@
+package com.example.hrsm2.unittest;
+
+import com.example.hrsm2.util.StartupSequence;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(OrderAnnotation.class)
+class StartupSequenceTest {
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Should run phases in order off the calling thread and open the gate")
+    void runsPhasesInOrder() throws Exception {
+        List<String> ran = new CopyOnWriteArrayList<>();
+        Thread caller = Thread.currentThread();
+        StartupSequence startup = new StartupSequence()
+                .addPhase("storage", () -> {
+                    assertNotSame(caller, Thread.currentThread());
+                    ran.add("storage");
+                })
+                .addPhase("sample data", () -> ran.add("sample data"));
+        assertFalse(startup.isReady());
+
+        startup.start();
+        startup.whenReady().get(5, TimeUnit.SECONDS);
+        assertTrue(startup.isReady());
+        assertEquals(List.of("storage", "sample data"), ran);
+        assertEquals(List.of("storage", "sample data"), List.copyOf(startup.getPhaseTimings().keySet()));
+        assertTrue(startup.report().contains("ready after"));
+        assertThrows(IllegalStateException.class, () -> startup.addPhase("late", () -> { }));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Should stop at a failing phase and fail the gate")
+    void failingPhaseFailsGate() {
+        List<String> ran = new CopyOnWriteArrayList<>();
+        StartupSequence startup = new StartupSequence()
+                .addPhase("storage", () -> {
+                    throw new IllegalStateException("database locked");
+                })
+                .addPhase("sample data", () -> ran.add("sample data"));
+        startup.start();
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> startup.whenReady().get(5, TimeUnit.SECONDS));
+        assertEquals("database locked", failure.getCause().getMessage());
+        assertFalse(startup.isReady());
+        assertTrue(ran.isEmpty(), "Phases after a failure must not run.");
+    }
+}
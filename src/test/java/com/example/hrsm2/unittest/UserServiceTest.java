@@ -2,6 +2,7 @@ package com.example.hrsm2.unittest;
 
 import com.example.hrsm2.model.*;
 import com.example.hrsm2.service.UserService;
+import com.example.hrsm2.testutil.IsolatedDatabase;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
@@ -9,10 +10,13 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 
 @TestMethodOrder(OrderAnnotation.class)
+@IsolatedDatabase
 class UserServiceTest {
 
     private static UserService operation;
@@ -231,4 +235,21 @@ class UserServiceTest {
         assertTrue(operation.deleteUser(username), "User deletion should return true");
         assertFalse(operation.isUsernameTaken(username), "Username should not be taken after deletion");
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(12)
+    @DisplayName("12. Should list users by role")
+    void testGetUsersByRole() {
+        operation.createUser(user.getUsername(), user.getPassword(), user.getFullName(), user.getRole());
+
+        List<User> hrAdmins = operation.getUsersByRole(User.UserRole.HR_ADMIN);
+        assertTrue(hrAdmins.stream().anyMatch(u -> u.getUsername().equals(user.getUsername())));
+        assertTrue(hrAdmins.stream().allMatch(u -> u.getRole() == User.UserRole.HR_ADMIN));
+        assertTrue(operation.getUsersByRole(User.UserRole.SUPER_ADMIN).stream()
+                .anyMatch(u -> u.getUsername().equals("super")));
+
+        operation.deleteUser(user.getUsername());
+        assertTrue(operation.getUsersByRole(User.UserRole.HR_ADMIN).stream()
+                .noneMatch(u -> u.getUsername().equals(user.getUsername())));
+    }
+}
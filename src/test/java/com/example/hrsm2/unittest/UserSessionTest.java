@@ -0,0 +1,185 @@
+package com.example.hrsm2.unittest;
+
+import com.example.hrsm2.model.User;
+import com.example.hrsm2.repository.UserRepository;
+import com.example.hrsm2.repository.memory.InMemoryStorageEngine;
+import com.example.hrsm2.service.SessionManager;
+import com.example.hrsm2.service.UserService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(OrderAnnotation.class)
+class UserSessionTest {
+
+    private CountingUserRepository users;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        users = new CountingUserRepository(new InMemoryStorageEngine().users());
+        userService = new UserService(users);
+        assertTrue(userService.createUser("hr1", "secret1", "HR One", User.UserRole.HR_ADMIN));
+        assertTrue(userService.createUser("hr2", "secret2", "HR Two", User.UserRole.HR_ADMIN));
+        users.lookups.set(0);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. Should serve repeated lookups from the cache until a change invalidates them")
+    void cachesLookups() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(userService.isUsernameTaken("hr1"));
+            assertEquals("HR One", userService.getUserByUsername("hr1").getFullName());
+        }
+        assertEquals(1, users.lookups.get());
+
+        // Returned users are copies
+        userService.getUserByUsername("hr1").setFullName("Changed");
+        assertEquals("HR One", userService.getUserByUsername("hr1").getFullName());
+
+        assertEquals(List.of("hr1", "hr2"), usernames(userService.getUsersByRole(User.UserRole.HR_ADMIN)));
+        assertEquals(List.of("super"), usernames(userService.getUsersByRole(User.UserRole.SUPER_ADMIN)));
+        assertTrue(userService.deleteUser("hr2"));
+        assertFalse(userService.isUsernameTaken("hr2"));
+        assertEquals(List.of("hr1"), usernames(userService.getUsersByRole(User.UserRole.HR_ADMIN)));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. Should load a missing user once when many callers ask at the same time")
+    void singleFlightLoads() throws Exception {
+        users.lookupDelayMillis = 100;
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<User>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return userService.getUserByUsername("hr1");
+                }));
+            }
+            start.countDown();
+            for (Future<User> result : results) {
+                assertEquals("hr1", result.get(5, TimeUnit.SECONDS).getUsername());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, users.lookups.get());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Should keep concurrent sessions apart and end them on logout or deletion")
+    void concurrentSessions() {
+        SessionManager.Session first = userService.login("hr1", "secret1");
+        SessionManager.Session second = userService.login("hr1", "secret1");
+        SessionManager.Session other = userService.login("hr2", "secret2");
+        assertNull(userService.login("hr2", "wrong"));
+        assertNotEquals(first.token(), second.token());
+        assertEquals("hr2", userService.getSessionUser(other.token()).getUsername());
+        assertNull(userService.getCurrentUser(), "Server logins must not change the window's user.");
+
+        assertNotNull(userService.authenticate("super", "super123"));
+        assertEquals("super", userService.getCurrentUser().getUsername());
+        assertEquals(4, userService.getSessions().getActiveSessionCount());
+
+        assertTrue(userService.logout(first.token()));
+        assertNull(userService.getSessionUser(first.token()));
+        assertEquals("hr1", userService.getSessionUser(second.token()).getUsername());
+
+        assertTrue(userService.deleteUser("hr1"));
+        assertNull(userService.getSessionUser(second.token()));
+        assertEquals("hr2", userService.getSessionUser(other.token()).getUsername());
+
+        userService.logout();
+        assertNull(userService.getCurrentUser());
+        assertEquals(1, userService.getSessions().getActiveSessionCount());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. Should expire idle sessions")
+    void expiresIdleSessions() throws Exception {
+        SessionManager sessions = new SessionManager(Duration.ofMillis(50));
+        SessionManager.Session session = sessions.open("hr1");
+        assertSame(session, sessions.get(session.token()));
+        Thread.sleep(120);
+        assertNull(sessions.get(session.token()));
+        assertEquals(0, sessions.getActiveSessionCount());
+    }
+
+    private static List<String> usernames(List<User> list) {
+        return list.stream().map(User::getUsername).toList();
+    }
+
+    /**
+     * Counts single-user lookups so tests can see which ones reached the repository.
+     */
+    private static final class CountingUserRepository implements UserRepository {
+        private final UserRepository delegate;
+        private final AtomicInteger lookups = new AtomicInteger();
+        private volatile long lookupDelayMillis;
+
+        CountingUserRepository(UserRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean insertUser(String username, String fullName, String plainPassword, String role) {
+            return delegate.insertUser(username, fullName, plainPassword, role);
+        }
+
+        @Override
+        public User getUserByUsername(String username) {
+            lookups.incrementAndGet();
+            if (lookupDelayMillis > 0) {
+                try {
+                    Thread.sleep(lookupDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return delegate.getUserByUsername(username);
+        }
+
+        @Override
+        public List<User> getAllUsers() {
+            return delegate.getAllUsers();
+        }
+
+        @Override
+        public List<User> getUsersByRole(User.UserRole role) {
+            return delegate.getUsersByRole(role);
+        }
+
+        @Override
+        public boolean updateUser(User user) {
+            return delegate.updateUser(user);
+        }
+
+        @Override
+        public boolean updatePasswordHash(String username, String expectedHash, String newHash) {
+            return delegate.updatePasswordHash(username, expectedHash, newHash);
+        }
+
+        @Override
+        public boolean deleteUser(String username) {
+            return delegate.deleteUser(username);
+        }
+    }
+}
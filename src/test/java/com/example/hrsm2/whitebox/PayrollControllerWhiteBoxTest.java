@@ -137,6 +137,21 @@ public class PayrollControllerWhiteBoxTest {
         verify(payrollService).markPayrollAsPaid("p1");
     }
 
+    @Test
+    @DisplayName("processAll & payAll ‑ bulk transition delegation")
+    void bulkProcessAndPayPayrolls() {
+        LocalDate start = LocalDate.of(2025, 4, 1);
+        LocalDate end = LocalDate.of(2025, 4, 30);
+        when(payrollService.processAllPendingPayrolls(start, end)).thenReturn(List.of("p1", "p2"));
+        when(payrollService.markAllProcessedPayrollsAsPaid(start, end)).thenReturn(List.of("p1"));
+
+        assertEquals(List.of("p1", "p2"), controller.processAllPendingPayrolls(start, end));
+        assertEquals(List.of("p1"), controller.markAllProcessedPayrollsAsPaid(start, end));
+
+        verify(payrollService).processAllPendingPayrolls(start, end);
+        verify(payrollService).markAllProcessedPayrollsAsPaid(start, end);
+    }
+
     /* --------------------------------------------------------------------- */
     /* Pure logic methods (no mocks)                                        */
     /* --------------------------------------------------------------------- */
@@ -7,6 +7,7 @@ import com.example.hrsm2.model.User;
 import com.example.hrsm2.service.EmployeeService;
 import com.example.hrsm2.service.PerformanceEvaluationService;
 import com.example.hrsm2.service.UserService;
+import com.example.hrsm2.util.UpdateResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -184,6 +185,25 @@ public class PerformanceControllerWhiteBoxTest {
         verify(mockEvaluationService).addEvaluation(any(PerformanceEvaluation.class));
     }
 
+    @Test
+    @DisplayName("Test addEvaluation records the reviewer who logged in after the controller was created")
+    void testAddEvaluationAfterReLogin() {
+        // Arrange: another HR admin logs in while the cached view keeps this controller
+        User nextUser = new User("hr2", "pass", "Second Reviewer", User.UserRole.HR_ADMIN);
+        when(mockUserService.getCurrentUser()).thenReturn(nextUser);
+        when(mockEmployeeService.getEmployeeById(employeeId)).thenReturn(existingEmployee);
+        ArgumentCaptor<PerformanceEvaluation> saved = ArgumentCaptor.forClass(PerformanceEvaluation.class);
+
+        // Act
+        assertEquals(nextUser, controller.refreshCurrentUser());
+        boolean result = controller.addEvaluation(employeeId, LocalDate.now(), 4, "Strong Skills", "Needs improvement on X", "");
+
+        // Assert
+        assertTrue(result);
+        verify(mockEvaluationService).addEvaluation(saved.capture());
+        assertEquals("Second Reviewer", saved.getValue().getReviewedBy());
+    }
+
     @Test
     @DisplayName("Test addEvaluation failure when employee doesn't exist")
     void testAddEvaluationFailureNoEmployee() throws Exception {
@@ -227,6 +247,46 @@ public class PerformanceControllerWhiteBoxTest {
         verify(mockEvaluationService).updateEvaluation(any(PerformanceEvaluation.class));
     }
 
+    @Test
+    @DisplayName("Test tryUpdateEvaluation reports a conflict when the shown evaluation is stale")
+    void testTryUpdateEvaluationConflict() {
+        // Arrange: another user saved the evaluation after it was shown
+        PerformanceEvaluation stored = new PerformanceEvaluation();
+        stored.setId(evaluationId);
+        stored.setVersion(existingEvaluation.getVersion() + 1);
+        when(mockEmployeeService.getEmployeeById(employeeId)).thenReturn(existingEmployee);
+        when(mockEvaluationService.getEvaluationById(evaluationId)).thenReturn(stored);
+
+        // Act
+        UpdateResult result = controller.tryUpdateEvaluation(existingEvaluation, employeeId, LocalDate.now(), 2,
+                "Strengths", "Improvements", "Comments");
+
+        // Assert
+        assertEquals(UpdateResult.CONFLICT, result);
+        assertEquals(4, existingEvaluation.getPerformanceRating(), "The shown evaluation must not be edited.");
+        verify(mockEvaluationService, never()).tryUpdateEvaluation(any());
+    }
+
+    @Test
+    @DisplayName("Test tryUpdateEvaluation saves a fresh copy with the service result")
+    void testTryUpdateEvaluationSuccess() {
+        // Arrange
+        PerformanceEvaluation stored = new PerformanceEvaluation();
+        stored.setId(evaluationId);
+        when(mockEmployeeService.getEmployeeById(employeeId)).thenReturn(existingEmployee);
+        when(mockEvaluationService.getEvaluationById(evaluationId)).thenReturn(stored);
+        when(mockEvaluationService.tryUpdateEvaluation(stored)).thenReturn(UpdateResult.UPDATED);
+
+        // Act
+        UpdateResult result = controller.tryUpdateEvaluation(existingEvaluation, employeeId, LocalDate.now(), 2,
+                "Strengths", "Improvements", "Comments");
+
+        // Assert
+        assertEquals(UpdateResult.UPDATED, result);
+        assertEquals(2, stored.getPerformanceRating());
+        assertEquals("Mock User", stored.getReviewedBy());
+    }
+
     @Test
     @DisplayName("Test updateEvaluation fails when evaluation not found")
     void testUpdateEvaluationNotFound() {
@@ -65,13 +65,13 @@ public class UserControllerWhiteBoxTest {
     }
 
     /**
-     * Test getAllHrAdminUsers() - verify it filters correctly
-     * This tests the control flow and filtering logic
+     * Test getAllHrAdminUsers() - verify it asks the service for HR_ADMIN users only
+     * This tests the control flow: filtering happens in the role query, not over all users
      */
     @Test
     public void testGetAllHrAdminUsers() {
         // Arrange
-        when(userService.getAllUsers()).thenReturn(users);
+        when(userService.getUsersByRole(UserRole.HR_ADMIN)).thenReturn(List.of(hrAdminUser));
         
         // Act
         List<User> hrAdminUsers = userController.getAllHrAdminUsers();
@@ -82,7 +82,8 @@ public class UserControllerWhiteBoxTest {
         assertEquals("hradmin", hrAdminUsers.get(0).getUsername());
         
         // Verify interaction
-        verify(userService, times(1)).getAllUsers();
+        verify(userService, times(1)).getUsersByRole(UserRole.HR_ADMIN);
+        verify(userService, never()).getAllUsers();
     }
     
     /**
@@ -92,7 +93,7 @@ public class UserControllerWhiteBoxTest {
     @Test
     public void testGetAllHrAdminUsersWithEmptyList() {
         // Arrange
-        when(userService.getAllUsers()).thenReturn(new ArrayList<>());
+        when(userService.getUsersByRole(UserRole.HR_ADMIN)).thenReturn(new ArrayList<>());
         
         // Act
         List<User> hrAdminUsers = userController.getAllHrAdminUsers();